@@ -0,0 +1,112 @@
+package ru.ibs.diploma.benchmark;
+
+import ru.ibs.diploma.data.ParkingColumns;
+import ru.ibs.diploma.data.Properties;
+import ru.ibs.diploma.generator.DatasetGenerator;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Входные данные бенчмарков заданного размера: файлы и наборы в памяти,
+ * построенные {@link DatasetGenerator} с постоянным зерном.
+ *
+ * <p>Файлы создаются в каталоге {@code target/jmh-data} (или {@code -Djmh.data.dir}) один раз
+ * на каждый размер и переиспользуются следующими запусками.
+ */
+final class BenchmarkData {
+
+    private static final long SEED = 20130403L;
+
+    /** Доля испорченных записей, как в {@link DatasetGenerator.Settings#of(int)}. */
+    private static final double MALFORMED_RATE = 0.001;
+
+    private static final int ZIP_CODES = 48;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * @param rows число штрафов
+     * @return CSV-файл штрафов
+     */
+    static Path parkingCsv(int rows) throws IOException {
+        return file("parking-" + rows + ".csv", file -> generator(rows, 0, ZIP_CODES).writeParkingCsv(file));
+    }
+
+    /**
+     * @param rows число штрафов
+     * @return JSON-файл с теми же штрафами, что и {@link #parkingCsv(int)}
+     */
+    static Path parkingJson(int rows) throws IOException {
+        return file("parking-" + rows + ".json", file -> generator(rows, 0, ZIP_CODES).writeParkingJson(file));
+    }
+
+    /**
+     * @param rows    число объектов недвижимости
+     * @param columns число столбцов файла, см. {@link DatasetGenerator#writePropertiesCsv(Path, int)}
+     * @return CSV-файл недвижимости
+     */
+    static Path propertiesCsv(int rows, int columns) throws IOException {
+        return file("properties-" + rows + "x" + columns + ".csv",
+                file -> generator(0, rows, ZIP_CODES).writePropertiesCsv(file, columns));
+    }
+
+    /**
+     * @return файл населения по всем ZIP-кодам
+     */
+    static Path populationTxt() throws IOException {
+        return file("population.txt", file -> generator(0, 0, ZIP_CODES).writePopulation(file));
+    }
+
+    /**
+     * @param tickets число штрафов
+     * @param zips    число ZIP-кодов
+     * @return штрафы в колоночном представлении
+     */
+    static ParkingColumns parking(int tickets, int zips) throws IOException {
+        return generator(tickets, 0, zips).parking();
+    }
+
+    /**
+     * @param count число объектов недвижимости
+     * @param zips  число ZIP-кодов
+     * @return объекты недвижимости
+     */
+    static List<Properties> properties(int count, int zips) {
+        return generator(0, count, zips).properties();
+    }
+
+    /**
+     * @param zips число ZIP-кодов
+     * @return численность населения по ZIP-кодам
+     */
+    static Map<String, BigDecimal> population(int zips) {
+        return generator(0, 0, zips).population();
+    }
+
+    private static DatasetGenerator generator(int tickets, int properties, int zips) {
+        return new DatasetGenerator(new DatasetGenerator.Settings(tickets, properties, zips, MALFORMED_RATE, SEED));
+    }
+
+    private interface Content {
+        void write(Path file) throws IOException;
+    }
+
+    private static Path file(String name, Content content) throws IOException {
+        Path directory = Path.of(System.getProperty("jmh.data.dir", "target/jmh-data"));
+        Path file = directory.resolve(name);
+        if (Files.isRegularFile(file)) return file;
+
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, name, ".tmp");
+        content.write(temporary);
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return file;
+    }
+}
@@ -0,0 +1,69 @@
+package ru.ibs.diploma.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Запуск бенчмарков JMH с профилировщиком памяти.
+ *
+ * <p>Принимает обычные аргументы JMH (шаблон имени, {@code -p rows=1000000}, {@code -f}, {@code -wi} и т. д.).
+ * После стандартного отчёта печатает сводку: основной результат и, для бенчмарков чтения файлов,
+ * строки в секунду и выделенную память на одну строку. Память на строку считается как
+ * {@code gc.alloc.rate.norm} (байт на операцию), делённая на число строк в операции.
+ */
+public class BenchmarkRunner {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+    private static final String ROWS = "rows";
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        System.out.println();
+        System.out.printf("%-75s %18s %14s %14s%n", "Benchmark", "Score", "Rows/s", "Allocated");
+        for (RunResult result : results) {
+            Result<?> primary = result.getPrimaryResult();
+            Map<String, Result> secondary = result.getSecondaryResults();
+            Result<?> rows = secondary.get(ROWS);
+            Result<?> allocation = secondary.get(ALLOCATION);
+
+            String rowsPerSecond = "";
+            String bytesPerRow = "";
+            if (rows != null && rows.getScore() > 0) {
+                // в режиме Throughput основной результат – операции (файлы) в секунду
+                double rowsPerOperation = rows.getScore() / primary.getScore();
+                rowsPerSecond = String.format("%.0f", rows.getScore());
+                if (allocation != null) {
+                    bytesPerRow = String.format("%.1f B/row", allocation.getScore() / rowsPerOperation);
+                }
+            } else if (allocation != null) {
+                bytesPerRow = String.format("%.1f B/op", allocation.getScore());
+            }
+
+            System.out.printf("%-75s %18s %14s %14s%n", label(result),
+                    String.format("%.3f %s", primary.getScore(), primary.getScoreUnit()), rowsPerSecond, bytesPerRow);
+        }
+    }
+
+    private static String label(RunResult result) {
+        String benchmark = result.getParams().getBenchmark();
+        String name = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+        String params = result.getParams().getParamsKeys().stream()
+                .map(key -> key + "=" + result.getParams().getParam(key))
+                .collect(Collectors.joining(","));
+        return params.isEmpty() ? name : name + " (" + params + ")";
+    }
+}
@@ -0,0 +1,54 @@
+package ru.ibs.diploma.benchmark;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import ru.ibs.diploma.data.Parking;
+import ru.ibs.diploma.datamanagement.ReadParking;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Прежнее чтение {@code parking.json} через {@code json-simple}: весь файл разбирается
+ * в дерево {@link JSONArray}, затем каждый объект превращается в {@link Parking}.
+ * Оставлено только как база для сравнения с потоковым {@link ReadParking#readJsonParking()}.
+ */
+final class JsonSimpleParkingReader {
+
+    private JsonSimpleParkingReader() {
+    }
+
+    /**
+     * @param file   JSON-файл штрафов
+     * @param reader читатель, чьей проверкой строк {@link ReadParking#addParking(String[], List)}
+     *               создаются штрафы
+     * @return штрафы в списке, как до перехода на колоночное хранение
+     * @throws IOException при ошибке чтения или разбора
+     */
+    static List<Parking> read(String file, ReadParking reader) throws IOException {
+        JSONArray array;
+        try (FileReader in = new FileReader(file)) {
+            array = (JSONArray) new JSONParser().parse(in);
+        } catch (ParseException e) {
+            throw new IOException("Couldn't read file: " + e.getMessage());
+        }
+
+        List<Parking> result = new ArrayList<>();
+        for (Object element : array) {
+            JSONObject object = (JSONObject) element;
+            String[] line = {object.get("date").toString(),
+                    object.get("fine").toString(),
+                    object.get("violation").toString(),
+                    object.get("plate_id").toString(),
+                    object.get("state").toString(),
+                    object.get("ticket_number").toString(),
+                    object.get("zip_code").toString()};
+            reader.addParking(line, result);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,124 @@
+package ru.ibs.diploma.benchmark;
+
+import ru.ibs.diploma.cache.Answer;
+import ru.ibs.diploma.cache.CachedAnswerInterface;
+import ru.ibs.diploma.cache.CachedAnswerInterface.SourcedAnswer;
+import ru.ibs.diploma.cache.SecondAnswer;
+import ru.ibs.diploma.cache.Statistics;
+import ru.ibs.diploma.cache.SurpriseAnswer;
+import ru.ibs.diploma.data.Field;
+import ru.ibs.diploma.data.FileNames;
+import ru.ibs.diploma.data.Parking;
+import ru.ibs.diploma.data.ParkingColumns;
+import ru.ibs.diploma.data.Properties;
+import ru.ibs.diploma.data.PropertiesIndex;
+import ru.ibs.diploma.datamanagement.DatasetSnapshots;
+import ru.ibs.diploma.service.AnalyseService;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Прежние ответы на вопросы 2 и 6 по списку {@link ArrayList} записей {@link Parking}:
+ * группировка в {@link HashMap} и подсчёт штрафов потоком по всему списку для каждого ZIP-кода.
+ * Оставлено только как база для сравнения с расчётом {@link AnalyseService} по {@link ParkingColumns};
+ * средние стоимости недвижимости для вопроса 6 берутся из {@link PropertiesIndex}, как в сервисе,
+ * поэтому варианты различаются только хранением штрафов.
+ *
+ * <p>Ответы кэшируются в том же {@link CachedAnswerInterface} и под теми же номерами, что и
+ * в {@link AnalyseService}; при промахе памяти снимается отпечаток входных файлов.
+ */
+final class ListParkingQuestions {
+
+    private final List<Parking> parking;
+    private final Map<String, BigDecimal> population;
+    private final PropertiesIndex propertiesIndex;
+    private final CachedAnswerInterface answers;
+    private final FileNames fileNames;
+
+    /**
+     * @param parking         штрафы; копируются в {@link ArrayList}
+     * @param population      численность населения по ZIP-кодам
+     * @param properties      объекты недвижимости; по ним строится {@link PropertiesIndex}
+     * @param answers         кэш ответов
+     * @param fileNames       входные файлы, по которым снимается отпечаток
+     */
+    ListParkingQuestions(List<Parking> parking, Map<String, BigDecimal> population,
+                         List<Properties> properties, CachedAnswerInterface answers, FileNames fileNames) {
+        this.parking = new ArrayList<>(parking);
+        this.population = new TreeMap<>(population);
+        this.propertiesIndex = PropertiesIndex.of(properties);
+        this.answers = answers;
+        this.fileNames = fileNames;
+    }
+
+    /**
+     * @return то же, что {@link AnalyseService#totalParkingFinesPerCapita()}
+     * @throws IOException при ошибке чтения файлов
+     */
+    Answer totalParkingFinesPerCapita() throws IOException {
+        Supplier<String> source = () -> source(fileNames.getPopulationFile(), fileNames.getParkingFile());
+        return answers.computeIfAbsent(2, source, () -> {
+            Map<String, long[]> finesByCode = new HashMap<>();
+            for (Parking p : parking) {
+                if (p.postIndex() == null || !"PA".equals(p.state())) continue;
+                finesByCode.computeIfAbsent(p.postIndex(), code -> new long[1])[0] += p.moneyAmount();
+            }
+
+            Map<String, BigDecimal> result = new TreeMap<>();
+            for (Map.Entry<String, BigDecimal> entry : population.entrySet()) {
+                if (entry.getValue().equals(BigDecimal.ZERO)) continue;
+                long[] total = finesByCode.get(entry.getKey());
+                if (total == null || total[0] == 0) continue;
+                result.put(entry.getKey(), BigDecimal.valueOf(total[0]).divide(entry.getValue(), 4, RoundingMode.DOWN));
+            }
+            return new SourcedAnswer(new SecondAnswer(result), source.get());
+        });
+    }
+
+    /**
+     * @return то же, что {@link AnalyseService#surpriseOption()}
+     * @throws IOException при ошибке чтения файлов
+     */
+    Answer surpriseOption() throws IOException {
+        Supplier<String> source = () -> source(fileNames.getPopulationFile(), fileNames.getParkingFile(),
+                fileNames.getPropertiesFile());
+        return answers.computeIfAbsent(6, source, () -> {
+            Map<String, Statistics> result = new HashMap<>();
+            for (String code : population.keySet()) {
+                long numOfFines = parking.stream()
+                        .filter(p -> (p.postIndex() != null) && (p.postIndex().equalsIgnoreCase(code))).count();
+
+                BigDecimal avgFines = BigDecimal.ZERO;
+                if (numOfFines != 0 && population.get(code) != null) {
+                    avgFines = BigDecimal.valueOf(numOfFines).divide(population.get(code), 4, RoundingMode.DOWN);
+                }
+
+                BigDecimal avgProperties = propertiesIndex.average(code, Field.MARKET_VALUE);
+                result.put(code, new Statistics(avgProperties, avgFines));
+            }
+            return new SourcedAnswer(new SurpriseAnswer(result), source.get());
+        });
+    }
+
+    /** Отпечаток файлов, как его снимает {@link AnalyseService}: по атрибутам каждого файла. */
+    private static String source(String... files) {
+        StringJoiner joiner = new StringJoiner(";");
+        try {
+            for (String file : files) {
+                joiner.add(DatasetSnapshots.fingerprint(file));
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return joiner.toString();
+    }
+}
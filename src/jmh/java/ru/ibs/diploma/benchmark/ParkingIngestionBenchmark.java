@@ -0,0 +1,98 @@
+package ru.ibs.diploma.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.ibs.diploma.data.FileNames;
+import ru.ibs.diploma.data.Parking;
+import ru.ibs.diploma.data.SafeCast;
+import ru.ibs.diploma.datamanagement.ReadParking;
+import ru.ibs.diploma.logging.WriteLogService;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Чтение файла штрафов {@link ReadParking}: CSV последовательно, CSV по частям
+ * в несколько потоков и JSON. Одна операция – чтение всего файла; счётчик
+ * {@link RowCounter#rows} даёт строки в секунду. {@link #jsonDom} – прежний разбор JSON
+ * в дерево {@code json-simple}, база для сравнения с потоковым {@link #json}.
+ *
+ * <p>Снимки {@code DatasetSnapshots} не используются: измеряется разбор текста.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ParkingIngestionBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    private FileNames csvFiles;
+    private FileNames jsonFiles;
+    private WriteLogService writeLogService;
+    private final SafeCast safeCast = new SafeCast();
+
+    @Setup(Level.Trial)
+    public void createFiles() throws IOException {
+        csvFiles = fileNames("csv", BenchmarkData.parkingCsv(rows).toString());
+        jsonFiles = fileNames("json", BenchmarkData.parkingJson(rows).toString());
+        // журнал не задан: строки журнала отбрасываются, запись не влияет на результат
+        writeLogService = new WriteLogService(new FileNames());
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        writeLogService.close();
+    }
+
+    @Benchmark
+    public List<Parking> csv(RowCounter counter) throws IOException {
+        List<Parking> parking = new ReadParking(csvFiles, writeLogService, safeCast).readCsvParking();
+        counter.rows += parking.size();
+        return parking;
+    }
+
+    @Benchmark
+    public List<Parking> csvParallel(RowCounter counter) throws IOException {
+        List<Parking> parking = new ReadParking(csvFiles, writeLogService, safeCast).readCsvParkingParallel();
+        counter.rows += parking.size();
+        return parking;
+    }
+
+    @Benchmark
+    public List<Parking> json(RowCounter counter) throws IOException {
+        List<Parking> parking = new ReadParking(jsonFiles, writeLogService, safeCast).readJsonParking();
+        counter.rows += parking.size();
+        return parking;
+    }
+
+    @Benchmark
+    public List<Parking> jsonDom(RowCounter counter) throws IOException {
+        List<Parking> parking = JsonSimpleParkingReader.read(jsonFiles.getParkingFile(),
+                new ReadParking(jsonFiles, writeLogService, safeCast));
+        counter.rows += parking.size();
+        return parking;
+    }
+
+    private static FileNames fileNames(String type, String file) {
+        FileNames fileNames = new FileNames();
+        fileNames.setParkingType(type);
+        fileNames.setParkingFile(file);
+        return fileNames;
+    }
+}
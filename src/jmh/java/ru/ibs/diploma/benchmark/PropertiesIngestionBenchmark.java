@@ -0,0 +1,81 @@
+package ru.ibs.diploma.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.ibs.diploma.data.FileNames;
+import ru.ibs.diploma.data.Properties;
+import ru.ibs.diploma.data.SafeCast;
+import ru.ibs.diploma.datamanagement.ReadPopulation;
+import ru.ibs.diploma.datamanagement.ReadProperties;
+import ru.ibs.diploma.logging.WriteLogService;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Чтение файлов недвижимости {@link ReadProperties} и населения {@link ReadPopulation}.
+ * Одна операция – чтение всего файла; счётчик {@link RowCounter#rows} даёт строки в секунду.
+ *
+ * <p>{@link #columns} – ширина файла недвижимости: 6 столбцов почти не оставляют работы выборке
+ * столбцов, 80 – как в настоящем файле OPA, где нужны только три.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PropertiesIngestionBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"6", "80"})
+    public int columns;
+
+    private FileNames fileNames;
+    private WriteLogService writeLogService;
+    private final SafeCast safeCast = new SafeCast();
+
+    @Setup(Level.Trial)
+    public void createFiles() throws IOException {
+        fileNames = new FileNames();
+        fileNames.setPropertiesFile(BenchmarkData.propertiesCsv(rows, columns).toString());
+        fileNames.setPopulationFile(BenchmarkData.populationTxt().toString());
+        writeLogService = new WriteLogService(new FileNames());
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        writeLogService.close();
+    }
+
+    @Benchmark
+    public List<Properties> properties(RowCounter counter) throws IOException {
+        List<Properties> properties = new ReadProperties(fileNames, writeLogService, safeCast)
+                .readFile(Properties.class);
+        counter.rows += properties.size();
+        return properties;
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> population(RowCounter counter) throws IOException {
+        Map<String, BigDecimal> population = new ReadPopulation(fileNames, writeLogService).readFile();
+        counter.rows += population.size();
+        return population;
+    }
+}
@@ -0,0 +1,223 @@
+package ru.ibs.diploma.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileSystemUtils;
+import ru.ibs.diploma.cache.Answer;
+import ru.ibs.diploma.cache.CachedAnswers;
+import ru.ibs.diploma.cache.PersistentAnswers;
+import ru.ibs.diploma.data.Field;
+import ru.ibs.diploma.data.FileNames;
+import ru.ibs.diploma.data.Parking;
+import ru.ibs.diploma.data.ParkingColumns;
+import ru.ibs.diploma.data.Properties;
+import ru.ibs.diploma.datamanagement.ReadParking;
+import ru.ibs.diploma.datamanagement.ReadPopulation;
+import ru.ibs.diploma.datamanagement.ReadProperties;
+import ru.ibs.diploma.service.AnalyseService;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Вопросы {@link AnalyseService} на наборах данных в памяти.
+ *
+ * <p>Данные строятся {@link BenchmarkData} и подставляются вместо чтения файлов, поэтому
+ * измеряется только расчёт ответа. Имена файлов в {@link FileNames} указывают на настоящие
+ * временные файлы, а кэш подключён к {@link PersistentAnswers} без каталога: промах памяти
+ * снимает отпечаток файлов, как в приложении, но ответы не пишутся на диск. Для каждого вопроса
+ * есть два бенчмарка:
+ * <ul>
+ *   <li>{@code cold*} – ответ удаляется из кэша перед каждым вызовом и рассчитывается заново;</li>
+ *   <li>{@code warm*} – ответ уже в кэше, измеряется обращение к кэшу.</li>
+ * </ul>
+ * Размер задаётся параметрами {@code tickets} (число штрафов) и {@code zips} (число ZIP-кодов);
+ * объектов недвижимости в 16 раз меньше, чем штрафов. Для десятков миллионов штрафов
+ * нужен запуск вида {@code -p tickets=20000000 -jvmArgsAppend -Xmx8g}.
+ *
+ * <p>Параметр {@code storage} задаёт хранение штрафов для вопросов 2 и 6: {@code columns} –
+ * {@link ParkingColumns} в {@link AnalyseService}, {@code list} – прежний расчёт по
+ * {@link java.util.ArrayList} потоками ({@link ListParkingQuestions}). Остальные вопросы
+ * штрафов не касаются и от параметра не зависят.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class QuestionsBenchmark {
+
+    private static final List<Integer> QUESTION_1 = List.of(1);
+    private static final List<Integer> QUESTION_2 = List.of(2);
+    private static final List<Integer> QUESTION_3 = List.of(3);
+    private static final List<Integer> QUESTION_5 = List.of(5);
+    private static final List<Integer> QUESTION_6 = List.of(6);
+
+    @Param({"10000", "1000000"})
+    public int tickets;
+
+    @Param({"48"})
+    public int zips;
+
+    @Param({"columns", "list"})
+    public String storage;
+
+    private Path directory;
+    private CachedAnswers answers;
+    private AnalyseService analyseService;
+    private ListParkingQuestions listQuestions;
+    private String[] zipCodes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void loadDatasets() throws IOException {
+        ParkingColumns parking = BenchmarkData.parking(tickets, zips);
+        List<Properties> properties = BenchmarkData.properties(Math.max(tickets / 16, zips), zips);
+        Map<String, BigDecimal> population = BenchmarkData.population(zips);
+        zipCodes = population.keySet().toArray(String[]::new);
+
+        // содержимое не читается: файлы нужны только для отпечатка по их атрибутам
+        directory = Files.createTempDirectory("questions-benchmark");
+        FileNames fileNames = new FileNames();
+        fileNames.setPopulationFile(Files.writeString(directory.resolve("population.txt"), "").toString());
+        fileNames.setParkingType("csv");
+        fileNames.setParkingFile(Files.writeString(directory.resolve("parking.csv"), "").toString());
+        fileNames.setPropertiesFile(Files.writeString(directory.resolve("properties.csv"), "").toString());
+
+        // размеры кэша по ZIP-кодам – как в application.properties по умолчанию
+        answers = new CachedAnswers(10_000, Duration.ofHours(1), new PersistentAnswers(""));
+        analyseService = new AnalyseService(
+                new ReadPopulation(fileNames) {
+                    @Override
+                    public Map<String, BigDecimal> readFile() {
+                        return population;
+                    }
+                },
+                new ReadParking(fileNames) {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public <T> List<T> readFile(Class<T> type) {
+                        return (List<T>) parking;
+                    }
+                },
+                new ReadProperties(fileNames) {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public <T> List<T> readFile(Class<T> type) {
+                        return (List<T>) properties;
+                    }
+                },
+                answers);
+        ReflectionTestUtils.setField(analyseService, "fileNames", fileNames);
+        listQuestions = "list".equals(storage)
+                ? new ListParkingQuestions(parking, population, properties, answers, fileNames)
+                : null;
+
+        // загрузка наборов и первый расчёт всех ответов – вне измерений
+        surpriseOption();
+        analyseService.totalPopulation();
+        totalParkingFinesPerCapita();
+        for (String zipCode : zipCodes) {
+            analyseService.averageProperties(zipCode, Field.LIVABLE_AREA);
+            analyseService.totalMarketValuePerCapita(zipCode);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    private Answer totalParkingFinesPerCapita() throws IOException {
+        return listQuestions != null ? listQuestions.totalParkingFinesPerCapita() : analyseService.totalParkingFinesPerCapita();
+    }
+
+    private Answer surpriseOption() throws IOException {
+        return listQuestions != null ? listQuestions.surpriseOption() : analyseService.surpriseOption();
+    }
+
+    private String nextZipCode() {
+        String zipCode = zipCodes[next];
+        next = next + 1 == zipCodes.length ? 0 : next + 1;
+        return zipCode;
+    }
+
+    /* ----------- без кэша ----------- */
+
+    @Benchmark
+    public Answer coldTotalPopulation() throws IOException {
+        answers.invalidate(QUESTION_1);
+        return analyseService.totalPopulation();
+    }
+
+    @Benchmark
+    public Answer coldTotalParkingFinesPerCapita() throws IOException {
+        answers.invalidate(QUESTION_2);
+        return totalParkingFinesPerCapita();
+    }
+
+    @Benchmark
+    public Answer coldAverageProperties() throws IOException {
+        answers.invalidate(QUESTION_3);
+        return analyseService.averageProperties(nextZipCode(), Field.MARKET_VALUE);
+    }
+
+    @Benchmark
+    public Answer coldTotalMarketValuePerCapita() throws IOException {
+        answers.invalidate(QUESTION_5);
+        return analyseService.totalMarketValuePerCapita(nextZipCode());
+    }
+
+    /** Средние стоимости по ZIP-кодам берутся из индекса недвижимости, кэш вопроса 3 не участвует. */
+    @Benchmark
+    public Answer coldSurpriseOption() throws IOException {
+        answers.invalidate(QUESTION_6);
+        return surpriseOption();
+    }
+
+    /* ----------- из кэша ----------- */
+
+    @Benchmark
+    public Answer warmTotalPopulation() throws IOException {
+        return analyseService.totalPopulation();
+    }
+
+    @Benchmark
+    public Answer warmTotalParkingFinesPerCapita() throws IOException {
+        return totalParkingFinesPerCapita();
+    }
+
+    @Benchmark
+    public Answer warmAverageProperties() throws IOException {
+        return analyseService.averageProperties(nextZipCode(), Field.LIVABLE_AREA);
+    }
+
+    @Benchmark
+    public Answer warmTotalMarketValuePerCapita() throws IOException {
+        return analyseService.totalMarketValuePerCapita(nextZipCode());
+    }
+
+    @Benchmark
+    public Answer warmSurpriseOption() throws IOException {
+        return surpriseOption();
+    }
+}
@@ -0,0 +1,110 @@
+package ru.ibs.diploma.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.ibs.diploma.data.SafeCast;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отдельные методы {@link SafeCast} на строках файла штрафов и недвижимости.
+ * Строки перебираются по кругу, среди них есть пустые и неверные значения,
+ * поэтому JIT не может свернуть вызов в константу.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SafeCastBenchmark {
+
+    private static final int LINES = 1024;
+
+    private final SafeCast safeCast = new SafeCast();
+
+    /** Строки вида {@code timestamp, fine, reason, carId, state, violationId, zip, marketValue}. */
+    private String[][] lines;
+    private int next;
+
+    @Setup
+    public void createLines() {
+        Random random = new Random(42);
+        lines = new String[LINES][];
+        for (int i = 0; i < LINES; i++) {
+            boolean malformed = random.nextInt(50) == 0;
+            lines[i] = new String[]{
+                    malformed ? "2013-13-03T15:15:00Z" : Instant.ofEpochSecond(1_356_998_400L + random.nextInt(31_536_000)).toString(),
+                    malformed ? "" : Integer.toString(26 + random.nextInt(300)),
+                    "METER EXPIRED CC",
+                    malformed ? "n/a" : Integer.toString(1_000_000 + random.nextInt(1_000_000)),
+                    "PA",
+                    Integer.toString(2_900_000 + i),
+                    (19102 + random.nextInt(53)) + "-" + (1000 + random.nextInt(9000)),
+                    malformed ? "" : (50_000 + random.nextInt(500_000)) + "." + random.nextInt(100)
+            };
+        }
+    }
+
+    private String[] nextLine() {
+        return lines[next++ & (LINES - 1)];
+    }
+
+    @Benchmark
+    public String safeGetString() {
+        return safeCast.safeGetString(nextLine(), 2);
+    }
+
+    @Benchmark
+    public int safeGetInt() {
+        return safeCast.safeGetInt(nextLine(), 1);
+    }
+
+    @Benchmark
+    public long safeGetLong() {
+        return safeCast.safeGetLong(nextLine(), 3);
+    }
+
+    @Benchmark
+    public Instant safeGetInstance() {
+        return safeCast.safeGetInstance(nextLine(), 0);
+    }
+
+    @Benchmark
+    public long safeGetEpochSecond() {
+        return safeCast.safeGetEpochSecond(nextLine(), 0);
+    }
+
+    @Benchmark
+    public BigDecimal safeGetBigDecimal() {
+        return safeCast.safeGetBigDecimal(nextLine(), 7);
+    }
+
+    @Benchmark
+    public String safeSubstring() {
+        return safeCast.safeSubstring(nextLine()[6], 5);
+    }
+
+    @Benchmark
+    public long parseLong() {
+        String value = nextLine()[5];
+        return SafeCast.parseLong(value, 0, value.length());
+    }
+
+    @Benchmark
+    public long parseEpochSecond() {
+        String value = nextLine()[0];
+        return SafeCast.parseEpochSecond(value, 0, value.length());
+    }
+}
@@ -0,0 +1,228 @@
+package ru.ibs.diploma.aggregation;
+
+import ru.ibs.diploma.data.ParkingColumns;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Агрегирование штрафов по произвольным измерениям за один проход по колонкам {@link ParkingColumns}.
+ *
+ * <p>Ключи измерений записи (см. {@link Dimension}) складываются в один составной ключ
+ * {@code long} по смешанной системе счисления. Если число возможных составных ключей не больше
+ * {@link #DENSE_LIMIT}, показатели накапливаются в массивах, индексированных самим ключом;
+ * иначе номер группы ищется в {@link LongIntHashMap}. В обоих случаях на запись не создаётся
+ * ни одного объекта: показатели хранятся в массивах {@code long[]} и {@code int[]}.
+ *
+ * <p>Фильтры по измерениям переводятся в таблицы допустимых ключей, поэтому проверка
+ * записи – обращение к массиву, а не сравнение строк.
+ */
+public final class AggregationEngine {
+
+    /** Наибольшее число составных ключей, для которого аккумуляторы выделяются сразу на все ключи. */
+    static final int DENSE_LIMIT = 1 << 16;
+
+    private AggregationEngine() {
+    }
+
+    /**
+     * Выполняет запрос над штрафами.
+     *
+     * @param parking штрафы
+     * @param query   запрос
+     * @return группы с числом, суммой, наименьшим, наибольшим и средним штрафом
+     */
+    public static AggregationResult aggregate(ParkingColumns parking, AggregationQuery query) {
+        Dimension[] dimensions = query.groupBy().toArray(Dimension[]::new);
+        long[] radixes = new long[dimensions.length];
+        long[] strides = new long[dimensions.length];
+        long keys = 1;
+        for (int i = 0; i < dimensions.length; i++) {
+            radixes[i] = dimensions[i].cardinality(parking) + 1L;
+            strides[i] = keys;
+            try {
+                keys = Math.multiplyExact(keys, radixes[i]);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Too many possible groups for dimensions " + query.groupBy());
+            }
+        }
+
+        Dimension[] filtered = query.filters().keySet().toArray(Dimension[]::new);
+        boolean[][] allowed = new boolean[filtered.length][];
+        for (int f = 0; f < filtered.length; f++) {
+            allowed[f] = allowedKeys(parking, filtered[f], query.filters().get(filtered[f]));
+        }
+
+        boolean hasPeriod = query.from() != null || query.to() != null;
+        long fromSecond = query.from() == null ? Long.MIN_VALUE : ceilSecond(query.from());
+        long toSecond = query.to() == null ? Long.MAX_VALUE : ceilSecond(query.to());
+
+        Accumulators accumulators = keys <= DENSE_LIMIT
+                ? new Accumulators((int) keys, null)
+                : new Accumulators(1024, new LongIntHashMap(1024));
+
+        int size = parking.size();
+        rows:
+        for (int row = 0; row < size; row++) {
+            if (hasPeriod) {
+                long epochSecond = parking.epochSecond(row);
+                if (epochSecond == ParkingColumns.NO_TIMESTAMP || epochSecond < fromSecond || epochSecond >= toSecond) {
+                    continue;
+                }
+            }
+            for (int f = 0; f < filtered.length; f++) {
+                if (!allowed[f][filtered[f].key(parking, row)]) continue rows;
+            }
+
+            long key = 0;
+            for (int i = 0; i < dimensions.length; i++) {
+                key += dimensions[i].key(parking, row) * strides[i];
+            }
+            accumulators.add(accumulators.slot(key), parking.fine(row));
+        }
+
+        return result(parking, query, dimensions, radixes, strides, accumulators);
+    }
+
+    private static AggregationResult result(ParkingColumns parking, AggregationQuery query, Dimension[] dimensions,
+                                            long[] radixes, long[] strides, Accumulators accumulators) {
+        List<Entry> entries = new ArrayList<>();
+        long total = 0;
+        for (int slot = 0; slot < accumulators.slots(); slot++) {
+            long count = accumulators.counts[slot];
+            if (count == 0) continue;
+            total += count;
+
+            long key = accumulators.key(slot);
+            int[] keys = new int[dimensions.length];
+            String[] labels = new String[dimensions.length];
+            for (int i = 0; i < dimensions.length; i++) {
+                keys[i] = (int) (key / strides[i] % radixes[i]);
+                labels[i] = dimensions[i].label(parking, keys[i]);
+            }
+            long sum = accumulators.sums[slot];
+            entries.add(new Entry(keys, new AggregationResult.Group(Arrays.asList(labels), count, sum,
+                    accumulators.mins[slot], accumulators.maxs[slot],
+                    BigDecimal.valueOf(sum).divide(BigDecimal.valueOf(count), 4, RoundingMode.DOWN))));
+        }
+
+        Comparator<Entry> byKey = keyOrder(dimensions);
+        entries.sort(query.orderBy() == null
+                ? byKey
+                : Comparator.comparing(Entry::group, query.orderBy().descending()).thenComparing(byKey));
+
+        int limit = query.limit() == 0 ? entries.size() : Math.min(query.limit(), entries.size());
+        List<AggregationResult.Group> groups = new ArrayList<>(limit);
+        for (int i = 0; i < limit; i++) {
+            groups.add(entries.get(i).group());
+        }
+        return new AggregationResult(query.groupBy(), groups, total);
+    }
+
+    /**
+     * Порядок групп по значениям измерений: строки по алфавиту, числа и дни недели по возрастанию,
+     * отсутствующие значения в конце.
+     */
+    private static Comparator<Entry> keyOrder(Dimension[] dimensions) {
+        return (a, b) -> {
+            for (int i = 0; i < dimensions.length; i++) {
+                int left = a.keys()[i];
+                int right = b.keys()[i];
+                if (left == right) continue;
+                if (left == 0) return 1;
+                if (right == 0) return -1;
+                return dimensions[i].isDictionary()
+                        ? a.group().key().get(i).compareTo(b.group().key().get(i))
+                        : Integer.compare(left, right);
+            }
+            return 0;
+        };
+    }
+
+    private static boolean[] allowedKeys(ParkingColumns parking, Dimension dimension, Set<String> values) {
+        boolean[] allowed = new boolean[dimension.cardinality(parking) + 1];
+        for (String value : values) {
+            int key = dimension.keyOf(parking, value);
+            if (key >= 0) allowed[key] = true;
+        }
+        return allowed;
+    }
+
+    /** Наименьшая целая секунда, не раньше указанного момента. */
+    private static long ceilSecond(Instant instant) {
+        return instant.getNano() == 0 ? instant.getEpochSecond() : instant.getEpochSecond() + 1;
+    }
+
+    /** Группа вместе с ключами измерений для сортировки. */
+    private record Entry(int[] keys, AggregationResult.Group group) {
+    }
+
+    /**
+     * Показатели групп в параллельных массивах. В плотном режиме номер ячейки равен составному
+     * ключу; в разреженном ячейки выдаются по порядку появления ключей.
+     */
+    private static final class Accumulators {
+
+        private final LongIntHashMap index;
+        private long[] keys;
+        private long[] counts;
+        private long[] sums;
+        private int[] mins;
+        private int[] maxs;
+        private int groups;
+
+        Accumulators(int capacity, LongIntHashMap index) {
+            this.index = index;
+            this.keys = index == null ? null : new long[capacity];
+            this.counts = new long[capacity];
+            this.sums = new long[capacity];
+            this.mins = new int[capacity];
+            this.maxs = new int[capacity];
+        }
+
+        int slot(long key) {
+            if (index == null) return (int) key;
+
+            int slot = index.putIfAbsent(key, groups);
+            if (slot == groups) {
+                if (groups == counts.length) grow();
+                keys[groups++] = key;
+            }
+            return slot;
+        }
+
+        void add(int slot, int fine) {
+            if (counts[slot]++ == 0) {
+                mins[slot] = fine;
+                maxs[slot] = fine;
+            } else {
+                if (fine < mins[slot]) mins[slot] = fine;
+                if (fine > maxs[slot]) maxs[slot] = fine;
+            }
+            sums[slot] += fine;
+        }
+
+        int slots() {
+            return index == null ? counts.length : groups;
+        }
+
+        long key(int slot) {
+            return index == null ? slot : keys[slot];
+        }
+
+        private void grow() {
+            int capacity = counts.length * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            sums = Arrays.copyOf(sums, capacity);
+            mins = Arrays.copyOf(mins, capacity);
+            maxs = Arrays.copyOf(maxs, capacity);
+        }
+    }
+}
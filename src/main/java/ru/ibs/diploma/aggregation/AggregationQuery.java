@@ -0,0 +1,108 @@
+package ru.ibs.diploma.aggregation;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Запрос агрегирования штрафов: измерения группировки, фильтры, сортировка и ограничение числа групп.
+ *
+ * <p>Запрос неизменяем; методы {@code where}, {@code between}, {@code orderBy} и {@code limit}
+ * возвращают новый запрос:
+ * <pre>
+ * AggregationQuery.groupBy(Dimension.ZIP, Dimension.HOUR)
+ *         .where(Dimension.STATE, "PA")
+ *         .between(Instant.parse("2013-01-01T00:00:00Z"), Instant.parse("2013-07-01T00:00:00Z"))
+ *         .orderBy(Metric.SUM)
+ *         .limit(10);
+ * </pre>
+ *
+ * @param groupBy измерения группировки; пустой список – одна группа со всеми штрафами
+ * @param filters допустимые значения измерений; запись проходит, если по каждому измерению
+ *                её значение входит в набор
+ * @param from    начало периода включительно; {@code null} – без ограничения
+ * @param to      конец периода не включительно; {@code null} – без ограничения
+ * @param orderBy показатель, по убыванию которого сортируются группы; {@code null} – по значениям измерений
+ * @param limit   наибольшее число групп в результате; {@code 0} – все
+ */
+public record AggregationQuery(List<Dimension> groupBy,
+                               Map<Dimension, Set<String>> filters,
+                               Instant from,
+                               Instant to,
+                               Metric orderBy,
+                               int limit) {
+
+    /** Наибольшее число измерений группировки. */
+    public static final int MAX_DIMENSIONS = 4;
+
+    public AggregationQuery {
+        groupBy = List.copyOf(groupBy);
+        if (groupBy.size() > MAX_DIMENSIONS) {
+            throw new IllegalArgumentException("At most " + MAX_DIMENSIONS + " dimensions can be grouped");
+        }
+        if (new LinkedHashSet<>(groupBy).size() != groupBy.size()) {
+            throw new IllegalArgumentException("Dimensions must not repeat: " + groupBy);
+        }
+        Map<Dimension, Set<String>> copy = new EnumMap<>(Dimension.class);
+        filters.forEach((dimension, values) -> copy.put(dimension, Set.copyOf(values)));
+        filters = Collections.unmodifiableMap(copy);
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Period start " + from + " is after its end " + to);
+        }
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative: " + limit);
+        }
+    }
+
+    /**
+     * @param dimensions измерения группировки
+     * @return запрос без фильтров
+     */
+    public static AggregationQuery groupBy(Dimension... dimensions) {
+        return new AggregationQuery(Arrays.asList(dimensions), Map.of(), null, null, null, 0);
+    }
+
+    /**
+     * @param dimension измерение
+     * @param values    допустимые значения; добавляются к уже заданным для этого измерения
+     * @return запрос с фильтром
+     */
+    public AggregationQuery where(Dimension dimension, String... values) {
+        Map<Dimension, Set<String>> merged = new EnumMap<>(Dimension.class);
+        merged.putAll(filters);
+        Set<String> allowed = new LinkedHashSet<>(merged.getOrDefault(dimension, Set.of()));
+        allowed.addAll(Arrays.asList(values));
+        merged.put(dimension, allowed);
+        return new AggregationQuery(groupBy, merged, from, to, orderBy, limit);
+    }
+
+    /**
+     * @param from начало периода включительно; {@code null} – без ограничения
+     * @param to   конец периода не включительно; {@code null} – без ограничения
+     * @return запрос с периодом
+     */
+    public AggregationQuery between(Instant from, Instant to) {
+        return new AggregationQuery(groupBy, filters, from, to, orderBy, limit);
+    }
+
+    /**
+     * @param metric показатель сортировки по убыванию; {@code null} – по значениям измерений
+     * @return запрос с сортировкой
+     */
+    public AggregationQuery orderBy(Metric metric) {
+        return new AggregationQuery(groupBy, filters, from, to, metric, limit);
+    }
+
+    /**
+     * @param limit наибольшее число групп; {@code 0} – все
+     * @return запрос с ограничением
+     */
+    public AggregationQuery limit(int limit) {
+        return new AggregationQuery(groupBy, filters, from, to, orderBy, limit);
+    }
+}
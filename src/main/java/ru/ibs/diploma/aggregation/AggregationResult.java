@@ -0,0 +1,46 @@
+package ru.ibs.diploma.aggregation;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Результат агрегирования: группы штрафов с показателями.
+ *
+ * @param dimensions измерения группировки в порядке запроса
+ * @param groups     группы; порядок задаётся {@link AggregationQuery#orderBy()}
+ * @param total      число штрафов, прошедших фильтры, во всех группах (в том числе отброшенных ограничением)
+ */
+public record AggregationResult(List<Dimension> dimensions, List<Group> groups, long total) {
+
+    /**
+     * Группа штрафов с одинаковыми значениями измерений.
+     *
+     * @param key     значения измерений в порядке {@link AggregationResult#dimensions()};
+     *                {@code null} – значения нет
+     * @param count   число штрафов
+     * @param sum     сумма штрафов
+     * @param min     наименьший штраф
+     * @param max     наибольший штраф
+     * @param average средний штраф, 4 знака после запятой
+     */
+    public record Group(List<String> key, long count, long sum, int min, int max, BigDecimal average) {
+    }
+
+    public AggregationResult {
+        dimensions = List.copyOf(dimensions);
+        groups = List.copyOf(groups);
+    }
+
+    /**
+     * @return группы по значениям измерений; ключ – список значений в порядке {@link #dimensions()}
+     */
+    public Map<List<String>, Group> byKey() {
+        Map<List<String>, Group> index = new HashMap<>(groups.size() * 2);
+        for (Group group : groups) {
+            index.put(group.key(), group);
+        }
+        return index;
+    }
+}
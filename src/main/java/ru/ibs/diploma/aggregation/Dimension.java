@@ -0,0 +1,211 @@
+package ru.ibs.diploma.aggregation;
+
+import ru.ibs.diploma.data.ParkingColumns;
+
+import java.time.DayOfWeek;
+import java.util.Locale;
+
+/**
+ * Измерение, по которому группируются и фильтруются штрафы.
+ *
+ * <p>Каждое измерение переводит запись {@link ParkingColumns} в небольшой целый ключ
+ * от {@code 0} до {@link #cardinality(ParkingColumns)} включительно. Ключ {@code 0}
+ * означает отсутствующее значение (нет ZIP-кода, не разобрано время и т. п.).
+ * Строковые измерения используют коды словаря хранилища, временные вычисляются
+ * из секунд эпохи в UTC без создания объектов даты.
+ */
+public enum Dimension {
+
+    /** ZIP-код. */
+    ZIP {
+        @Override
+        int key(ParkingColumns parking, int row) {
+            return parking.postIndexCode(row) + 1;
+        }
+    },
+
+    /** Причина штрафа. */
+    REASON {
+        @Override
+        int key(ParkingColumns parking, int row) {
+            return parking.reasonCode(row) + 1;
+        }
+    },
+
+    /** Штат регистрации автомобиля. */
+    STATE {
+        @Override
+        int key(ParkingColumns parking, int row) {
+            return parking.stateCode(row) + 1;
+        }
+    },
+
+    /** Сумма штрафа; суммы от {@code 0} до {@value #MAX_FINE}. */
+    FINE {
+        @Override
+        int key(ParkingColumns parking, int row) {
+            int fine = parking.fine(row);
+            return fine >= 0 && fine <= MAX_FINE ? fine + 1 : 0;
+        }
+    },
+
+    /** Год нарушения, от {@value #FIRST_YEAR} до {@value #LAST_YEAR}. */
+    YEAR {
+        @Override
+        int key(ParkingColumns parking, int row) {
+            long epochSecond = parking.epochSecond(row);
+            if (epochSecond == ParkingColumns.NO_TIMESTAMP) return 0;
+            long year = yearMonth(Math.floorDiv(epochSecond, SECONDS_PER_DAY)) / 12;
+            return year >= FIRST_YEAR && year <= LAST_YEAR ? (int) (year - FIRST_YEAR + 1) : 0;
+        }
+
+        @Override
+        String label(int key) {
+            return Integer.toString(key - 1 + FIRST_YEAR);
+        }
+    },
+
+    /** Месяц нарушения, {@code 1–12}. */
+    MONTH {
+        @Override
+        int key(ParkingColumns parking, int row) {
+            long epochSecond = parking.epochSecond(row);
+            if (epochSecond == ParkingColumns.NO_TIMESTAMP) return 0;
+            return (int) (yearMonth(Math.floorDiv(epochSecond, SECONDS_PER_DAY)) % 12) + 1;
+        }
+    },
+
+    /** День недели нарушения, {@code MONDAY–SUNDAY}. */
+    DAY_OF_WEEK {
+        @Override
+        int key(ParkingColumns parking, int row) {
+            long epochSecond = parking.epochSecond(row);
+            if (epochSecond == ParkingColumns.NO_TIMESTAMP) return 0;
+            // 1 января 1970 года – четверг
+            return (int) Math.floorMod(Math.floorDiv(epochSecond, SECONDS_PER_DAY) + 3, 7) + 1;
+        }
+
+        @Override
+        String label(int key) {
+            return DayOfWeek.of(key).name();
+        }
+    },
+
+    /** Час нарушения, {@code 0–23}. */
+    HOUR {
+        @Override
+        int key(ParkingColumns parking, int row) {
+            long epochSecond = parking.epochSecond(row);
+            if (epochSecond == ParkingColumns.NO_TIMESTAMP) return 0;
+            return (int) (Math.floorMod(epochSecond, SECONDS_PER_DAY) / 3600) + 1;
+        }
+
+        @Override
+        String label(int key) {
+            return Integer.toString(key - 1);
+        }
+    };
+
+    /** Наибольшая сумма штрафа, различаемая измерением {@link #FINE}. */
+    public static final int MAX_FINE = 9_999;
+
+    static final int FIRST_YEAR = 1970;
+    static final int LAST_YEAR = 2099;
+
+    static final long SECONDS_PER_DAY = 86_400;
+
+    /**
+     * Ключ записи по этому измерению.
+     *
+     * @param parking хранилище штрафов
+     * @param row     номер записи
+     * @return ключ от {@code 0} (нет значения) до {@link #cardinality(ParkingColumns)}
+     */
+    abstract int key(ParkingColumns parking, int row);
+
+    /**
+     * @param parking хранилище штрафов
+     * @return наибольший ключ измерения
+     */
+    int cardinality(ParkingColumns parking) {
+        return switch (this) {
+            case ZIP, REASON, STATE -> parking.dictionary().size();
+            case FINE -> MAX_FINE + 1;
+            case YEAR -> LAST_YEAR - FIRST_YEAR + 1;
+            case MONTH -> 12;
+            case DAY_OF_WEEK -> 7;
+            case HOUR -> 24;
+        };
+    }
+
+    /**
+     * @param parking хранилище штрафов
+     * @param key     ключ измерения
+     * @return значение измерения в виде строки; {@code null} для ключа {@code 0}
+     */
+    String label(ParkingColumns parking, int key) {
+        if (key == 0) return null;
+        return isDictionary() ? parking.dictionary().decode(key - 1) : label(key);
+    }
+
+    /** Строковое значение ненулевого ключа для измерений, не использующих словарь. */
+    String label(int key) {
+        return Integer.toString(key - (this == FINE ? 1 : 0));
+    }
+
+    /**
+     * Переводит строковое значение в ключ измерения.
+     *
+     * @param parking хранилище штрафов
+     * @param label   значение, например {@code "PA"}, {@code "7"} или {@code "monday"}
+     * @return ключ или {@code -1}, если такого значения нет
+     */
+    int keyOf(ParkingColumns parking, String label) {
+        if (isDictionary()) {
+            int code = parking.dictionary().lookup(label);
+            return code == ParkingColumns.NO_CODE ? -1 : code + 1;
+        }
+        for (int key = 1; key <= cardinality(parking); key++) {
+            if (label(key).equalsIgnoreCase(label.trim())) return key;
+        }
+        return -1;
+    }
+
+    /**
+     * @return {@code true}, если ключи измерения – коды словаря строк
+     */
+    boolean isDictionary() {
+        return this == ZIP || this == REASON || this == STATE;
+    }
+
+    /**
+     * Разбирает имя измерения из запроса: регистр не важен, дефис равнозначен подчёркиванию.
+     *
+     * @param name имя, например {@code "zip"} или {@code "day-of-week"}
+     * @return измерение
+     * @throws IllegalArgumentException если измерения с таким именем нет
+     */
+    public static Dimension parse(String name) {
+        try {
+            return valueOf(name.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown dimension " + name);
+        }
+    }
+
+    /**
+     * Год и месяц дня эпохи в виде {@code год * 12 + (месяц - 1)} по пролептическому
+     * григорианскому календарю (алгоритм «civil from days» Говарда Хиннанта).
+     */
+    static long yearMonth(long epochDay) {
+        long z = epochDay + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        long month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 12 + month - 1;
+    }
+}
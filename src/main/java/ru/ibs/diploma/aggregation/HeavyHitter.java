@@ -0,0 +1,11 @@
+package ru.ibs.diploma.aggregation;
+
+/**
+ * Одно из самых частых или самых дорогих значений поля штрафа.
+ *
+ * @param key    значение поля
+ * @param weight число или сумма штрафов; в приближённом режиме – оценка сверху
+ * @param error  наибольшая возможная переоценка {@code weight}; {@code 0} в точном режиме
+ */
+public record HeavyHitter(String key, long weight, long error) {
+}
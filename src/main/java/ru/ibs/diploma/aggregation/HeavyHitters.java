@@ -0,0 +1,149 @@
+package ru.ibs.diploma.aggregation;
+
+import ru.ibs.diploma.data.ParkingColumns;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Самые частые или самые дорогие значения поля штрафа: номера автомобилей, причины, ZIP-коды.
+ *
+ * <p>Точный режим {@link #exact} считает вес каждого значения: коды словаря – в массиве,
+ * ID автомобилей – через {@link LongIntHashMap}, после чего {@code k} лучших отбираются
+ * кучей ограниченного размера за O(n log k). Память растёт с числом различных значений.
+ *
+ * <p>Приближённый режим {@link #approximate} проходит по штрафам потоком через
+ * {@link SpaceSaving} с постоянным числом счётчиков; оценки и их погрешность описаны там.
+ *
+ * <p>В обоих режимах штраф с отрицательной суммой (исправление или возврат) весит ноль:
+ * Space-Saving принимает только неотрицательные веса, а точный режим должен давать тот же порядок.
+ */
+public final class HeavyHitters {
+
+    /** Наибольшее число возвращаемых значений. */
+    public static final int MAX_K = 1_000;
+
+    /** Число счётчиков приближённого режима: погрешность веса не больше 0,01% суммарного веса. */
+    public static final int DEFAULT_COUNTERS = 10_000;
+
+    private HeavyHitters() {
+    }
+
+    /**
+     * Точно находит {@code k} значений поля с наибольшим весом.
+     *
+     * @param parking штрафы
+     * @param key     поле штрафа
+     * @param metric  вес значения: {@link Metric#COUNT} или {@link Metric#SUM}
+     * @param k       число значений
+     * @return значения по убыванию веса с нулевой погрешностью
+     */
+    public static List<HeavyHitter> exact(ParkingColumns parking, TopKey key, Metric metric, int k) {
+        checkArguments(metric, k);
+        boolean byFines = metric == Metric.SUM;
+        int size = parking.size();
+
+        long[] keys;
+        long[] weights;
+        int groups;
+        if (key.isDictionary()) {
+            groups = parking.dictionary().size();
+            weights = new long[groups];
+            keys = null;
+            for (int row = 0; row < size; row++) {
+                long code = key.key(parking, row);
+                if (code != TopKey.NO_KEY) weights[(int) code] += weight(parking, row, byFines);
+            }
+        } else {
+            LongIntHashMap index = new LongIntHashMap(1024);
+            keys = new long[1024];
+            weights = new long[1024];
+            groups = 0;
+            for (int row = 0; row < size; row++) {
+                long value = key.key(parking, row);
+                if (value == TopKey.NO_KEY) continue;
+                int slot = index.putIfAbsent(value, groups);
+                if (slot == groups) {
+                    if (groups == keys.length) {
+                        keys = Arrays.copyOf(keys, groups * 2);
+                        weights = Arrays.copyOf(weights, groups * 2);
+                    }
+                    keys[groups++] = value;
+                }
+                weights[slot] += weight(parking, row, byFines);
+            }
+        }
+
+        // куча из k лучших: в вершине – худший из отобранных
+        long[] finalWeights = weights;
+        Comparator<Integer> order = Comparator.<Integer>comparingLong(slot -> finalWeights[slot])
+                .thenComparing(Comparator.reverseOrder());
+        PriorityQueue<Integer> best = new PriorityQueue<>(k + 1, order);
+        for (int slot = 0; slot < groups; slot++) {
+            if (weights[slot] == 0 && key.isDictionary()) continue;
+            if (best.size() < k) {
+                best.add(slot);
+            } else if (order.compare(slot, best.peek()) > 0) {
+                best.poll();
+                best.add(slot);
+            }
+        }
+
+        List<HeavyHitter> result = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            int slot = best.poll();
+            result.add(new HeavyHitter(key.label(parking, keys == null ? slot : keys[slot]), weights[slot], 0));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * Находит {@code k} значений поля с наибольшим весом за один потоковый проход
+     * в постоянной памяти.
+     *
+     * @param parking  штрафы
+     * @param key      поле штрафа
+     * @param metric   вес значения: {@link Metric#COUNT} или {@link Metric#SUM}
+     * @param k        число значений
+     * @param counters число счётчиков {@link SpaceSaving}; не меньше {@code k}
+     * @return значения по убыванию оценки веса с погрешностью оценки
+     */
+    public static List<HeavyHitter> approximate(ParkingColumns parking, TopKey key, Metric metric, int k,
+                                                int counters) {
+        checkArguments(metric, k);
+        if (counters < k) {
+            throw new IllegalArgumentException("Space-Saving needs at least k = " + k + " counters");
+        }
+        boolean byFines = metric == Metric.SUM;
+
+        SpaceSaving sketch = new SpaceSaving(counters);
+        int size = parking.size();
+        for (int row = 0; row < size; row++) {
+            long value = key.key(parking, row);
+            long weight = weight(parking, row, byFines);
+            if (value != TopKey.NO_KEY && weight > 0) sketch.add(value, weight);
+        }
+        return sketch.top(k, value -> key.label(parking, value));
+    }
+
+    /**
+     * Вес штрафа: единица или сумма штрафа, отрицательная сумма считается нулевой.
+     */
+    private static long weight(ParkingColumns parking, int row, boolean byFines) {
+        return byFines ? Math.max(parking.fine(row), 0) : 1;
+    }
+
+    private static void checkArguments(Metric metric, int k) {
+        if (metric != Metric.COUNT && metric != Metric.SUM) {
+            throw new IllegalArgumentException("Top-k is ranked only by count or sum, not by " + metric);
+        }
+        if (k < 1 || k > MAX_K) {
+            throw new IllegalArgumentException("k must be between 1 and " + MAX_K);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package ru.ibs.diploma.aggregation;
+
+import java.util.Arrays;
+
+/**
+ * Хэш-таблица «{@code long} → {@code int}» без упаковки ключей и значений в объекты.
+ *
+ * <p>Открытая адресация с линейным пробированием; ключи и значения хранятся в двух
+ * параллельных массивах. Таблица увеличивается вдвое при заполнении на 3/4.
+ * При удалении следующие за ключом записи сдвигаются назад, поэтому пометки удалённых
+ * ячеек не накапливаются.
+ *
+ * <p>Потокобезопасность не гарантируется.
+ */
+public class LongIntHashMap {
+
+    /** Значение пустой ячейки; сам ключ {@code Long.MIN_VALUE} хранится отдельно. */
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    private boolean hasEmptyKey;
+    private int emptyKeyValue;
+
+    /**
+     * Создаёт таблицу с ёмкостью по умолчанию.
+     */
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize ожидаемое число ключей
+     */
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize * 4 / 3, 8) - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * @return число ключей
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param key          ключ
+     * @param defaultValue значение для отсутствующего ключа
+     * @return значение ключа или {@code defaultValue}
+     */
+    public int get(long key, int defaultValue) {
+        if (key == EMPTY) return hasEmptyKey ? emptyKeyValue : defaultValue;
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long current = keys[slot];
+            if (current == key) return values[slot];
+            if (current == EMPTY) return defaultValue;
+        }
+    }
+
+    /**
+     * Добавляет ключ со значением, если ключа ещё нет.
+     *
+     * @param key   ключ
+     * @param value значение для нового ключа
+     * @return текущее значение ключа: прежнее, если ключ уже был, иначе {@code value}
+     */
+    public int putIfAbsent(long key, int value) {
+        if (key == EMPTY) {
+            if (!hasEmptyKey) {
+                hasEmptyKey = true;
+                emptyKeyValue = value;
+                size++;
+            }
+            return emptyKeyValue;
+        }
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long current = keys[slot];
+            if (current == key) return values[slot];
+            if (current == EMPTY) {
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size > keys.length * 3 / 4) grow();
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Удаляет ключ.
+     *
+     * @param key          ключ
+     * @param defaultValue значение для отсутствующего ключа
+     * @return значение удалённого ключа или {@code defaultValue}
+     */
+    public int remove(long key, int defaultValue) {
+        if (key == EMPTY) {
+            if (!hasEmptyKey) return defaultValue;
+            int removed = emptyKeyValue;
+            hasEmptyKey = false;
+            emptyKeyValue = 0;
+            size--;
+            return removed;
+        }
+        int gap = slot(key);
+        while (keys[gap] != key) {
+            if (keys[gap] == EMPTY) return defaultValue;
+            gap = (gap + 1) & mask;
+        }
+        int removed = values[gap];
+
+        // запись сдвигается в освободившуюся ячейку, если та лежит между её исходной ячейкой и ею самой
+        for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            if (((next - slot(keys[next])) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = EMPTY;
+        size--;
+        return removed;
+    }
+
+    private int slot(long key) {
+        // перемешивание битов (finalizer MurmurHash3), чтобы последовательные ключи не шли подряд
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key & mask;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        mask = keys.length - 1;
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) continue;
+            int slot = slot(oldKeys[i]);
+            while (keys[slot] != EMPTY) slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+}
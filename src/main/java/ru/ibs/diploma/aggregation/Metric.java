@@ -0,0 +1,51 @@
+package ru.ibs.diploma.aggregation;
+
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * Показатель группы штрафов; используется для сортировки результата.
+ */
+public enum Metric {
+
+    /** Число штрафов. */
+    COUNT(Comparator.comparingLong(AggregationResult.Group::count)),
+
+    /** Сумма штрафов. */
+    SUM(Comparator.comparingLong(AggregationResult.Group::sum)),
+
+    /** Наименьший штраф. */
+    MIN(Comparator.comparingInt(AggregationResult.Group::min)),
+
+    /** Наибольший штраф. */
+    MAX(Comparator.comparingInt(AggregationResult.Group::max)),
+
+    /** Средний штраф. */
+    AVG(Comparator.comparing(AggregationResult.Group::average));
+
+    private final Comparator<AggregationResult.Group> order;
+
+    Metric(Comparator<AggregationResult.Group> order) {
+        this.order = order;
+    }
+
+    /**
+     * @return порядок групп по убыванию показателя
+     */
+    Comparator<AggregationResult.Group> descending() {
+        return order.reversed();
+    }
+
+    /**
+     * @param name имя показателя без учёта регистра
+     * @return показатель
+     * @throws IllegalArgumentException если показателя с таким именем нет
+     */
+    public static Metric parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown metric " + name);
+        }
+    }
+}
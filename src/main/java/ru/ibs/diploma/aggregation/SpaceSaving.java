@@ -0,0 +1,149 @@
+package ru.ibs.diploma.aggregation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * Потоковый поиск самых тяжёлых ключей алгоритмом Space-Saving (Metwally, Agrawal, El Abbadi, 2005)
+ * с весами.
+ *
+ * <p>Хранится не больше {@code capacity} счётчиков. Ключ без счётчика, пришедший при заполненной
+ * таблице, занимает счётчик с наименьшим весом {@code min}: его вес становится {@code min + w},
+ * а погрешность – {@code min}. Отсюда гарантии при суммарном весе {@code W}:
+ * <ul>
+ *   <li>вес счётчика не меньше истинного веса ключа и превышает его не больше чем на погрешность,
+ *       а погрешность не больше {@code W / capacity};</li>
+ *   <li>любой ключ с истинным весом больше {@code W / capacity} находится в таблице.</li>
+ * </ul>
+ * Память постоянна и не зависит от числа записей и различных ключей. Наименьший счётчик
+ * находится через двоичную кучу по весу, ключ – через {@link LongIntHashMap}; обновление
+ * стоит O(log capacity).
+ *
+ * <p>Потокобезопасность не гарантируется.
+ */
+public class SpaceSaving {
+
+    private final long[] keys;
+    private final long[] weights;
+    private final long[] errors;
+
+    /** Двоичная куча номеров счётчиков по возрастанию веса. */
+    private final int[] heap;
+
+    /** Позиция счётчика в {@link #heap}. */
+    private final int[] positions;
+
+    /** Карта «ключ → номер счётчика». */
+    private final LongIntHashMap counters;
+
+    private int size;
+    private long total;
+
+    /**
+     * @param capacity число счётчиков
+     * @throws IllegalArgumentException если счётчиков меньше одного
+     */
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Space-Saving needs at least one counter");
+        }
+        keys = new long[capacity];
+        weights = new long[capacity];
+        errors = new long[capacity];
+        heap = new int[capacity];
+        positions = new int[capacity];
+        counters = new LongIntHashMap(capacity);
+    }
+
+    /**
+     * Учитывает ключ с весом.
+     *
+     * @param key    ключ
+     * @param weight неотрицательный вес
+     */
+    public void add(long key, long weight) {
+        total += weight;
+        int counter = counters.get(key, -1);
+        if (counter >= 0) {
+            weights[counter] += weight;
+            siftDown(positions[counter]);
+        } else if (size < keys.length) {
+            counter = size;
+            keys[counter] = key;
+            weights[counter] = weight;
+            counters.putIfAbsent(key, counter);
+            heap[size] = counter;
+            siftUp(size++);
+        } else {
+            // вытесняется ключ с наименьшим весом; его вес становится погрешностью нового ключа
+            counter = heap[0];
+            counters.remove(keys[counter], -1);
+            errors[counter] = weights[counter];
+            keys[counter] = key;
+            weights[counter] += weight;
+            counters.putIfAbsent(key, counter);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * @return суммарный вес всех учтённых ключей
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Самые тяжёлые ключи по убыванию оценки веса.
+     *
+     * @param k     наибольшее число ключей
+     * @param label перевод ключа в строку
+     * @return не больше {@code k} ключей с оценкой веса и погрешностью
+     */
+    public List<HeavyHitter> top(int k, LongFunction<String> label) {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> weights[a] != weights[b]
+                ? Long.compare(weights[b], weights[a])
+                : Long.compare(errors[a], errors[b]));
+
+        List<HeavyHitter> result = new ArrayList<>(Math.min(k, size));
+        for (int i = 0; i < Math.min(k, size); i++) {
+            int counter = order[i];
+            result.add(new HeavyHitter(label.apply(keys[counter]), weights[counter], errors[counter]));
+        }
+        return result;
+    }
+
+    /** Восстанавливает кучу после добавления счётчика на позицию {@code position}. */
+    private void siftUp(int position) {
+        int counter = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (weights[heap[parent]] <= weights[counter]) break;
+            heap[position] = heap[parent];
+            positions[heap[position]] = position;
+            position = parent;
+        }
+        heap[position] = counter;
+        positions[counter] = position;
+    }
+
+    /** Восстанавливает кучу после увеличения веса счётчика на позиции {@code position}. */
+    private void siftDown(int position) {
+        int counter = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) break;
+            if (child + 1 < size && weights[heap[child + 1]] < weights[heap[child]]) child++;
+            if (weights[heap[child]] >= weights[counter]) break;
+            heap[position] = heap[child];
+            positions[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = counter;
+        positions[counter] = position;
+    }
+}
@@ -0,0 +1,94 @@
+package ru.ibs.diploma.aggregation;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Интервал временного ряда штрафов. Границы интервалов считаются в UTC;
+ * неделя начинается с понедельника.
+ */
+public enum TimeBucket {
+
+    /** Час. */
+    HOUR {
+        @Override
+        long floor(long epochSecond) {
+            return Math.floorDiv(epochSecond, 3600) * 3600;
+        }
+
+        @Override
+        long next(long start) {
+            return start + 3600;
+        }
+    },
+
+    /** Сутки. */
+    DAY {
+        @Override
+        long floor(long epochSecond) {
+            return Math.floorDiv(epochSecond, SECONDS_PER_DAY) * SECONDS_PER_DAY;
+        }
+
+        @Override
+        long next(long start) {
+            return start + SECONDS_PER_DAY;
+        }
+    },
+
+    /** Неделя с понедельника по воскресенье. */
+    WEEK {
+        @Override
+        long floor(long epochSecond) {
+            long epochDay = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+            // 1 января 1970 года – четверг
+            return (epochDay - Math.floorMod(epochDay + 3, 7)) * SECONDS_PER_DAY;
+        }
+
+        @Override
+        long next(long start) {
+            return start + 7 * SECONDS_PER_DAY;
+        }
+    },
+
+    /** Календарный месяц. */
+    MONTH {
+        @Override
+        long floor(long epochSecond) {
+            LocalDate day = LocalDate.ofEpochDay(Math.floorDiv(epochSecond, SECONDS_PER_DAY));
+            return day.withDayOfMonth(1).toEpochDay() * SECONDS_PER_DAY;
+        }
+
+        @Override
+        long next(long start) {
+            return LocalDate.ofEpochDay(Math.floorDiv(start, SECONDS_PER_DAY)).plusMonths(1).toEpochDay()
+                    * SECONDS_PER_DAY;
+        }
+    };
+
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    /**
+     * @param epochSecond момент в секундах эпохи
+     * @return начало интервала, в который попадает момент
+     */
+    abstract long floor(long epochSecond);
+
+    /**
+     * @param start начало интервала
+     * @return начало следующего интервала
+     */
+    abstract long next(long start);
+
+    /**
+     * @param name имя интервала без учёта регистра, например {@code "day"}
+     * @return интервал
+     * @throws IllegalArgumentException если интервала с таким именем нет
+     */
+    public static TimeBucket parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown time bucket " + name);
+        }
+    }
+}
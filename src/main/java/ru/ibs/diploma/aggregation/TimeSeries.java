@@ -0,0 +1,30 @@
+package ru.ibs.diploma.aggregation;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Временной ряд штрафов одного ZIP-кода.
+ *
+ * @param zip    ZIP-код
+ * @param bucket интервал ряда
+ * @param points точки ряда по возрастанию времени, включая интервалы без штрафов
+ * @param count  число штрафов за весь период
+ * @param sum    сумма штрафов за весь период
+ */
+public record TimeSeries(String zip, TimeBucket bucket, List<Point> points, long count, long sum) {
+
+    /**
+     * Штрафы одного интервала.
+     *
+     * @param start начало интервала; у первой точки может быть раньше начала периода
+     * @param count число штрафов
+     * @param sum   сумма штрафов
+     */
+    public record Point(Instant start, long count, long sum) {
+    }
+
+    public TimeSeries {
+        points = List.copyOf(points);
+    }
+}
@@ -0,0 +1,290 @@
+package ru.ibs.diploma.aggregation;
+
+import ru.ibs.diploma.data.ParkingColumns;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Неизменяемый индекс штрафов по ZIP-коду и времени для временных рядов.
+ *
+ * <p>Штрафы каждого ZIP-кода хранятся отрезком общего массива времени, отсортированным
+ * по возрастанию, а рядом – префиксные суммы штрафов. Число и сумма штрафов ZIP-кода
+ * за любой период находятся двумя двоичными поисками за O(log n), ряд из {@code b}
+ * интервалов – за O(b · log n) без просмотра самих штрафов.
+ *
+ * <p>Индекс занимает 16 байт на штраф. Штрафы без ZIP-кода или без времени в индекс
+ * не попадают.
+ */
+public class TimeSeriesIndex {
+
+    /** Пустой индекс, используемый до первой загрузки данных. */
+    public static final TimeSeriesIndex EMPTY = new TimeSeriesIndex(new TreeMap<>(), new int[1], new long[0], new long[1]);
+
+    /** Наибольшее число точек одного ряда. */
+    public static final int MAX_POINTS = 100_000;
+
+    /** Наибольшее число точек всех рядов одного запроса: число рядов, умноженное на {@link #points}. */
+    public static final int MAX_TOTAL_POINTS = 1_000_000;
+
+    /** Карта «ZIP-код → номер отрезка». */
+    private final Map<String, Integer> segments;
+
+    /** Границы отрезков: штрафы отрезка {@code s} занимают {@code [offsets[s], offsets[s + 1])}. */
+    private final int[] offsets;
+
+    /** Время штрафов в секундах эпохи, по возрастанию внутри отрезка. */
+    private final long[] times;
+
+    /** {@code sums[i]} – сумма штрафов с номерами меньше {@code i}. */
+    private final long[] sums;
+
+    private TimeSeriesIndex(Map<String, Integer> segments, int[] offsets, long[] times, long[] sums) {
+        this.segments = segments;
+        this.offsets = offsets;
+        this.times = times;
+        this.sums = sums;
+    }
+
+    /**
+     * Строит индекс за два прохода по штрафам и сортировку отрезков.
+     *
+     * @param parking штрафы
+     * @return построенный индекс
+     */
+    public static TimeSeriesIndex of(ParkingColumns parking) {
+        int size = parking.size();
+        int codes = parking.dictionary().size();
+
+        // подсчёт штрафов по коду ZIP-кода в словаре
+        int[] starts = new int[codes + 1];
+        for (int row = 0; row < size; row++) {
+            int code = parking.postIndexCode(row);
+            if (code != ParkingColumns.NO_CODE && parking.epochSecond(row) != ParkingColumns.NO_TIMESTAMP) {
+                starts[code + 1]++;
+            }
+        }
+
+        Map<String, Integer> segments = new TreeMap<>();
+        List<Integer> offsets = new ArrayList<>();
+        offsets.add(0);
+        for (int code = 0; code < codes; code++) {
+            int count = starts[code + 1];
+            starts[code + 1] = starts[code] + count;
+            if (count > 0) {
+                segments.put(parking.postIndexOf(code), segments.size());
+                offsets.add(starts[code + 1]);
+            }
+        }
+
+        int total = starts[codes];
+        long[] times = new long[total];
+        int[] fines = new int[total];
+        for (int row = 0; row < size; row++) {
+            int code = parking.postIndexCode(row);
+            long epochSecond = parking.epochSecond(row);
+            if (code != ParkingColumns.NO_CODE && epochSecond != ParkingColumns.NO_TIMESTAMP) {
+                int position = starts[code]++;
+                times[position] = epochSecond;
+                fines[position] = parking.fine(row);
+            }
+        }
+
+        int[] bounds = offsets.stream().mapToInt(Integer::intValue).toArray();
+        for (int segment = 0; segment + 1 < bounds.length; segment++) {
+            sortByTime(times, fines, bounds[segment], bounds[segment + 1]);
+        }
+
+        long[] sums = new long[total + 1];
+        for (int i = 0; i < total; i++) {
+            sums[i + 1] = sums[i] + fines[i];
+        }
+        return new TimeSeriesIndex(segments, bounds, times, sums);
+    }
+
+    /**
+     * @return ZIP-коды, по которым есть штрафы со временем, по алфавиту
+     */
+    public Set<String> zips() {
+        return segments.keySet();
+    }
+
+    /**
+     * @return время самого раннего штрафа или {@code null}, если индекс пуст
+     */
+    public Instant first() {
+        if (times.length == 0) return null;
+        long first = Long.MAX_VALUE;
+        for (int segment = 0; segment + 1 < offsets.length; segment++) {
+            first = Math.min(first, times[offsets[segment]]);
+        }
+        return Instant.ofEpochSecond(first);
+    }
+
+    /**
+     * @return время самого позднего штрафа или {@code null}, если индекс пуст
+     */
+    public Instant last() {
+        if (times.length == 0) return null;
+        long last = Long.MIN_VALUE;
+        for (int segment = 1; segment < offsets.length; segment++) {
+            last = Math.max(last, times[offsets[segment] - 1]);
+        }
+        return Instant.ofEpochSecond(last);
+    }
+
+    /**
+     * Временной ряд штрафов ZIP-кода за период {@code [from, to)}.
+     *
+     * <p>Ряд содержит все интервалы, пересекающиеся с периодом, в том числе пустые;
+     * крайние интервалы учитывают только штрафы внутри периода. Если граница периода
+     * не задана, она берётся по самому раннему или самому позднему штрафу всего индекса,
+     * чтобы ряды разных ZIP-кодов совпадали по точкам.
+     *
+     * @param zip    ZIP-код; для неизвестного кода ряд состоит из нулей
+     * @param bucket интервал ряда
+     * @param from   начало периода включительно; {@code null} – с первого штрафа
+     * @param to     конец периода исключительно; {@code null} – по последний штраф включительно
+     * @return временной ряд
+     * @throws IllegalArgumentException если начало периода позже конца или точек больше {@link #MAX_POINTS}
+     */
+    public TimeSeries series(String zip, TimeBucket bucket, Instant from, Instant to) {
+        checkPeriod(from, to);
+        List<TimeSeries.Point> points = new ArrayList<>();
+        if (times.length == 0 && (from == null || to == null)) {
+            return new TimeSeries(zip, bucket, points, 0, 0);
+        }
+
+        long fromSecond = fromSecond(from);
+        long toSecond = toSecond(to);
+
+        Integer segment = segments.get(zip);
+        int low = segment == null ? 0 : offsets[segment];
+        int high = segment == null ? 0 : offsets[segment + 1];
+
+        int position = lowerBound(low, high, fromSecond);
+        int first = position;
+        for (long start = bucket.floor(fromSecond); start < toSecond; start = bucket.next(start)) {
+            if (points.size() == MAX_POINTS) throw tooManyBuckets(bucket);
+            int end = lowerBound(position, high, Math.min(bucket.next(start), toSecond));
+            points.add(new TimeSeries.Point(Instant.ofEpochSecond(start), end - position, sums[end] - sums[position]));
+            position = end;
+        }
+        return new TimeSeries(zip, bucket, points, position - first, sums[position] - sums[first]);
+    }
+
+    /**
+     * Число точек каждого ряда {@link #series} за период {@code [from, to)} – без построения рядов,
+     * чтобы проверить размер ответа заранее.
+     *
+     * @param bucket интервал рядов
+     * @param from   начало периода включительно; {@code null} – с первого штрафа
+     * @param to     конец периода исключительно; {@code null} – по последний штраф включительно
+     * @return число точек одного ряда
+     * @throws IllegalArgumentException если начало периода позже конца или точек больше {@link #MAX_POINTS}
+     */
+    public int points(TimeBucket bucket, Instant from, Instant to) {
+        checkPeriod(from, to);
+        if (times.length == 0 && (from == null || to == null)) return 0;
+
+        long toSecond = toSecond(to);
+        int points = 0;
+        for (long start = bucket.floor(fromSecond(from)); start < toSecond; start = bucket.next(start)) {
+            if (points == MAX_POINTS) throw tooManyBuckets(bucket);
+            points++;
+        }
+        return points;
+    }
+
+    private static void checkPeriod(Instant from, Instant to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Period start " + from + " is after its end " + to);
+        }
+    }
+
+    private static IllegalArgumentException tooManyBuckets(TimeBucket bucket) {
+        return new IllegalArgumentException("Too many " + bucket.name().toLowerCase(Locale.ROOT)
+                + " buckets in the period, at most " + MAX_POINTS + " are allowed");
+    }
+
+    /** Первая секунда периода; без начала – время самого раннего штрафа. */
+    private long fromSecond(Instant from) {
+        return from == null ? first().getEpochSecond() : ceilSecond(from);
+    }
+
+    /** Секунда после конца периода; без конца – следующая за самым поздним штрафом. */
+    private long toSecond(Instant to) {
+        return to == null ? last().getEpochSecond() + 1 : ceilSecond(to);
+    }
+
+    /** Первая позиция отрезка {@code [low, high)} со временем не раньше {@code epochSecond}. */
+    private int lowerBound(int low, int high, long epochSecond) {
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (times[middle] < epochSecond) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /** Наименьшая целая секунда, не раньше указанного момента. */
+    private static long ceilSecond(Instant instant) {
+        return instant.getNano() == 0 ? instant.getEpochSecond() : instant.getEpochSecond() + 1;
+    }
+
+    /**
+     * Сортирует отрезок по времени вместе со штрафами. Время относительно начала отрезка
+     * и номер записи упаковываются в один {@code long}, поэтому сортируется массив примитивов;
+     * если разброс времени не помещается в оставшиеся биты, используется сортировка номеров.
+     */
+    private static void sortByTime(long[] times, int[] fines, int from, int to) {
+        int length = to - from;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        boolean sorted = true;
+        for (int i = from; i < to; i++) {
+            if (i > from && times[i] < times[i - 1]) sorted = false;
+            min = Math.min(min, times[i]);
+            max = Math.max(max, times[i]);
+        }
+        if (sorted) return;
+
+        long[] sortedTimes;
+        int[] sortedFines = new int[length];
+        int indexBits = 32 - Integer.numberOfLeadingZeros(length - 1);
+        if ((max - min) >>> (63 - indexBits) == 0) {
+            long[] keys = new long[length];
+            for (int i = 0; i < length; i++) {
+                keys[i] = (times[from + i] - min) << indexBits | i;
+            }
+            Arrays.sort(keys);
+            sortedTimes = keys;
+            long mask = (1L << indexBits) - 1;
+            for (int i = 0; i < length; i++) {
+                int index = (int) (keys[i] & mask);
+                sortedFines[i] = fines[from + index];
+                sortedTimes[i] = (keys[i] >>> indexBits) + min;
+            }
+        } else {
+            Integer[] order = new Integer[length];
+            for (int i = 0; i < length; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Long.compare(times[from + a], times[from + b]));
+            sortedTimes = new long[length];
+            for (int i = 0; i < length; i++) {
+                sortedTimes[i] = times[from + order[i]];
+                sortedFines[i] = fines[from + order[i]];
+            }
+        }
+        System.arraycopy(sortedTimes, 0, times, from, length);
+        System.arraycopy(sortedFines, 0, fines, from, length);
+    }
+}
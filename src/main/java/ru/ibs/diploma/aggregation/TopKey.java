@@ -0,0 +1,82 @@
+package ru.ibs.diploma.aggregation;
+
+import ru.ibs.diploma.data.ParkingColumns;
+
+import java.util.Locale;
+
+/**
+ * Поле штрафа, по которому ищутся самые частые или самые дорогие значения.
+ */
+public enum TopKey {
+
+    /** ID автомобиля; нулевой ID означает, что номер не распознан. */
+    PLATE {
+        @Override
+        long key(ParkingColumns parking, int row) {
+            long carId = parking.carId(row);
+            return carId == 0 ? NO_KEY : carId;
+        }
+
+        @Override
+        String label(ParkingColumns parking, long key) {
+            return Long.toString(key);
+        }
+    },
+
+    /** Причина штрафа. */
+    REASON {
+        @Override
+        long key(ParkingColumns parking, int row) {
+            int code = parking.reasonCode(row);
+            return code == ParkingColumns.NO_CODE ? NO_KEY : code;
+        }
+    },
+
+    /** ZIP-код. */
+    ZIP {
+        @Override
+        long key(ParkingColumns parking, int row) {
+            int code = parking.postIndexCode(row);
+            return code == ParkingColumns.NO_CODE ? NO_KEY : code;
+        }
+    };
+
+    /** Ключ записи без значения поля; такие записи не учитываются. */
+    static final long NO_KEY = Long.MIN_VALUE;
+
+    /**
+     * @param parking хранилище штрафов
+     * @param row     номер записи
+     * @return ключ значения поля или {@link #NO_KEY}
+     */
+    abstract long key(ParkingColumns parking, int row);
+
+    /**
+     * @param parking хранилище штрафов
+     * @param key     ключ значения поля
+     * @return значение поля в виде строки
+     */
+    String label(ParkingColumns parking, long key) {
+        return parking.dictionary().decode((int) key);
+    }
+
+    /**
+     * @return {@code true}, если ключи поля – коды словаря строк
+     */
+    boolean isDictionary() {
+        return this != PLATE;
+    }
+
+    /**
+     * @param name имя поля без учёта регистра, например {@code "plate"}
+     * @return поле
+     * @throws IllegalArgumentException если поля с таким именем нет
+     */
+    public static TopKey parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown top-k field " + name);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package ru.ibs.diploma.cache;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Кэш ограниченного размера с вытеснением давно не использованных записей (LRU)
+ * и ограниченным временем жизни записи (TTL).
+ *
+ * <p>Записи хранятся в {@link LinkedHashMap} в порядке обращения: при превышении
+ * {@code maximumSize} удаляется запись, к которой дольше всего не обращались.
+ * Запись старше {@code ttl} считается отсутствующей и удаляется при обращении
+ * к ней или при очередном добавлении.
+ *
+ * <p>Время жизни у всех записей одно, поэтому записи истекают в порядке добавления.
+ * Отдельная очередь хранит их в этом порядке, и добавление удаляет устаревшие записи
+ * с её начала, останавливаясь на первой живой, – без обхода всего кэша. Записи, удалённые
+ * иначе (замена, вытеснение, {@link #removeIf(Predicate)}), только помечаются и убираются
+ * из очереди, когда дойдут до её начала или когда очередь вдвое превысит {@code maximumSize}.
+ *
+ * <p>Ведёт счётчики попаданий, промахов и вытеснений (по размеру и по времени жизни).
+ * Все методы синхронизированы.
+ *
+ * @param <K> тип ключа
+ * @param <V> тип значения
+ */
+public class BoundedCache<K, V> {
+
+    private final int maximumSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final LinkedHashMap<K, Entry<K, V>> entries;
+
+    /** Записи в порядке добавления, включая помеченные удалёнными. */
+    private final ArrayDeque<Entry<K, V>> writeOrder = new ArrayDeque<>();
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param maximumSize наибольшее число записей; не меньше 1
+     * @param ttl         время жизни записи с момента добавления
+     */
+    public BoundedCache(int maximumSize, Duration ttl) {
+        this(maximumSize, ttl, System::nanoTime);
+    }
+
+    /**
+     * @param maximumSize наибольшее число записей; не меньше 1
+     * @param ttl         время жизни записи с момента добавления
+     * @param nanoClock   источник времени в наносекундах
+     */
+    BoundedCache(int maximumSize, Duration ttl, LongSupplier nanoClock) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive, but received " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<K, V>> eldest) {
+                if (size() > BoundedCache.this.maximumSize) {
+                    eldest.getValue().removed = true;
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Возвращает значение по ключу и отмечает запись как недавно использованную.
+     *
+     * @param key ключ
+     * @return значение или {@code null}, если записи нет или её время жизни истекло
+     */
+    public synchronized V get(K key) {
+        Entry<K, V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (isExpired(entry, nanoClock.getAsLong())) {
+            entries.remove(key);
+            entry.removed = true;
+            evictions++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * Добавляет или заменяет значение. Перед добавлением удаляет записи с истёкшим
+     * временем жизни, а после – самую давно использованную запись, если размер превышен.
+     * Стоит O(1) в среднем.
+     *
+     * @param key   ключ
+     * @param value значение; не {@code null}
+     */
+    public synchronized void put(K key, V value) {
+        long now = nanoClock.getAsLong();
+        removeExpired(now);
+
+        Entry<K, V> entry = new Entry<>(key, value, now);
+        Entry<K, V> replaced = entries.put(key, entry);
+        if (replaced != null) {
+            replaced.removed = true;
+        }
+        writeOrder.addLast(entry);
+        if (writeOrder.size() > 2 * maximumSize) {
+            writeOrder.removeIf(written -> written.removed);
+        }
+    }
+
+    /**
+     * Удаляет все записи, ключи которых удовлетворяют условию. Удалённые записи
+     * не считаются вытесненными.
+     *
+     * @param condition условие на ключ
+     * @return число удалённых записей
+     */
+    public synchronized int removeIf(Predicate<? super K> condition) {
+        int removed = 0;
+        for (Iterator<Entry<K, V>> iterator = entries.values().iterator(); iterator.hasNext(); ) {
+            Entry<K, V> entry = iterator.next();
+            if (condition.test(entry.key)) {
+                iterator.remove();
+                entry.removed = true;
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * @return текущее число записей, включая ещё не удалённые устаревшие
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return снимок счётчиков кэша
+     */
+    public synchronized CacheStatistics statistics() {
+        return new CacheStatistics(hits, misses, evictions, entries.size(), maximumSize);
+    }
+
+    /** Удаляет устаревшие записи с начала очереди добавления до первой живой. */
+    private void removeExpired(long now) {
+        while (!writeOrder.isEmpty()) {
+            Entry<K, V> eldest = writeOrder.peekFirst();
+            if (!eldest.removed) {
+                if (!isExpired(eldest, now)) return;
+                entries.remove(eldest.key);
+                eldest.removed = true;
+                evictions++;
+            }
+            writeOrder.pollFirst();
+        }
+    }
+
+    private boolean isExpired(Entry<K, V> entry, long now) {
+        return now - entry.createdNanos >= ttlNanos;
+    }
+
+    private static final class Entry<K, V> {
+
+        private final K key;
+        private final V value;
+        private final long createdNanos;
+
+        /** Запись удалена из {@link #entries}, но может оставаться в {@link #writeOrder}. */
+        private boolean removed;
+
+        private Entry(K key, V value, long createdNanos) {
+            this.key = key;
+            this.value = value;
+            this.createdNanos = createdNanos;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package ru.ibs.diploma.cache;
+
+/**
+ * Снимок счётчиков кэша ограниченного размера.
+ *
+ * @param hits        число обращений, нашедших действующую запись
+ * @param misses      число обращений без результата (записи нет или она устарела)
+ * @param evictions   число записей, удалённых из-за размера или истечения времени жизни
+ * @param size        текущее число записей
+ * @param maximumSize наибольшее допустимое число записей
+ */
+public record CacheStatistics(long hits, long misses, long evictions, int size, int maximumSize) {
+}
@@ -1,12 +1,23 @@
 package ru.ibs.diploma.cache;
 
+import java.io.IOException;
+import java.util.Collection;
+import java.util.function.Supplier;
+
 /**
  * Интерфейсб определяющий контракт для объектов, кэширующих ответы
  * <p>
  * Любой класс, реализующий этот интерфейс должен предоставить собственную
  * реализацию методов {@link #cacheAnswer(int, Answer)}, который отвечает за
  * сохранение ответа в кэш и {@link #searchCache(int)}, который отвечает за
- * поиск нужного закэшированного ответа.
+ * поиск нужного закэшированного ответа. Ответы на вопросы о конкретном ZIP-коде
+ * хранятся отдельно, по паре «номер вопроса, ZIP-код».
+ * </p>
+ * <p>
+ * Методы {@code computeIfAbsent} объединяют поиск, расчёт и сохранение.
+ * Реализация по умолчанию не защищает от одновременного расчёта одного ответа;
+ * потокобезопасные реализации переопределяют
+ * {@link #computeIfAbsent(int, Supplier, SourcedComputation)}.
  * </p>
  */
 public interface CachedAnswerInterface {
@@ -14,4 +25,100 @@ public interface CachedAnswerInterface {
     public void cacheAnswer(int number, Answer answer);
 
     public Answer searchCache(int number);
+
+    /**
+     * Сохраняет ответ на вопрос о конкретном ZIP-коде (вопросы 3–5).
+     *
+     * @param number  номер вопроса
+     * @param zipCode ZIP-код
+     * @param answer  ответ
+     */
+    public void cacheAnswer(int number, String zipCode, Answer answer);
+
+    /**
+     * Ищет ответ на вопрос о конкретном ZIP-коде (вопросы 3–5).
+     *
+     * @param number  номер вопроса
+     * @param zipCode ZIP-код
+     * @return ответ или {@code null}, если он не закэширован
+     */
+    public Answer searchCache(int number, String zipCode);
+
+    /**
+     * Удаляет ответы на перечисленные вопросы, включая ответы по ZIP-кодам.
+     * Вызывается, когда изменились данные, от которых эти ответы зависят.
+     *
+     * @param numbers номера вопросов
+     */
+    public void invalidate(Collection<Integer> numbers);
+
+    /**
+     * Счётчики кэша ответов по ZIP-кодам (вопросы 3–5).
+     *
+     * @return попадания, промахи, вытеснения и текущий размер
+     */
+    public CacheStatistics zipCacheStatistics();
+
+    /**
+     * Возвращает закэшированный ответ или рассчитывает и кэширует его только в памяти:
+     * без отпечатка входных файлов ответ не ищется и не сохраняется в постоянном хранилище.
+     *
+     * @param number      номер вопроса
+     * @param computation расчёт ответа
+     * @return ответ из кэша или результат расчёта
+     * @throws IOException если расчёт завершился ошибкой чтения данных
+     */
+    default Answer computeIfAbsent(int number, AnswerComputation computation) throws IOException {
+        return computeIfAbsent(number, () -> null, () -> new SourcedAnswer(computation.compute(), null));
+    }
+
+    /**
+     * Возвращает закэшированный ответ или рассчитывает и кэширует его. В отличие от
+     * {@link #computeIfAbsent(int, AnswerComputation)}, вызывающий сам указывает отпечатки
+     * входных файлов: по отпечатку текущих файлов ответ ищется в постоянном хранилище,
+     * а рассчитанный ответ сохраняется туда с отпечатком файлов, из которых прочитаны его данные.
+     * Реализация по умолчанию отпечатки не использует и не защищает от одновременного
+     * расчёта одного ответа.
+     *
+     * @param number      номер вопроса
+     * @param source      отпечаток текущих входных файлов; вызывается, только если ответа нет в памяти;
+     *                    {@code null} – не искать в хранилище
+     * @param computation расчёт ответа
+     * @return ответ из кэша или результат расчёта
+     * @throws IOException если расчёт завершился ошибкой чтения данных
+     */
+    default Answer computeIfAbsent(int number, Supplier<String> source, SourcedComputation computation) throws IOException {
+        Answer cached = searchCache(number);
+        if (cached != null) {
+            return cached;
+        }
+        Answer answer = computation.compute().answer();
+        cacheAnswer(number, answer);
+        return answer;
+    }
+
+    /**
+     * Расчёт ответа, который может потребовать чтения файлов.
+     */
+    @FunctionalInterface
+    interface AnswerComputation {
+        Answer compute() throws IOException;
+    }
+
+    /**
+     * Расчёт ответа, сообщающий отпечаток файлов, из которых прочитаны его данные.
+     */
+    @FunctionalInterface
+    interface SourcedComputation {
+        SourcedAnswer compute() throws IOException;
+    }
+
+    /**
+     * Ответ вместе с отпечатком входных файлов, по которым он рассчитан.
+     *
+     * @param answer ответ
+     * @param source отпечаток файлов; {@code null}, если он неизвестен – такой ответ не сохраняется на диск
+     */
+    record SourcedAnswer(Answer answer, String source) {
+    }
 }
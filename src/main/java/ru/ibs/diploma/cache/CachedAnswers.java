@@ -1,9 +1,18 @@
 package ru.ibs.diploma.cache;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 
 /**
  * Реализация интерфейса {@link CachedAnswerInterface} для кэширования результатов анализа.
@@ -13,7 +22,19 @@ import java.util.Map;
  * <p>
  * Класс помечен аннотацией {@link Component}, поэтому автоматически регистрируется Spring как бин.
  * <p>
- * <b>Потокобезопасность:</b> не гарантируется. При работе в многопоточной среде требуется внешняя синхронизация.
+ * Ответы на вопросы о конкретном ZIP-коде (3–5) хранятся в отдельном {@link BoundedCache}
+ * по ключу «номер вопроса, ZIP-код». Его размер ({@code answers.zip-cache.max-size}) и время
+ * жизни записи ({@code answers.zip-cache.ttl}) ограничены, поэтому запросы с произвольными
+ * ZIP-кодами не увеличивают кэш без предела.
+ * <p>
+ * Ответы, рассчитанные через {@link #computeIfAbsent(int, Supplier, SourcedComputation)}, дополнительно
+ * сохраняются в {@link PersistentAnswers}, если он задан, с отпечатком файлов, из которых
+ * прочитаны данные расчёта: после перезапуска приложения они читаются с диска, пока входные
+ * файлы не изменились. {@link #invalidate(Collection)} удаляет их и с диска.
+ * <p>
+ * <b>Потокобезопасность:</b> гарантируется. Ответы хранятся в {@link ConcurrentHashMap}, а
+ * {@link #computeIfAbsent(int, Supplier, SourcedComputation)} рассчитывает каждый ответ не более одного раза
+ * одновременно: первый вызов выполняет расчёт, остальные вызовы с тем же номером дожидаются его результата.
  *
  * @author Твое Имя  // ← Замени на своё имя
  * @version 1.0
@@ -25,7 +46,59 @@ import java.util.Map;
 @Component
 public class CachedAnswers implements CachedAnswerInterface{
 
-    private Map<Integer, Answer> answers = new HashMap<>();
+    private final Map<Integer, Answer> answers = new ConcurrentHashMap<>();
+
+    /** Расчёты, выполняющиеся в данный момент, по номеру вопроса. */
+    private final Map<Integer, CompletableFuture<Answer>> computations = new ConcurrentHashMap<>();
+
+    /** Размер кэша ответов по ZIP-кодам по умолчанию. */
+    static final int DEFAULT_ZIP_CACHE_SIZE = 10_000;
+
+    /** Время жизни ответа по ZIP-коду по умолчанию. */
+    static final Duration DEFAULT_ZIP_CACHE_TTL = Duration.ofHours(1);
+
+    /** Ответы на вопросы о конкретном ZIP-коде. */
+    private final BoundedCache<ZipKey, Answer> zipAnswers;
+
+    /** Ответы, сохранённые на диске; может быть {@code null}. */
+    private final PersistentAnswers persistentAnswers;
+
+    /**
+     * Номер поколения кэша; увеличивается при каждой {@link #invalidate(Collection)}.
+     * Расчёт, начатый в предыдущем поколении, не сохраняет свой результат.
+     */
+    private long generation;
+
+    /** Блокировка, согласующая {@link #invalidate(Collection)} с сохранением рассчитанных ответов. */
+    private final Object generationLock = new Object();
+
+    /**
+     * Создаёт кэш с размером и временем жизни ответов по ZIP-кодам по умолчанию.
+     */
+    public CachedAnswers() {
+        this(DEFAULT_ZIP_CACHE_SIZE, DEFAULT_ZIP_CACHE_TTL);
+    }
+
+    /**
+     * @param zipCacheSize наибольшее число ответов по ZIP-кодам
+     * @param zipCacheTtl  время жизни ответа по ZIP-коду
+     */
+    public CachedAnswers(int zipCacheSize, Duration zipCacheTtl) {
+        this(zipCacheSize, zipCacheTtl, null);
+    }
+
+    /**
+     * @param zipCacheSize      наибольшее число ответов по ZIP-кодам
+     * @param zipCacheTtl       время жизни ответа по ZIP-коду
+     * @param persistentAnswers ответы, сохранённые на диске; может быть {@code null}
+     */
+    @Autowired
+    public CachedAnswers(@Value("${answers.zip-cache.max-size:10000}") int zipCacheSize,
+                         @Value("${answers.zip-cache.ttl:PT1H}") Duration zipCacheTtl,
+                         PersistentAnswers persistentAnswers) {
+        this.zipAnswers = new BoundedCache<>(zipCacheSize, zipCacheTtl);
+        this.persistentAnswers = persistentAnswers;
+    }
 
     /**
      * Сохраняет результат анализа в кэше под указанным номером.
@@ -50,7 +123,11 @@ public class CachedAnswers implements CachedAnswerInterface{
      * }</pre>
      */
     public void cacheAnswer(int number, Answer answer){
-        answers.put(number, answer);
+        if (answer == null) {
+            answers.remove(number);
+        } else {
+            answers.put(number, answer);
+        }
     }
 
     /**
@@ -70,4 +147,167 @@ public class CachedAnswers implements CachedAnswerInterface{
     public Answer searchCache(int number){
         return answers.get(number);
     }
+
+    /**
+     * Возвращает закэшированный ответ или рассчитывает его ровно один раз.
+     * <p>
+     * Сначала ответ ищется в памяти, затем в {@link PersistentAnswers} по отпечатку {@code source},
+     * который запрашивается только при промахе памяти: ответ из памяти не стоит обращений к файловой системе;
+     * рассчитанный ответ сохраняется в памяти и на диске с отпечатком, который вернул расчёт.
+     * Если расчёт того же ответа уже выполняется в другом потоке, вызов дожидается его результата.
+     * Ошибка расчёта передаётся всем ожидающим и не кэшируется: следующий вызов начнёт расчёт заново.
+     *
+     * @param number      идентификатор запроса (см. {@link #cacheAnswer(int, Answer)})
+     * @param source      отпечаток текущих входных файлов; {@code null} – не искать на диске
+     * @param computation расчёт ответа
+     * @return ответ из кэша или результат расчёта
+     * @throws IOException если расчёт завершился ошибкой чтения данных
+     */
+    @Override
+    public Answer computeIfAbsent(int number, Supplier<String> source, SourcedComputation computation) throws IOException {
+        Answer cached = answers.get(number);
+        if (cached != null) {
+            return cached;
+        }
+
+        long startedGeneration = currentGeneration();
+        CompletableFuture<Answer> created = new CompletableFuture<>();
+        CompletableFuture<Answer> running = computations.putIfAbsent(number, created);
+        if (running != null) {
+            return await(running);
+        }
+
+        try {
+            // ответ мог появиться, пока мы регистрировали расчёт
+            Answer answer = answers.get(number);
+            if (answer == null && persistentAnswers != null) {
+                answer = persistentAnswers.load(number, source.get());
+                cacheIfCurrent(number, answer, startedGeneration);
+            }
+            if (answer == null) {
+                SourcedAnswer computed = computation.compute();
+                answer = computed.answer();
+                if (cacheIfCurrent(number, answer, startedGeneration)) {
+                    persistIfCurrent(number, computed.source(), answer, startedGeneration);
+                }
+            }
+            created.complete(answer);
+            return answer;
+        } catch (IOException | RuntimeException | Error e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            computations.remove(number, created);
+        }
+    }
+
+    /**
+     * Удаляет ответы на перечисленные вопросы из памяти, включая ответы по ZIP-кодам,
+     * и с диска, и начинает новое поколение кэша. Расчёты, которые уже выполняются, завершатся
+     * и вернут результат своим вызывающим, но не сохранят его; новые вызовы
+     * {@code computeIfAbsent} начнут расчёт заново.
+     *
+     * @param numbers номера вопросов
+     */
+    @Override
+    public void invalidate(Collection<Integer> numbers) {
+        synchronized (generationLock) {
+            generation++;
+            for (Integer number : numbers) {
+                answers.remove(number);
+                computations.remove(number);
+            }
+            zipAnswers.removeIf(key -> numbers.contains(key.number()));
+        }
+        // ответ, записанный на диск до смены поколения, удаляется здесь или самим расчётом
+        if (persistentAnswers != null) {
+            persistentAnswers.remove(numbers);
+        }
+    }
+
+    private long currentGeneration() {
+        synchronized (generationLock) {
+            return generation;
+        }
+    }
+
+    /**
+     * Сохраняет ответ в памяти при условии, что с начала расчёта кэш не сбрасывался.
+     *
+     * @return {@code true}, если ответ сохранён
+     */
+    private boolean cacheIfCurrent(int number, Answer answer, long startedGeneration) {
+        synchronized (generationLock) {
+            if (generation != startedGeneration) return false;
+            cacheAnswer(number, answer);
+            return true;
+        }
+    }
+
+    /**
+     * Записывает ответ на диск без блокировки поколения. Если за время записи кэш
+     * сбросили, записанный ответ удаляется: {@link #invalidate(Collection)} мог удалить
+     * файлы раньше, чем запись завершилась.
+     */
+    private void persistIfCurrent(int number, String source, Answer answer, long startedGeneration) {
+        if (answer == null || persistentAnswers == null) return;
+        persistentAnswers.save(number, source, answer);
+        if (currentGeneration() != startedGeneration) {
+            persistentAnswers.remove(List.of(number));
+        }
+    }
+
+    private Answer await(CompletableFuture<Answer> computation) throws IOException {
+        try {
+            return computation.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for answer");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) throw ioException;
+            if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+            if (cause instanceof Error error) throw error;
+            throw new IOException("Couldn't compute answer: " + cause);
+        }
+    }
+
+    /**
+     * Сохраняет ответ на вопрос о конкретном ZIP-коде. При переполнении вытесняется
+     * ответ, к которому дольше всего не обращались.
+     *
+     * @param number  номер вопроса (3–5)
+     * @param zipCode ZIP-код
+     * @param answer  ответ; {@code null} не сохраняется
+     */
+    @Override
+    public void cacheAnswer(int number, String zipCode, Answer answer) {
+        if (answer != null) {
+            zipAnswers.put(new ZipKey(number, zipCode), answer);
+        }
+    }
+
+    /**
+     * Возвращает ответ на вопрос о конкретном ZIP-коде, если он закэширован и не устарел.
+     *
+     * @param number  номер вопроса (3–5)
+     * @param zipCode ZIP-код
+     * @return ответ или {@code null}
+     */
+    @Override
+    public Answer searchCache(int number, String zipCode) {
+        return zipAnswers.get(new ZipKey(number, zipCode));
+    }
+
+    /**
+     * @return счётчики попаданий, промахов и вытеснений кэша ответов по ZIP-кодам
+     */
+    @Override
+    public CacheStatistics zipCacheStatistics() {
+        return zipAnswers.statistics();
+    }
+
+    /** Ключ ответа по ZIP-коду. */
+    private record ZipKey(int number, String zipCode) {
+    }
 }
@@ -0,0 +1,203 @@
+package ru.ibs.diploma.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.ibs.diploma.datamanagement.DatasetSnapshots;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Хранилище рассчитанных ответов на локальном диске.
+ *
+ * <p>Второй уровень кэша после {@link CachedAnswers}: ответ, рассчитанный один раз,
+ * записывается в каталог {@code answers.persistent.dir} и после перезапуска
+ * приложения читается оттуда вместо повторного расчёта.
+ *
+ * <p>Ключ ответа – номер вопроса без параметров (1, 2, 6). Вместе с ответом
+ * сохраняется отпечаток входных файлов, по которым он рассчитан; его передаёт
+ * вызывающий, потому что только он знает, из каких файлов прочитаны данные расчёта.
+ * Ответ читается, только если сохранённый отпечаток совпадает с отпечатком текущих
+ * файлов, иначе он считается устаревшим и удаляется с диска.
+ *
+ * <p>Если каталог не задан, ответы на диск не сохраняются. Ошибки чтения и записи
+ * не прерывают работу: ответ просто будет рассчитан заново.
+ */
+@Component
+public class PersistentAnswers {
+
+    /** Сигнатура файла ответа. */
+    static final int MAGIC = 0x50564131; // "PVA1"
+
+    /** Версия формата; увеличивается при любом несовместимом изменении записи ответов. */
+    static final int FORMAT_VERSION = 1;
+
+    private static final byte FIRST_ANSWER = 1;
+    private static final byte SECOND_ANSWER = 2;
+    private static final byte SURPRISE_ANSWER = 3;
+
+    /** Имя файла ответа, см. {@link #answerPath(int)}; группа – номер вопроса. */
+    private static final Pattern ANSWER_FILE = Pattern.compile("answer-(\\d+)\\.bin");
+
+    /** Каталог ответов; {@code null}, если хранилище отключено. */
+    private final Path directory;
+
+    /**
+     * @param directory каталог для ответов; пустая строка отключает хранилище
+     */
+    public PersistentAnswers(@Value("${answers.persistent.dir:}") String directory) {
+        this.directory = directory == null || directory.isBlank() ? null : Path.of(directory);
+    }
+
+    /**
+     * Читает сохранённый ответ, если он рассчитан по файлам с указанным отпечатком.
+     *
+     * @param number      номер вопроса
+     * @param fingerprint отпечаток текущих входных файлов; {@code null} – ответ не читается
+     * @return ответ или {@code null}, если ответа нет или он устарел
+     */
+    public Answer load(int number, String fingerprint) {
+        if (directory == null || fingerprint == null) return null;
+
+        Path file = answerPath(number);
+        try {
+            if (!Files.isRegularFile(file)) return null;
+
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (in.remaining() < 12 || in.getInt() != MAGIC || in.getInt() != FORMAT_VERSION
+                    || in.getInt() != number
+                    || !fingerprint.equals(DatasetSnapshots.readString(in))) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+            return readAnswer(in);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Couldn't read saved answer " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Сохраняет ответ вместе с отпечатком файлов, по которым он рассчитан.
+     * Ответы неизвестного типа не сохраняются.
+     *
+     * @param number      номер вопроса
+     * @param fingerprint отпечаток файлов, из которых прочитаны данные расчёта;
+     *                    {@code null} – ответ не сохраняется
+     * @param answer      ответ
+     */
+    public void save(int number, String fingerprint, Answer answer) {
+        if (directory == null || fingerprint == null || !isSupported(answer)) return;
+
+        Path file = answerPath(number);
+        try {
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, "answer", ".tmp");
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(number);
+                DatasetSnapshots.writeString(out, fingerprint);
+                writeAnswer(out, answer);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temporary);
+                throw e;
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Couldn't save answer " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Удаляет с диска сохранённые ответы на перечисленные вопросы.
+     *
+     * @param numbers номера вопросов
+     */
+    public void remove(Collection<Integer> numbers) {
+        if (directory == null || numbers.isEmpty() || !Files.isDirectory(directory)) return;
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, path -> {
+            Matcher matcher = ANSWER_FILE.matcher(path.getFileName().toString());
+            return matcher.matches() && numbers.contains(Integer.valueOf(matcher.group(1)));
+        })) {
+            for (Path file : stream) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Couldn't remove saved answers in " + directory + ": " + e.getMessage());
+        }
+    }
+
+    private Path answerPath(int number) {
+        return directory.resolve("answer-" + number + ".bin");
+    }
+
+    private static boolean isSupported(Answer answer) {
+        return answer instanceof FirstAnswer || answer instanceof SecondAnswer || answer instanceof SurpriseAnswer;
+    }
+
+    private static void writeAnswer(DataOutput out, Answer answer) throws IOException {
+        if (answer instanceof FirstAnswer first) {
+            out.writeByte(FIRST_ANSWER);
+            DatasetSnapshots.writeBigDecimal(out, first.getResult());
+        } else if (answer instanceof SecondAnswer second) {
+            out.writeByte(SECOND_ANSWER);
+            out.writeInt(second.getResult().size());
+            for (Map.Entry<String, BigDecimal> entry : second.getResult().entrySet()) {
+                DatasetSnapshots.writeString(out, entry.getKey());
+                DatasetSnapshots.writeBigDecimal(out, entry.getValue());
+            }
+        } else {
+            SurpriseAnswer surprise = (SurpriseAnswer) answer;
+            out.writeByte(SURPRISE_ANSWER);
+            out.writeInt(surprise.getAnswers().size());
+            for (Map.Entry<String, Statistics> entry : surprise.getAnswers().entrySet()) {
+                DatasetSnapshots.writeString(out, entry.getKey());
+                DatasetSnapshots.writeBigDecimal(out, entry.getValue().avgMarketValue());
+                DatasetSnapshots.writeBigDecimal(out, entry.getValue().avgNumOfFines());
+            }
+        }
+    }
+
+    private static Answer readAnswer(ByteBuffer in) throws IOException {
+        byte type = in.get();
+        switch (type) {
+            case FIRST_ANSWER:
+                return new FirstAnswer(DatasetSnapshots.readBigDecimal(in));
+            case SECOND_ANSWER: {
+                Map<String, BigDecimal> result = new TreeMap<>();
+                for (int size = in.getInt(); size > 0; size--) {
+                    result.put(DatasetSnapshots.readString(in), DatasetSnapshots.readBigDecimal(in));
+                }
+                return new SecondAnswer(result);
+            }
+            case SURPRISE_ANSWER: {
+                Map<String, Statistics> result = new HashMap<>();
+                for (int size = in.getInt(); size > 0; size--) {
+                    String key = DatasetSnapshots.readString(in);
+                    result.put(key, new Statistics(DatasetSnapshots.readBigDecimal(in), DatasetSnapshots.readBigDecimal(in)));
+                }
+                return new SurpriseAnswer(result);
+            }
+            default:
+                throw new IOException("Unknown answer type " + type);
+        }
+    }
+}
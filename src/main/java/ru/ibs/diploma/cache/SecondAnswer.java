@@ -76,6 +76,15 @@ public class SecondAnswer implements Answer{
         return sb.toString();
     }
 
+    /**
+     * Возвращает карту результатов.
+     *
+     * @return карта «ключ → значение»
+     */
+    public Map<String, BigDecimal> getResult() {
+        return result;
+    }
+
     /**
      * Сравнивает текущий объект с указанным на равенство.
      * <p>
@@ -124,6 +124,15 @@ public class SurpriseAnswer implements Answer{
         return sb.toString();
     }
 
+    /**
+     * Возвращает статистику по ключам.
+     *
+     * @return карта «ключ → {@link Statistics}»
+     */
+    public Map<String, Statistics> getAnswers() {
+        return answers;
+    }
+
     /**
      * Сравнивает текущий объект с указанным на равенство.
      * <p>
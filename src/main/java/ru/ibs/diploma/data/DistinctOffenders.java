@@ -0,0 +1,17 @@
+package ru.ibs.diploma.data;
+
+import java.math.BigDecimal;
+
+/**
+ * Оценка числа различных автомобилей-нарушителей для ZIP-кода или причины штрафа.
+ *
+ * <p>Оценка получена по {@link DistinctPlates} и отличается от точного значения
+ * в среднем на {@link DistinctPlates#RELATIVE_STANDARD_ERROR} (около 1,6%).
+ *
+ * @param key                  ZIP-код или причина штрафа
+ * @param plates               оценка числа различных автомобилей
+ * @param perThousandResidents автомобилей на 1000 жителей ZIP-кода; {@code null} для причин
+ *                             и для ZIP-кодов без данных о населении
+ */
+public record DistinctOffenders(String key, long plates, BigDecimal perThousandResidents) {
+}
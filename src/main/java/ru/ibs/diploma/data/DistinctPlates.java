@@ -0,0 +1,119 @@
+package ru.ibs.diploma.data;
+
+import ru.ibs.diploma.sketch.HyperLogLog;
+
+import java.util.Arrays;
+
+/**
+ * Оценки числа различных автомобилей (по {@link Parking#carId()}) для каждого ZIP-кода
+ * и каждой причины штрафа.
+ *
+ * <p>Для каждого кода словаря, встреченного в колонке ZIP-кода или причины, хранится
+ * {@link HyperLogLog} точности {@value #PRECISION}: 4 КБ на код независимо от числа штрафов,
+ * относительная стандартная ошибка {@link #RELATIVE_STANDARD_ERROR} (около 1,6%).
+ * Точный подсчёт потребовал бы множества ID на каждый ZIP-код.
+ *
+ * <p>Штрафы с нулевым ID автомобиля (номер не распознан) не учитываются.
+ *
+ * <p>Оценки поддерживаются {@link ParkingColumns} при добавлении записей; оценки
+ * хранилищ с общим словарём объединяются {@link #merge(DistinctPlates)}.
+ *
+ * <p>Потокобезопасность не гарантируется.
+ */
+public class DistinctPlates {
+
+    /** Точность скетчей: {@code 2^12} регистров. */
+    public static final int PRECISION = 12;
+
+    /** Относительная стандартная ошибка оценки, {@code 1,04 / √4096}. */
+    public static final double RELATIVE_STANDARD_ERROR = 1.04 / Math.sqrt(1 << PRECISION);
+
+    private HyperLogLog[] byPostIndex = new HyperLogLog[16];
+    private HyperLogLog[] byReason = new HyperLogLog[16];
+
+    /**
+     * Учитывает штраф.
+     *
+     * @param postIndexCode код ZIP-кода или {@link ParkingColumns#NO_CODE}
+     * @param reasonCode    код причины или {@link ParkingColumns#NO_CODE}
+     * @param carId         ID автомобиля
+     */
+    public void add(int postIndexCode, int reasonCode, long carId) {
+        if (carId == 0) return;
+        long hash = HyperLogLog.hash(carId);
+        if (postIndexCode != ParkingColumns.NO_CODE) {
+            byPostIndex = withSketch(byPostIndex, postIndexCode);
+            byPostIndex[postIndexCode].addHash(hash);
+        }
+        if (reasonCode != ParkingColumns.NO_CODE) {
+            byReason = withSketch(byReason, reasonCode);
+            byReason[reasonCode].addHash(hash);
+        }
+    }
+
+    /**
+     * Добавляет оценки другого хранилища с тем же словарём строк.
+     *
+     * @param other оценки хранилища с тем же словарём
+     */
+    public void merge(DistinctPlates other) {
+        byPostIndex = merge(byPostIndex, other.byPostIndex);
+        byReason = merge(byReason, other.byReason);
+    }
+
+    /**
+     * @param postIndexCode код ZIP-кода в словаре
+     * @return оценка числа различных автомобилей со штрафами в этом ZIP-коде
+     */
+    public long byPostIndex(int postIndexCode) {
+        return estimate(byPostIndex, postIndexCode);
+    }
+
+    /**
+     * @param reasonCode код причины в словаре
+     * @return оценка числа различных автомобилей со штрафами по этой причине
+     */
+    public long byReason(int reasonCode) {
+        return estimate(byReason, reasonCode);
+    }
+
+    /**
+     * @param postIndexCode код словаря
+     * @return {@code true}, если код встречался в колонке ZIP-кода
+     */
+    public boolean hasPostIndex(int postIndexCode) {
+        return postIndexCode >= 0 && postIndexCode < byPostIndex.length && byPostIndex[postIndexCode] != null;
+    }
+
+    /**
+     * @param reasonCode код словаря
+     * @return {@code true}, если код встречался в колонке причины
+     */
+    public boolean hasReason(int reasonCode) {
+        return reasonCode >= 0 && reasonCode < byReason.length && byReason[reasonCode] != null;
+    }
+
+    private static long estimate(HyperLogLog[] sketches, int code) {
+        return code >= 0 && code < sketches.length && sketches[code] != null ? sketches[code].estimate() : 0;
+    }
+
+    private static HyperLogLog[] merge(HyperLogLog[] target, HyperLogLog[] source) {
+        for (int code = 0; code < source.length; code++) {
+            if (source[code] == null) continue;
+            target = withSketch(target, code);
+            target[code].merge(source[code]);
+        }
+        return target;
+    }
+
+    /** Массив скетчей, достаточный для кода, с созданным скетчем этого кода. */
+    private static HyperLogLog[] withSketch(HyperLogLog[] sketches, int code) {
+        if (code >= sketches.length) {
+            sketches = Arrays.copyOf(sketches, Math.max(code + 1, sketches.length * 2));
+        }
+        if (sketches[code] == null) {
+            sketches[code] = new HyperLogLog(PRECISION);
+        }
+        return sketches;
+    }
+}
@@ -0,0 +1,464 @@
+package ru.ibs.diploma.data;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Колоночное хранилище записей о парковочных штрафах.
+ *
+ * <p>Вместо списка объектов {@link Parking} каждое поле хранится в отдельном
+ * массиве примитивов:
+ * <ul>
+ *   <li>{@code long[]} – время нарушения в секундах эпохи;</li>
+ *   <li>{@code int[]} – сумма штрафа;</li>
+ *   <li>{@code long[]} – ID автомобиля и ID нарушения;</li>
+ *   <li>{@code int[]} – коды штата, причины и ZIP-кода из общего {@link StringDictionary}.</li>
+ * </ul>
+ * Это сокращает расход памяти на одну запись в несколько раз и позволяет
+ * агрегировать данные последовательным проходом по массивам.
+ *
+ * <p>Класс реализует {@link java.util.List}, поэтому может заполняться теми же
+ * методами чтения, что и обычный список: {@link #add(Parking)} раскладывает запись
+ * по колонкам, а {@link #get(int)} собирает её обратно. Время нарушения хранится
+ * с точностью до секунды.
+ *
+ * <p>Потокобезопасность не гарантируется; после загрузки хранилище
+ * используется только для чтения.
+ *
+ * @see Parking
+ */
+public class ParkingColumns extends AbstractList<Parking> {
+
+    /** Значение колонки времени для записей без времени нарушения. */
+    public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    /** Код пустой ({@code null}) строки в колонках-словарях. */
+    public static final int NO_CODE = StringDictionary.NO_CODE;
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    /** Размер промежуточного буфера при записи колонок в поток. */
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    private long[] timestamps;
+    private int[] fines;
+    private long[] carIds;
+    private long[] violationIds;
+    private int[] states;
+    private int[] reasons;
+    private int[] postIndexes;
+    private int size;
+
+    /** Словарь строк для колонок штата, причины и ZIP-кода. */
+    private final StringDictionary dictionary;
+
+    /** Оценки числа различных автомобилей; {@code null}, пока не запрошены через {@link #distinctPlates()}. */
+    private DistinctPlates distinctPlates;
+
+    /**
+     * Создаёт пустое хранилище с собственным словарём строк.
+     */
+    public ParkingColumns() {
+        this(new StringDictionary());
+    }
+
+    /**
+     * Создаёт пустое хранилище, кодирующее строки общим словарём. Хранилища
+     * с одним словарём объединяются простым копированием колонок.
+     *
+     * @param dictionary словарь строк; не {@code null}
+     */
+    public ParkingColumns(StringDictionary dictionary) {
+        this(dictionary, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Создаёт пустое хранилище с заданной начальной ёмкостью.
+     *
+     * @param dictionary словарь строк; не {@code null}
+     * @param capacity   начальное число записей
+     */
+    public ParkingColumns(StringDictionary dictionary, int capacity) {
+        this.dictionary = dictionary;
+        capacity = Math.max(capacity, 1);
+        timestamps = new long[capacity];
+        fines = new int[capacity];
+        carIds = new long[capacity];
+        violationIds = new long[capacity];
+        states = new int[capacity];
+        reasons = new int[capacity];
+        postIndexes = new int[capacity];
+    }
+
+    /**
+     * Возвращает колоночное представление коллекции штрафов. Если коллекция уже
+     * является {@code ParkingColumns}, она возвращается без копирования.
+     *
+     * @param parking коллекция штрафов; не {@code null}
+     * @return колоночное хранилище с теми же записями в том же порядке
+     */
+    public static ParkingColumns from(Collection<Parking> parking) {
+        if (parking instanceof ParkingColumns columns) {
+            return columns;
+        }
+        ParkingColumns columns = new ParkingColumns(new StringDictionary(), parking.size());
+        columns.addAll(parking);
+        return columns;
+    }
+
+    /**
+     * Раскладывает запись по колонкам и добавляет её в конец хранилища.
+     *
+     * @param parking запись о штрафе; не {@code null}
+     * @return всегда {@code true}
+     */
+    @Override
+    public boolean add(Parking parking) {
+        add(parking.timestamp() == null ? NO_TIMESTAMP : parking.timestamp().getEpochSecond(),
+                parking.moneyAmount(),
+                parking.reason(),
+                parking.carId(),
+                parking.state(),
+                parking.violationId(),
+                parking.postIndex());
+        return true;
+    }
+
+    /**
+     * Добавляет запись, уже разложенную на значения колонок, не создавая
+     * объектов {@link Parking} и {@link Instant}.
+     *
+     * @param epochSecond время нарушения в секундах эпохи или {@link #NO_TIMESTAMP}
+     * @param fine        сумма штрафа
+     * @param reason      причина штрафа; может быть {@code null}
+     * @param carId       ID автомобиля
+     * @param state       штат; может быть {@code null}
+     * @param violationId ID нарушения
+     * @param postIndex   ZIP-код; может быть {@code null}
+     */
+    public void add(long epochSecond, int fine, String reason, long carId, String state, long violationId,
+                    String postIndex) {
+        ensureCapacity(size + 1);
+        timestamps[size] = epochSecond;
+        fines[size] = fine;
+        carIds[size] = carId;
+        violationIds[size] = violationId;
+        states[size] = dictionary.encode(state);
+        reasons[size] = dictionary.encode(reason);
+        postIndexes[size] = dictionary.encode(postIndex);
+        if (distinctPlates != null) {
+            distinctPlates.add(postIndexes[size], reasons[size], carId);
+        }
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Добавляет все записи коллекции. Записи другого {@code ParkingColumns}
+     * копируются поколоночно, без промежуточных объектов {@link Parking};
+     * при общем словаре коды строк копируются без перекодирования.
+     *
+     * @param parking добавляемые записи
+     * @return {@code true}, если хранилище изменилось
+     */
+    @Override
+    public boolean addAll(Collection<? extends Parking> parking) {
+        if (!(parking instanceof ParkingColumns other)) {
+            return super.addAll(parking);
+        }
+        if (other.size == 0) return false;
+
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.timestamps, 0, timestamps, size, other.size);
+        System.arraycopy(other.fines, 0, fines, size, other.size);
+        System.arraycopy(other.carIds, 0, carIds, size, other.size);
+        System.arraycopy(other.violationIds, 0, violationIds, size, other.size);
+        copyCodes(other, other.states, states);
+        copyCodes(other, other.reasons, reasons);
+        copyCodes(other, other.postIndexes, postIndexes);
+        if (distinctPlates != null) {
+            if (other.distinctPlates != null && other.dictionary == dictionary) {
+                distinctPlates.merge(other.distinctPlates);
+            } else {
+                addDistinctPlates(size, size + other.size);
+            }
+        }
+        size += other.size;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Собирает запись с указанным номером из колонок.
+     *
+     * @param row номер записи
+     * @return новый объект {@link Parking}
+     * @throws IndexOutOfBoundsException если номер вне диапазона
+     */
+    @Override
+    public Parking get(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " is out of bounds for size " + size);
+        }
+        return new Parking(timestamps[row] == NO_TIMESTAMP ? null : Instant.ofEpochSecond(timestamps[row]),
+                fines[row],
+                dictionary.decode(reasons[row]),
+                carIds[row],
+                dictionary.decode(states[row]),
+                violationIds[row],
+                dictionary.decode(postIndexes[row]));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Сокращает массивы колонок до фактического числа записей.
+     */
+    public void trimToSize() {
+        if (timestamps.length == size) return;
+        resize(Math.max(size, 1));
+    }
+
+    /**
+     * Оценки числа различных автомобилей по ZIP-кодам и причинам.
+     *
+     * <p>При первом вызове оценки строятся по уже добавленным записям, после чего
+     * поддерживаются при каждом добавлении. Чтобы оценки строились во время чтения файла,
+     * метод вызывается для пустого хранилища.
+     *
+     * @return оценки, обновляемые вместе с хранилищем
+     */
+    public DistinctPlates distinctPlates() {
+        if (distinctPlates == null) {
+            distinctPlates = new DistinctPlates();
+            addDistinctPlates(0, size);
+        }
+        return distinctPlates;
+    }
+
+    private void addDistinctPlates(int from, int to) {
+        for (int row = from; row < to; row++) {
+            distinctPlates.add(postIndexes[row], reasons[row], carIds[row]);
+        }
+    }
+
+    /* ----------- бинарное представление ----------- */
+
+    /**
+     * Записывает хранилище в бинарном виде: словарь строк, число записей
+     * и колонки целиком, в порядке big-endian.
+     *
+     * @param out поток записи
+     * @throws IOException при ошибке записи
+     * @see #readFrom(ByteBuffer, StringDictionary)
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        int dictionarySize = dictionary.size();
+        out.writeInt(dictionarySize);
+        for (int code = 0; code < dictionarySize; code++) {
+            byte[] bytes = dictionary.decode(code).getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        out.writeInt(size);
+        ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+        writeColumn(out, buffer, timestamps);
+        writeColumn(out, buffer, fines);
+        writeColumn(out, buffer, carIds);
+        writeColumn(out, buffer, violationIds);
+        writeColumn(out, buffer, states);
+        writeColumn(out, buffer, reasons);
+        writeColumn(out, buffer, postIndexes);
+    }
+
+    /**
+     * Читает хранилище, записанное {@link #writeTo(DataOutput)}, начиная с текущей
+     * позиции буфера. Колонки копируются из буфера целиком; коды строк
+     * перекодируются в переданный словарь, только если они в нём отличаются.
+     *
+     * @param in         буфер с данными; позиция сдвигается за прочитанные данные
+     * @param dictionary словарь строк нового хранилища
+     * @return хранилище с прочитанными записями
+     */
+    public static ParkingColumns readFrom(ByteBuffer in, StringDictionary dictionary) {
+        int dictionarySize = in.getInt();
+        int[] codes = new int[dictionarySize];
+        boolean sameCodes = true;
+        for (int code = 0; code < dictionarySize; code++) {
+            byte[] bytes = new byte[in.getInt()];
+            in.get(bytes);
+            codes[code] = dictionary.encode(new String(bytes, StandardCharsets.UTF_8));
+            sameCodes &= codes[code] == code;
+        }
+
+        int size = in.getInt();
+        ParkingColumns columns = new ParkingColumns(dictionary, size);
+        in.asLongBuffer().get(columns.timestamps, 0, size);
+        in.position(in.position() + size * Long.BYTES);
+        in.asIntBuffer().get(columns.fines, 0, size);
+        in.position(in.position() + size * Integer.BYTES);
+        in.asLongBuffer().get(columns.carIds, 0, size);
+        in.position(in.position() + size * Long.BYTES);
+        in.asLongBuffer().get(columns.violationIds, 0, size);
+        in.position(in.position() + size * Long.BYTES);
+        for (int[] column : new int[][]{columns.states, columns.reasons, columns.postIndexes}) {
+            in.asIntBuffer().get(column, 0, size);
+            in.position(in.position() + size * Integer.BYTES);
+            if (!sameCodes) {
+                for (int row = 0; row < size; row++) {
+                    column[row] = column[row] == NO_CODE ? NO_CODE : codes[column[row]];
+                }
+            }
+        }
+        columns.size = size;
+        return columns;
+    }
+
+    /* ----------- доступ к колонкам ----------- */
+
+    /**
+     * @param row номер записи
+     * @return время нарушения в секундах эпохи или {@link #NO_TIMESTAMP}
+     */
+    public long epochSecond(int row) {
+        return timestamps[row];
+    }
+
+    /**
+     * @param row номер записи
+     * @return сумма штрафа
+     */
+    public int fine(int row) {
+        return fines[row];
+    }
+
+    /**
+     * @param row номер записи
+     * @return ID автомобиля
+     */
+    public long carId(int row) {
+        return carIds[row];
+    }
+
+    /**
+     * @param row номер записи
+     * @return ID нарушения
+     */
+    public long violationId(int row) {
+        return violationIds[row];
+    }
+
+    /**
+     * @param row номер записи
+     * @return код штата или {@link #NO_CODE}
+     */
+    public int stateCode(int row) {
+        return states[row];
+    }
+
+    /**
+     * @param row номер записи
+     * @return код причины штрафа или {@link #NO_CODE}
+     */
+    public int reasonCode(int row) {
+        return reasons[row];
+    }
+
+    /**
+     * @param row номер записи
+     * @return код ZIP-кода или {@link #NO_CODE}
+     */
+    public int postIndexCode(int row) {
+        return postIndexes[row];
+    }
+
+    /**
+     * @return словарь, которым закодированы строковые колонки
+     */
+    public StringDictionary dictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Возвращает код штата в словаре хранилища.
+     *
+     * @param state название штата
+     * @return код или {@link #NO_CODE}, если такого штата нет
+     */
+    public int stateCodeOf(String state) {
+        return dictionary.lookup(state);
+    }
+
+    /**
+     * Возвращает код ZIP-кода в словаре хранилища.
+     *
+     * @param postIndex ZIP-код
+     * @return код или {@link #NO_CODE}, если такого ZIP-кода нет
+     */
+    public int postIndexCodeOf(String postIndex) {
+        return dictionary.lookup(postIndex);
+    }
+
+    /**
+     * @param code код ZIP-кода
+     * @return ZIP-код или {@code null} для {@link #NO_CODE}
+     */
+    public String postIndexOf(int code) {
+        return dictionary.decode(code);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= timestamps.length) return;
+        resize(Math.max(capacity, timestamps.length + (timestamps.length >> 1)));
+    }
+
+    private void resize(int capacity) {
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        fines = Arrays.copyOf(fines, capacity);
+        carIds = Arrays.copyOf(carIds, capacity);
+        violationIds = Arrays.copyOf(violationIds, capacity);
+        states = Arrays.copyOf(states, capacity);
+        reasons = Arrays.copyOf(reasons, capacity);
+        postIndexes = Arrays.copyOf(postIndexes, capacity);
+    }
+
+    private void writeColumn(DataOutput out, ByteBuffer buffer, long[] column) throws IOException {
+        for (int from = 0; from < size; ) {
+            int count = Math.min(size - from, buffer.capacity() / Long.BYTES);
+            buffer.clear();
+            buffer.asLongBuffer().put(column, from, count);
+            out.write(buffer.array(), 0, count * Long.BYTES);
+            from += count;
+        }
+    }
+
+    private void writeColumn(DataOutput out, ByteBuffer buffer, int[] column) throws IOException {
+        for (int from = 0; from < size; ) {
+            int count = Math.min(size - from, buffer.capacity() / Integer.BYTES);
+            buffer.clear();
+            buffer.asIntBuffer().put(column, from, count);
+            out.write(buffer.array(), 0, count * Integer.BYTES);
+            from += count;
+        }
+    }
+
+    private void copyCodes(ParkingColumns other, int[] from, int[] to) {
+        if (other.dictionary == dictionary) {
+            System.arraycopy(from, 0, to, size, other.size);
+            return;
+        }
+        for (int i = 0; i < other.size; i++) {
+            to[size + i] = dictionary.encode(other.dictionary.decode(from[i]));
+        }
+    }
+}
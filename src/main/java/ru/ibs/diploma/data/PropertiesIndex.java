@@ -0,0 +1,162 @@
+package ru.ibs.diploma.data;
+
+import ru.ibs.diploma.sketch.KllSketch;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Неизменяемый индекс агрегатов по объектам недвижимости, сгруппированных по ZIP-коду.
+ *
+ * <p>Для каждого ZIP-кода хранит общее число объектов, а для каждого {@link Field} –
+ * число непустых значений и их сумму. Индекс строится за один проход по списку
+ * {@link Properties}, после чего средние значения и суммы для любого ZIP-кода
+ * вычисляются за O(1) без повторного сканирования данных.
+ *
+ * <p>В том же проходе для каждого ZIP-кода и поля заполняется {@link KllSketch}, который
+ * после построения индекса заменяется неизменяемым {@link KllSketch.SortedView}. Медиана
+ * и другие квантили находятся двоичным поиском за микросекунды; погрешность – около 1,65%
+ * по рангу (см. {@link KllSketch}), память – не больше нескольких сотен значений на поле
+ * каждого ZIP-кода. Пока значений меньше {@link KllSketch#DEFAULT_K}, квантили точны.
+ *
+ * <p>Записи без ZIP-кода в индекс не попадают.
+ *
+ * @see Properties
+ * @see Field
+ */
+public class PropertiesIndex {
+
+    /** Пустой индекс, используемый до первой загрузки данных. */
+    public static final PropertiesIndex EMPTY = new PropertiesIndex(Map.of());
+
+    /** Карта «ZIP-код → агрегаты по этому коду». */
+    private final Map<String, ZipAggregate> aggregates;
+
+    private PropertiesIndex(Map<String, ZipAggregate> aggregates) {
+        this.aggregates = aggregates;
+    }
+
+    /**
+     * Строит индекс по коллекции объектов недвижимости.
+     *
+     * @param properties объекты недвижимости; не {@code null}
+     * @return построенный индекс
+     */
+    public static PropertiesIndex of(Collection<Properties> properties) {
+        Map<String, ZipAggregate> aggregates = new HashMap<>();
+        for (Properties p : properties) {
+            if (p.ZipCode() == null) continue;
+            aggregates.computeIfAbsent(p.ZipCode(), code -> new ZipAggregate()).add(p);
+        }
+        aggregates.values().forEach(ZipAggregate::freeze);
+        return new PropertiesIndex(aggregates);
+    }
+
+    /**
+     * Возвращает число объектов недвижимости с указанным ZIP-кодом.
+     *
+     * @param code ZIP-код
+     * @return количество объектов; {@code 0}, если код отсутствует
+     */
+    public long count(String code) {
+        ZipAggregate aggregate = aggregates.get(code);
+        return aggregate == null ? 0 : aggregate.count;
+    }
+
+    /**
+     * Возвращает число объектов с непустым значением поля для указанного ZIP-кода.
+     *
+     * @param code  ZIP-код
+     * @param field поле недвижимости
+     * @return количество непустых значений; {@code 0}, если код отсутствует
+     */
+    public long nonNullCount(String code, Field field) {
+        ZipAggregate aggregate = aggregates.get(code);
+        return aggregate == null ? 0 : aggregate.nonNullCounts[field.ordinal()];
+    }
+
+    /**
+     * Возвращает сумму непустых значений поля для указанного ZIP-кода.
+     *
+     * @param code  ZIP-код
+     * @param field поле недвижимости
+     * @return сумма значений; {@link BigDecimal#ZERO}, если код отсутствует
+     */
+    public BigDecimal sum(String code, Field field) {
+        ZipAggregate aggregate = aggregates.get(code);
+        return aggregate == null ? BigDecimal.ZERO : aggregate.sums[field.ordinal()];
+    }
+
+    /**
+     * Возвращает среднее значение поля для указанного ZIP-кода, округлённое
+     * до целого в сторону нуля. Пустые значения поля не учитываются.
+     *
+     * @param code  ZIP-код
+     * @param field поле недвижимости
+     * @return среднее значение; {@link BigDecimal#ZERO}, если непустых значений нет
+     */
+    public BigDecimal average(String code, Field field) {
+        long nonNull = nonNullCount(code, field);
+        if (nonNull == 0) {
+            return BigDecimal.ZERO;
+        }
+        return sum(code, field).divide(BigDecimal.valueOf(nonNull), 0, RoundingMode.DOWN);
+    }
+
+    /**
+     * Возвращает приближённый квантиль поля для указанного ZIP-кода, округлённый
+     * до целого в сторону нуля. Пустые значения поля не учитываются.
+     *
+     * @param code  ZIP-код
+     * @param field поле недвижимости
+     * @param rank  ранг от {@code 0} до {@code 1}, например {@code 0.5} для медианы
+     * @return значение квантиля; {@link BigDecimal#ZERO}, если непустых значений нет
+     * @throws IllegalArgumentException если ранг вне {@code [0, 1]}
+     */
+    public BigDecimal quantile(String code, Field field, double rank) {
+        ZipAggregate aggregate = aggregates.get(code);
+        double value = aggregate == null ? Double.NaN : aggregate.quantiles[field.ordinal()].quantile(rank);
+        if (Double.isNaN(value)) {
+            return BigDecimal.ZERO;
+        }
+        return BigDecimal.valueOf(value).setScale(0, RoundingMode.DOWN);
+    }
+
+    /**
+     * Накопитель агрегатов для одного ZIP-кода.
+     */
+    private static final class ZipAggregate {
+        private long count;
+        private final long[] nonNullCounts = new long[Field.values().length];
+        private final BigDecimal[] sums = new BigDecimal[Field.values().length];
+
+        /** Скетчи квантилей; нужны только при построении индекса. */
+        private KllSketch[] sketches = new KllSketch[Field.values().length];
+        private final KllSketch.SortedView[] quantiles = new KllSketch.SortedView[Field.values().length];
+
+        private ZipAggregate() {
+            Arrays.fill(sums, BigDecimal.ZERO);
+            Arrays.setAll(sketches, field -> new KllSketch());
+        }
+
+        private void add(Properties p) {
+            count++;
+            for (Field field : Field.values()) {
+                BigDecimal value = field.getValue(p);
+                if (value == null) continue;
+                nonNullCounts[field.ordinal()]++;
+                sums[field.ordinal()] = sums[field.ordinal()].add(value);
+                sketches[field.ordinal()].update(value.doubleValue());
+            }
+        }
+
+        private void freeze() {
+            Arrays.setAll(quantiles, field -> sketches[field].sortedView());
+            sketches = null;
+        }
+    }
+}
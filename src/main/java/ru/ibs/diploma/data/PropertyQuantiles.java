@@ -0,0 +1,15 @@
+package ru.ibs.diploma.data;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Квантили поля недвижимости для одного ZIP-кода.
+ *
+ * @param zip       ZIP-код
+ * @param field     поле недвижимости
+ * @param count     число объектов с непустым значением поля
+ * @param quantiles значения квантилей по рангу в порядке запроса, например {@code "0.5" → медиана}
+ */
+public record PropertyQuantiles(String zip, Field field, long count, Map<String, BigDecimal> quantiles) {
+}
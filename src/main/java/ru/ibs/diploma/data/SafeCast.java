@@ -13,10 +13,28 @@ import java.time.format.DateTimeParseException;
  * Методы возвращают значения по умолчанию (или {@code null}) при ошибках или отсутствии данных.
  * Помечен как {@link Service}, чтобы быть доступным для внедрения в другие компоненты Spring.
  * </p>
+ * <p>
+ * Числа и время разбираются статическими методами {@link #parseLong(CharSequence, int, int)}
+ * и {@link #parseEpochSecond(CharSequence, int, int)} прямо по диапазону символов: без
+ * создания подстрок, без исключений и без промежуточных объектов. При ошибке они
+ * возвращают значения-маркеры {@link #NO_NUMBER} и {@link #NO_EPOCH_SECOND}.
+ * </p>
  */
 @Service
 public class SafeCast {
 
+    /** Результат {@link #parseLong(CharSequence, int, int)} для пустого или неверного числа. */
+    public static final long NO_NUMBER = Long.MIN_VALUE;
+
+    /** Результат {@link #parseEpochSecond(CharSequence, int, int)} для пустого или неверного времени. */
+    public static final long NO_EPOCH_SECOND = Long.MIN_VALUE;
+
+    /** Длина времени в формате {@code yyyy-MM-ddTHH:mm:ssZ}. */
+    private static final int EPOCH_SECOND_LENGTH = 20;
+
+    /** Наибольшее число значащих цифр, при котором десятичное число помещается в {@code long}. */
+    private static final int MAX_LONG_DIGITS = 18;
+
     /**
      * Извлекает строку по индексу. Возвращает null, если индекс вне диапазона, значение пустое или null.
      *
@@ -27,7 +45,9 @@ public class SafeCast {
     public String safeGetString(String[] line, int index) {
         if (index >= line.length) return null;
         String value = line[index];
-        return (value == null || value.trim().isEmpty()) ? null : value.trim();
+        if (value == null) return null;
+        value = value.trim();
+        return value.isEmpty() ? null : value;
     }
 
     /**
@@ -38,15 +58,10 @@ public class SafeCast {
      * @return число или 0
      */
     public long safeGetLong(String[] line, int index) {
-        String value = safeGetString(line, index);
-        if (value == null) {
-            return 0;
-        }
-        try {
-            return Long.parseLong(value);
-        } catch (NumberFormatException e) {
-            return 0;
-        }
+        String value = rawValue(line, index);
+        if (value == null) return 0;
+        long result = parseLong(value, 0, value.length());
+        return result == NO_NUMBER ? 0 : result;
     }
 
     /**
@@ -55,19 +70,38 @@ public class SafeCast {
      * @param line  массив строк
      * @param index индекс значения
      * @return Instant или null
+     * @see #safeGetEpochSecond(String[], int)
      */
     public Instant safeGetInstance(String[] line, int index) {
+        long epochSecond = safeGetEpochSecond(line, index);
+        if (epochSecond != NO_EPOCH_SECOND) {
+            return Instant.ofEpochSecond(epochSecond);
+        }
         String value = safeGetString(line, index);
         if (value == null) {
             return null;
         }
         try {
-            return Instant.parse(value.trim());
+            // прочие варианты ISO-8601, например с долями секунды
+            return Instant.parse(value);
         } catch (DateTimeParseException e) {
             return null;
         }
     }
 
+    /**
+     * Извлекает время в формате {@code yyyy-MM-ddTHH:mm:ssZ} в секундах эпохи,
+     * не создавая объектов. Время в другом формате не распознаётся.
+     *
+     * @param line  массив строк
+     * @param index индекс значения
+     * @return секунды эпохи или {@link #NO_EPOCH_SECOND}
+     */
+    public long safeGetEpochSecond(String[] line, int index) {
+        String value = rawValue(line, index);
+        return value == null ? NO_EPOCH_SECOND : parseEpochSecond(value, 0, value.length());
+    }
+
     /**
      * Извлекает int значение. Возвращает 0 при ошибке или отсутствии данных.
      *
@@ -76,13 +110,10 @@ public class SafeCast {
      * @return число или 0
      */
     public int safeGetInt(String[] line, int index) {
-        String value = safeGetString(line, index);
+        String value = rawValue(line, index);
         if (value == null) return 0;
-        try {
-            return Integer.parseInt(value);
-        } catch (NumberFormatException e) {
-            return 0;
-        }
+        long result = parseLong(value, 0, value.length());
+        return result < Integer.MIN_VALUE || result > Integer.MAX_VALUE ? 0 : (int) result;
     }
 
     /**
@@ -114,6 +145,151 @@ public class SafeCast {
         if(value == null){
             return null;
         }
-        return new BigDecimal(value);
+        BigDecimal result = parseSimpleDecimal(value);
+        return result != null ? result : new BigDecimal(value);
+    }
+
+    /* ----------- разбор по диапазону символов ----------- */
+
+    /**
+     * Разбирает целое число со знаком из диапазона символов. Пробельные символы
+     * по краям диапазона пропускаются.
+     *
+     * @param value строка
+     * @param from  начало диапазона (включительно)
+     * @param to    конец диапазона (не включительно)
+     * @return число или {@link #NO_NUMBER}, если диапазон пуст, содержит не цифры
+     *         или число не помещается в {@code long}
+     */
+    public static long parseLong(CharSequence value, int from, int to) {
+        while (from < to && value.charAt(from) <= ' ') from++;
+        while (to > from && value.charAt(to - 1) <= ' ') to--;
+        if (from == to) return NO_NUMBER;
+
+        boolean negative = false;
+        char first = value.charAt(from);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++from == to) return NO_NUMBER;
+        }
+
+        // накапливаем отрицательное значение, чтобы уместить Long.MIN_VALUE
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || result < (Long.MIN_VALUE + digit) / 10) {
+                return NO_NUMBER;
+            }
+            result = result * 10 - digit;
+        }
+        if (negative) return result;
+        return result == Long.MIN_VALUE ? NO_NUMBER : -result;
+    }
+
+    /**
+     * Разбирает время в формате {@code yyyy-MM-ddTHH:mm:ssZ} (UTC) из диапазона символов
+     * в секунды эпохи одной арифметикой. Пробельные символы по краям пропускаются.
+     *
+     * @param value строка
+     * @param from  начало диапазона (включительно)
+     * @param to    конец диапазона (не включительно)
+     * @return секунды эпохи или {@link #NO_EPOCH_SECOND}, если формат или значения полей неверны
+     */
+    public static long parseEpochSecond(CharSequence value, int from, int to) {
+        while (from < to && value.charAt(from) <= ' ') from++;
+        while (to > from && value.charAt(to - 1) <= ' ') to--;
+        if (to - from != EPOCH_SECOND_LENGTH
+                || value.charAt(from + 4) != '-' || value.charAt(from + 7) != '-'
+                || value.charAt(from + 10) != 'T' || value.charAt(from + 13) != ':'
+                || value.charAt(from + 16) != ':' || value.charAt(from + 19) != 'Z') {
+            return NO_EPOCH_SECOND;
+        }
+
+        int year = digits(value, from, 4);
+        int month = digits(value, from + 5, 2);
+        int day = digits(value, from + 8, 2);
+        int hour = digits(value, from + 11, 2);
+        int minute = digits(value, from + 14, 2);
+        int second = digits(value, from + 17, 2);
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return NO_EPOCH_SECOND;
+        }
+
+        return epochDay(year, month, day) * 86_400L + hour * 3_600L + minute * 60L + second;
+    }
+
+    /**
+     * Возвращает значение по индексу без обрезки пробелов или {@code null}.
+     */
+    private static String rawValue(String[] line, int index) {
+        return index >= line.length ? null : line[index];
+    }
+
+    /**
+     * Разбирает десятичное число вида {@code [-+]digits[.digits]} не длиннее
+     * {@link #MAX_LONG_DIGITS} цифр через {@link BigDecimal#valueOf(long, int)}.
+     *
+     * @return число или {@code null}, если запись сложнее (экспонента, много цифр, ошибка)
+     */
+    private static BigDecimal parseSimpleDecimal(String value) {
+        int length = value.length();
+        int i = 0;
+        boolean negative = false;
+        if (value.charAt(0) == '-' || value.charAt(0) == '+') {
+            negative = value.charAt(0) == '-';
+            i++;
+        }
+
+        long unscaled = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '.' && scale < 0) {
+                scale = 0;
+            } else if (c >= '0' && c <= '9' && digits < MAX_LONG_DIGITS) {
+                unscaled = unscaled * 10 + (c - '0');
+                digits++;
+                if (scale >= 0) scale++;
+            } else {
+                return null;
+            }
+        }
+        if (digits == 0) return null;
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+    }
+
+    /**
+     * @return значение {@code count} десятичных цифр начиная с {@code from} или {@code -1}
+     */
+    private static int digits(CharSequence value, int from, int count) {
+        int result = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        if (month == 2) {
+            return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0 ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    /**
+     * Номер дня от 1970-01-01 по пролептическому григорианскому календарю.
+     */
+    private static long epochDay(int year, int month, int day) {
+        // год начинается с марта, чтобы високосный день был последним
+        int y = month <= 2 ? year - 1 : year;
+        int era = y / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097L + dayOfEra - 719_468L;
     }
 }
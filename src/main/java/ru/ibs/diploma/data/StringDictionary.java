@@ -0,0 +1,100 @@
+package ru.ibs.diploma.data;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Словарь строк с малым числом различных значений: строка → небольшой целый код
+ * и обратно.
+ *
+ * <p>Используется для штатов, причин штрафов и ZIP-кодов, у которых на миллионы
+ * записей приходится лишь несколько сотен различных значений. Каждое значение
+ * хранится в словаре в единственном экземпляре, а сравнение значений сводится
+ * к сравнению кодов.
+ *
+ * <p>Коды выдаются подряд, начиная с нуля, и никогда не меняются. Словарь
+ * потокобезопасен: его можно заполнять из нескольких потоков одновременно,
+ * например при параллельном чтении фрагментов файла.
+ */
+public class StringDictionary {
+
+    /** Код пустой ({@code null}) строки. */
+    public static final int NO_CODE = -1;
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+
+    /**
+     * Значения по кодам. Новое значение записывается в массив до публикации
+     * его кода в {@link #codes}, поэтому любой полученный код можно декодировать
+     * без блокировки.
+     */
+    private volatile String[] values = new String[64];
+
+    private int size;
+
+    /**
+     * Возвращает код строки, добавляя её в словарь при первом обращении.
+     *
+     * @param value строка; может быть {@code null}
+     * @return код строки или {@link #NO_CODE} для {@code null}
+     */
+    public int encode(String value) {
+        if (value == null) return NO_CODE;
+        Integer code = codes.get(value);
+        return code != null ? code : add(value);
+    }
+
+    /**
+     * Возвращает код строки, не добавляя её в словарь.
+     *
+     * @param value строка; может быть {@code null}
+     * @return код строки или {@link #NO_CODE}, если строки в словаре нет
+     */
+    public int lookup(String value) {
+        if (value == null) return NO_CODE;
+        return codes.getOrDefault(value, NO_CODE);
+    }
+
+    /**
+     * Возвращает строку по её коду.
+     *
+     * @param code код, полученный от этого словаря, или {@link #NO_CODE}
+     * @return строка или {@code null} для {@link #NO_CODE}
+     */
+    public String decode(int code) {
+        return code == NO_CODE ? null : values[code];
+    }
+
+    /**
+     * Возвращает единственный хранимый словарём экземпляр строки,
+     * равной переданной, добавляя её при необходимости.
+     *
+     * @param value строка; может быть {@code null}
+     * @return канонический экземпляр строки или {@code null}
+     */
+    public String canonical(String value) {
+        return decode(encode(value));
+    }
+
+    /**
+     * @return число строк в словаре; все выданные коды меньше этого значения
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private synchronized int add(String value) {
+        Integer existing = codes.get(value);
+        if (existing != null) return existing;
+
+        String[] current = values;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = value;
+        values = current;
+        codes.put(value, size);
+        return size++;
+    }
+}
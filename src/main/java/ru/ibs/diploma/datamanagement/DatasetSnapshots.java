@@ -0,0 +1,357 @@
+package ru.ibs.diploma.datamanagement;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.ibs.diploma.logging.WriteLogService;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Сервис бинарных снимков уже разобранных наборов данных.
+ *
+ * <p>После первого успешного чтения текстового файла его разобранное содержимое
+ * записывается в каталог {@code datasets.snapshot.dir} в компактном бинарном виде.
+ * При следующем запуске снимок отображается в память и читается вместо повторного
+ * разбора CSV/JSON/TXT.
+ *
+ * <p>Формат снимка:
+ * <ol>
+ *   <li>сигнатура {@link #MAGIC} и версия формата {@link #FORMAT_VERSION};</li>
+ *   <li>вид набора данных, абсолютный путь, размер и время изменения исходного файла;</li>
+ *   <li>данные, записанные переданным {@link Codec}.</li>
+ * </ol>
+ * Снимок считается действительным, только если версия формата, путь, размер и время
+ * изменения исходного файла совпадают с текущими. Устаревший или повреждённый снимок
+ * игнорируется и перезаписывается после очередного разбора файла.
+ *
+ * <p>Если каталог не задан, снимки не используются. Снимок читается одним отображением
+ * в память, поэтому его размер ограничен {@link #MAX_SNAPSHOT_BYTES}: запись большего снимка
+ * прерывается, а прежний снимок того же файла удаляется.
+ */
+@Service
+public class DatasetSnapshots {
+
+    /** Сигнатура файла снимка. */
+    static final int MAGIC = 0x50565331; // "PVS1"
+
+    /** Версия формата; увеличивается при любом несовместимом изменении кодеков. */
+    static final int FORMAT_VERSION = 1;
+
+    /** Наибольший размер снимка: больший файл нельзя отобразить в один {@link MappedByteBuffer}. */
+    static final long MAX_SNAPSHOT_BYTES = Integer.MAX_VALUE;
+
+    /** Каталог снимков; {@code null}, если снимки отключены. */
+    private final Path directory;
+
+    /** Наибольший размер снимка в байтах. */
+    private final long maxBytes;
+
+    /** Сервис логирования; может быть {@code null}. */
+    @Autowired
+    private WriteLogService writeLogService;
+
+    /**
+     * @param directory каталог для снимков; пустая строка отключает снимки
+     */
+    @Autowired
+    public DatasetSnapshots(@Value("${datasets.snapshot.dir:}") String directory) {
+        this(directory, MAX_SNAPSHOT_BYTES);
+    }
+
+    /**
+     * @param directory каталог для снимков; пустая строка отключает снимки
+     * @param maxBytes  наибольший размер снимка в байтах
+     */
+    DatasetSnapshots(String directory, long maxBytes) {
+        this.directory = directory == null || directory.isBlank() ? null : Path.of(directory);
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Способ записи и чтения данных конкретного вида.
+     *
+     * @param <T> тип набора данных
+     */
+    public interface Codec<T> {
+        /**
+         * Записывает данные в поток.
+         *
+         * @param value данные
+         * @param out   поток записи
+         * @throws IOException при ошибке записи
+         */
+        void write(T value, DataOutput out) throws IOException;
+
+        /**
+         * Читает данные из буфера, начиная с его текущей позиции.
+         *
+         * @param in буфер с данными
+         * @return прочитанные данные
+         * @throws IOException если данные повреждены
+         */
+        T read(ByteBuffer in) throws IOException;
+    }
+
+    /**
+     * @return {@code true}, если каталог снимков задан
+     */
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Читает действительный снимок исходного файла.
+     *
+     * @param kind       вид набора данных (например, {@code "parking"})
+     * @param sourceFile путь к исходному текстовому файлу
+     * @param codec      способ чтения данных
+     * @param <T>        тип набора данных
+     * @return данные из снимка или {@code null}, если снимка нет, он устарел или повреждён
+     */
+    public <T> T load(String kind, String sourceFile, Codec<T> codec) {
+        if (directory == null) return null;
+
+        try {
+            Path source = Path.of(sourceFile).toAbsolutePath().normalize();
+            Path snapshot = snapshotPath(kind, source);
+            if (!Files.isRegularFile(snapshot) || Files.size(snapshot) > maxBytes) {
+                return null;
+            }
+
+            try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (!readHeader(buffer, kind, source)) {
+                    return null;
+                }
+                if (writeLogService != null) {
+                    writeLogService.logFileEntry(snapshot.toString());
+                }
+                return codec.read(buffer);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Couldn't read snapshot of file " + sourceFile + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Записывает снимок исходного файла. Ошибка записи не прерывает работу приложения.
+     * Если снимок превышает наибольший размер, запись прерывается и снимок этого файла
+     * удаляется: прочитать его всё равно было бы нельзя.
+     *
+     * @param kind       вид набора данных
+     * @param sourceFile путь к исходному текстовому файлу
+     * @param value      разобранные данные
+     * @param codec      способ записи данных
+     * @param <T>        тип набора данных
+     */
+    public <T> void save(String kind, String sourceFile, T value, Codec<T> codec) {
+        if (directory == null) return;
+
+        try {
+            Path source = Path.of(sourceFile).toAbsolutePath().normalize();
+            Path snapshot = snapshotPath(kind, source);
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, kind, ".tmp");
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new LimitedOutputStream(Files.newOutputStream(temporary), maxBytes), 1 << 16))) {
+                writeHeader(out, kind, source);
+                codec.write(value, out);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temporary);
+                throw e;
+            }
+            Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (SnapshotTooLargeException e) {
+            try {
+                Files.deleteIfExists(snapshotPath(kind, Path.of(sourceFile).toAbsolutePath().normalize()));
+            } catch (IOException | RuntimeException ignored) {
+                // устаревший снимок всё равно не пройдёт проверку заголовка
+            }
+            System.out.println("Snapshot of file " + sourceFile + " is larger than " + maxBytes
+                    + " bytes and is not saved");
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Couldn't write snapshot of file " + sourceFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Поток, прерывающий запись исключением {@link SnapshotTooLargeException},
+     * как только записано больше {@code limit} байт.
+     */
+    private static final class LimitedOutputStream extends FilterOutputStream {
+
+        private final long limit;
+        private long written;
+
+        LimitedOutputStream(OutputStream out, long limit) {
+            super(out);
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            count(1);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            count(length);
+            out.write(bytes, offset, length);
+        }
+
+        private void count(int length) throws SnapshotTooLargeException {
+            written += length;
+            if (written > limit) {
+                throw new SnapshotTooLargeException();
+            }
+        }
+    }
+
+    /** Снимок превысил наибольший размер. */
+    private static final class SnapshotTooLargeException extends IOException {
+    }
+
+    private Path snapshotPath(String kind, Path source) {
+        return directory.resolve(kind + "-" + Integer.toHexString(source.toString().hashCode()) + ".snap");
+    }
+
+    private void writeHeader(DataOutput out, String kind, Path source) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        writeString(out, kind);
+        writeString(out, source.toString());
+        out.writeLong(attributes.size());
+        out.writeLong(attributes.lastModifiedTime().toMillis());
+    }
+
+    private boolean readHeader(ByteBuffer in, String kind, Path source) throws IOException {
+        if (in.remaining() < 8 || in.getInt() != MAGIC || in.getInt() != FORMAT_VERSION) {
+            return false;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+        return kind.equals(readString(in))
+                && source.toString().equals(readString(in))
+                && in.getLong() == attributes.size()
+                && in.getLong() == attributes.lastModifiedTime().toMillis();
+    }
+
+    /**
+     * Строит отпечаток файла: абсолютный путь, размер и время изменения.
+     * Изменение любого из них означает, что файл нужно разобрать заново.
+     *
+     * @param file путь к файлу; может быть {@code null}
+     * @return отпечаток; для отсутствующего файла – только путь, для {@code null} – {@code "-"}
+     * @throws IOException при ошибке чтения атрибутов файла
+     */
+    public static String fingerprint(String file) throws IOException {
+        if (file == null) return "-";
+        Path path = Path.of(file).toAbsolutePath().normalize();
+        if (!Files.exists(path)) return path.toString();
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        return path + "|" + attributes.size() + "|" + attributes.lastModifiedTime().toMillis();
+    }
+
+    /* ----------- вспомогательные методы для кодеков ----------- */
+
+    /**
+     * Записывает строку в UTF-8 с префиксом длины; {@code null} записывается как длина {@code -1}.
+     *
+     * @param out   поток записи
+     * @param value строка; может быть {@code null}
+     * @throws IOException при ошибке записи
+     */
+    public static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Читает строку, записанную {@link #writeString(DataOutput, String)}.
+     *
+     * @param in буфер с данными
+     * @return строка или {@code null}
+     */
+    public static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Записывает число {@link BigDecimal}; {@code null} допускается.
+     *
+     * @param out   поток записи
+     * @param value число; может быть {@code null}
+     * @throws IOException при ошибке записи
+     */
+    public static void writeBigDecimal(DataOutput out, BigDecimal value) throws IOException {
+        if (value == null) {
+            out.writeByte(0);
+        } else if (value.unscaledValue().bitLength() < 64) {
+            out.writeByte(1);
+            out.writeInt(value.scale());
+            out.writeLong(value.unscaledValue().longValue());
+        } else {
+            byte[] bytes = value.unscaledValue().toByteArray();
+            out.writeByte(2);
+            out.writeInt(value.scale());
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Читает число, записанное {@link #writeBigDecimal(DataOutput, BigDecimal)}.
+     *
+     * @param in буфер с данными
+     * @return число или {@code null}
+     * @throws IOException если тип записи неизвестен
+     */
+    public static BigDecimal readBigDecimal(ByteBuffer in) throws IOException {
+        byte type = in.get();
+        switch (type) {
+            case 0:
+                return null;
+            case 1: {
+                int scale = in.getInt();
+                return BigDecimal.valueOf(in.getLong(), scale);
+            }
+            case 2: {
+                int scale = in.getInt();
+                byte[] bytes = new byte[in.getInt()];
+                in.get(bytes);
+                return new BigDecimal(new BigInteger(bytes), scale);
+            }
+            default:
+                throw new IOException("Unknown number type " + type);
+        }
+    }
+}
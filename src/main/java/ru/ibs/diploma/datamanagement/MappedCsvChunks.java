@@ -0,0 +1,111 @@
+package ru.ibs.diploma.datamanagement;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разбиение CSV-файла на отображённые в память фрагменты, каждый из которых
+ * содержит только целые записи.
+ *
+ * <p>Границы фрагментов ищутся одним последовательным проходом по байтам файла:
+ * после достижения желаемого размера фрагмент продолжается до ближайшего перевода
+ * строки, находящегося вне кавычек. Экранирование символом {@code \} учитывается
+ * так же, как в {@link com.opencsv.CSVReader} по умолчанию: он экранирует следующую
+ * за ним кавычку или {@code \} как внутри кавычек, так и в поле без кавычек, а другие
+ * символы, в том числе перевод строки, не экранирует. Поэтому перевод строки внутри
+ * поля в кавычках никогда не становится границей фрагмента, а {@code \} в конце
+ * записи её границу не скрывает.
+ *
+ * <p>Полученные фрагменты можно разбирать независимо друг от друга в разных потоках.
+ */
+final class MappedCsvChunks {
+
+    /** Размер буфера для последовательного поиска границ. */
+    private static final int SCAN_BUFFER_SIZE = 1 << 20;
+
+    private MappedCsvChunks() {
+    }
+
+    /**
+     * Делит файл на фрагменты по границам записей и отображает каждый из них в память.
+     *
+     * @param channel   открытый на чтение канал файла
+     * @param chunkSize желаемый размер фрагмента в байтах; не больше {@link Integer#MAX_VALUE} / 2
+     * @return фрагменты в порядке следования в файле; пустой список для пустого файла
+     * @throws IOException при ошибке чтения или отображения файла
+     */
+    static List<MappedByteBuffer> split(FileChannel channel, long chunkSize) throws IOException {
+        long size = channel.size();
+        List<MappedByteBuffer> chunks = new ArrayList<>();
+
+        ByteBuffer scan = ByteBuffer.allocateDirect(SCAN_BUFFER_SIZE);
+        long start = 0;
+        long position = 0;
+        boolean inQuotes = false;
+        boolean escaped = false;
+
+        while (position < size) {
+            scan.clear();
+            int read = channel.read(scan, position);
+            if (read <= 0) break;
+            scan.flip();
+
+            for (int i = 0; i < read; i++) {
+                byte b = scan.get(i);
+                if (escaped) {
+                    escaped = false;
+                    if (b == '"' || b == '\\') continue;
+                }
+                if (b == '\\') {
+                    escaped = true;
+                } else if (b == '"') {
+                    inQuotes = !inQuotes;
+                } else if (b == '\n' && !inQuotes && position + i + 1 - start >= chunkSize) {
+                    long end = position + i + 1;
+                    chunks.add(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+                    start = end;
+                }
+            }
+            position += read;
+        }
+
+        if (start < size) {
+            chunks.add(channel.map(FileChannel.MapMode.READ_ONLY, start, size - start));
+        }
+
+        return chunks;
+    }
+
+    /**
+     * Представляет содержимое буфера как {@link InputStream}, не копируя его.
+     *
+     * @param buffer буфер с данными; позиция буфера сдвигается по мере чтения
+     * @return поток чтения из буфера
+     */
+    static InputStream asInputStream(ByteBuffer buffer) {
+        return new InputStream() {
+            @Override
+            public int read() {
+                return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) {
+                if (!buffer.hasRemaining()) return -1;
+                int count = Math.min(length, buffer.remaining());
+                buffer.get(bytes, offset, count);
+                return count;
+            }
+
+            @Override
+            public int available() {
+                return buffer.remaining();
+            }
+        };
+    }
+}
@@ -1,22 +1,36 @@
 package ru.ibs.diploma.datamanagement;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.opencsv.CSVReader;
 import com.opencsv.exceptions.CsvValidationException;
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import ru.ibs.diploma.data.FileNames;
 import ru.ibs.diploma.data.Parking;
+import ru.ibs.diploma.data.ParkingColumns;
 import ru.ibs.diploma.data.SafeCast;
+import ru.ibs.diploma.data.StringDictionary;
 import ru.ibs.diploma.logging.WriteLogService;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Сервис чтения файлов с данными о парковочных штрафах.
@@ -24,7 +38,7 @@ import java.util.List;
  * <p>Реализует интерфейс {@link ReadFile} и умеет работать с двумя форматами:
  * <ul>
  *   <li>CSV – через {@link CSVReader} (OpenCSV);</li>
- *   <li>JSON – через библиотеку {@code json-simple}.</li>
+ *   <li>JSON – потоковым разбором через {@link JsonParser} (Jackson).</li>
  * </ul>
  *
  * <p>Выбор конкретного способа чтения определяется значением
@@ -42,12 +56,51 @@ import java.util.List;
  *   <li>zip_code – ZIP-код (строка)</li>
  * </ol>
  *
+ * <p>Все методы чтения возвращают колоночное хранилище {@link ParkingColumns},
+ * поэтому записи не хранятся в памяти в виде отдельных объектов. Строковые
+ * поля кодируются словарём {@link StringDictionary}, который создаётся заново
+ * при каждом чтении файла: строки прежнего файла в нём не остаются.
+ *
+ * <p>Во время чтения для каждого ZIP-кода и причины накапливаются оценки числа
+ * различных автомобилей ({@link ParkingColumns#distinctPlates()}).
+ *
+ * <p>Если включены снимки ({@link DatasetSnapshots}), разобранные колонки
+ * сохраняются после первого чтения и при следующем запуске загружаются
+ * из снимка без разбора исходного файла.
+ *
  * <p>Все операции чтения логируются через {@link WriteLogService}.
  *
  */
 @Service
 public class ReadParking implements ReadFile{
 
+    /**
+     * Фабрика потоковых JSON-парсеров; потокобезопасна и переиспользуется.
+     */
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /** Минимальный размер фрагмента при параллельном чтении CSV-файла. */
+    private static final long MIN_CSV_CHUNK_SIZE = 1 << 20;
+
+    /** Максимальный размер фрагмента при параллельном чтении CSV-файла. */
+    private static final long MAX_CSV_CHUNK_SIZE = 256L << 20;
+
+    /** Вид набора данных в имени снимка. */
+    private static final String SNAPSHOT_KIND = "parking";
+
+    /**
+     * Соответствие имени поля JSON-объекта его позиции в строке,
+     * передаваемой в {@link #addParking(String[], List)}.
+     */
+    private static final Map<String, Integer> JSON_FIELDS = Map.of(
+            "date", 0,
+            "fine", 1,
+            "violation", 2,
+            "plate_id", 3,
+            "state", 4,
+            "ticket_number", 5,
+            "zip_code", 6);
+
     /**
      * Хранилище имён файлов и текущего формата данных.
      */
@@ -67,6 +120,28 @@ public class ReadParking implements ReadFile{
     @Autowired
     private SafeCast safeCast;
 
+    /**
+     * Сервис снимков разобранных данных; может быть {@code null}
+     * при использовании упрощённого конструктора.
+     */
+    @Autowired
+    private DatasetSnapshots snapshots;
+
+    /**
+     * Включает параллельное чтение CSV-файла через отображение в память
+     * ({@link #readCsvParkingParallel()}) вместо последовательного
+     * ({@link #readCsvParking()}).
+     */
+    @Value("${parking.csv.parallel:false}")
+    private boolean parallelCsv;
+
+    /**
+     * Число потоков для параллельного чтения CSV-файла;
+     * {@code 0} – по числу доступных процессоров.
+     */
+    @Value("${parking.csv.threads:0}")
+    private int csvThreads;
+
     /**
      * Полный конструктор с внедрением всех зависимостей.
      *
@@ -94,8 +169,9 @@ public class ReadParking implements ReadFile{
      * Точка входа интерфейса {@link ReadFile}.
      *
      * <p>Выбирает нужный способ чтения (CSV/JSON) на основании
-     * {@link FileNames#getParkingType()}. При несоответствии типа выбрасывает
-     * {@link ClassCastException}.
+     * {@link FileNames#getParkingType()}. CSV-файл читается параллельно, если
+     * задано свойство {@code parking.csv.parallel=true}. При несоответствии типа
+     * выбрасывает {@link ClassCastException}.
      *
      * @param type класс, в который должен быть преобразован файл
      * @param <T>  тип элементов результирующего списка
@@ -107,11 +183,25 @@ public class ReadParking implements ReadFile{
     @Override
     public <T> List<T> readFile(Class<T> type) throws ClassCastException, IOException{
         if(Parking.class.isAssignableFrom(type)) {
+            SnapshotCodec codec = new SnapshotCodec();
+            if (snapshots != null) {
+                ParkingColumns snapshot = snapshots.load(SNAPSHOT_KIND, fileNames.getParkingFile(), codec);
+                if (snapshot != null) return (List<T>) snapshot;
+            }
+
+            List<Parking> result;
             if (fileNames.getParkingType().equalsIgnoreCase("json")) {
-                return (List<T>) readJsonParking();
+                result = readJsonParking();
+            } else if (parallelCsv) {
+                result = readCsvParkingParallel();
             } else {
-                return (List<T>) readCsvParking();
+                result = readCsvParking();
+            }
+
+            if (snapshots != null) {
+                snapshots.save(SNAPSHOT_KIND, fileNames.getParkingFile(), ParkingColumns.from(result), codec);
             }
+            return (List<T>) result;
         }else{
             throw new ClassCastException("Type is not for parking file");
         }
@@ -121,36 +211,45 @@ public class ReadParking implements ReadFile{
      * Читает JSON-массив штрафов и преобразует его в список объектов
      * {@link Parking}.
      *
+     * <p>Файл разбирается потоково, по токенам: каждый объект массива сразу
+     * превращается в {@link Parking}, поэтому объём памяти на разбор не зависит
+     * от размера файла. Неизвестные поля объекта пропускаются, отсутствующие
+     * поля и значения {@code null} обрабатываются {@link SafeCast} как пустые.
+     *
      * @return список штрафов; никогда не {@code null}
      * @throws IOException если файл не найден, повреждён или имеет
      *                     неправильную структуру
      */
     public List<Parking> readJsonParking()throws IOException{
-        List<Parking> result = new ArrayList<>();
+        List<Parking> result = newColumns(new StringDictionary());
 
-        JSONArray jarray = null;
-        try{
-            writeLogService.logFileEntry(fileNames.getParkingFile());
-            Object obj = new JSONParser().parse(new FileReader(fileNames.getParkingFile()));
-            jarray = (JSONArray) obj;
-        }catch(IOException | ParseException e){
-            throw new IOException("Couldn't read file: " + e.getMessage());
-        }
+        writeLogService.logFileEntry(fileNames.getParkingFile());
+        try(JsonParser parser = JSON_FACTORY.createParser(new File(fileNames.getParkingFile()))){
+            if(parser.nextToken() != JsonToken.START_ARRAY){
+                throw new IOException("JSON array of parking fines expected");
+            }
 
-        if(jarray != null){
-            for(Object o : jarray) {
-                JSONObject jobj = (JSONObject) o;
+            while(parser.nextToken() == JsonToken.START_OBJECT){
+                String[] line = new String[JSON_FIELDS.size()];
 
-                String[] line = {jobj.get("date").toString(),
-                                jobj.get("fine").toString(),
-                                jobj.get("violation").toString(),
-                                jobj.get("plate_id").toString(),
-                                jobj.get("state").toString(),
-                                jobj.get("ticket_number").toString(),
-                                jobj.get("zip_code").toString()};
+                while(parser.nextToken() == JsonToken.FIELD_NAME){
+                    Integer index = JSON_FIELDS.get(parser.currentName());
+                    JsonToken value = parser.nextToken();
+                    if(index == null || !value.isScalarValue()){
+                        parser.skipChildren();
+                    }else if(value != JsonToken.VALUE_NULL){
+                        line[index] = parser.getText();
+                    }
+                }
 
                 addParking(line, result);
             }
+
+            if(parser.currentToken() != JsonToken.END_ARRAY){
+                throw new IOException("Unexpected token " + parser.currentToken());
+            }
+        }catch(IOException e){
+            throw new IOException("Couldn't read file: " + e.getMessage());
         }
 
         return result;
@@ -164,7 +263,7 @@ public class ReadParking implements ReadFile{
      * @throws IOException при ошибке чтения или нарушении CSV-формата
      */
     public List<Parking> readCsvParking() throws IOException {
-        List<Parking> result = new ArrayList<>();
+        List<Parking> result = newColumns(new StringDictionary());
         try(BufferedReader br = new BufferedReader(new FileReader(fileNames.getParkingFile()));
             CSVReader cr = new CSVReader(br)){
             writeLogService.logFileEntry(fileNames.getParkingFile());
@@ -182,10 +281,80 @@ public class ReadParking implements ReadFile{
         return result;
     }
 
+    /**
+     * Читает CSV-файл штрафов параллельно и преобразует его в список объектов
+     * {@link Parking}.
+     *
+     * <p>Файл отображается в память и делится на фрагменты по границам записей
+     * (см. {@link MappedCsvChunks}). Каждый фрагмент разбирается отдельным потоком
+     * в собственный список, после чего списки объединяются в порядке следования
+     * фрагментов, поэтому порядок записей совпадает с {@link #readCsvParking()}.
+     * Все фрагменты кодируют строки одним словарём этого чтения, поэтому объединение
+     * сводится к копированию колонок.
+     * Проверка строк выполняется тем же методом {@link #addParking(String[], List)}.
+     *
+     * @return список штрафов; никогда не {@code null}
+     * @throws IOException при ошибке чтения или нарушении CSV-формата
+     */
+    public List<Parking> readCsvParkingParallel() throws IOException {
+        int threads = csvThreads > 0 ? csvThreads : Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        StringDictionary dictionary = new StringDictionary();
+
+        try(FileChannel channel = FileChannel.open(Path.of(fileNames.getParkingFile()), StandardOpenOption.READ)){
+            writeLogService.logFileEntry(fileNames.getParkingFile());
+
+            long chunkSize = Math.max(MIN_CSV_CHUNK_SIZE,
+                    Math.min(MAX_CSV_CHUNK_SIZE, channel.size() / (threads * 4L) + 1));
+            List<Future<List<Parking>>> parts = new ArrayList<>();
+            for(MappedByteBuffer chunk : MappedCsvChunks.split(channel, chunkSize)){
+                parts.add(executor.submit(() -> readCsvChunk(chunk, dictionary)));
+            }
+
+            List<Parking> result = newColumns(dictionary);
+            for(Future<List<Parking>> part : parts){
+                result.addAll(part.get());
+            }
+            return result;
+        }catch (ExecutionException ee){
+            throw new IOException("Couldn't finish work with file: " + ee.getCause());
+        }catch (InterruptedException ie){
+            Thread.currentThread().interrupt();
+            throw new IOException("Reading of file was interrupted: " + fileNames.getParkingFile());
+        }finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Разбирает один фрагмент CSV-файла.
+     *
+     * @param chunk      фрагмент файла, содержащий только целые записи
+     * @param dictionary словарь строк, общий для всех фрагментов файла
+     * @return штрафы из фрагмента в порядке следования
+     * @throws IOException            при ошибке чтения или некорректной строке
+     * @throws CsvValidationException при нарушении CSV-формата
+     */
+    private List<Parking> readCsvChunk(MappedByteBuffer chunk, StringDictionary dictionary)
+            throws IOException, CsvValidationException {
+        List<Parking> result = newColumns(dictionary);
+        try(CSVReader cr = new CSVReader(new BufferedReader(
+                new InputStreamReader(MappedCsvChunks.asInputStream(chunk), StandardCharsets.UTF_8)))){
+            String[] line;
+            while((line = cr.readNext()) != null){
+                addParking(line, result);
+            }
+        }
+        return result;
+    }
+
     /**
      * Создаёт объект {@link Parking} из массива строк и добавляет его
      * в коллекцию.
      *
+     * <p>В {@link ParkingColumns} значения добавляются напрямую по колонкам:
+     * время разбирается в секунды эпохи без промежуточных объектов.
+     *
      * @param line   массив из 7 строк-полей
      * @param result коллекция, в которую будет добавлен новый объект
      * @throws IOException если длина массива отлична от 7
@@ -194,6 +363,21 @@ public class ReadParking implements ReadFile{
         if( line == null || line.length !=7){
             throw new IOException("Couldn't create new parking from line " + Arrays.toString(line));
         }
+        if(result instanceof ParkingColumns columns){
+            long epochSecond = safeCast.safeGetEpochSecond(line, 0);
+            if(epochSecond == SafeCast.NO_EPOCH_SECOND){
+                Instant timestamp = safeCast.safeGetInstance(line, 0);
+                epochSecond = timestamp == null ? ParkingColumns.NO_TIMESTAMP : timestamp.getEpochSecond();
+            }
+            columns.add(epochSecond,
+                    safeCast.safeGetInt(line, 1),
+                    safeCast.safeGetString(line, 2),
+                    safeCast.safeGetLong(line, 3),
+                    safeCast.safeGetString(line, 4),
+                    safeCast.safeGetLong(line, 5),
+                    safeCast.safeGetString(line, 6));
+            return;
+        }
         Parking parking = new Parking(safeCast.safeGetInstance(line, 0),
                 safeCast.safeGetInt(line, 1),
                 safeCast.safeGetString(line, 2),
@@ -205,4 +389,36 @@ public class ReadParking implements ReadFile{
         result.add(parking);
     }
 
+    /**
+     * Создаёт хранилище со словарём текущего чтения. Оценки числа различных
+     * автомобилей ({@link ParkingColumns#distinctPlates()}) включаются сразу и накапливаются
+     * по ходу чтения; оценки фрагментов параллельного чтения объединяются вместе с колонками.
+     *
+     * @param dictionary словарь строк; новый для каждого чтения файла, чтобы его размер,
+     *                   от которого зависят агрегаты по штрафам, не рос от перезагрузки к перезагрузке
+     */
+    private ParkingColumns newColumns(StringDictionary dictionary) {
+        ParkingColumns columns = new ParkingColumns(dictionary);
+        columns.distinctPlates();
+        return columns;
+    }
+
+    /**
+     * Кодек снимка: колонки записываются и читаются целиком, строки
+     * перекодируются в новый словарь.
+     */
+    private static class SnapshotCodec implements DatasetSnapshots.Codec<ParkingColumns> {
+        @Override
+        public void write(ParkingColumns value, DataOutput out) throws IOException {
+            value.writeTo(out);
+        }
+
+        @Override
+        public ParkingColumns read(ByteBuffer in) {
+            // снимок хранит только колонки: оценки различных автомобилей строятся по ним заново
+            ParkingColumns columns = ParkingColumns.readFrom(in, new StringDictionary());
+            columns.distinctPlates();
+            return columns;
+        }
+    }
 }
@@ -6,9 +6,11 @@ import ru.ibs.diploma.data.FileNames;
 import ru.ibs.diploma.logging.WriteLogService;
 
 import java.io.BufferedReader;
+import java.io.DataOutput;
 import java.io.FileReader;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.TreeMap;
 
@@ -27,6 +29,9 @@ import java.util.TreeMap;
  * <p>Результат возвращается в виде отсортированной по ключу карты
  * ({@link TreeMap}), что обеспечивает упорядоченный вывод при итерации.
  *
+ * <p>Если включены снимки ({@link DatasetSnapshots}), успешно прочитанная карта
+ * сохраняется и при следующем запуске загружается из снимка.
+ *
  * <p>Все операции чтения фиксируются через {@link WriteLogService}.
  *
  * @since 1.0
@@ -34,6 +39,31 @@ import java.util.TreeMap;
 @Service
 public class ReadPopulation{
 
+    /** Вид набора данных в имени снимка. */
+    private static final String SNAPSHOT_KIND = "population";
+
+    /** Кодек снимка: пары «ZIP-код, население» в порядке ключей. */
+    private static final DatasetSnapshots.Codec<Map<String, BigDecimal>> SNAPSHOT_CODEC =
+            new DatasetSnapshots.Codec<>() {
+                @Override
+                public void write(Map<String, BigDecimal> value, DataOutput out) throws IOException {
+                    out.writeInt(value.size());
+                    for (Map.Entry<String, BigDecimal> entry : value.entrySet()) {
+                        DatasetSnapshots.writeString(out, entry.getKey());
+                        DatasetSnapshots.writeBigDecimal(out, entry.getValue());
+                    }
+                }
+
+                @Override
+                public Map<String, BigDecimal> read(ByteBuffer in) throws IOException {
+                    Map<String, BigDecimal> population = new TreeMap<>();
+                    for (int size = in.getInt(); size > 0; size--) {
+                        population.put(DatasetSnapshots.readString(in), DatasetSnapshots.readBigDecimal(in));
+                    }
+                    return population;
+                }
+            };
+
     /**
      * Хранилище имён файлов, получаемое через конструктор.
      */
@@ -46,6 +76,13 @@ public class ReadPopulation{
     @Autowired
     private WriteLogService writeLogService;
 
+    /**
+     * Сервис снимков разобранных данных; может быть {@code null}
+     * при использовании конструкторов вне контекста Spring.
+     */
+    @Autowired
+    private DatasetSnapshots snapshots;
+
     /**
      * Полный конструктор с внедрением зависимостей.
      *
@@ -80,6 +117,11 @@ public class ReadPopulation{
      *                     логируется), но объявлено для совместимости
      */
     public Map<String, BigDecimal> readFile() throws IOException{
+        if (snapshots != null) {
+            Map<String, BigDecimal> snapshot = snapshots.load(SNAPSHOT_KIND, fileNames.getPopulationFile(), SNAPSHOT_CODEC);
+            if (snapshot != null) return snapshot;
+        }
+
         Map<String, BigDecimal> result = new TreeMap<>();
 
         try(BufferedReader br = new BufferedReader(new FileReader(fileNames.getPopulationFile()))){
@@ -90,6 +132,10 @@ public class ReadPopulation{
 
                 result.put(parsed[0], new BigDecimal(parsed[1]));
             }
+
+            if (snapshots != null) {
+                snapshots.save(SNAPSHOT_KIND, fileNames.getPopulationFile(), result, SNAPSHOT_CODEC);
+            }
         }catch (IOException ie){
             System.out.println("Couldn't read from population file: " + ie.getMessage());
         }
@@ -9,8 +9,10 @@ import ru.ibs.diploma.data.Properties;
 import ru.ibs.diploma.data.SafeCast;
 import ru.ibs.diploma.logging.WriteLogService;
 
+import java.io.DataOutput;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.stream.IntStream;
 
@@ -26,14 +28,60 @@ import java.util.stream.IntStream;
  *   <li>каждая последующая строка преобразуется в объект {@link Properties}.</li>
  * </ul>
  *
+ * <p>Индексы обязательных столбцов определяются по заголовку заранее, и парсер
+ * извлекает из каждой строки только эти три столбца: остальные поля широкой
+ * выгрузки (около 80 столбцов) не превращаются в строки.
+ *
  * <p>При инициализации использует {@link FileNames} для получения пути к файлу,
  * {@link WriteLogService} для фиксации операций чтения и {@link SafeCast}
  * для безопасного приведения типов.
  *
+ * <p>Если включены снимки ({@link DatasetSnapshots}), прочитанные записи
+ * сохраняются после первого чтения и при следующем запуске загружаются из снимка.
+ *
  */
 @Service
 public class ReadProperties implements ReadFile{
 
+    /** Вид набора данных в имени снимка. */
+    private static final String SNAPSHOT_KIND = "properties";
+
+    /** Позиция {@code market_value} в строке, возвращаемой парсером с выборкой столбцов. */
+    private static final int MARKET_VALUE_COLUMN = 0;
+
+    /** Позиция {@code total_livable_area} в строке, возвращаемой парсером с выборкой столбцов. */
+    private static final int TOTAL_LIVABLE_AREA_COLUMN = 1;
+
+    /** Позиция {@code zip_code} в строке, возвращаемой парсером с выборкой столбцов. */
+    private static final int ZIP_CODE_COLUMN = 2;
+
+    /** Кодек снимка: три поля каждой записи подряд. */
+    private static final DatasetSnapshots.Codec<List<Properties>> SNAPSHOT_CODEC =
+            new DatasetSnapshots.Codec<>() {
+                @Override
+                public void write(List<Properties> value, DataOutput out) throws IOException {
+                    out.writeInt(value.size());
+                    for (Properties property : value) {
+                        DatasetSnapshots.writeBigDecimal(out, property.MarketValue());
+                        DatasetSnapshots.writeBigDecimal(out, property.TotalLivableArea());
+                        DatasetSnapshots.writeString(out, property.ZipCode());
+                    }
+                }
+
+                @Override
+                public List<Properties> read(ByteBuffer in) throws IOException {
+                    int size = in.getInt();
+                    List<Properties> properties = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        properties.add(new Properties(
+                                DatasetSnapshots.readBigDecimal(in),
+                                DatasetSnapshots.readBigDecimal(in),
+                                DatasetSnapshots.readString(in)));
+                    }
+                    return properties;
+                }
+            };
+
     /**
      * Хранилище имён файлов, получаемое через конструктор.
      */
@@ -49,6 +97,12 @@ public class ReadProperties implements ReadFile{
      */
     @Autowired
     private SafeCast safeCast;
+    /**
+     * Сервис снимков разобранных данных; может быть {@code null}
+     * при использовании упрощённых конструкторов.
+     */
+    @Autowired
+    private DatasetSnapshots snapshots;
     /**
      * Полный конструктор с внедрением всех зависимостей.
      *
@@ -103,33 +157,61 @@ public class ReadProperties implements ReadFile{
             throw new ClassCastException("Unsupported type");
         }
 
-        List<Properties> properties = new ArrayList<>();
-
-        CsvParser parser = new CsvParser(new CsvParserSettings());
-        parser.beginParsing(new File(fileNames.getPropertiesFile()));
-        writeLogService.logFileEntry(fileNames.getPropertiesFile());
-
-        String[] row = parser.parseNext();
+        if (snapshots != null) {
+            List<Properties> snapshot = snapshots.load(SNAPSHOT_KIND, fileNames.getPropertiesFile(), SNAPSHOT_CODEC);
+            if (snapshot != null) return (List<T>) snapshot;
+        }
 
-        Integer marketValIndex = findIndex("market_value", row);
-        Integer totalLivableAreaIndex = findIndex("total_livable_area", row);
-        Integer zipCodeIndex = findIndex("zip_code", row);
+        String[] header = readHeader();
+        Integer marketValIndex = findIndex("market_value", header);
+        Integer totalLivableAreaIndex = findIndex("total_livable_area", header);
+        Integer zipCodeIndex = findIndex("zip_code", header);
 
         if(marketValIndex == null || totalLivableAreaIndex == null || zipCodeIndex == null){
             throw new IOException("Wrong fields in file properties.csv");
         }
 
+        // парсер извлекает только три нужных столбца и возвращает их в порядке выбора
+        CsvParserSettings settings = new CsvParserSettings();
+        settings.setHeaderExtractionEnabled(true);
+        settings.selectIndexes(marketValIndex, totalLivableAreaIndex, zipCodeIndex);
+        settings.setColumnReorderingEnabled(true);
+
+        List<Properties> properties = new ArrayList<>();
+        CsvParser parser = new CsvParser(settings);
+        parser.beginParsing(new File(fileNames.getPropertiesFile()));
+        writeLogService.logFileEntry(fileNames.getPropertiesFile());
+
+        String[] row;
         while((row = parser.parseNext()) != null){
             properties.add(new Properties(
-                    safeCast.safeGetBigDecimal(row, marketValIndex),
-                    safeCast.safeGetBigDecimal(row, totalLivableAreaIndex),
-                    (safeCast.safeSubstring(safeCast.safeGetString(row, zipCodeIndex), 5))
+                    safeCast.safeGetBigDecimal(row, MARKET_VALUE_COLUMN),
+                    safeCast.safeGetBigDecimal(row, TOTAL_LIVABLE_AREA_COLUMN),
+                    (safeCast.safeSubstring(safeCast.safeGetString(row, ZIP_CODE_COLUMN), 5))
             ));
         }
 
+        if (snapshots != null) {
+            snapshots.save(SNAPSHOT_KIND, fileNames.getPropertiesFile(), properties, SNAPSHOT_CODEC);
+        }
         return (List<T>) properties;
     }
 
+    /**
+     * Читает строку заголовков файла свойств.
+     *
+     * @return заголовки или {@code null}, если файл пуст
+     */
+    private String[] readHeader() {
+        CsvParserSettings settings = new CsvParserSettings();
+        settings.setNumberOfRecordsToRead(1);
+        CsvParser parser = new CsvParser(settings);
+        parser.beginParsing(new File(fileNames.getPropertiesFile()));
+        String[] header = parser.parseNext();
+        parser.stopParsing();
+        return header;
+    }
+
     /**
      * Вспомогательный метод для поиска индекса столбца по имени заголовка.
      *
@@ -0,0 +1,533 @@
+package ru.ibs.diploma.generator;
+
+import ru.ibs.diploma.data.FileNames;
+import ru.ibs.diploma.data.ParkingColumns;
+import ru.ibs.diploma.data.Properties;
+import ru.ibs.diploma.data.SafeCast;
+import ru.ibs.diploma.datamanagement.ReadParking;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Генератор синтетических наборов данных в форматах, которые читают
+ * {@code ReadParking}, {@code ReadProperties} и {@code ReadPopulation}.
+ *
+ * <p>Распределения подобраны по файлам из репозитория:
+ * <ul>
+ *   <li>штрафы распределены по ZIP-кодам Филадельфии по закону Ципфа, у пятой части штрафов ZIP-кода нет;</li>
+ *   <li>виды нарушений встречаются с той же частотой, сумма штрафа определяется видом нарушения;</li>
+ *   <li>время нарушения – 2013 год, днём чаще, чем ночью, в будни чаще, чем в выходные;</li>
+ *   <li>большинство автомобилей из Пенсильвании, часть штрафов приходится на постоянных нарушителей;</li>
+ *   <li>рыночная стоимость недвижимости распределена логнормально, ZIP-код записан в 5 или 9 цифр;</li>
+ *   <li>население всего города около 1,5 млн человек и не зависит от числа штрафов.</li>
+ * </ul>
+ * Доля {@link Settings#malformedRate()} записей содержит одно испорченное значение (неверное время,
+ * нечисловой штраф, пустой номер и т. п.), которое читатели должны пропустить без ошибки.
+ *
+ * <p>Результат полностью определяется {@link Settings}: при одном и том же зерне файлы совпадают
+ * побайтно, а CSV и JSON содержат одни и те же штрафы. Те же данные можно получить в памяти
+ * ({@link #parking()}, {@link #properties()}, {@link #population()}) – в том виде, в каком
+ * их вернули бы читатели файлов.
+ *
+ * <p>Запуск из командной строки:
+ * <pre>
+ * DatasetGenerator &lt;каталог&gt; [--tickets=N] [--properties=N] [--zips=N] [--malformed=R] [--seed=N]
+ * </pre>
+ */
+public class DatasetGenerator {
+
+    /** Имена создаваемых файлов в каталоге {@link #writeAll(Path)}. */
+    public static final String PARKING_CSV = "parking.csv";
+    public static final String PARKING_JSON = "parking.json";
+    public static final String PROPERTIES_CSV = "properties.csv";
+    public static final String POPULATION_TXT = "population.txt";
+
+    /** ZIP-коды Филадельфии; первые – с наибольшим числом штрафов. */
+    private static final String[] ZIP_CODES = {
+            "19103", "19107", "19147", "19104", "19102", "19106", "19146", "19130", "19123", "19125",
+            "19148", "19122", "19145", "19121", "19143", "19134", "19139", "19140", "19133", "19144",
+            "19141", "19124", "19131", "19132", "19119", "19142", "19149", "19128", "19138", "19120",
+            "19111", "19152", "19115", "19136", "19135", "19151", "19126", "19127", "19129", "19137",
+            "19118", "19150", "19114", "19116", "19153", "19154", "19112", "19113"};
+
+    private static final String[] VIOLATIONS = {
+            "METER EXPIRED CC", "METER EXPIRED", "OVER TIME LIMIT", "STOP PROHIBITED CC", "EXPIRED INSPECTION",
+            "PARKING PROHBITED CC", "STOPPING PROHIBITED", "PARKING PROHBITED", "OVER TIME LIMIT CC",
+            "PASSENGR LOADNG ZONE", "FIRE HYDRANT", "BUS ONLY ZONE", "SIDEWALK", "CORNER CLEARANCE",
+            "HP RESERVED SPACE", "CROSSWALK", "SCHOOL ZONE", "DOUBLE PARKED", "STREET CLEANING", "BLOCKING DRIVEWAY"};
+    private static final int[] FINES = {36, 26, 26, 76, 41, 51, 51, 41, 36, 31, 76, 51, 51, 51, 301, 51, 36, 51, 31, 51};
+    private static final double[] VIOLATION_WEIGHTS = cumulative(new double[]{
+            6784, 3321, 3202, 2180, 1850, 1080, 1045, 948, 760, 608, 460, 435, 425, 263, 220, 179, 174, 160, 143, 124});
+
+    private static final String[] STATES = {"PA", "NJ", "NY", "DE", "MD", "VA", "MI", "TX", "FL", "OH"};
+    private static final double[] STATE_WEIGHTS = cumulative(new double[]{
+            21207, 1999, 565, 293, 181, 169, 133, 130, 120, 100});
+
+    /** Число штрафов по часам суток (UTC). */
+    private static final double[] HOUR_WEIGHTS = cumulative(new double[]{
+            374, 254, 177, 129, 71, 58, 91, 680, 1106, 1315, 2172, 2868,
+            2640, 2252, 2390, 1861, 1643, 1260, 775, 826, 837, 1019, 527, 234});
+
+    /** Доля штрафов без ZIP-кода. */
+    private static final double MISSING_ZIP_RATE = 0.2;
+
+    /** Доля штрафов, выписанных постоянным нарушителям. */
+    private static final double REPEAT_OFFENDER_RATE = 0.3;
+
+    /** Вероятность перенести штраф с выходного дня на другой день. */
+    private static final double WEEKEND_SKIP_RATE = 0.4;
+
+    private static final double PARKING_ZIP_SKEW = 0.8;
+    private static final double PROPERTIES_ZIP_SKEW = 0.3;
+
+    private static final long FIRST_TICKET = 2_905_938;
+    private static final int FIRST_PLATE = 1_000_000;
+    private static final long TOTAL_POPULATION = 1_526_006;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2013, 1, 1);
+    private static final int DAYS = 365;
+
+    /** Число столбцов файла недвижимости по умолчанию: три нужных и три пустых. */
+    public static final int PROPERTIES_COLUMNS = 6;
+
+    /** Префиксы времени {@code yyyy-MM-ddT} для каждого дня года. */
+    private static final String[] DAY_PREFIXES = new String[DAYS];
+
+    /** Выходные дни года. */
+    private static final boolean[] WEEKENDS = new boolean[DAYS];
+
+    static {
+        for (int day = 0; day < DAYS; day++) {
+            LocalDate date = FIRST_DAY.plusDays(day);
+            DAY_PREFIXES[day] = date + "T";
+            WEEKENDS[day] = date.getDayOfWeek().getValue() >= 6;
+        }
+    }
+
+    /**
+     * Параметры генерации.
+     *
+     * @param tickets       число штрафов
+     * @param properties    число объектов недвижимости
+     * @param zipCodes      число ZIP-кодов; сверх 48 настоящих добавляются вымышленные
+     * @param malformedRate доля записей с испорченным значением, от 0 до 1
+     * @param seed          зерно генератора случайных чисел
+     */
+    public record Settings(int tickets, int properties, int zipCodes, double malformedRate, long seed) {
+
+        public Settings {
+            if (tickets < 0 || properties < 0) {
+                throw new IllegalArgumentException("Number of rows must not be negative");
+            }
+            if (zipCodes < 1) {
+                throw new IllegalArgumentException("At least one ZIP code is required");
+            }
+            if (!(malformedRate >= 0 && malformedRate <= 1)) {
+                throw new IllegalArgumentException("Malformed rate must be between 0 and 1: " + malformedRate);
+            }
+        }
+
+        /**
+         * Параметры по умолчанию для заданного числа штрафов: объектов недвижимости в 10 раз
+         * меньше, все ZIP-коды Филадельфии, одна испорченная запись на тысячу.
+         *
+         * @param tickets число штрафов
+         * @return параметры генерации
+         */
+        public static Settings of(int tickets) {
+            return new Settings(tickets, Math.max(tickets / 10, 1), ZIP_CODES.length, 0.001, 1);
+        }
+    }
+
+    private final Settings settings;
+    private final String[] zipCodes;
+
+    /** Накопленные веса ZIP-кодов для штрафов и для недвижимости. */
+    private final double[] parkingZipWeights;
+    private final double[] propertiesZipWeights;
+
+    /**
+     * @param settings параметры генерации
+     */
+    public DatasetGenerator(Settings settings) {
+        this.settings = settings;
+        this.zipCodes = new String[settings.zipCodes()];
+        for (int i = 0; i < zipCodes.length; i++) {
+            zipCodes[i] = i < ZIP_CODES.length ? ZIP_CODES[i] : Integer.toString(19155 + i - ZIP_CODES.length);
+        }
+        this.parkingZipWeights = zipfWeights(zipCodes.length, PARKING_ZIP_SKEW);
+        this.propertiesZipWeights = zipfWeights(zipCodes.length, PROPERTIES_ZIP_SKEW);
+    }
+
+    /**
+     * Записывает все четыре файла в каталог.
+     *
+     * @param directory каталог; создаётся при необходимости
+     * @return имена файлов, готовые для передачи приложению (формат штрафов – CSV)
+     * @throws IOException при ошибке записи
+     */
+    public FileNames writeAll(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        writeParkingCsv(directory.resolve(PARKING_CSV));
+        writeParkingJson(directory.resolve(PARKING_JSON));
+        writePropertiesCsv(directory.resolve(PROPERTIES_CSV));
+        writePopulation(directory.resolve(POPULATION_TXT));
+
+        FileNames fileNames = new FileNames();
+        fileNames.setParkingType("csv");
+        fileNames.setParkingFile(directory.resolve(PARKING_CSV).toString());
+        fileNames.setPropertiesFile(directory.resolve(PROPERTIES_CSV).toString());
+        fileNames.setPopulationFile(directory.resolve(POPULATION_TXT).toString());
+        return fileNames;
+    }
+
+    /**
+     * Записывает штрафы в CSV без заголовка:
+     * {@code время,штраф,нарушение,автомобиль,штат,номер,ZIP-код}.
+     *
+     * @param file файл
+     * @throws IOException при ошибке записи
+     */
+    public void writeParkingCsv(Path file) throws IOException {
+        try (Writer out = writer(file)) {
+            Random random = new Random(settings.seed());
+            String[] ticket = new String[7];
+            StringBuilder line = new StringBuilder(96);
+            for (long number = 0; number < settings.tickets(); number++) {
+                nextTicket(random, number, ticket);
+                line.setLength(0);
+                for (int column = 0; column < ticket.length; column++) {
+                    if (column > 0) line.append(',');
+                    line.append(ticket[column]);
+                }
+                out.append(line.append('\n'));
+            }
+        }
+    }
+
+    /**
+     * Записывает те же штрафы, что и {@link #writeParkingCsv(Path)}, JSON-массивом объектов.
+     *
+     * @param file файл
+     * @throws IOException при ошибке записи
+     */
+    public void writeParkingJson(Path file) throws IOException {
+        try (Writer out = writer(file)) {
+            Random random = new Random(settings.seed());
+            String[] ticket = new String[7];
+            StringBuilder line = new StringBuilder(192);
+            out.append('[');
+            for (long number = 0; number < settings.tickets(); number++) {
+                nextTicket(random, number, ticket);
+                line.setLength(0);
+                if (number > 0) line.append(',');
+                line.append("\n{\"ticket_number\":").append(ticket[5])
+                        .append(",\"plate_id\":\"").append(ticket[3])
+                        .append("\",\"date\":\"").append(ticket[0])
+                        .append("\",\"zip_code\":\"").append(ticket[6])
+                        .append("\",\"violation\":\"").append(ticket[2])
+                        .append("\",\"fine\":");
+                if (isNumber(ticket[1])) {
+                    line.append(ticket[1]);
+                } else {
+                    line.append('"').append(ticket[1]).append('"');
+                }
+                line.append(",\"state\":\"").append(ticket[4]).append("\"}");
+                out.append(line);
+            }
+            out.append("\n]\n");
+        }
+    }
+
+    /**
+     * Записывает объекты недвижимости в CSV с заголовком из {@link #PROPERTIES_COLUMNS} столбцов.
+     *
+     * @param file файл
+     * @throws IOException при ошибке записи
+     */
+    public void writePropertiesCsv(Path file) throws IOException {
+        writePropertiesCsv(file, PROPERTIES_COLUMNS);
+    }
+
+    /**
+     * Записывает объекты недвижимости в CSV с заголовком и заданным числом столбцов.
+     *
+     * <p>Столбцы {@code market_value}, {@code total_livable_area} и {@code zip_code} стоят
+     * в начале, середине и конце строки, остальные – заполнители {@code empty_fieldN}.
+     * При шести столбцах заполнители пусты, как в прежнем формате; в более широком файле
+     * (настоящий файл OPA содержит около 80 столбцов) они чередуют пустые значения, числа,
+     * короткие коды и текст в кавычках с запятой, чтобы разбор пропускаемых столбцов стоил
+     * столько же, сколько в настоящем файле. Сами объекты от числа столбцов не зависят.
+     *
+     * @param file    файл
+     * @param columns число столбцов; не меньше {@link #PROPERTIES_COLUMNS}
+     * @throws IOException при ошибке записи
+     */
+    public void writePropertiesCsv(Path file, int columns) throws IOException {
+        if (columns < PROPERTIES_COLUMNS) {
+            throw new IllegalArgumentException("Properties file needs at least " + PROPERTIES_COLUMNS + " columns");
+        }
+        // позиции нужных столбцов: при шести столбцах – 0, 3 и 5, как в прежнем формате
+        int marketValue = columns / 8;
+        int livableArea = columns / 2;
+        int zipCode = columns - 1 - columns / 8;
+        boolean filled = columns > PROPERTIES_COLUMNS;
+
+        try (Writer out = writer(file)) {
+            StringBuilder header = new StringBuilder();
+            int padding = 0;
+            for (int column = 0; column < columns; column++) {
+                if (column > 0) header.append(',');
+                if (column == marketValue) header.append("market_value");
+                else if (column == livableArea) header.append("total_livable_area");
+                else if (column == zipCode) header.append("zip_code");
+                else header.append("empty_field").append(++padding);
+            }
+            out.append(header).append('\n');
+
+            Random random = new Random(settings.seed());
+            String[] property = new String[3];
+            StringBuilder line = new StringBuilder();
+            for (int i = 0; i < settings.properties(); i++) {
+                nextProperty(random, property);
+                line.setLength(0);
+                for (int column = 0; column < columns; column++) {
+                    if (column > 0) line.append(',');
+                    if (column == marketValue) line.append(property[0]);
+                    else if (column == livableArea) line.append(property[1]);
+                    else if (column == zipCode) line.append(property[2]);
+                    else if (filled) appendFiller(line, i, column);
+                }
+                out.append(line).append('\n');
+            }
+        }
+    }
+
+    /** Значение столбца-заполнителя; зависит только от номеров строки и столбца. */
+    private static void appendFiller(StringBuilder line, int row, int column) {
+        switch (column % 4) {
+            case 0 -> { }
+            case 1 -> line.append((row * 31 + column) % 100_000);
+            case 2 -> line.append("\"LOT ").append(column).append(", BLOCK ").append(row % 97).append('"');
+            default -> line.append('R').append(column % 10);
+        }
+    }
+
+    /**
+     * Записывает численность населения: {@code ZIP-код число} в каждой строке.
+     *
+     * @param file файл
+     * @throws IOException при ошибке записи
+     */
+    public void writePopulation(Path file) throws IOException {
+        try (Writer out = writer(file)) {
+            for (Map.Entry<String, BigDecimal> entry : population().entrySet()) {
+                out.append(entry.getKey()).append(' ').append(entry.getValue().toPlainString()).append('\n');
+            }
+        }
+    }
+
+    /**
+     * @return штрафы из {@link #writeParkingCsv(Path)} в том виде, в каком их прочитал бы {@code ReadParking}
+     * @throws IOException не выбрасывается: все строки штрафов состоят из 7 полей
+     */
+    public ParkingColumns parking() throws IOException {
+        ReadParking reader = new ReadParking(null, null, new SafeCast());
+        ParkingColumns parking = new ParkingColumns();
+        Random random = new Random(settings.seed());
+        String[] ticket = new String[7];
+        for (long number = 0; number < settings.tickets(); number++) {
+            nextTicket(random, number, ticket);
+            reader.addParking(ticket, parking);
+        }
+        parking.trimToSize();
+        return parking;
+    }
+
+    /**
+     * @return объекты недвижимости из {@link #writePropertiesCsv(Path)} в том виде,
+     *         в каком их прочитал бы {@code ReadProperties}
+     */
+    public List<Properties> properties() {
+        SafeCast safeCast = new SafeCast();
+        List<Properties> properties = new ArrayList<>(settings.properties());
+        Random random = new Random(settings.seed());
+        String[] property = new String[3];
+        for (int i = 0; i < settings.properties(); i++) {
+            nextProperty(random, property);
+            properties.add(new Properties(safeCast.safeGetBigDecimal(property, 0),
+                    safeCast.safeGetBigDecimal(property, 1),
+                    safeCast.safeSubstring(safeCast.safeGetString(property, 2), 5)));
+        }
+        return properties;
+    }
+
+    /**
+     * Население каждого ZIP-кода пропорционально числу объектов недвижимости в нём
+     * с разбросом ±50%.
+     *
+     * @return численность населения по ZIP-кодам
+     */
+    public Map<String, BigDecimal> population() {
+        Random random = new Random(settings.seed());
+        Map<String, BigDecimal> population = new TreeMap<>();
+        double previous = 0;
+        for (int zip = 0; zip < zipCodes.length; zip++) {
+            double share = propertiesZipWeights[zip] - previous;
+            previous = propertiesZipWeights[zip];
+            long people = Math.round(TOTAL_POPULATION * share * (0.5 + random.nextDouble()));
+            population.put(zipCodes[zip], BigDecimal.valueOf(Math.max(people, 1)));
+        }
+        return population;
+    }
+
+    /* ----------- генерация записей ----------- */
+
+    /**
+     * Заполняет значения колонок штрафа в порядке CSV-файла. Последовательность обращений
+     * к {@code random} не зависит от формата записи, поэтому CSV и JSON совпадают.
+     */
+    private void nextTicket(Random random, long index, String[] ticket) {
+        int violation = pick(VIOLATION_WEIGHTS, random);
+        ticket[0] = timestamp(random);
+        ticket[1] = Integer.toString(FINES[violation]);
+        ticket[2] = VIOLATIONS[violation];
+        ticket[3] = Integer.toString(plate(random));
+        ticket[4] = STATES[pick(STATE_WEIGHTS, random)];
+        ticket[5] = Long.toString(FIRST_TICKET + index);
+        ticket[6] = random.nextDouble() < MISSING_ZIP_RATE ? "" : zipCodes[pick(parkingZipWeights, random)];
+
+        if (random.nextDouble() < settings.malformedRate()) {
+            switch (random.nextInt(5)) {
+                case 0 -> ticket[0] = ticket[0].substring(0, 5) + "13" + ticket[0].substring(7);
+                case 1 -> ticket[1] = "n/a";
+                case 2 -> ticket[3] = "";
+                case 3 -> ticket[4] = "";
+                default -> ticket[6] = ticket[6].isEmpty() ? "" : ticket[6].substring(0, 4);
+            }
+        }
+    }
+
+    private void nextProperty(Random random, String[] property) {
+        double marketValue = Math.exp(Math.log(150_000) + 0.7 * random.nextGaussian());
+        property[0] = BigDecimal.valueOf(Math.round(marketValue / 100) * 100L).toPlainString();
+        property[1] = BigDecimal.valueOf(Math.max(300, 1300 + 450 * random.nextGaussian()))
+                .setScale(1, RoundingMode.HALF_UP).toPlainString();
+        String zipCode = zipCodes[pick(propertiesZipWeights, random)];
+        property[2] = random.nextBoolean() ? zipCode : zipCode + (1000 + random.nextInt(9000));
+
+        if (random.nextDouble() < settings.malformedRate()) {
+            property[random.nextInt(3)] = "";
+        }
+    }
+
+    /** Время нарушения в формате {@code yyyy-MM-ddTHH:mm:00Z}. */
+    private static String timestamp(Random random) {
+        int day;
+        do {
+            day = random.nextInt(DAYS);
+        } while (WEEKENDS[day] && random.nextDouble() < WEEKEND_SKIP_RATE);
+        int hour = pick(HOUR_WEIGHTS, random);
+        int minute = random.nextInt(60);
+        return DAY_PREFIXES[day] + (hour < 10 ? "0" : "") + hour + ":" + (minute < 10 ? "0" : "") + minute + ":00Z";
+    }
+
+    /** Номер автомобиля; постоянные нарушители – небольшая группа младших номеров. */
+    private int plate(Random random) {
+        int plates = Math.max(settings.tickets() / 2, 1);
+        if (random.nextDouble() < REPEAT_OFFENDER_RATE) {
+            return FIRST_PLATE + random.nextInt(Math.max(plates / 25, 1));
+        }
+        return FIRST_PLATE + random.nextInt(plates);
+    }
+
+    /** Накопленные веса: вес элемента с номером {@code k} пропорционален {@code 1 / (k + 1)^skew}. */
+    private static double[] zipfWeights(int count, double skew) {
+        double[] weights = new double[count];
+        for (int k = 0; k < count; k++) {
+            weights[k] = 1 / Math.pow(k + 1, skew);
+        }
+        return cumulative(weights);
+    }
+
+    /** Нормированные накопленные суммы весов. */
+    private static double[] cumulative(double[] weights) {
+        double[] cumulative = new double[weights.length];
+        double total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            total += weights[i];
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < weights.length; i++) {
+            cumulative[i] /= total;
+        }
+        return cumulative;
+    }
+
+    private static int pick(double[] cumulative, Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+
+    private static boolean isNumber(String value) {
+        return !value.isEmpty() && value.chars().allMatch(Character::isDigit);
+    }
+
+    private static BufferedWriter writer(Path file) throws IOException {
+        return new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Settings defaults = Settings.of(100_000);
+        int tickets = defaults.tickets();
+        Integer properties = null;
+        int zips = defaults.zipCodes();
+        double malformed = defaults.malformedRate();
+        long seed = defaults.seed();
+        Path directory = null;
+
+        for (String arg : args) {
+            if (arg.startsWith("--tickets=")) {
+                tickets = Integer.parseInt(arg.substring("--tickets=".length()));
+            } else if (arg.startsWith("--properties=")) {
+                properties = Integer.parseInt(arg.substring("--properties=".length()));
+            } else if (arg.startsWith("--zips=")) {
+                zips = Integer.parseInt(arg.substring("--zips=".length()));
+            } else if (arg.startsWith("--malformed=")) {
+                malformed = Double.parseDouble(arg.substring("--malformed=".length()));
+            } else if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(arg.substring("--seed=".length()));
+            } else if (directory == null && !arg.startsWith("--")) {
+                directory = Path.of(arg);
+            } else {
+                directory = null;
+                break;
+            }
+        }
+        if (directory == null) {
+            System.out.println("Usage: DatasetGenerator <directory> [--tickets=N] [--properties=N] [--zips=N] "
+                    + "[--malformed=R] [--seed=N]");
+            return;
+        }
+
+        Settings settings = new Settings(tickets, properties != null ? properties : Settings.of(tickets).properties(),
+                zips, malformed, seed);
+        long start = System.nanoTime();
+        new DatasetGenerator(settings).writeAll(directory);
+        System.out.printf("Generated %d tickets and %d properties in %s (%d ms)%n", settings.tickets(),
+                settings.properties(), directory.toAbsolutePath(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
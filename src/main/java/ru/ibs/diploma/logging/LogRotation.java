@@ -0,0 +1,229 @@
+package ru.ibs.diploma.logging;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Ротация журнала аудита по размеру и по времени.
+ *
+ * <p>Решение о ротации принимает поток записи {@link WriteLogService}: перед записью пачки
+ * он проверяет {@link #shouldRotate(long, long, long, long)} и, если пора, закрывает файл и
+ * вызывает {@link #rotate(Path)}. Файл журнала переименовывается в сегмент
+ * {@code <имя>.<yyyyMMdd-HHmmss-SSS>}, после чего запись продолжается в новый файл
+ * с прежним именем. Сжатие сегмента в {@code .gz} и удаление старых сегментов
+ * выполняются отдельным фоновым потоком, поэтому ни потоки запросов, ни поток записи
+ * не ждут gzip.
+ *
+ * <p>Настройки:
+ * <ul>
+ *   <li>{@code logging.audit.rotation.max-size} – размер файла, после которого начинается
+ *       новый сегмент; {@code 0} отключает ротацию по размеру;</li>
+ *   <li>{@code logging.audit.rotation.interval} – наибольший возраст сегмента;
+ *       {@code 0} отключает ротацию по времени;</li>
+ *   <li>{@code logging.audit.rotation.keep} – сколько сжатых сегментов хранить;
+ *       {@code 0} – хранить все.</li>
+ * </ul>
+ * Ротация по времени проверяется только при записи, поэтому в простое сегмент может
+ * оказаться старше интервала.
+ */
+@Component
+public class LogRotation {
+
+    /** Суффикс времени ротации в имени сегмента; лексикографический порядок совпадает с хронологическим. */
+    private static final DateTimeFormatter SEGMENT_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private static final String GZIP_EXTENSION = ".gz";
+
+    /** Суффикс сжатого сегмента: время ротации в формате {@link #SEGMENT_SUFFIX} и {@code .gz}. */
+    private static final Pattern COMPRESSED_SEGMENT_SUFFIX = Pattern.compile("\\.\\d{8}-\\d{6}-\\d{3}\\.gz");
+
+    /** Сколько {@link #close()} ждёт окончания сжатия. */
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+    private final long maxBytes;
+    private final long intervalMillis;
+    private final int keep;
+
+    /** Поток сжатия и удаления сегментов; создаётся при первой ротации. */
+    private ExecutorService compressor;
+
+    /**
+     * @param maxSize  размер файла, после которого начинается новый сегмент; {@code 0} – без ограничения
+     * @param interval наибольший возраст сегмента; {@code 0} – без ограничения
+     * @param keep     сколько сжатых сегментов хранить; {@code 0} – все
+     */
+    @Autowired
+    public LogRotation(@Value("${logging.audit.rotation.max-size:0}") DataSize maxSize,
+                       @Value("${logging.audit.rotation.interval:0}") Duration interval,
+                       @Value("${logging.audit.rotation.keep:0}") int keep) {
+        if (maxSize.isNegative() || interval.isNegative() || keep < 0) {
+            throw new IllegalArgumentException("Log rotation settings must not be negative");
+        }
+        this.maxBytes = maxSize.toBytes();
+        this.intervalMillis = interval.toMillis();
+        this.keep = keep;
+    }
+
+    /**
+     * @return политика без ротации
+     */
+    public static LogRotation disabled() {
+        return new LogRotation(DataSize.ofBytes(0), Duration.ZERO, 0);
+    }
+
+    /**
+     * @return {@code true}, если включена ротация по размеру или по времени
+     */
+    public boolean isEnabled() {
+        return maxBytes > 0 || intervalMillis > 0;
+    }
+
+    /**
+     * Проверяет, нужно ли начать новый сегмент перед записью.
+     *
+     * @param size           текущий размер файла
+     * @param incoming       размер записываемых данных
+     * @param openedAtMillis время начала текущего сегмента
+     * @param nowMillis      текущее время
+     * @return {@code true}, если файл не пуст и после записи превысит размер или сегмент устарел
+     */
+    public boolean shouldRotate(long size, long incoming, long openedAtMillis, long nowMillis) {
+        if (size == 0) return false;
+        return (maxBytes > 0 && size + incoming > maxBytes)
+                || (intervalMillis > 0 && nowMillis - openedAtMillis >= intervalMillis);
+    }
+
+    /**
+     * Переименовывает закрытый файл журнала в сегмент и ставит его в очередь на сжатие.
+     *
+     * @param file файл журнала; должен быть закрыт
+     * @return путь к сегменту до сжатия
+     * @throws IOException если файл не удалось переименовать
+     */
+    public Path rotate(Path file) throws IOException {
+        Path segment = segmentPath(file);
+        Files.move(file, segment, StandardCopyOption.ATOMIC_MOVE);
+        try {
+            compressor().execute(() -> {
+                compress(segment);
+                removeOldSegments(file);
+            });
+        } catch (RejectedExecutionException e) {
+            // контекст закрывается: сегмент остаётся несжатым
+        }
+        return segment;
+    }
+
+    /**
+     * Дожидается сжатия уже созданных сегментов при закрытии контекста.
+     */
+    @PreDestroy
+    public synchronized void close() {
+        if (compressor == null) return;
+        compressor.shutdown();
+        try {
+            compressor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized ExecutorService compressor() {
+        if (compressor == null) {
+            compressor = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "audit-log-compressor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return compressor;
+    }
+
+    /**
+     * Имя сегмента по времени ротации. Если сегмент с таким именем уже есть (две ротации
+     * за одну миллисекунду), время сдвигается вперёд, чтобы порядок имён оставался хронологическим.
+     */
+    private static Path segmentPath(Path file) {
+        LocalDateTime time = LocalDateTime.now();
+        while (true) {
+            Path segment = file.resolveSibling(file.getFileName() + "." + time.format(SEGMENT_SUFFIX));
+            if (!Files.exists(segment) && !Files.exists(segment.resolveSibling(segment.getFileName() + GZIP_EXTENSION))) {
+                return segment;
+            }
+            time = time.plus(1, ChronoUnit.MILLIS);
+        }
+    }
+
+    private static void compress(Path segment) {
+        Path compressed = segment.resolveSibling(segment.getFileName() + GZIP_EXTENSION);
+        Path temporary = segment.resolveSibling(segment.getFileName() + GZIP_EXTENSION + ".tmp");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temporary), 1 << 16)) {
+                Files.copy(segment, out);
+            }
+            Files.move(temporary, compressed, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(segment);
+        } catch (IOException e) {
+            System.out.println("Failed to compress the log segment " + segment);
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {
+                // сегмент остаётся несжатым
+            }
+        }
+    }
+
+    /**
+     * Удаляет самые старые сжатые сегменты, оставляя {@link #keep} последних. Сегментом
+     * считается только файл {@code <имя>.<yyyyMMdd-HHmmss-SSS>.gz}: другие архивы рядом
+     * с журналом, например {@code <имя>.backup.gz}, не трогаются.
+     */
+    private void removeOldSegments(Path file) {
+        if (keep == 0) return;
+
+        String prefix = file.getFileName().toString();
+        List<Path> segments = new ArrayList<>();
+        Path directory = file.toAbsolutePath().getParent();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, path -> {
+            String name = path.getFileName().toString();
+            return name.startsWith(prefix)
+                    && COMPRESSED_SEGMENT_SUFFIX.matcher(name).region(prefix.length(), name.length()).matches();
+        })) {
+            stream.forEach(segments::add);
+        } catch (IOException e) {
+            System.out.println("Failed to list the log segments of " + file);
+            return;
+        }
+
+        segments.sort(null);
+        for (int i = 0; i < segments.size() - keep; i++) {
+            try {
+                Files.deleteIfExists(segments.get(i));
+            } catch (IOException e) {
+                System.out.println("Failed to delete the log segment " + segments.get(i));
+            }
+        }
+    }
+}
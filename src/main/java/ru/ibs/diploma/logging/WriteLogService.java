@@ -1,11 +1,28 @@
 package ru.ibs.diploma.logging;
 
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import ru.ibs.diploma.data.FileNames;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Сервис для записи логов в файл.
  * <p>
@@ -19,6 +36,21 @@ import java.io.IOException;
  * Все записи сопровождаются временной меткой в миллисекундах (Unix timestamp).
  * Логи добавляются в конец файла (режим append), файл указывается через {@link FileNames#getLogFile()}.
  * <p>
+ * Запись асинхронная: методы логирования только кладут строку в ограниченную очередь
+ * ({@code logging.audit.capacity} записей) и сразу возвращают управление. Один фоновый поток
+ * забирает записи пачками и дописывает их в файл через {@link FileChannel}, не открывая файл
+ * заново на каждую строку. Перед записью пачки поток ждёт до {@code logging.audit.flush-interval},
+ * чтобы собрать больше строк; при {@code logging.audit.fsync=true} после каждой пачки данные
+ * принудительно сбрасываются на диск.
+ * <p>
+ * Тот же поток выполняет ротацию файла по правилам {@link LogRotation}: перед записью пачки
+ * он при необходимости переименовывает файл в сегмент и начинает новый, а сжатие сегмента
+ * выполняется в фоне. Потоки, вызывающие методы логирования, ротации не ждут.
+ * <p>
+ * Если очередь переполнена или файл журнала не задан, запись отбрасывается и учитывается
+ * в {@link #droppedEvents()}. {@link #flush()} дожидается записи всех ранее переданных строк;
+ * при закрытии контекста очередь дописывается до конца.
+ * <p>
  * В случае ошибки записи в файл, сообщение выводится в {@code System.out}, но работа приложения не прерывается.
  *
  * @version 1.0
@@ -28,8 +60,80 @@ import java.io.IOException;
 @Service
 public class WriteLogService {
 
+    /** Размер очереди по умолчанию. */
+    static final int DEFAULT_CAPACITY = 65_536;
+
+    /** Наибольшее число строк в одной пачке записи. */
+    static final int MAX_BATCH = 1024;
+
+    /** Сколько {@link #close()} ждёт дописывания очереди. */
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+    private final FileNames fileNames;
+
+    /** Записи, ожидающие фонового потока. */
+    private final BlockingQueue<LogEvent> queue;
+
+    /** Сколько ждать дополнительных строк перед записью пачки. */
+    private final long flushIntervalNanos;
+
+    /** Сбрасывать ли данные на диск после каждой пачки. */
+    private final boolean fsync;
+
+    /** Число отброшенных записей. */
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final Thread writer;
+
+    /** Правила ротации файла журнала. */
+    private final LogRotation rotation;
+
+    private volatile boolean closed;
+
+    /* состояние фонового потока */
+    private String currentFile;
+    private FileChannel channel;
+    /** Размер текущего файла; ведётся без обращения к файловой системе. */
+    private long channelSize;
+    /** Время начала текущего сегмента. */
+    private long openedAtMillis;
+    private ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+
+    /**
+     * @param fileNames     хранилище имён файлов
+     * @param capacity      размер очереди записей
+     * @param flushInterval сколько ждать дополнительных строк перед записью пачки
+     * @param fsync         сбрасывать ли данные на диск после каждой пачки
+     * @param rotation      правила ротации файла журнала
+     */
     @Autowired
-    private FileNames fileNames;
+    public WriteLogService(FileNames fileNames,
+                           @Value("${logging.audit.capacity:65536}") int capacity,
+                           @Value("${logging.audit.flush-interval:PT0.05S}") Duration flushInterval,
+                           @Value("${logging.audit.fsync:false}") boolean fsync,
+                           LogRotation rotation) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Log queue capacity must be positive, but received " + capacity);
+        }
+        this.fileNames = fileNames;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.fsync = fsync;
+        this.rotation = rotation;
+
+        this.writer = new Thread(this::writeLoop, "audit-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Создаёт сервис с настройками по умолчанию: записи пишутся сразу, без fsync и без ротации.
+     *
+     * @param fileNames хранилище имён файлов
+     */
+    public WriteLogService(FileNames fileNames) {
+        this(fileNames, DEFAULT_CAPACITY, Duration.ZERO, false, LogRotation.disabled());
+    }
 
     /**
      * Записывает аргументы запуска приложения в лог-файл.
@@ -39,8 +143,6 @@ public class WriteLogService {
      *
      * @param args массив строк — аргументы командной строки
      *             не должен быть {@code null}, но элементы могут быть пустыми
-     * @throws RuntimeException если не удалось открыть или записать в лог-файл
-     *         (ошибка перехватывается и логируется в консоль)
      *
      * <p><strong>Пример:</strong>
      * <pre>
@@ -52,13 +154,7 @@ public class WriteLogService {
      * </pre>
      */
     public void logEntry(String[] args){
-        try(FileWriter fw = new FileWriter(fileNames.getLogFile(), true)){
-            long timestamp = System.currentTimeMillis();
-            String oneLine = String.join(" ", args);
-            fw.write(timestamp + " " + oneLine + "\n");
-        }catch (IOException e){
-            System.out.println("Failed to log entry args");
-        }
+        enqueue(String.join(" ", args));
     }
 
     /**
@@ -69,8 +165,6 @@ public class WriteLogService {
      *
      * @param choice строка, представляющая выбор пользователя
      *               может быть {@code null} или пустой
-     * @throws RuntimeException если не удалось записать в файл
-     *         (ошибка перехватывается и выводится в консоль)
      *
      * <p><strong>Пример:</strong>
      * <pre>
@@ -81,12 +175,7 @@ public class WriteLogService {
      * </pre>
      */
     public void logChoice(String choice){
-        try (FileWriter fw = new FileWriter(fileNames.getLogFile(), true)){
-            long timestamp = System.currentTimeMillis();
-            fw.write(timestamp + " " + choice + "\n");
-        }catch (IOException e) {
-            System.out.println("Failed to log the choice");
-        }
+        enqueue(choice);
     }
 
     /**
@@ -97,8 +186,6 @@ public class WriteLogService {
      *
      * @param name имя файла (с путём или без)
      *             может быть {@code null} или пустым
-     * @throws RuntimeException если не удалось записать в лог-файл
-     *         (ошибка перехватывается и выводится в консоль)
      *
      * <p><strong>Пример:</strong>
      * <pre>
@@ -109,11 +196,225 @@ public class WriteLogService {
      * </pre>
      */
     public void logFileEntry(String name){
-        try (FileWriter fw = new FileWriter(fileNames.getLogFile(), true)){
-            long timestamp = System.currentTimeMillis();
-            fw.write(timestamp + " " + name + "\n");
-        }catch (IOException e) {
-            System.out.println("Failed to log the choice");
+        enqueue(name);
+    }
+
+    /**
+     * Дожидается, пока все строки, переданные до вызова, будут записаны в файл
+     * (и сброшены на диск, если включён fsync).
+     */
+    public void flush() {
+        if (closed) return;
+
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        try {
+            queue.put(new LogEvent(null, null, written));
+            written.get(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            System.out.println("Failed to flush the log");
+        }
+    }
+
+    /**
+     * @return число записей, отброшенных из-за переполнения очереди,
+     *         отсутствия файла журнала или ошибки записи
+     */
+    public long droppedEvents() {
+        return dropped.get();
+    }
+
+    /**
+     * Дописывает очередь в файл и останавливает фоновый поток при закрытии контекста.
+     * Строки, переданные после закрытия, отбрасываются.
+     */
+    @PreDestroy
+    public void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            queue.put(STOP);
+            writer.join(TimeUnit.SECONDS.toMillis(CLOSE_TIMEOUT_SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void enqueue(String value) {
+        String file = fileNames.getLogFile();
+        if (closed || file == null
+                || !queue.offer(new LogEvent(file, System.currentTimeMillis() + " " + value + "\n", null))) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /* ----------- фоновый поток записи ----------- */
+
+    private void writeLoop() {
+        List<LogEvent> batch = new ArrayList<>(MAX_BATCH);
+        try {
+            boolean stopped = false;
+            while (!stopped) {
+                batch.add(queue.take());
+                collect(batch);
+                stopped = write(batch);
+                if (!stopped) batch.clear();
+            }
+        } catch (InterruptedException e) {
+            write(batch);
+        } finally {
+            closeChannel();
+            // метки сброса и строки, оставшиеся в последней пачке после метки остановки или в очереди:
+            // тех, кто вызвал flush() одновременно с закрытием, не оставляем ждать,
+            // а незаписанные строки учитываем как отброшенные
+            int stop = batch.indexOf(STOP);
+            List<LogEvent> rest = new ArrayList<>(stop < 0 ? List.of() : batch.subList(stop + 1, batch.size()));
+            queue.drainTo(rest);
+            for (LogEvent event : rest) {
+                if (event.flushed() != null) {
+                    event.flushed().complete(null);
+                } else if (event.line() != null) {
+                    dropped.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Добирает строки в пачку: всё, что уже есть в очереди, и то, что придёт
+     * в течение интервала сброса, но не больше {@link #MAX_BATCH}.
+     */
+    private void collect(List<LogEvent> batch) throws InterruptedException {
+        queue.drainTo(batch, MAX_BATCH - batch.size());
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        // метку сброса или остановки обрабатываем сразу, не дожидаясь интервала
+        while (batch.size() < MAX_BATCH && batch.get(batch.size() - 1).line() != null) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) break;
+            LogEvent next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) break;
+            batch.add(next);
+            queue.drainTo(batch, MAX_BATCH - batch.size());
+        }
+    }
+
+    /**
+     * Записывает пачку, переключая файл при смене {@link FileNames#getLogFile()}.
+     *
+     * @return {@code true}, если в пачке встретилась метка остановки
+     */
+    private boolean write(List<LogEvent> batch) {
+        if (channel == null) {
+            // файл не открылся в прошлый раз – пробуем снова
+            currentFile = null;
+        }
+        int from = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            LogEvent event = batch.get(i);
+            if (event == STOP) {
+                writeLines(batch, from, i);
+                return true;
+            } else if (event.flushed() != null) {
+                writeLines(batch, from, i);
+                event.flushed().complete(null);
+                from = i + 1;
+            } else if (!event.file().equals(currentFile)) {
+                writeLines(batch, from, i);
+                from = i;
+                openChannel(event.file());
+            }
+        }
+        writeLines(batch, from, batch.size());
+        return false;
+    }
+
+    /** Дописывает строки {@code batch[from, to)} в текущий файл одним вызовом записи. */
+    private void writeLines(List<LogEvent> batch, int from, int to) {
+        if (from >= to) return;
+
+        buffer.clear();
+        for (int i = from; i < to; i++) {
+            byte[] bytes = batch.get(i).line().getBytes(StandardCharsets.UTF_8);
+            if (buffer.remaining() < bytes.length) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes.length));
+                buffer.flip();
+                buffer = larger.put(buffer);
+            }
+            buffer.put(bytes);
         }
+        buffer.flip();
+
+        if (channel != null && rotation.isEnabled()
+                && rotation.shouldRotate(channelSize, buffer.remaining(), openedAtMillis, System.currentTimeMillis())) {
+            rotateChannel();
+        }
+        if (channel == null) {
+            dropped.addAndGet(to - from);
+            return;
+        }
+        try {
+            while (buffer.hasRemaining()) {
+                channelSize += channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            dropped.addAndGet(to - from);
+            System.out.println("Failed to write the log file " + currentFile);
+        }
+    }
+
+    private void openChannel(String file) {
+        closeChannel();
+        currentFile = file;
+        try {
+            channel = FileChannel.open(Path.of(file),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            channelSize = channel.size();
+            openedAtMillis = System.currentTimeMillis();
+        } catch (IOException | RuntimeException e) {
+            closeChannel();
+            System.out.println("Failed to open the log file " + file);
+        }
+    }
+
+    /**
+     * Закрывает текущий файл, переименовывает его в сегмент и открывает новый файл с тем же именем.
+     * Если переименовать не удалось, запись продолжается в прежний файл.
+     */
+    private void rotateChannel() {
+        String file = currentFile;
+        closeChannel();
+        try {
+            rotation.rotate(Path.of(file));
+        } catch (IOException e) {
+            System.out.println("Failed to rotate the log file " + file);
+        }
+        openChannel(file);
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.out.println("Failed to close the log file " + currentFile);
+        }
+        channel = null;
+    }
+
+    /** Метка остановки фонового потока. */
+    private static final LogEvent STOP = new LogEvent(null, null, null);
+
+    /**
+     * Запись журнала или метка сброса.
+     *
+     * @param file    файл журнала; {@code null} для метки сброса
+     * @param line    готовая строка с переводом строки; {@code null} для метки сброса
+     * @param flushed завершается, когда все предыдущие строки записаны; {@code null} для обычной записи
+     */
+    private record LogEvent(String file, String line, CompletableFuture<Void> flushed) {
     }
 }
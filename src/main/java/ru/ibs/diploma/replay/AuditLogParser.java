@@ -0,0 +1,125 @@
+package ru.ibs.diploma.replay;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Разбор журнала аудита {@link ru.ibs.diploma.logging.WriteLogService} в последовательность вопросов.
+ *
+ * <p>Каждая строка журнала имеет вид {@code <timestamp> <value>}. Вопросом считается строка
+ * со значением от {@code 1} до {@code 6}. Для вопросов 3–5 контроллер записывает ZIP-код
+ * следующей строкой сразу после номера вопроса и до его проверки, поэтому параметром
+ * вопроса считается непосредственно следующая строка, каким бы ни было её значение:
+ * {@code abc}, {@code 1910} или {@code 5} воспроизводятся как есть.
+ *
+ * <p>Исключение – строки одновременных запросов, перемешавшиеся в журнале. Если за вопросом 3–5
+ * идёт номер вопроса, а за ним – ZIP-код (пять цифр, возможно с расширением {@code -NNNN}),
+ * номер считается новым вопросом. Пока вопросов, ожидающих ZIP-код, больше одного,
+ * ZIP-коды раздаются им в порядке их появления.
+ *
+ * <p>Остальные строки – аргументы запуска, имена прочитанных файлов, выход из меню – пропускаются.
+ * Вопрос 3–5, для которого ZIP-код так и не встретился, не воспроизводится.
+ */
+public final class AuditLogParser {
+
+    private static final Pattern ZIP_CODE = Pattern.compile("\\d{5}(-\\d{4})?");
+
+    private AuditLogParser() {
+    }
+
+    /**
+     * Читает журнал из файла.
+     *
+     * @param logFile файл журнала
+     * @return вопросы в порядке появления в журнале
+     * @throws IOException при ошибке чтения файла
+     */
+    public static List<ReplayRequest> parse(Path logFile) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(logFile, StandardCharsets.UTF_8)) {
+            return parse(reader.lines().toList());
+        }
+    }
+
+    /**
+     * Разбирает строки журнала.
+     *
+     * @param lines строки журнала
+     * @return вопросы в порядке появления в журнале
+     */
+    public static List<ReplayRequest> parse(List<String> lines) {
+        List<Entry> entries = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            int space = line.indexOf(' ');
+            if (space <= 0) continue;
+            try {
+                entries.add(new Entry(Long.parseLong(line, 0, space, 10), line.substring(space + 1).trim()));
+            } catch (NumberFormatException e) {
+                // не строка журнала
+            }
+        }
+
+        List<ReplayRequest> requests = new ArrayList<>();
+        // индексы в requests вопросов, ещё ожидающих ZIP-код
+        Deque<Integer> waitingForZip = new ArrayDeque<>();
+        // индекс вопроса 3–5 из предыдущей строки; -1, если предыдущая строка не такой вопрос
+        int justAsked = -1;
+
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (justAsked >= 0 && waitingForZip.size() == 1 && !isInterleavedQuestion(entries, i)) {
+                waitingForZip.removeFirst();
+                setZipCode(requests, justAsked, entry.value());
+                justAsked = -1;
+                continue;
+            }
+            justAsked = -1;
+
+            int question = question(entry.value());
+            if (question > 0) {
+                if (ReplayRequest.needsZipCode(question)) {
+                    waitingForZip.addLast(requests.size());
+                    justAsked = requests.size();
+                }
+                requests.add(new ReplayRequest(entry.timestampMillis(), question, null));
+            } else if (!waitingForZip.isEmpty() && ZIP_CODE.matcher(entry.value()).matches()) {
+                setZipCode(requests, waitingForZip.removeFirst(), entry.value());
+            }
+        }
+
+        requests.removeIf(request -> ReplayRequest.needsZipCode(request.question()) && request.zipCode() == null);
+        return requests;
+    }
+
+    /**
+     * Номер вопроса, за которым сразу идёт ZIP-код, – это вопрос другого запроса, а не
+     * параметр предыдущего: иначе ZIP-код остался бы без вопроса.
+     */
+    private static boolean isInterleavedQuestion(List<Entry> entries, int index) {
+        return question(entries.get(index).value()) > 0
+                && index + 1 < entries.size()
+                && ZIP_CODE.matcher(entries.get(index + 1).value()).matches();
+    }
+
+    private static void setZipCode(List<ReplayRequest> requests, int index, String zipCode) {
+        ReplayRequest request = requests.get(index);
+        requests.set(index, new ReplayRequest(request.timestampMillis(), request.question(), zipCode));
+    }
+
+    private static int question(String value) {
+        if (value.length() != 1) return 0;
+        char c = value.charAt(0);
+        return c >= '1' && c <= '6' ? c - '0' : 0;
+    }
+
+    /** Строка журнала: время и записанное значение. */
+    private record Entry(long timestampMillis, String value) {
+    }
+}
@@ -0,0 +1,52 @@
+package ru.ibs.diploma.replay;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Воспроизведение вопросов запросами {@code GET /parking/questions/{number}?zip=}
+ * к запущенному приложению.
+ */
+public class HttpReplayTarget implements ReplayTarget {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    private final HttpClient client;
+    private final String baseUrl;
+
+    /**
+     * @param baseUrl адрес приложения, например {@code http://localhost:8080}
+     */
+    public HttpReplayTarget(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(TIMEOUT)
+                .build();
+    }
+
+    @Override
+    public void execute(ReplayRequest request) throws IOException, InterruptedException {
+        HttpRequest httpRequest = HttpRequest.newBuilder(uriOf(request))
+                .timeout(TIMEOUT)
+                .GET()
+                .build();
+        HttpResponse<Void> response = client.send(httpRequest, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Question " + request.question() + " failed with HTTP " + response.statusCode());
+        }
+    }
+
+    URI uriOf(ReplayRequest request) {
+        String uri = baseUrl + "/parking/questions/" + request.question();
+        if (request.zipCode() != null) {
+            uri += "?zip=" + URLEncoder.encode(request.zipCode(), StandardCharsets.UTF_8);
+        }
+        return URI.create(uri);
+    }
+}
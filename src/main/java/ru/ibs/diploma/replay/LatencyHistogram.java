@@ -0,0 +1,160 @@
+package ru.ibs.diploma.replay;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Гистограмма задержек с логарифмически-линейными корзинами.
+ *
+ * <p>Значения до {@value #SUB_BUCKETS} нс хранятся точно. Каждый следующий диапазон
+ * {@code [2^k, 2^(k+1))} делится на {@value #SUB_BUCKETS} равных корзин, поэтому
+ * относительная погрешность перцентилей не превышает {@code 1/16} во всём диапазоне {@code long}.
+ * Гистограмма занимает фиксированный объём памяти, а запись не блокирует потоки.
+ */
+public class LatencyHistogram {
+
+    /** Число линейных корзин в каждом диапазоне степени двойки. */
+    static final int SUB_BUCKETS = 16;
+
+    private static final int SUB_BUCKET_BITS = 4;
+
+    /** Корзины точных значений {@code [0, 16)} и по 16 корзин на степени двойки от 4 до 62. */
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Добавляет одно значение.
+     *
+     * @param nanos задержка в наносекундах; отрицательные значения считаются нулём
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        counts.incrementAndGet(bucketOf(value));
+        total.incrementAndGet();
+        sum.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * @return число записанных значений
+     */
+    public long count() {
+        return total.get();
+    }
+
+    /**
+     * @return наибольшее значение в наносекундах
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * @return среднее значение в наносекундах; {@code 0}, если значений нет
+     */
+    public double mean() {
+        long count = total.get();
+        return count == 0 ? 0 : (double) sum.get() / count;
+    }
+
+    /**
+     * Возвращает перцентиль задержки с точностью до корзины.
+     *
+     * @param percentile перцентиль от 0 до 100
+     * @return верхняя граница корзины в наносекундах; {@code 0}, если значений нет
+     */
+    public long percentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        long count = total.get();
+        if (count == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(upperBound(bucket), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Переносит значения другой гистограммы в эту.
+     *
+     * @param other гистограмма
+     */
+    public void add(LatencyHistogram other) {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            long count = other.counts.get(bucket);
+            if (count != 0) counts.addAndGet(bucket, count);
+        }
+        total.addAndGet(other.total.get());
+        sum.addAndGet(other.sum.get());
+        max.accumulateAndGet(other.max.get(), Math::max);
+    }
+
+    /**
+     * Распределение по степеням двойки: для каждого непустого диапазона
+     * {@code [2^k, 2^(k+1))} – число значений в нём.
+     *
+     * @return строки вида {@code "[  1.024 ms,   2.048 ms)  123"}
+     */
+    public String distribution() {
+        StringBuilder result = new StringBuilder();
+        long below = 0;
+        for (int bucket = 0; bucket < SUB_BUCKETS; bucket++) {
+            below += counts.get(bucket);
+        }
+        if (below > 0) {
+            result.append(String.format("[%12s, %12s) %d%n", format(0), format(SUB_BUCKETS), below));
+        }
+        for (int power = SUB_BUCKET_BITS; power < 63; power++) {
+            long inRange = 0;
+            int first = (power - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+            for (int bucket = first; bucket < first + SUB_BUCKETS; bucket++) {
+                inRange += counts.get(bucket);
+            }
+            if (inRange > 0) {
+                result.append(String.format("[%12s, %12s) %d%n", format(1L << power), format(1L << (power + 1)), inRange));
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Форматирует задержку в наиболее подходящих единицах.
+     *
+     * @param nanos задержка в наносекундах
+     * @return строка вида {@code "1.250 ms"}
+     */
+    public static String format(double nanos) {
+        if (nanos < 1_000) return String.format("%.0f ns", nanos);
+        if (nanos < 1_000_000) return String.format("%.3f us", nanos / 1_000);
+        if (nanos < 1_000_000_000) return String.format("%.3f ms", nanos / 1_000_000);
+        return String.format("%.3f s", nanos / 1_000_000_000);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int power = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (power - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (power - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int power = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (power - SUB_BUCKET_BITS);
+    }
+
+    static long upperBound(int bucket) {
+        return bucket + 1 < BUCKETS ? lowerBound(bucket + 1) - 1 : Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,35 @@
+package ru.ibs.diploma.replay;
+
+/**
+ * Итог воспроизведения журнала.
+ *
+ * @param requests     число отправленных вопросов
+ * @param errors       число вопросов, завершившихся ошибкой
+ * @param elapsedNanos время от первого запланированного вопроса до последнего ответа
+ * @param latencies    задержки успешных ответов
+ */
+public record ReplayReport(long requests, long errors, long elapsedNanos, LatencyHistogram latencies) {
+
+    /**
+     * @return число ответов (успешных и ошибочных) в секунду
+     */
+    public double throughput() {
+        return elapsedNanos == 0 ? 0 : requests * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /**
+     * @return отчёт для вывода в консоль: пропускная способность, перцентили и распределение задержек
+     */
+    public String format() {
+        return String.format("Requests: %d, errors: %d, elapsed: %s, throughput: %.1f req/s%n",
+                requests, errors, LatencyHistogram.format(elapsedNanos), throughput())
+                + String.format("Latency: mean %s, p50 %s, p90 %s, p99 %s, p99.9 %s, max %s%n",
+                LatencyHistogram.format(latencies.mean()),
+                LatencyHistogram.format(latencies.percentile(50)),
+                LatencyHistogram.format(latencies.percentile(90)),
+                LatencyHistogram.format(latencies.percentile(99)),
+                LatencyHistogram.format(latencies.percentile(99.9)),
+                LatencyHistogram.format(latencies.max()))
+                + latencies.distribution();
+    }
+}
@@ -0,0 +1,19 @@
+package ru.ibs.diploma.replay;
+
+/**
+ * Один вопрос, восстановленный из журнала аудита.
+ *
+ * @param timestampMillis время вопроса по журналу, мс от начала эпохи
+ * @param question        номер вопроса (1–6)
+ * @param zipCode         ZIP-код для вопросов 3–5; {@code null} для остальных
+ */
+public record ReplayRequest(long timestampMillis, int question, String zipCode) {
+
+    /**
+     * @param question номер вопроса
+     * @return {@code true}, если вопрос задаётся для конкретного ZIP-кода
+     */
+    public static boolean needsZipCode(int question) {
+        return question >= 3 && question <= 5;
+    }
+}
@@ -0,0 +1,16 @@
+package ru.ibs.diploma.replay;
+
+/**
+ * Система, на которой воспроизводятся вопросы.
+ */
+@FunctionalInterface
+public interface ReplayTarget {
+
+    /**
+     * Задаёт вопрос и дожидается ответа.
+     *
+     * @param request вопрос
+     * @throws Exception если ответ не получен
+     */
+    void execute(ReplayRequest request) throws Exception;
+}
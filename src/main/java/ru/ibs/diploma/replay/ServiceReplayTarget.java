@@ -0,0 +1,33 @@
+package ru.ibs.diploma.replay;
+
+import ru.ibs.diploma.data.Field;
+import ru.ibs.diploma.service.AnalyseService;
+
+/**
+ * Воспроизведение вопросов прямыми вызовами {@link AnalyseService} в том же процессе,
+ * без HTTP и сериализации ответа.
+ */
+public class ServiceReplayTarget implements ReplayTarget {
+
+    private final AnalyseService analyseService;
+
+    /**
+     * @param analyseService сервис, отвечающий на вопросы
+     */
+    public ServiceReplayTarget(AnalyseService analyseService) {
+        this.analyseService = analyseService;
+    }
+
+    @Override
+    public void execute(ReplayRequest request) throws Exception {
+        switch (request.question()) {
+            case 1 -> analyseService.totalPopulation();
+            case 2 -> analyseService.totalParkingFinesPerCapita();
+            case 3 -> analyseService.averageProperties(request.zipCode(), Field.MARKET_VALUE);
+            case 4 -> analyseService.averageProperties(request.zipCode(), Field.LIVABLE_AREA);
+            case 5 -> analyseService.totalMarketValuePerCapita(request.zipCode());
+            case 6 -> analyseService.surpriseOption();
+            default -> throw new IllegalArgumentException("Unknown question " + request.question());
+        }
+    }
+}
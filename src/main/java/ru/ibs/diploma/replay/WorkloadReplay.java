@@ -0,0 +1,185 @@
+package ru.ibs.diploma.replay;
+
+import ru.ibs.diploma.cache.CachedAnswers;
+import ru.ibs.diploma.data.FileNames;
+import ru.ibs.diploma.data.SafeCast;
+import ru.ibs.diploma.datamanagement.ReadParking;
+import ru.ibs.diploma.datamanagement.ReadPopulation;
+import ru.ibs.diploma.datamanagement.ReadProperties;
+import ru.ibs.diploma.logging.WriteLogService;
+import ru.ibs.diploma.service.AnalyseService;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Воспроизведение нагрузки, записанной в журнале аудита.
+ *
+ * <p>Вопросы из журнала (см. {@link AuditLogParser}) задаются {@link ReplayTarget} в исходном
+ * порядке. Темп задаётся коэффициентом ускорения:
+ * <ul>
+ *   <li>{@code 1} – с исходными интервалами между вопросами;</li>
+ *   <li>{@code N} – с интервалами, сокращёнными в {@code N} раз;</li>
+ *   <li>{@link Double#POSITIVE_INFINITY} – без пауз, с наибольшей пропускной способностью.</li>
+ * </ul>
+ * В режиме с паузами вопросы отправляются по расписанию независимо от того, успели ли
+ * ответить предыдущие, а задержка считается от запланированного момента отправки. Поэтому
+ * ожидание свободного потока, когда система не успевает, входит в задержку, а не скрывает её.
+ * Без пауз одновременно выполняется не больше {@code concurrency} вопросов, и задержка
+ * считается от фактической отправки.
+ *
+ * <p>Запуск из командной строки:
+ * <pre>
+ * WorkloadReplay &lt;журнал&gt; &lt;http://host:port&gt; [--speed=N|max] [--threads=N]
+ * WorkloadReplay &lt;журнал&gt; &lt;csv|json&gt; &lt;штрафы&gt; &lt;недвижимость&gt; &lt;население&gt; [--speed=N|max] [--threads=N]
+ * </pre>
+ * Первая форма обращается к запущенному приложению по HTTP, вторая загружает данные
+ * и вызывает {@link AnalyseService} в том же процессе.
+ */
+public class WorkloadReplay {
+
+    private static final String USAGE = """
+            Usage: WorkloadReplay <log-file> <http://host:port> [--speed=N|max] [--threads=N]
+                   WorkloadReplay <log-file> <csv|json> <parking-file> <properties-file> <population-file> [--speed=N|max] [--threads=N]""";
+
+    private final ReplayTarget target;
+    private final double speed;
+    private final int concurrency;
+
+    /**
+     * @param target      система, на которой воспроизводятся вопросы
+     * @param speed       коэффициент ускорения; {@link Double#POSITIVE_INFINITY} – без пауз
+     * @param concurrency число потоков, задающих вопросы
+     */
+    public WorkloadReplay(ReplayTarget target, double speed, int concurrency) {
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("Speed must be positive: " + speed);
+        }
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be positive: " + concurrency);
+        }
+        this.target = target;
+        this.speed = speed;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Воспроизводит вопросы и дожидается всех ответов.
+     *
+     * @param requests вопросы в порядке журнала
+     * @return число вопросов, ошибок, время и распределение задержек
+     * @throws InterruptedException если поток прерван во время воспроизведения
+     */
+    public ReplayReport replay(List<ReplayRequest> requests) throws InterruptedException {
+        LatencyHistogram latencies = new LatencyHistogram();
+        AtomicLong errors = new AtomicLong();
+        if (requests.isEmpty()) {
+            return new ReplayReport(0, 0, 0, latencies);
+        }
+
+        boolean paced = speed != Double.POSITIVE_INFINITY;
+        Semaphore inFlight = new Semaphore(concurrency);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency, task -> {
+            Thread thread = new Thread(task, "replay-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long firstTimestamp = requests.get(0).timestampMillis();
+        long start = System.nanoTime();
+        try {
+            for (ReplayRequest request : requests) {
+                long scheduled;
+                if (paced) {
+                    scheduled = start + (long) ((request.timestampMillis() - firstTimestamp) * 1_000_000 / speed);
+                    waitUntil(scheduled);
+                } else {
+                    inFlight.acquire();
+                    scheduled = System.nanoTime();
+                }
+
+                workers.execute(() -> {
+                    try {
+                        target.execute(request);
+                        latencies.record(System.nanoTime() - scheduled);
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                        if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+                    } finally {
+                        if (!paced) inFlight.release();
+                    }
+                });
+            }
+            workers.shutdown();
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } finally {
+            workers.shutdownNow();
+        }
+        return new ReplayReport(requests.size(), errors.get(), System.nanoTime() - start, latencies);
+    }
+
+    /**
+     * Ждёт наступления момента по {@link System#nanoTime()}.
+     */
+    private static void waitUntil(long deadline) throws InterruptedException {
+        for (long left = deadline - System.nanoTime(); left > 0; left = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(left);
+            if (Thread.interrupted()) throw new InterruptedException();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        double speed = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<String> positional = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--speed=")) {
+                String value = arg.substring("--speed=".length());
+                speed = value.equals("max") ? Double.POSITIVE_INFINITY : Double.parseDouble(value);
+            } else if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(arg.substring("--threads=".length()));
+            } else {
+                positional.add(arg);
+            }
+        }
+        if (positional.size() != 2 && positional.size() != 5) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        List<ReplayRequest> requests = AuditLogParser.parse(Path.of(positional.get(0)));
+        System.out.println("Replaying " + requests.size() + " questions from " + positional.get(0));
+
+        ReplayTarget target = positional.size() == 2
+                ? new HttpReplayTarget(positional.get(1))
+                : new ServiceReplayTarget(analyseService(positional.subList(1, 5)));
+        ReplayReport report = new WorkloadReplay(target, speed, threads).replay(requests);
+        System.out.print(report.format());
+    }
+
+    /**
+     * Собирает {@link AnalyseService} без контекста Spring. Журнал аудита не задан,
+     * чтобы воспроизведение не дописывало вопросы в журнал, который воспроизводится.
+     */
+    private static AnalyseService analyseService(List<String> files) {
+        FileNames fileNames = new FileNames();
+        fileNames.setParkingType(files.get(0));
+        fileNames.setParkingFile(files.get(1));
+        fileNames.setPropertiesFile(files.get(2));
+        fileNames.setPopulationFile(files.get(3));
+
+        WriteLogService writeLogService = new WriteLogService(fileNames);
+        SafeCast safeCast = new SafeCast();
+        return new AnalyseService(new ReadPopulation(fileNames, writeLogService),
+                new ReadParking(fileNames, writeLogService, safeCast),
+                new ReadProperties(fileNames, writeLogService, safeCast),
+                new CachedAnswers());
+    }
+}
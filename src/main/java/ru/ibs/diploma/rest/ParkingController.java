@@ -5,19 +5,33 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.util.MultiValueMap;
+import ru.ibs.diploma.aggregation.AggregationQuery;
+import ru.ibs.diploma.aggregation.Dimension;
+import ru.ibs.diploma.aggregation.Metric;
+import ru.ibs.diploma.aggregation.TimeBucket;
+import ru.ibs.diploma.aggregation.TopKey;
 import ru.ibs.diploma.cache.Answer;
+import ru.ibs.diploma.cache.CacheStatistics;
 import ru.ibs.diploma.cache.FirstAnswer;
 import ru.ibs.diploma.data.Arguments;
 import ru.ibs.diploma.data.Field;
 import ru.ibs.diploma.data.FileNames;
 import ru.ibs.diploma.logging.WriteLogService;
 import ru.ibs.diploma.service.AnalyseService;
+import ru.ibs.diploma.service.DatasetPreloader;
 import ru.ibs.diploma.validation.ArgsValidation;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/parking")
@@ -32,6 +46,8 @@ public class ParkingController {
 
     private final FileNames fileNames;
 
+    private final DatasetPreloader datasetPreloader;
+
     @GetMapping("/arguments")
     public ResponseEntity<String> getArguments(){
         if(fileNames.getParkingFile() == null){
@@ -72,6 +88,8 @@ public class ParkingController {
         }
 
         writeLogService.logFileEntry(args.getLogFile());
+        analyseService.switchDatasets();
+        datasetPreloader.preload();
 
         return ResponseEntity.status(HttpStatus.CREATED)
             .body("Arguments are correct. You can choose parameter");
@@ -136,4 +154,199 @@ public class ParkingController {
                     .body("The problem occurred: " + ie.getMessage());
         }
     }
+
+    /**
+     * Агрегирование штрафов: {@code GET /parking/aggregate?groupBy=zip,hour&state=PA&from=2013-01-01&orderBy=sum&limit=10}.
+     *
+     * <p>Параметры {@code groupBy} (измерения через запятую), {@code orderBy} (count, sum, min, max, avg),
+     * {@code limit}, {@code from} и {@code to} (момент ISO-8601 или дата в UTC) управляют запросом;
+     * параметр с именем измерения (zip, reason, state, fine, year, month, day_of_week, hour)
+     * задаёт допустимые значения этого измерения.
+     */
+    @GetMapping("/aggregate")
+    public ResponseEntity<?> aggregate(@RequestParam MultiValueMap<String, String> parameters){
+        AggregationQuery query;
+        try {
+            query = aggregationQuery(parameters);
+        }catch (IllegalArgumentException | DateTimeParseException e){
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(e.getMessage());
+        }
+
+        try {
+            return ResponseEntity.ok(analyseService.aggregate(query));
+        }catch (IOException ie){
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("The problem occurred: " + ie.getMessage());
+        }
+    }
+
+    /**
+     * Временные ряды штрафов по ZIP-кодам:
+     * {@code GET /parking/timeseries?zip=19104,19103&bucket=week&from=2013-01-01&to=2013-04-01}.
+     *
+     * <p>{@code bucket} – hour, day (по умолчанию), week или month; без {@code zip} возвращаются
+     * ряды всех ZIP-кодов; {@code from} и {@code to} – момент ISO-8601 или дата в UTC.
+     * Если всего точек больше {@link ru.ibs.diploma.aggregation.TimeSeriesIndex#MAX_TOTAL_POINTS},
+     * возвращается 400.
+     */
+    @GetMapping("/timeseries")
+    public ResponseEntity<?> timeSeries(@RequestParam(name = "zip", required = false) List<String> zips,
+                                        @RequestParam(name = "bucket", defaultValue = "day") String bucket,
+                                        @RequestParam(name = "from", required = false) String from,
+                                        @RequestParam(name = "to", required = false) String to){
+        try {
+            return ResponseEntity.ok(analyseService.timeSeries(values(zips), TimeBucket.parse(bucket),
+                    from == null ? null : instant(from), to == null ? null : instant(to)));
+        }catch (IllegalArgumentException | DateTimeParseException e){
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(e.getMessage());
+        }catch (IOException ie){
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("The problem occurred: " + ie.getMessage());
+        }
+    }
+
+    /**
+     * Самые частые или самые дорогие значения поля штрафа:
+     * {@code GET /parking/top?by=plate&metric=count&k=100&mode=exact}.
+     *
+     * <p>{@code by} – plate, reason или zip; {@code metric} – count (по умолчанию) или sum;
+     * {@code mode} – exact (по умолчанию) или approximate для оценки в постоянной памяти.
+     */
+    @GetMapping("/top")
+    public ResponseEntity<?> top(@RequestParam(name = "by") String by,
+                                 @RequestParam(name = "metric", defaultValue = "count") String metric,
+                                 @RequestParam(name = "k", defaultValue = "10") int k,
+                                 @RequestParam(name = "mode", defaultValue = "exact") String mode){
+        try {
+            boolean approximate = switch (mode) {
+                case "exact" -> false;
+                case "approximate" -> true;
+                default -> throw new IllegalArgumentException("Unknown top-k mode " + mode);
+            };
+            return ResponseEntity.ok(analyseService.topK(TopKey.parse(by), Metric.parse(metric), k, approximate));
+        }catch (IllegalArgumentException e){
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(e.getMessage());
+        }catch (IOException ie){
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("The problem occurred: " + ie.getMessage());
+        }
+    }
+
+    /**
+     * Оценка числа различных нарушителей: {@code GET /parking/distinct?by=zip} – по ZIP-кодам
+     * вместе с числом на 1000 жителей, {@code GET /parking/distinct?by=reason} – по причинам.
+     */
+    @GetMapping("/distinct")
+    public ResponseEntity<?> distinct(@RequestParam(name = "by", defaultValue = "zip") String by){
+        try {
+            return switch (by) {
+                case "zip" -> ResponseEntity.ok(analyseService.distinctOffendersByZip());
+                case "reason" -> ResponseEntity.ok(analyseService.distinctOffendersByReason());
+                default -> ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body("Distinct offenders are counted only by zip or reason");
+            };
+        }catch (IOException ie){
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("The problem occurred: " + ie.getMessage());
+        }
+    }
+
+    /**
+     * Квантили поля недвижимости для ZIP-кода:
+     * {@code GET /parking/quantiles?zip=19104&field=market_value&q=0.5,0.9,0.99}.
+     *
+     * <p>{@code field} – market_value (по умолчанию) или livable_area; {@code q} – ранги
+     * от 0 до 1, по умолчанию медиана, 90-й и 99-й процентили.
+     */
+    @GetMapping("/quantiles")
+    public ResponseEntity<?> quantiles(@RequestParam(name = "zip", required = false) String zip,
+                                       @RequestParam(name = "field", defaultValue = "market_value") String field,
+                                       @RequestParam(name = "q", required = false) List<String> ranks){
+        if(zip == null || zip.isEmpty()){
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("You should enter ZIP-code for this question");
+        }
+        try {
+            Field parsed;
+            try {
+                parsed = Field.valueOf(field.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown properties field " + field);
+            }
+            List<Double> parsedRanks = new ArrayList<>();
+            for (String rank : ranks == null ? List.of("0.5", "0.9", "0.99") : values(ranks)) {
+                double value = Double.parseDouble(rank);
+                if (!(value >= 0 && value <= 1)) {
+                    throw new IllegalArgumentException("Quantile rank must be between 0 and 1, got " + rank);
+                }
+                parsedRanks.add(value);
+            }
+            return ResponseEntity.ok(analyseService.propertyQuantiles(zip, parsed, parsedRanks));
+        }catch (IllegalArgumentException e){
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(e.getMessage());
+        }catch (IOException ie){
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("The problem occurred: " + ie.getMessage());
+        }
+    }
+
+    /**
+     * Счётчики кэша ответов по ZIP-кодам: {@code GET /parking/cache/stats}.
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<CacheStatistics> cacheStatistics(){
+        return ResponseEntity.ok(analyseService.zipCacheStatistics());
+    }
+
+    private static AggregationQuery aggregationQuery(MultiValueMap<String, String> parameters){
+        AggregationQuery query = AggregationQuery.groupBy(values(parameters.get("groupBy")).stream()
+                .map(Dimension::parse)
+                .toArray(Dimension[]::new));
+
+        for (Map.Entry<String, List<String>> parameter : parameters.entrySet()) {
+            switch (parameter.getKey()) {
+                case "groupBy":
+                    break;
+                case "orderBy":
+                    query = query.orderBy(Metric.parse(parameter.getValue().get(0)));
+                    break;
+                case "limit":
+                    query = query.limit(Integer.parseInt(parameter.getValue().get(0)));
+                    break;
+                case "from":
+                    query = query.between(instant(parameter.getValue().get(0)), query.to());
+                    break;
+                case "to":
+                    query = query.between(query.from(), instant(parameter.getValue().get(0)));
+                    break;
+                default:
+                    query = query.where(Dimension.parse(parameter.getKey()),
+                            values(parameter.getValue()).toArray(String[]::new));
+            }
+        }
+        return query;
+    }
+
+    /** Значения параметра; повторы параметра и значения через запятую равнозначны. */
+    private static List<String> values(List<String> parameter){
+        List<String> values = new ArrayList<>();
+        if (parameter == null) return values;
+        for (String value : parameter) {
+            for (String part : value.split(",")) {
+                if (!part.isBlank()) values.add(part.trim());
+            }
+        }
+        return values;
+    }
+
+    /** Момент ISO-8601 или дата {@code yyyy-MM-dd}, означающая начало суток в UTC. */
+    private static Instant instant(String value){
+        return value.length() == 10
+                ? LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant()
+                : Instant.parse(value);
+    }
 }
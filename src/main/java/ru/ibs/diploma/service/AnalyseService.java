@@ -2,10 +2,29 @@ package ru.ibs.diploma.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import ru.ibs.diploma.aggregation.AggregationEngine;
+import ru.ibs.diploma.aggregation.AggregationQuery;
+import ru.ibs.diploma.aggregation.AggregationResult;
+import ru.ibs.diploma.aggregation.Dimension;
+import ru.ibs.diploma.aggregation.HeavyHitter;
+import ru.ibs.diploma.aggregation.HeavyHitters;
+import ru.ibs.diploma.aggregation.Metric;
+import ru.ibs.diploma.aggregation.TimeBucket;
+import ru.ibs.diploma.aggregation.TimeSeries;
+import ru.ibs.diploma.aggregation.TimeSeriesIndex;
+import ru.ibs.diploma.aggregation.TopKey;
 import ru.ibs.diploma.cache.*;
+import ru.ibs.diploma.cache.CachedAnswerInterface.SourcedAnswer;
+import ru.ibs.diploma.data.DistinctOffenders;
+import ru.ibs.diploma.data.DistinctPlates;
 import ru.ibs.diploma.data.Field;
+import ru.ibs.diploma.data.FileNames;
 import ru.ibs.diploma.data.Parking;
+import ru.ibs.diploma.data.ParkingColumns;
 import ru.ibs.diploma.data.Properties;
+import ru.ibs.diploma.data.PropertiesIndex;
+import ru.ibs.diploma.data.PropertyQuantiles;
+import ru.ibs.diploma.datamanagement.DatasetSnapshots;
 import ru.ibs.diploma.datamanagement.ReadParking;
 import ru.ibs.diploma.datamanagement.ReadPopulation;
 import ru.ibs.diploma.datamanagement.ReadProperties;
@@ -13,7 +32,13 @@ import ru.ibs.diploma.datamanagement.ReadProperties;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Сервис-анализатор, выполняющий расчёты по данным о населении, парковочных штрафах и недвижимости.
@@ -23,20 +48,40 @@ import java.util.*;
  *   <li>общая численность населения по ZIP-кодам;</li>
  *   <li>суммарные штрафы за парковку на душу населения;</li>
  *   <li>средняя стоимость объекта недвижимости по произвольному полю;</li>
+ *   <li>медиана и другие квантили полей недвижимости по ZIP-коду;</li>
  *   <li>рыночная стоимость всей недвижимости на одного жителя;</li>
- *   <li>«сюрприз-опция» – сводная статистика по каждому ZIP-коду.</li>
+ *   <li>«сюрприз-опция» – сводная статистика по каждому ZIP-коду;</li>
+ *   <li>агрегирование штрафов по произвольным измерениям с фильтрами;</li>
+ *   <li>временные ряды числа и суммы штрафов по ZIP-кодам;</li>
+ *   <li>самые частые и самые дорогие номера автомобилей, причины штрафов и ZIP-коды;</li>
+ *   <li>оценка числа различных нарушителей по ZIP-кодам и причинам.</li>
  * </ul>
  *
  * <p>Для ускорения повторных вызовов результаты кэшируются с помощью реализации
- * {@link CachedAnswerInterface}. Ключ кэша совпадает с номером вопроса (1–6).
+ * {@link CachedAnswerInterface}. Ключ кэша совпадает с номером вопроса (1, 2, 6),
+ * а для вопросов о конкретном ZIP-коде (3–5) – пара «номер вопроса, ZIP-код».
+ * Ответы на вопросы 1, 2 и 6 рассчитываются через
+ * {@link CachedAnswerInterface#computeIfAbsent(int, CachedAnswerInterface.AnswerComputation)},
+ * поэтому одновременные запросы одного вопроса не запускают повторный расчёт.
+ * Вместе с ответом кэш получает отпечаток файлов, из которых прочитаны данные
+ * расчёта, и с ним сохраняет ответ на диск.
  *
- * <p>Данные читаются один раз при первом обращении и хранятся в памяти.
- * Синхронизация при многопоточном доступе не предусмотрена.
+ * <p>Данные читаются один раз – при первом обращении или заранее через
+ * {@link #preload(Executor)} – и хранятся в памяти. Каждый набор данных
+ * загружается не более чем одной задачей одновременно: запросы, пришедшие
+ * во время загрузки, дожидаются её вместо повторного чтения файла.
+ *
+ * <p>Для каждого набора запоминается отпечаток файла, из которого он прочитан
+ * (см. {@link DatasetSnapshots#fingerprint(String)}). После смены имён файлов
+ * {@link #switchDatasets()} сбрасывает только наборы, файлы которых изменились,
+ * увеличивает {@linkplain #datasetVersion() версию данных} и удаляет из кэша ответы
+ * на зависящие от них вопросы. Расчёты, начатые до смены, доводятся до конца
+ * на уже полученных ими данных, но их результаты не кэшируются; загрузка
+ * старого файла, завершившаяся после смены, отбрасывается.
  *
  * @see Answer
  * @see FirstAnswer
  * @see SecondAnswer
- * @see PropertyAnswer
  * @see SurpriseAnswer
  * @see Statistics
  */
@@ -47,14 +92,48 @@ public class AnalyseService {
     @Autowired
     private CachedAnswerInterface answers;
 
+    /** Имена входных файлов; может быть {@code null}, тогда смена файлов не отслеживается. */
+    @Autowired
+    private FileNames fileNames;
+
+    /** Имя набора данных о населении в {@link #loads}. */
+    private static final String POPULATION = "population";
+
+    /** Имя набора данных о штрафах в {@link #loads}. */
+    private static final String PARKING = "parking";
+
+    /** Имя набора данных о недвижимости в {@link #loads}. */
+    private static final String PROPERTIES = "properties";
+
+    /** Вопросы, ответы на которые зависят от набора данных, по имени набора. */
+    private static final Map<String, List<Integer>> DEPENDENT_QUESTIONS = Map.of(
+            POPULATION, List.of(1, 2, 5, 6),
+            PARKING, List.of(2, 6),
+            PROPERTIES, List.of(3, 4, 5, 6));
+
     /** Карта «ZIP-код → численность населения». */
-    private Map<String, BigDecimal> population = new TreeMap<>();
+    private volatile Map<String, BigDecimal> population = new TreeMap<>();
+
+    /** Все записи о парковочных штрафах в колоночном представлении. */
+    private volatile ParkingColumns parking = new ParkingColumns();
 
-    /** Список всех записей о парковочных штрафах. */
-    private List<Parking> parking = new ArrayList<>();
+    /** Штрафы по ZIP-коду и времени для временных рядов; строится при загрузке {@link #parking}. */
+    private volatile TimeSeriesIndex timeSeriesIndex = TimeSeriesIndex.EMPTY;
 
     /** Список всех записей об объектах недвижимости. */
-    private List<Properties> properties = new ArrayList<>();
+    private volatile List<Properties> properties = new ArrayList<>();
+
+    /** Агрегаты по недвижимости, сгруппированные по ZIP-коду; строятся при загрузке {@link #properties}. */
+    private volatile PropertiesIndex propertiesIndex = PropertiesIndex.EMPTY;
+
+    /** Выполняющиеся загрузки наборов данных по имени набора. */
+    private final Map<String, CompletableFuture<Boolean>> loads = new ConcurrentHashMap<>();
+
+    /** Отпечатки файлов, из которых прочитаны наборы данных, по имени набора. */
+    private final Map<String, String> sources = new ConcurrentHashMap<>();
+
+    /** Версия данных; увеличивается при каждой смене файлов в {@link #switchDatasets()}. */
+    private volatile long version;
 
     /** Сервис чтения файла с данными о населении. */
     private final ReadPopulation readPopulation;
@@ -90,72 +169,75 @@ public class AnalyseService {
      * @throws IOException при ошибке чтения файлов
      */
     public Answer totalPopulation() throws IOException{
-        if (answers.searchCache(1) != null) {
-            return answers.searchCache(1);
-        }
-
-        checkPopulation();
-
-        Optional<BigDecimal> result = population.keySet().stream().map(key -> population.get(key))
-                .reduce(BigDecimal::add);
-
-        FirstAnswer total = new FirstAnswer(BigDecimal.ZERO);
-        if(result.isPresent()) {
-            total = new FirstAnswer(result.get());
-        }
+        return answers.computeIfAbsent(1, () -> currentSource(POPULATION), () -> {
+            checkPopulation();
+            Map<String, BigDecimal> population;
+            String source;
+            synchronized (this) {
+                population = this.population;
+                source = loadedSource(POPULATION);
+            }
 
-        answers.cacheAnswer(1, total);
+            Optional<BigDecimal> result = population.keySet().stream().map(key -> population.get(key))
+                    .reduce(BigDecimal::add);
 
-        return total;
+            FirstAnswer total = new FirstAnswer(BigDecimal.ZERO);
+            if(result.isPresent()) {
+                total = new FirstAnswer(result.get());
+            }
+            return new SourcedAnswer(total, source);
+        });
     }
 
     /**
      * Рассчитывает суммарные штрафы за парковку (state = "PA") на душу населения
      * для каждого ZIP-кода.
      *
+     * <p>Штрафы группируются по ZIP-коду за один проход {@link AggregationEngine},
+     * после чего накопленные суммы делятся на численность населения.
+     *
      * <p>Результат кэшируется под ключом {@code 2}.
      *
      * @return объект {@link SecondAnswer} с картой «ZIP-код → средняя сумма штрафа»
      * @throws IOException при ошибке чтения файлов
      */
     public Answer totalParkingFinesPerCapita() throws IOException{
-        if (answers.searchCache(2) != null) {
-            return answers.searchCache(2);
-        }
-
-        checkParking();
-        checkPopulation();
-
-        Map<String, BigDecimal> result = new TreeMap<>();
-
-        for (String code : population.keySet()) {
-            if(population.get(code).equals(BigDecimal.ZERO)) continue;
-            List<Parking> temporaryCalculations = parking.stream()
-                    .filter(p -> (p.postIndex() != null) && (p.postIndex().equals(code) && (p.state().equals("PA"))))
-                    .toList();
-            if (temporaryCalculations.isEmpty()) {
-                continue;
+        return answers.computeIfAbsent(2, () -> currentSource(PARKING, POPULATION), () -> {
+            checkParking();
+            checkPopulation();
+            ParkingColumns parking;
+            Map<String, BigDecimal> population;
+            String source;
+            synchronized (this) {
+                parking = this.parking;
+                population = this.population;
+                source = loadedSource(PARKING, POPULATION);
             }
-            int total = temporaryCalculations.stream()
-                    .map(Parking::moneyAmount).reduce(Integer::sum).get();
-            if(total == 0) continue;
-            BigDecimal avg = BigDecimal.valueOf(total)
-                    .divide(population.get(code), 4, RoundingMode.DOWN);
 
-            result.put(code, avg);
-        }
+            Map<List<String>, AggregationResult.Group> finesByZip = AggregationEngine.aggregate(parking,
+                    AggregationQuery.groupBy(Dimension.ZIP).where(Dimension.STATE, "PA")).byKey();
 
+            Map<String, BigDecimal> result = new TreeMap<>();
 
-        SecondAnswer answer = new SecondAnswer(result);
-        answers.cacheAnswer(2, answer);
+            for (Map.Entry<String, BigDecimal> entry : population.entrySet()) {
+                if(entry.getValue().equals(BigDecimal.ZERO)) continue;
+                AggregationResult.Group fines = finesByZip.get(List.of(entry.getKey()));
+                if(fines == null || fines.sum() == 0) continue;
+                BigDecimal avg = BigDecimal.valueOf(fines.sum())
+                        .divide(entry.getValue(), 4, RoundingMode.DOWN);
 
-        return answer;
+                result.put(entry.getKey(), avg);
+            }
+
+            return new SourcedAnswer(new SecondAnswer(result), source);
+        });
     }
 
     /**
      * Среднее значение указанного поля недвижимости для заданного ZIP-кода.
      *
-     * <p>Использует номер вопроса из {@link Field#getQuestionNumber()} в качестве ключа кэша.
+     * <p>Значение берётся из {@link PropertiesIndex} без повторного сканирования списка.
+     * Ключ кэша – номер вопроса из {@link Field#getQuestionNumber()} и ZIP-код.
      *
      * @param code  ZIP-код
      * @param field поле, по которому производится усреднение
@@ -163,149 +245,577 @@ public class AnalyseService {
      * @throws IOException при ошибке чтения файлов
      */
     public Answer averageProperties(String code, Field field) throws IOException{
-        PropertyAnswer result = (PropertyAnswer) answers.searchCache(field.getQuestionNumber());
-        if((result != null) && (result.getAvgByCode(code) != null)){
-            FirstAnswer ans = result.getAvgByCode(code);
-            return result.getAvgByCode(code);
-        }
-        if(result == null){
-            result = new PropertyAnswer();
+        Answer cached = answers.searchCache(field.getQuestionNumber(), code);
+        if(cached != null){
+            return cached;
         }
 
+        long startedVersion = version;
         checkProperties();
-
-        long numOfProperties = properties.stream()
-                .filter(p -> (p.ZipCode() != null) && (p.ZipCode().equals(code)) && (field.getValue(p) != null)).count();
-
-        if(numOfProperties == 0){
-            answers.cacheAnswer(field.getQuestionNumber(), result.addZipCode(code, BigDecimal.ZERO));
-            return result.getAvgByCode(code);
+        PropertiesIndex propertiesIndex;
+        synchronized (this) {
+            propertiesIndex = this.propertiesIndex;
         }
 
-        Optional<BigDecimal> sum = properties.stream()
-                .filter(p -> (p.ZipCode() != null) && (p.ZipCode().equals(code)) &&(field.getValue(p) != null))
-                .map(field::getValue)
-                        .reduce(BigDecimal::add);
+        FirstAnswer result = new FirstAnswer(propertiesIndex.average(code, field));
 
-        BigDecimal answer = BigDecimal.ZERO;
-        if(sum.isPresent()) answer = sum.get();
+        cacheIfCurrent(field.getQuestionNumber(), code, result, startedVersion);
+        return result;
+    }
 
-        result.addZipCode(code, answer.divide(BigDecimal.valueOf(numOfProperties),0,  RoundingMode.DOWN));
+    /**
+     * Квантили указанного поля недвижимости для заданного ZIP-кода.
+     *
+     * <p>Квантили берутся из скетчей {@link PropertiesIndex} без сортировки объектов;
+     * погрешность – около 1,65% по рангу. Результат не кэшируется.
+     *
+     * @param code  ZIP-код
+     * @param field поле недвижимости
+     * @param ranks ранги от {@code 0} до {@code 1}, например {@code 0.5, 0.9, 0.99}
+     * @return квантили в порядке переданных рангов
+     * @throws IOException при ошибке чтения файлов
+     */
+    public PropertyQuantiles propertyQuantiles(String code, Field field, List<Double> ranks) throws IOException{
+        checkProperties();
+        PropertiesIndex propertiesIndex = this.propertiesIndex;
 
-        answers.cacheAnswer(field.getQuestionNumber(), result);
-        return result.getAvgByCode(code);
+        Map<String, BigDecimal> quantiles = new LinkedHashMap<>();
+        for (double rank : ranks) {
+            quantiles.put(Double.toString(rank), propertiesIndex.quantile(code, field, rank));
+        }
+        return new PropertyQuantiles(code, field, propertiesIndex.nonNullCount(code, field), quantiles);
     }
 
     /**
      * Рыночная стоимость всей недвижимости ZIP-кода, делённая на численность населения.
      *
-     * <p>Результат кэшируется под ключом {@code 5}.
+     * <p>Суммарная стоимость берётся из {@link PropertiesIndex}.
+     * <p>Результат кэшируется под ключом «{@code 5}, ZIP-код».
      *
      * @param code ZIP-код
      * @return объект {@link FirstAnswer} со значением на одного жителя
      * @throws IOException при ошибке чтения файлов
      */
     public Answer totalMarketValuePerCapita(String code) throws IOException{
-        PropertyAnswer result = (PropertyAnswer) answers.searchCache(5);
-        if((result != null) && (result.getAvgByCode(code) != null)){
-            return result.getAvgByCode(code);
-        }
-        if(result == null){
-            result = new PropertyAnswer();
+        Answer cached = answers.searchCache(5, code);
+        if(cached != null){
+            return cached;
         }
 
+        long startedVersion = version;
         checkPopulation();
         checkProperties();
+        Map<String, BigDecimal> population;
+        PropertiesIndex propertiesIndex;
+        synchronized (this) {
+            population = this.population;
+            propertiesIndex = this.propertiesIndex;
+        }
 
         BigDecimal numOfPeople = population.get(code);
-        if((numOfPeople == null) || numOfPeople.equals(BigDecimal.ZERO)){
-            answers.cacheAnswer(5, result.addZipCode(code, BigDecimal.ZERO));
-            return result.getAvgByCode(code);
+        FirstAnswer result = new FirstAnswer(BigDecimal.ZERO);
+        if((numOfPeople != null) && !numOfPeople.equals(BigDecimal.ZERO)){
+            BigDecimal sum = propertiesIndex.sum(code, Field.MARKET_VALUE);
+            result = new FirstAnswer(sum.divide(numOfPeople,0,  RoundingMode.DOWN));
         }
 
-        Optional<BigDecimal> sum = properties.stream()
-                .filter(p -> (p.ZipCode() != null) && (p.ZipCode().equals(code)))
-                .map(Properties::MarketValue).reduce(BigDecimal::add);
-
-        BigDecimal answer = BigDecimal.ZERO;
-        if(sum.isPresent()) answer = sum.get();
-
-        result.addZipCode(code, answer.divide(numOfPeople,0,  RoundingMode.DOWN));
-
-        answers.cacheAnswer(5, result);
-        return result.getAvgByCode(code);
+        cacheIfCurrent(5, code, result, startedVersion);
+        return result;
     }
 
     /**
      * Для каждого ZIP-кода возвращает пару значений:
      * средняя рыночная стоимость недвижимости и среднее число штрафов на жителя.
      *
+     * <p>Средняя стоимость берётся из того же {@link PropertiesIndex}, что и остальные данные
+     * расчёта, а не через кэш вопроса 3: иначе ответ мог бы смешать наборы разных версий.
      * <p>Результат кэшируется под ключом {@code 6}.
      *
      * @return объект {@link SurpriseAnswer} с картой «ZIP-код → {@link Statistics}»
      * @throws IOException при ошибке чтения файлов
      */
     public Answer surpriseOption()throws IOException{
-        if(answers.searchCache(6) != null){
-            return answers.searchCache(6);
+        return answers.computeIfAbsent(6, () -> currentSource(POPULATION, PARKING, PROPERTIES), () -> {
+            checkPopulation();
+            checkParking();
+            checkProperties();
+            Map<String, BigDecimal> population;
+            ParkingColumns parking;
+            PropertiesIndex propertiesIndex;
+            String source;
+            synchronized (this) {
+                population = this.population;
+                parking = this.parking;
+                propertiesIndex = this.propertiesIndex;
+                source = loadedSource(POPULATION, PARKING, PROPERTIES);
+            }
+
+            // ZIP-коды штрафов сравниваются с ZIP-кодами населения без учёта регистра
+            Map<String, Long> finesByZip = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            for (AggregationResult.Group fines : AggregationEngine.aggregate(parking,
+                    AggregationQuery.groupBy(Dimension.ZIP)).groups()) {
+                String zip = fines.key().get(0);
+                if (zip != null) {
+                    finesByZip.merge(zip, fines.count(), Long::sum);
+                }
+            }
+
+            Map<String, Statistics> result = new HashMap<>();
+
+            for(String code : population.keySet()){
+                long numOfFines = finesByZip.getOrDefault(code, 0L);
+
+                BigDecimal avgFines = BigDecimal.ZERO;
+                if(numOfFines != 0 && population.get(code) != null){
+                    avgFines = BigDecimal.valueOf(numOfFines).divide(population.get(code), 4, RoundingMode.DOWN);
+                }
+
+                BigDecimal avgProperties = propertiesIndex.average(code, Field.MARKET_VALUE);
+                result.put(code, new Statistics(avgProperties, avgFines));
+            }
+
+            return new SourcedAnswer(new SurpriseAnswer(result), source);
+        });
+    }
+
+    /**
+     * Агрегирует штрафы по произвольным измерениям (см. {@link AggregationEngine}).
+     *
+     * <p>Результат не кэшируется: запросы слишком разнообразны, а один проход по колонкам
+     * занимает миллисекунды.
+     *
+     * @param query измерения группировки, фильтры и сортировка
+     * @return группы штрафов с показателями
+     * @throws IOException при ошибке чтения файла штрафов
+     */
+    public AggregationResult aggregate(AggregationQuery query) throws IOException {
+        checkParking();
+        return AggregationEngine.aggregate(parking, query);
+    }
+
+    /**
+     * Временные ряды числа и суммы штрафов по ZIP-кодам за период {@code [from, to)}.
+     *
+     * <p>Ряды строятся по {@link TimeSeriesIndex} без просмотра штрафов, поэтому
+     * результат не кэшируется. Размер ответа проверяется до построения рядов: всего точек
+     * (рядов, умноженных на интервалы периода) должно быть не больше
+     * {@link TimeSeriesIndex#MAX_TOTAL_POINTS}.
+     *
+     * @param zips   ZIP-коды; пустая коллекция – все ZIP-коды со штрафами
+     * @param bucket интервал рядов
+     * @param from   начало периода; {@code null} – с первого штрафа
+     * @param to     конец периода; {@code null} – по последний штраф
+     * @return ряды в порядке переданных ZIP-кодов или по алфавиту
+     * @throws IllegalArgumentException если период задан неверно или точек слишком много
+     * @throws IOException при ошибке чтения файла штрафов
+     */
+    public List<TimeSeries> timeSeries(Collection<String> zips, TimeBucket bucket, Instant from, Instant to)
+            throws IOException {
+        checkParking();
+        TimeSeriesIndex index = this.timeSeriesIndex;
+        Collection<String> series = zips.isEmpty() ? index.zips() : zips;
+
+        int buckets = index.points(bucket, from, to);
+        if ((long) series.size() * buckets > TimeSeriesIndex.MAX_TOTAL_POINTS) {
+            throw new IllegalArgumentException("Too many points: " + series.size() + " series of "
+                    + buckets + " " + bucket.name().toLowerCase(Locale.ROOT)
+                    + " buckets, at most " + TimeSeriesIndex.MAX_TOTAL_POINTS
+                    + " are allowed; choose ZIP-codes, a shorter period or a longer bucket");
         }
 
+        List<TimeSeries> result = new ArrayList<>();
+        for (String zip : series) {
+            result.add(index.series(zip, bucket, from, to));
+        }
+        return result;
+    }
+
+    /**
+     * Значения поля штрафа с наибольшим числом или суммой штрафов (см. {@link HeavyHitters}).
+     *
+     * @param key         поле штрафа
+     * @param metric      {@link Metric#COUNT} или {@link Metric#SUM}
+     * @param k           число значений
+     * @param approximate {@code true} – потоковая оценка в постоянной памяти
+     *                    с {@link HeavyHitters#DEFAULT_COUNTERS} счётчиками
+     * @return значения по убыванию веса
+     * @throws IOException при ошибке чтения файла штрафов
+     */
+    public List<HeavyHitter> topK(TopKey key, Metric metric, int k, boolean approximate) throws IOException {
+        checkParking();
+        ParkingColumns parking = this.parking;
+        return approximate
+                ? HeavyHitters.approximate(parking, key, metric, k, HeavyHitters.DEFAULT_COUNTERS)
+                : HeavyHitters.exact(parking, key, metric, k);
+    }
+
+    /**
+     * Оценка числа различных автомобилей со штрафами в каждом ZIP-коде и их число
+     * на 1000 жителей.
+     *
+     * <p>Оценки берутся из {@link DistinctPlates}, накопленных при чтении штрафов;
+     * относительная стандартная ошибка – {@link DistinctPlates#RELATIVE_STANDARD_ERROR}.
+     *
+     * @return оценки по ZIP-кодам со штрафами, по алфавиту
+     * @throws IOException при ошибке чтения файлов
+     */
+    public List<DistinctOffenders> distinctOffendersByZip() throws IOException {
+        checkParking();
         checkPopulation();
+        ParkingColumns parking;
+        Map<String, BigDecimal> population;
+        synchronized (this) {
+            parking = this.parking;
+            population = this.population;
+        }
+
+        DistinctPlates plates = parking.distinctPlates();
+
+        List<DistinctOffenders> result = new ArrayList<>();
+        for (int code = 0; code < parking.dictionary().size(); code++) {
+            if (!plates.hasPostIndex(code)) continue;
+            String zip = parking.postIndexOf(code);
+            long estimate = plates.byPostIndex(code);
+            BigDecimal residents = population.get(zip);
+            BigDecimal perThousand = residents == null || residents.signum() == 0 ? null
+                    : BigDecimal.valueOf(estimate * 1000).divide(residents, 4, RoundingMode.DOWN);
+            result.add(new DistinctOffenders(zip, estimate, perThousand));
+        }
+        result.sort(Comparator.comparing(DistinctOffenders::key));
+        return result;
+    }
+
+    /**
+     * Оценка числа различных автомобилей, оштрафованных по каждой причине.
+     *
+     * @return оценки по причинам, по алфавиту
+     * @throws IOException при ошибке чтения файла штрафов
+     */
+    public List<DistinctOffenders> distinctOffendersByReason() throws IOException {
         checkParking();
-        checkProperties();
+        ParkingColumns parking = this.parking;
+        DistinctPlates plates = parking.distinctPlates();
+
+        List<DistinctOffenders> result = new ArrayList<>();
+        for (int code = 0; code < parking.dictionary().size(); code++) {
+            if (plates.hasReason(code)) {
+                result.add(new DistinctOffenders(parking.dictionary().decode(code), plates.byReason(code), null));
+            }
+        }
+        result.sort(Comparator.comparing(DistinctOffenders::key));
+        return result;
+    }
 
-        Map<String, Statistics> result = new HashMap<>();
+    /**
+     * Счётчики кэша ответов по ZIP-кодам: по ним видно, хватает ли его размера и времени жизни.
+     *
+     * @return попадания, промахи, вытеснения и текущий размер
+     */
+    public CacheStatistics zipCacheStatistics() {
+        return answers.zipCacheStatistics();
+    }
 
-        for(String code : population.keySet()){
-            long numOfFines = parking.stream()
-                    .filter(p -> (p.postIndex() != null) && (p.postIndex().equalsIgnoreCase(code))).count();
+    /* ----------- версии данных ----------- */
 
-            BigDecimal avgFines = BigDecimal.ZERO;
-            if(numOfFines != 0 && population.get(code) != null){
-                avgFines = BigDecimal.valueOf(numOfFines).divide(population.get(code), 4, RoundingMode.DOWN);
+    /**
+     * @return версия данных; меняется при каждой смене входных файлов
+     */
+    public long datasetVersion() {
+        return version;
+    }
+
+    /**
+     * Сверяет текущие имена файлов из {@link FileNames} с файлами, из которых прочитаны
+     * наборы данных, и сбрасывает только изменившиеся наборы. При изменении хотя бы
+     * одного набора увеличивает версию данных и удаляет из кэша ответы на вопросы,
+     * зависящие от изменившихся наборов (см. {@link #DEPENDENT_QUESTIONS}).
+     *
+     * <p>Набор, файл которого ещё не запоминался, считается изменившимся: ответ на
+     * зависящий от него вопрос мог быть прочитан с диска без загрузки самих данных.
+     *
+     * <p>Сброшенные наборы будут прочитаны заново при следующем обращении или прогреве.
+     * Расчёты, уже получившие старые данные, завершаются на них.
+     *
+     * @return имена изменившихся наборов данных; пустое множество, если файлы те же
+     */
+    public synchronized Set<String> switchDatasets() {
+        Set<String> changed = new LinkedHashSet<>();
+        for (String dataset : List.of(POPULATION, PARKING, PROPERTIES)) {
+            String source = sourceOf(dataset);
+            if (source != null && !source.equals(sources.get(dataset))) {
+                changed.add(dataset);
+                sources.put(dataset, source);
             }
+        }
+        if (changed.isEmpty()) {
+            return changed;
+        }
 
-            FirstAnswer avgProperties = (FirstAnswer) averageProperties(code, Field.MARKET_VALUE);
-            result.put(code, new Statistics(avgProperties.getResult(), avgFines));
+        Set<Integer> questions = new TreeSet<>();
+        for (String dataset : changed) {
+            // загрузка старого файла, если она ещё идёт, не будет опубликована
+            loads.remove(dataset);
+            switch (dataset) {
+                case POPULATION -> population = new TreeMap<>();
+                case PARKING -> {
+                    parking = new ParkingColumns();
+                    timeSeriesIndex = TimeSeriesIndex.EMPTY;
+                }
+                default -> {
+                    properties = new ArrayList<>();
+                    propertiesIndex = PropertiesIndex.EMPTY;
+                }
+            }
+            questions.addAll(DEPENDENT_QUESTIONS.get(dataset));
         }
+        version++;
+        answers.invalidate(questions);
+        return changed;
+    }
 
-        Answer answer = new SurpriseAnswer(result);
-        answers.cacheAnswer(6, answer);
-        return answer;
+    /**
+     * Кэширует ответ по ZIP-коду, только если версия данных не менялась с начала расчёта.
+     */
+    private synchronized void cacheIfCurrent(int number, String code, Answer result, long startedVersion) {
+        if (version == startedVersion) {
+            answers.cacheAnswer(number, code, result);
+        }
+    }
+
+    /**
+     * Отпечаток файла набора данных по текущим {@link FileNames}.
+     *
+     * @return отпечаток или {@code null}, если имена файлов неизвестны
+     */
+    private String sourceOf(String dataset) {
+        if (fileNames == null) return null;
+        String file = switch (dataset) {
+            case POPULATION -> fileNames.getPopulationFile();
+            case PARKING -> fileNames.getParkingFile();
+            default -> fileNames.getPropertiesFile();
+        };
+        try {
+            String fingerprint = DatasetSnapshots.fingerprint(file);
+            return PARKING.equals(dataset) ? fileNames.getParkingType() + ":" + fingerprint : fingerprint;
+        } catch (IOException e) {
+            // отпечаток без атрибутов всё равно отличается от прочитанного ранее
+            return String.valueOf(file);
+        }
+    }
+
+    /**
+     * Отпечаток текущих входных файлов перечисленных наборов; по нему ответ ищется на диске.
+     * Читает атрибуты файлов, поэтому вызывается кэшем только при промахе памяти.
+     *
+     * @return отпечаток или {@code null}, если имена файлов неизвестны
+     */
+    private String currentSource(String... datasets) {
+        StringJoiner joiner = new StringJoiner(";");
+        for (String dataset : datasets) {
+            String source = sourceOf(dataset);
+            if (source == null) return null;
+            joiner.add(dataset + "=" + source);
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * Отпечаток файлов, из которых прочитаны загруженные сейчас наборы; с ним ответ
+     * сохраняется на диск. Вызывается под блокировкой сервиса вместе с чтением самих наборов,
+     * чтобы отпечаток и данные относились к одной загрузке.
+     *
+     * @return отпечаток или {@code null}, если какой-то набор не загружен или его файл неизвестен
+     */
+    private String loadedSource(String... datasets) {
+        StringJoiner joiner = new StringJoiner(";");
+        for (String dataset : datasets) {
+            boolean loaded = switch (dataset) {
+                case POPULATION -> !population.isEmpty();
+                case PARKING -> !parking.isEmpty();
+                default -> !properties.isEmpty();
+            };
+            String source = loaded ? sources.get(dataset) : null;
+            if (source == null) return null;
+            joiner.add(dataset + "=" + source);
+        }
+        return joiner.toString();
     }
 
     /* ----------- служебные методы загрузки данных ----------- */
 
     /**
-     * Загружает данные о населении, если они ещё не загружены.
+     * Запускает фоновую загрузку всех трёх наборов данных на переданном исполнителе.
+     * Наборы, которые уже загружены или загружаются, повторно не читаются.
+     *
+     * @param executor исполнитель загрузок
+     * @return задача, завершающаяся после загрузки всех наборов
+     */
+    public CompletableFuture<Void> preload(Executor executor) {
+        return CompletableFuture.allOf(
+                load(POPULATION, this::loadPopulation, executor),
+                load(PARKING, this::loadParking, executor),
+                load(PROPERTIES, this::loadProperties, executor));
+    }
+
+    /**
+     * Загружает данные о населении, если они ещё не загружены. Если загрузка
+     * уже выполняется в другом потоке, дожидается её.
      *
      * @throws IOException при ошибке чтения файла
      */
     public void checkPopulation() throws IOException{
-        if (population.isEmpty()) {
-            population = readPopulation.readFile();
+        // загрузка, отброшенная из-за смены файлов, повторяется для нового файла
+        while (population.isEmpty()) {
+            if (await(load(POPULATION, this::loadPopulation, Runnable::run))) break;
         }
     }
 
     /**
-     * Загружает данные о парковочных штрафах, если они ещё не загружены.
+     * Загружает данные о парковочных штрафах, если они ещё не загружены. Если
+     * загрузка уже выполняется в другом потоке, дожидается её.
      *
      * @throws IOException при ошибке чтения файла
      */
     public void checkParking() throws IOException{
-        if (parking.isEmpty()) {
-            parking = readParking.readFile(Parking.class);
+        while (parking.isEmpty()) {
+            if (await(load(PARKING, this::loadParking, Runnable::run))) break;
         }
     }
 
     /**
-     * Загружает данные об объектах недвижимости, если они ещё не загружены.
+     * Загружает данные об объектах недвижимости, если они ещё не загружены,
+     * и строит по ним {@link PropertiesIndex}. Если загрузка уже выполняется
+     * в другом потоке, дожидается её.
      *
      * @throws IOException при ошибке чтения файла
      */
     public void checkProperties() throws IOException{
-        if (properties.isEmpty()) {
-            properties = readProperties.readFile(Properties.class);
+        while (properties.isEmpty()) {
+            if (await(load(PROPERTIES, this::loadProperties, Runnable::run))) break;
+        }
+    }
+
+    private Runnable loadPopulation() throws IOException {
+        if (!population.isEmpty()) return NOTHING_TO_PUBLISH;
+
+        String source = sourceOf(POPULATION);
+        Map<String, BigDecimal> loaded = readPopulation.readFile();
+        return () -> {
+            population = loaded;
+            remember(POPULATION, source);
+        };
+    }
+
+    private Runnable loadParking() throws IOException {
+        if (!parking.isEmpty()) return NOTHING_TO_PUBLISH;
+
+        String source = sourceOf(PARKING);
+        ParkingColumns loaded = ParkingColumns.from(readParking.readFile(Parking.class));
+        loaded.trimToSize();
+        // оценки различных автомобилей строятся здесь, если их не накопил сервис чтения
+        loaded.distinctPlates();
+        TimeSeriesIndex index = TimeSeriesIndex.of(loaded);
+        return () -> {
+            // индекс публикуется раньше штрафов: непустые штрафы означают готовый индекс
+            timeSeriesIndex = index;
+            parking = loaded;
+            remember(PARKING, source);
+        };
+    }
+
+    private Runnable loadProperties() throws IOException {
+        if (!properties.isEmpty()) return NOTHING_TO_PUBLISH;
+
+        String source = sourceOf(PROPERTIES);
+        List<Properties> loaded = readProperties.readFile(Properties.class);
+        PropertiesIndex index = PropertiesIndex.of(loaded);
+        return () -> {
+            // индекс публикуется раньше списка: непустой список означает готовый индекс
+            propertiesIndex = index;
+            properties = loaded;
+            remember(PROPERTIES, source);
+        };
+    }
+
+    private void remember(String dataset, String source) {
+        if (source != null) {
+            sources.put(dataset, source);
         }
     }
+
+    /**
+     * Запускает загрузку набора данных или возвращает уже выполняющуюся.
+     * Пока загрузка не завершена, все вызовы получают одну и ту же задачу.
+     *
+     * <p>Прочитанные данные публикуются, только если за время чтения
+     * {@link #switchDatasets()} не отменил эту загрузку.
+     *
+     * @param dataset  имя набора данных
+     * @param loader   загрузка; сама проверяет, не загружены ли данные
+     * @param executor исполнитель, на котором запускается новая загрузка
+     * @return задача загрузки; {@code false}, если результат отброшен из-за смены файлов
+     */
+    private CompletableFuture<Boolean> load(String dataset, DatasetLoader loader, Executor executor) {
+        CompletableFuture<Boolean> created = new CompletableFuture<>();
+        CompletableFuture<Boolean> inFlight = loads.putIfAbsent(dataset, created);
+        if (inFlight != null) {
+            return inFlight;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    Runnable publish = loader.load();
+                    boolean published;
+                    synchronized (this) {
+                        published = loads.get(dataset) == created;
+                        if (published) {
+                            publish.run();
+                        }
+                    }
+                    created.complete(published);
+                } catch (Throwable e) {
+                    created.completeExceptionally(e);
+                } finally {
+                    loads.remove(dataset, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            loads.remove(dataset, created);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    /**
+     * Дожидается загрузки и пробрасывает её ошибку как {@link IOException}.
+     *
+     * @return {@code false}, если результат загрузки отброшен из-за смены файлов
+     */
+    private boolean await(CompletableFuture<Boolean> load) throws IOException {
+        try {
+            return load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for data to load");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) throw ioException;
+            if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+            if (cause instanceof Error error) throw error;
+            throw new IOException("Couldn't load data: " + cause);
+        }
+    }
+
+    /** Публикация, когда данные уже были загружены другим потоком. */
+    private static final Runnable NOTHING_TO_PUBLISH = () -> { };
+
+    /**
+     * Загрузка одного набора данных: читает файл и возвращает действие,
+     * публикующее прочитанные данные.
+     */
+    @FunctionalInterface
+    private interface DatasetLoader {
+        Runnable load() throws IOException;
+    }
 }
@@ -0,0 +1,81 @@
+package ru.ibs.diploma.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Сервис фонового прогрева данных.
+ *
+ * <p>После того как имена файлов приняты (при запуске из командной строки или
+ * через {@code POST /parking/arguments}), параллельно загружает данные
+ * о населении, штрафах и недвижимости, чтобы первый вопрос не ждал трёх
+ * последовательных разборов файлов.
+ *
+ * <p>Загрузка выполняется на собственном пуле из {@link #THREADS} потоков.
+ * Вопросы, пришедшие во время прогрева, дожидаются уже идущей загрузки
+ * (см. {@link AnalyseService#preload(java.util.concurrent.Executor)}).
+ *
+ * <p>Прогрев включается свойством {@code datasets.preload=true}.
+ */
+@Service
+public class DatasetPreloader {
+
+    /** Число потоков загрузки – по одному на набор данных. */
+    static final int THREADS = 3;
+
+    /** Сервис анализа, владеющий загружаемыми данными. */
+    private final AnalyseService analyseService;
+
+    /** Включён ли прогрев. */
+    private final boolean enabled;
+
+    /** Пул потоков загрузки; потоки создаются при первом прогреве. */
+    private final ExecutorService executor;
+
+    /**
+     * @param analyseService сервис анализа
+     * @param enabled        включён ли прогрев
+     */
+    public DatasetPreloader(AnalyseService analyseService, @Value("${datasets.preload:false}") boolean enabled) {
+        this.analyseService = analyseService;
+        this.enabled = enabled;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(THREADS, task -> {
+            Thread thread = new Thread(task, "dataset-preload-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Запускает фоновую загрузку всех наборов данных и сразу возвращает управление.
+     * Ошибка загрузки выводится в консоль; при следующем вопросе загрузка повторится.
+     *
+     * @return задача прогрева; завершённая задача, если прогрев отключён
+     */
+    public CompletableFuture<Void> preload() {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return analyseService.preload(executor).whenComplete((ignored, e) -> {
+            if (e != null) {
+                System.out.println("Couldn't preload data: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Останавливает потоки загрузки при закрытии контекста.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,157 @@
+package ru.ibs.diploma.sketch;
+
+import java.util.Arrays;
+
+/**
+ * Оценка числа различных значений алгоритмом HyperLogLog (Flajolet, Fusy, Gandouet, Meunier, 2007).
+ *
+ * <p>Значение перемешивается в 64-битный хэш; старшие {@code p} бит выбирают один из
+ * {@code m = 2^p} регистров, а в регистре хранится наибольшая позиция первой единицы
+ * в оставшихся битах. Оценка – нормированное гармоническое среднее {@code 2^регистр};
+ * пока пустых регистров много (оценка не больше {@code 2,5·m}), используется линейный
+ * подсчёт по числу пустых регистров.
+ *
+ * <p>Относительная стандартная ошибка – {@code 1,04 / √m}: для {@code p = 12}
+ * ({@code 4096} регистров, 4 КБ) около 1,6%, то есть примерно в 95% случаев оценка
+ * отличается от точного значения не больше чем на 3,3%. Память не зависит от числа значений.
+ *
+ * <p>Скетчи с одинаковой точностью объединяются ({@link #merge(HyperLogLog)}) поэлементным
+ * максимумом регистров; результат совпадает со скетчем, построенным по объединению значений.
+ *
+ * <p>Потокобезопасность не гарантируется.
+ */
+public class HyperLogLog {
+
+    /** Наименьшая допустимая точность. */
+    public static final int MIN_PRECISION = 4;
+
+    /** Наибольшая допустимая точность. */
+    public static final int MAX_PRECISION = 18;
+
+    private final int precision;
+    private final byte[] registers;
+
+    /**
+     * @param precision число бит хэша, выбирающих регистр; от {@value #MIN_PRECISION} до {@value #MAX_PRECISION}
+     * @throws IllegalArgumentException если точность вне допустимого диапазона
+     */
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("HyperLogLog precision must be between "
+                    + MIN_PRECISION + " and " + MAX_PRECISION);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * @return число бит хэша, выбирающих регистр
+     */
+    public int precision() {
+        return precision;
+    }
+
+    /**
+     * Учитывает значение.
+     *
+     * @param value значение
+     */
+    public void add(long value) {
+        addHash(hash(value));
+    }
+
+    /**
+     * Учитывает значение по уже вычисленному {@link #hash(long)}; позволяет
+     * один раз хэшировать значение для нескольких скетчей.
+     *
+     * @param hash хэш значения
+     */
+    public void addHash(long hash) {
+        int register = (int) (hash >>> (64 - precision));
+        // сторожевой бит ограничивает позицию первой единицы величиной 64 - precision + 1
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1);
+        if (rank > registers[register]) {
+            registers[register] = rank;
+        }
+    }
+
+    /**
+     * @return оценка числа различных учтённых значений
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) zeros++;
+        }
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Добавляет к скетчу все значения другого скетча.
+     *
+     * @param other скетч той же точности
+     * @throws IllegalArgumentException если точности различаются
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Couldn't merge HyperLogLog of precision "
+                    + other.precision + " into precision " + precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * @return относительная стандартная ошибка оценки, {@code 1,04 / √m}
+     */
+    public double relativeStandardError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    /**
+     * @return {@code true}, если ни одного значения не учтено
+     */
+    public boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Перемешивает биты значения (finalizer MurmurHash3), чтобы близкие значения
+     * давали независимые хэши.
+     *
+     * @param value значение
+     * @return 64-битный хэш
+     */
+    public static long hash(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof HyperLogLog other && Arrays.equals(registers, other.registers);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(registers);
+    }
+}
@@ -0,0 +1,281 @@
+package ru.ibs.diploma.sketch;
+
+import java.util.Arrays;
+
+/**
+ * Скетч квантилей KLL (Karnin, Lang, Liberty, 2016) для чисел {@code double}.
+ *
+ * <p>Значения хранятся в уровнях-компакторах: значение уровня {@code h} представляет
+ * {@code 2^h} исходных значений. Ёмкость верхнего уровня – {@code k}, каждого следующего
+ * вниз – в 2/3 от предыдущего, но не меньше двух. Когда значений в скетче не меньше суммарной
+ * ёмкости, самый нижний переполненный уровень сортируется, и каждое второе его значение
+ * (начиная со случайной позиции) переходит уровнем выше, а остальные отбрасываются.
+ * Поэтому память – O(k) значений независимо от их числа, а пока значений меньше ёмкости
+ * нижнего уровня, скетч точен.
+ *
+ * <p>Погрешность – по рангу: для {@code k = 200} ({@link #DEFAULT_K}) ранг возвращаемого
+ * квантиля отличается от запрошенного не больше чем примерно на 1,65% числа значений
+ * с вероятностью 99%. Наименьшее и наибольшее значения хранятся точно.
+ *
+ * <p>Скетчи с одинаковым {@code k} объединяются ({@link #merge(KllSketch)}) с той же
+ * гарантией для объединения значений. Случайные позиции берутся из генератора
+ * с фиксированным начальным значением, поэтому одинаковые данные дают одинаковый скетч.
+ *
+ * <p>Потокобезопасность не гарантируется; для чтения из нескольких потоков
+ * используется неизменяемый {@link #sortedView()}.
+ */
+public class KllSketch {
+
+    /** Ёмкость верхнего уровня по умолчанию. */
+    public static final int DEFAULT_K = 200;
+
+    private static final double CAPACITY_RATIO = 2.0 / 3.0;
+    private static final int MIN_CAPACITY = 2;
+
+    private final int k;
+
+    /** Значения уровней; уровень {@code h} занимает первые {@code sizes[h]} ячеек {@code levels[h]}. */
+    private double[][] levels = new double[0][];
+    private int[] sizes = new int[0];
+
+    /** Ёмкости уровней при текущем числе уровней и их сумма. */
+    private int[] capacities = new int[0];
+    private int totalCapacity;
+
+    /** Число хранящихся значений. */
+    private int retained;
+
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    /** Состояние генератора xorshift для выбора сохраняемой половины уровня. */
+    private long random = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Создаёт скетч с ёмкостью {@link #DEFAULT_K}.
+     */
+    public KllSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * @param k ёмкость верхнего уровня; чем больше, тем точнее скетч
+     * @throws IllegalArgumentException если {@code k} меньше 8
+     */
+    public KllSketch(int k) {
+        if (k < 8) {
+            throw new IllegalArgumentException("KLL sketch needs k of at least 8");
+        }
+        this.k = k;
+        addLevel();
+    }
+
+    /**
+     * Учитывает значение; {@code NaN} пропускается.
+     *
+     * @param value значение
+     */
+    public void update(double value) {
+        if (Double.isNaN(value)) return;
+        if (count == 0) {
+            min = value;
+            max = value;
+        } else {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        count++;
+        append(0, value);
+        compress();
+    }
+
+    /**
+     * Добавляет к скетчу все значения другого скетча.
+     *
+     * @param other скетч с тем же {@code k}
+     * @throws IllegalArgumentException если {@code k} различаются
+     */
+    public void merge(KllSketch other) {
+        if (other.k != k) {
+            throw new IllegalArgumentException("Couldn't merge KLL sketch with k = " + other.k + " into k = " + k);
+        }
+        if (other.count == 0) return;
+        min = count == 0 ? other.min : Math.min(min, other.min);
+        max = count == 0 ? other.max : Math.max(max, other.max);
+        count += other.count;
+        for (int level = 0; level < other.sizes.length; level++) {
+            for (int i = 0; i < other.sizes[level]; i++) {
+                append(level, other.levels[level][i]);
+            }
+        }
+        compress();
+    }
+
+    /**
+     * @return число учтённых значений
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return число значений, хранящихся в скетче
+     */
+    public int retained() {
+        return retained;
+    }
+
+    /**
+     * Приближённый квантиль. Для повторных запросов выгоднее {@link #sortedView()}.
+     *
+     * @param rank ранг от {@code 0} (наименьшее значение) до {@code 1} (наибольшее)
+     * @return значение с рангом, близким к {@code rank}; {@code NaN}, если значений нет
+     */
+    public double quantile(double rank) {
+        return sortedView().quantile(rank);
+    }
+
+    /**
+     * Неизменяемое упорядоченное представление текущего содержимого скетча.
+     *
+     * @return представление для быстрых запросов квантилей
+     */
+    public SortedView sortedView() {
+        double[] values = new double[retained];
+        long[] weights = new long[retained];
+        int position = 0;
+        for (int level = 0; level < sizes.length; level++) {
+            for (int i = 0; i < sizes[level]; i++) {
+                values[position] = levels[level][i];
+                weights[position++] = 1L << level;
+            }
+        }
+        return new SortedView(values, weights, count, min, max);
+    }
+
+    /** Добавляет уровень сверху и пересчитывает ёмкости: нижние уровни становятся меньше. */
+    private void addLevel() {
+        int level = levels.length;
+        levels = Arrays.copyOf(levels, level + 1);
+        sizes = Arrays.copyOf(sizes, level + 1);
+        capacities = new int[level + 1];
+        totalCapacity = 0;
+        for (int h = 0; h <= level; h++) {
+            capacities[h] = Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_RATIO, level - h)));
+            totalCapacity += capacities[h];
+        }
+        levels[level] = new double[capacities[level]];
+    }
+
+    private void append(int level, double value) {
+        if (level == levels.length) {
+            addLevel();
+        }
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], Math.max(sizes[level] * 2, MIN_CAPACITY));
+        }
+        levels[level][sizes[level]++] = value;
+        retained++;
+    }
+
+    /** Сжимает переполненные уровни, пока значений в скетче не меньше суммарной ёмкости. */
+    private void compress() {
+        while (retained >= totalCapacity) {
+            int overflowing = 0;
+            while (overflowing < sizes.length && sizes[overflowing] < capacities[overflowing]) overflowing++;
+            if (overflowing == sizes.length) return;
+            compact(overflowing);
+        }
+    }
+
+    /**
+     * Переносит каждое второе значение уровня на уровень выше. При нечётном числе значений
+     * одно остаётся на уровне, чтобы сохранить суммарный вес.
+     */
+    private void compact(int level) {
+        double[] values = levels[level];
+        int size = sizes[level];
+        Arrays.sort(values, 0, size);
+
+        int kept = size % 2 == 1 ? 1 : 0;
+        double leftover = values[size - 1];
+        int offset = nextBit();
+        for (int i = offset; i < size - kept; i += 2) {
+            append(level + 1, values[i]);
+        }
+        // append мог заменить массив верхнего уровня, но не этого
+        retained -= size - kept;
+        sizes[level] = kept;
+        levels[level][0] = leftover;
+    }
+
+    private int nextBit() {
+        random ^= random << 13;
+        random ^= random >>> 7;
+        random ^= random << 17;
+        return (int) (random >>> 63);
+    }
+
+    /**
+     * Значения скетча по возрастанию с накопленными весами.
+     */
+    public static final class SortedView {
+
+        private final double[] values;
+
+        /** {@code cumulative[i]} – суммарный вес значений с номерами не больше {@code i}. */
+        private final long[] cumulative;
+
+        private final long count;
+        private final double min;
+        private final double max;
+
+        private SortedView(double[] values, long[] weights, long count, double min, double max) {
+            Integer[] order = new Integer[values.length];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+
+            this.values = new double[values.length];
+            this.cumulative = new long[values.length];
+            long total = 0;
+            for (int i = 0; i < order.length; i++) {
+                this.values[i] = values[order[i]];
+                total += weights[order[i]];
+                this.cumulative[i] = total;
+            }
+            this.count = count;
+            this.min = min;
+            this.max = max;
+        }
+
+        /**
+         * @return число значений, по которым построен скетч
+         */
+        public long count() {
+            return count;
+        }
+
+        /**
+         * Приближённый квантиль за O(log k).
+         *
+         * @param rank ранг от {@code 0} до {@code 1}
+         * @return значение с рангом, близким к {@code rank}; {@code NaN}, если значений нет
+         * @throws IllegalArgumentException если ранг вне {@code [0, 1]}
+         */
+        public double quantile(double rank) {
+            if (!(rank >= 0 && rank <= 1)) {
+                throw new IllegalArgumentException("Quantile rank must be between 0 and 1, got " + rank);
+            }
+            if (count == 0) return Double.NaN;
+            if (rank == 0) return min;
+            if (rank == 1) return max;
+
+            long total = cumulative[cumulative.length - 1];
+            long target = (long) Math.ceil(rank * total);
+            int position = Arrays.binarySearch(cumulative, target);
+            if (position < 0) position = -position - 1;
+            return values[Math.min(position, values.length - 1)];
+        }
+    }
+}
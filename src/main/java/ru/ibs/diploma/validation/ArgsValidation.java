@@ -8,6 +8,7 @@ import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Service;
 import ru.ibs.diploma.data.FileNames;
 import ru.ibs.diploma.logging.WriteLogService;
+import ru.ibs.diploma.service.DatasetPreloader;
 import ru.ibs.diploma.ui.UserChoice;
 
 import java.io.IOException;
@@ -62,12 +63,17 @@ public class ArgsValidation{
 
     private final FileNames fileNames;
 
+    /**
+     * Сервис фоновой загрузки данных, запускаемой после успешной валидации.
+     */
+    private final DatasetPreloader datasetPreloader;
+
     /**
      * Точка входа Spring-приложения.
      *
      * <p>Выполняет валидацию аргументов командной строки, сохраняет
-     * имена файлов в {@link FileNames}, записывает стартовый лог и
-     * формирует приветственное сообщение.
+     * имена файлов в {@link FileNames}, записывает стартовый лог, запускает
+     * фоновую загрузку данных и формирует приветственное сообщение.
      *
      * @param args аргументы командной строки
      * @throws InterruptedException если поток прерван во время задержки
@@ -92,6 +98,8 @@ public class ArgsValidation{
 
         writeLogService.logEntry(args);
 
+        datasetPreloader.preload();
+
         userChoice.createMessage();
     }
 
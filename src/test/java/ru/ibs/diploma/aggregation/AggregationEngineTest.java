@@ -0,0 +1,119 @@
+package ru.ibs.diploma.aggregation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.ibs.diploma.data.Parking;
+import ru.ibs.diploma.data.ParkingColumns;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AggregationEngineTest {
+
+    ParkingColumns parking;
+
+    @BeforeEach
+    void setUp(){
+        List<Parking> list = new ArrayList<>();
+        list.add(new Parking(Instant.parse("2013-04-03T15:15:00Z"), 36, "METER EXPIRED CC", 1322731, "PA", 2905938, "19104"));
+        list.add(new Parking(Instant.parse("2013-04-03T07:35:00Z"), 51, "DOUBLE PARKED", 1322731, "NJ", 2905939, "19104"));
+        list.add(new Parking(null, 41, null, 0, "PA", 2905940, "19103"));
+        list.add(new Parking(Instant.parse("2013-01-11T13:31:00Z"), 36, "METER EXPIRED CC", 1199878, null, 2905942, null));
+        list.add(new Parking(Instant.parse("2012-12-31T15:59:59Z"), 26, "METER EXPIRED", 1199878, "PA", 2905943, "19103"));
+        parking = ParkingColumns.from(list);
+    }
+
+    @Test
+    void givenParking_whenGroupByZip_thenReturnGroupsInKeyOrderWithMissingLast(){
+        //when
+        AggregationResult result = AggregationEngine.aggregate(parking, AggregationQuery.groupBy(Dimension.ZIP));
+
+        //then
+        assertEquals(5, result.total());
+        assertEquals(Arrays.asList(List.of("19103"), List.of("19104"), Arrays.asList((String) null)),
+                result.groups().stream().map(AggregationResult.Group::key).toList());
+        AggregationResult.Group group = result.groups().get(0);
+        assertEquals(2, group.count());
+        assertEquals(67, group.sum());
+        assertEquals(26, group.min());
+        assertEquals(41, group.max());
+        assertEquals(new BigDecimal("33.5000"), group.average());
+    }
+
+    @Test
+    void givenFiltersAndPeriod_whenAggregate_thenSkipOtherRows(){
+        //given
+        AggregationQuery query = AggregationQuery.groupBy(Dimension.YEAR, Dimension.HOUR)
+                .where(Dimension.STATE, "PA", "NJ")
+                .between(Instant.parse("2012-12-31T15:59:59Z"), Instant.parse("2013-04-03T15:15:00Z"));
+
+        //when
+        Map<List<String>, AggregationResult.Group> groups = AggregationEngine.aggregate(parking, query).byKey();
+
+        //then
+        assertEquals(2, groups.size());
+        assertEquals(26, groups.get(List.of("2012", "15")).sum());
+        assertEquals(51, groups.get(List.of("2013", "7")).sum());
+    }
+
+    @Test
+    void givenUnknownFilterValue_whenAggregate_thenReturnNoGroups(){
+        //when
+        AggregationResult result = AggregationEngine.aggregate(parking,
+                AggregationQuery.groupBy(Dimension.REASON).where(Dimension.ZIP, "99999"));
+
+        //then
+        assertTrue(result.groups().isEmpty());
+        assertEquals(0, result.total());
+    }
+
+    @Test
+    void givenOrderByAndLimit_whenAggregate_thenReturnTopGroups(){
+        //given
+        AggregationQuery query = AggregationQuery.groupBy(Dimension.DAY_OF_WEEK).orderBy(Metric.SUM).limit(2);
+
+        //when
+        AggregationResult result = AggregationEngine.aggregate(parking, query);
+
+        //then
+        assertEquals(List.of(List.of("WEDNESDAY"), Arrays.asList((String) null)),
+                result.groups().stream().map(AggregationResult.Group::key).toList());
+        assertEquals(87, result.groups().get(0).sum());
+        assertEquals(5, result.total());
+    }
+
+    @Test
+    void givenManyPossibleGroups_whenAggregate_thenUseSparseGroupsWithSameResult(){
+        //given
+        ParkingColumns columns = new ParkingColumns();
+        for (int i = 0; i < 10_000; i++) {
+            columns.add(i * 3600L, i % 5000, "REASON " + i % 7, i, "PA", i, String.valueOf(19100 + i % 10));
+        }
+        AggregationQuery query = AggregationQuery.groupBy(Dimension.ZIP, Dimension.FINE);
+
+        //when
+        AggregationResult result = AggregationEngine.aggregate(columns, query);
+
+        //then
+        assertEquals(10_000, result.total());
+        assertEquals(5000, result.groups().size());
+        AggregationResult.Group group = result.byKey().get(List.of("19100", "0"));
+        assertEquals(2, group.count());
+        assertEquals(List.of("19100", "0"), result.groups().get(0).key());
+    }
+
+    @Test
+    void givenInvalidQuery_whenCreate_thenThrowIllegalArgumentException(){
+        //then
+        assertThrows(IllegalArgumentException.class, () -> AggregationQuery.groupBy(Dimension.ZIP, Dimension.ZIP));
+        assertThrows(IllegalArgumentException.class, () -> AggregationQuery.groupBy(Dimension.ZIP)
+                .between(Instant.parse("2014-01-01T00:00:00Z"), Instant.parse("2013-01-01T00:00:00Z")));
+        assertThrows(IllegalArgumentException.class, () -> Dimension.parse("color"));
+    }
+}
@@ -0,0 +1,122 @@
+package ru.ibs.diploma.aggregation;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import ru.ibs.diploma.data.Parking;
+import ru.ibs.diploma.data.ParkingColumns;
+import ru.ibs.diploma.generator.DatasetGenerator;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HeavyHittersTest {
+
+    static ParkingColumns parking;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        parking = new DatasetGenerator(DatasetGenerator.Settings.of(50_000)).parking();
+    }
+
+    @Test
+    void givenGeneratedParking_whenExact_thenMatchFullScan(){
+        for (TopKey key : TopKey.values()) {
+            for (Metric metric : List.of(Metric.COUNT, Metric.SUM)) {
+                //given
+                Map<String, Long> weights = weights(key, metric);
+
+                //when
+                List<HeavyHitter> top = HeavyHitters.exact(parking, key, metric, 20);
+
+                //then
+                List<Long> expected = weights.values().stream()
+                        .sorted((a, b) -> Long.compare(b, a))
+                        .limit(20)
+                        .toList();
+                assertEquals(expected, top.stream().map(HeavyHitter::weight).toList(), key + " by " + metric);
+                for (HeavyHitter hitter : top) {
+                    assertEquals(weights.get(hitter.key()), hitter.weight());
+                    assertEquals(0, hitter.error());
+                }
+            }
+        }
+    }
+
+    @Test
+    void givenFewCounters_whenApproximate_thenKeepSpaceSavingGuarantees(){
+        //given
+        int counters = 200;
+        Map<String, Long> weights = weights(TopKey.PLATE, Metric.COUNT);
+        long total = weights.values().stream().mapToLong(Long::longValue).sum();
+
+        //when
+        List<HeavyHitter> top = HeavyHitters.approximate(parking, TopKey.PLATE, Metric.COUNT, counters, counters);
+
+        //then
+        for (HeavyHitter hitter : top) {
+            long exact = weights.get(hitter.key());
+            assertTrue(hitter.weight() >= exact);
+            assertTrue(hitter.weight() - hitter.error() <= exact);
+            assertTrue(hitter.error() <= total / counters);
+        }
+        weights.forEach((plate, weight) -> {
+            if (weight > total / counters) {
+                assertTrue(top.stream().anyMatch(hitter -> hitter.key().equals(plate)), plate);
+            }
+        });
+    }
+
+    @Test
+    void givenEnoughCounters_whenApproximate_thenReturnExactTop(){
+        //when
+        List<HeavyHitter> exact = HeavyHitters.exact(parking, TopKey.REASON, Metric.SUM, 5);
+        List<HeavyHitter> approximate = HeavyHitters.approximate(parking, TopKey.REASON, Metric.SUM, 5,
+                HeavyHitters.DEFAULT_COUNTERS);
+
+        //then
+        assertEquals(exact, approximate);
+    }
+
+    @Test
+    void givenNegativeFines_whenTopBySum_thenCountThemAsZero(){
+        //given
+        ParkingColumns refunds = ParkingColumns.from(List.of(
+                new Parking("19102", "PA", 100),
+                new Parking("19103", "PA", -500),
+                new Parking("19103", "PA", 60),
+                new Parking("19104", "PA", 50),
+                new Parking("19105", "PA", -10)));
+
+        //when
+        List<HeavyHitter> exact = HeavyHitters.exact(refunds, TopKey.ZIP, Metric.SUM, 3);
+        List<HeavyHitter> approximate = HeavyHitters.approximate(refunds, TopKey.ZIP, Metric.SUM, 2, 2);
+
+        //then
+        assertEquals(List.of(new HeavyHitter("19102", 100, 0), new HeavyHitter("19103", 60, 0),
+                new HeavyHitter("19104", 50, 0)), exact);
+        assertEquals(List.of(new HeavyHitter("19104", 110, 60), new HeavyHitter("19102", 100, 0)), approximate);
+    }
+
+    @Test
+    void givenWrongArguments_whenExact_thenThrowIllegalArgumentException(){
+        //then
+        assertThrows(IllegalArgumentException.class, () -> HeavyHitters.exact(parking, TopKey.ZIP, Metric.AVG, 10));
+        assertThrows(IllegalArgumentException.class, () -> HeavyHitters.exact(parking, TopKey.ZIP, Metric.COUNT, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> HeavyHitters.approximate(parking, TopKey.ZIP, Metric.COUNT, 10, 5));
+    }
+
+    private static Map<String, Long> weights(TopKey key, Metric metric) {
+        Map<String, Long> weights = new HashMap<>();
+        for (int row = 0; row < parking.size(); row++) {
+            long value = key.key(parking, row);
+            if (value == TopKey.NO_KEY) continue;
+            weights.merge(key.label(parking, value), metric == Metric.SUM ? Math.max(parking.fine(row), 0L) : 1L, Long::sum);
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,40 @@
+package ru.ibs.diploma.aggregation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongIntHashMapTest {
+
+    @Test
+    void givenRandomOperations_whenCompareWithHashMap_thenKeepSameContent(){
+        //given
+        LongIntHashMap map = new LongIntHashMap(4);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(17);
+
+        //when
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5_000) - 100L;
+            if (i % 1_000 == 0) key = Long.MIN_VALUE;
+            int value = random.nextInt(100);
+            if (random.nextInt(3) < 2) {
+                assertEquals(expected.computeIfAbsent(key, k -> value), map.putIfAbsent(key, value));
+            } else {
+                Integer removed = expected.remove(key);
+                assertEquals(removed == null ? -1 : removed, map.remove(key, -1));
+            }
+        }
+
+        //then
+        assertEquals(expected.size(), map.size());
+        for (long key = -100; key < 4_900; key++) {
+            assertEquals(expected.getOrDefault(key, -1), map.get(key, -1));
+        }
+        assertEquals(expected.getOrDefault(Long.MIN_VALUE, -1), map.get(Long.MIN_VALUE, -1));
+    }
+}
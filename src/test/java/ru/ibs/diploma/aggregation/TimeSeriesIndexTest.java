@@ -0,0 +1,131 @@
+package ru.ibs.diploma.aggregation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.ibs.diploma.data.Parking;
+import ru.ibs.diploma.data.ParkingColumns;
+import ru.ibs.diploma.generator.DatasetGenerator;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimeSeriesIndexTest {
+
+    TimeSeriesIndex index;
+
+    @BeforeEach
+    void setUp(){
+        List<Parking> parking = new ArrayList<>();
+        parking.add(new Parking(Instant.parse("2013-04-03T15:15:00Z"), 36, "METER EXPIRED CC", 1322731, "PA", 2905938, "19104"));
+        parking.add(new Parking(Instant.parse("2013-04-01T07:35:00Z"), 51, "DOUBLE PARKED", 1322731, "NJ", 2905939, "19104"));
+        parking.add(new Parking(null, 41, null, 0, "PA", 2905940, "19104"));
+        parking.add(new Parking(Instant.parse("2013-01-11T13:31:00Z"), 36, "METER EXPIRED CC", 1199878, null, 2905942, null));
+        parking.add(new Parking(Instant.parse("2013-03-31T23:59:59Z"), 26, "METER EXPIRED", 1199878, "PA", 2905943, "19103"));
+        index = TimeSeriesIndex.of(ParkingColumns.from(parking));
+    }
+
+    @Test
+    void givenParking_whenOf_thenSkipTicketsWithoutZipOrTime(){
+        //then
+        assertEquals(List.of("19103", "19104"), List.copyOf(index.zips()));
+        assertEquals(Instant.parse("2013-03-31T23:59:59Z"), index.first());
+        assertEquals(Instant.parse("2013-04-03T15:15:00Z"), index.last());
+    }
+
+    @Test
+    void givenPeriod_whenSeriesByDay_thenReturnEveryDayOfPeriod(){
+        //when
+        TimeSeries series = index.series("19104", TimeBucket.DAY,
+                Instant.parse("2013-03-31T12:00:00Z"), Instant.parse("2013-04-03T15:15:00Z"));
+
+        //then
+        assertEquals(List.of(
+                new TimeSeries.Point(Instant.parse("2013-03-31T00:00:00Z"), 0, 0),
+                new TimeSeries.Point(Instant.parse("2013-04-01T00:00:00Z"), 1, 51),
+                new TimeSeries.Point(Instant.parse("2013-04-02T00:00:00Z"), 0, 0),
+                new TimeSeries.Point(Instant.parse("2013-04-03T00:00:00Z"), 0, 0)), series.points());
+        assertEquals(1, series.count());
+        assertEquals(51, series.sum());
+    }
+
+    @Test
+    void givenNoPeriod_whenSeriesByWeekAndMonth_thenUseWholeIndex(){
+        //when
+        TimeSeries weeks = index.series("19104", TimeBucket.WEEK, null, null);
+        TimeSeries months = index.series("19103", TimeBucket.MONTH, null, null);
+        TimeSeries unknown = index.series("99999", TimeBucket.MONTH, null, null);
+
+        //then
+        assertEquals(List.of(
+                new TimeSeries.Point(Instant.parse("2013-03-25T00:00:00Z"), 0, 0),
+                new TimeSeries.Point(Instant.parse("2013-04-01T00:00:00Z"), 2, 87)), weeks.points());
+        assertEquals(List.of(
+                new TimeSeries.Point(Instant.parse("2013-03-01T00:00:00Z"), 1, 26),
+                new TimeSeries.Point(Instant.parse("2013-04-01T00:00:00Z"), 0, 0)), months.points());
+        assertEquals(0, unknown.count());
+        assertEquals(2, unknown.points().size());
+    }
+
+    @Test
+    void givenGeneratedParking_whenSeriesByHour_thenMatchFullScan() throws IOException {
+        //given
+        ParkingColumns parking = new DatasetGenerator(DatasetGenerator.Settings.of(20_000)).parking();
+        TimeSeriesIndex generated = TimeSeriesIndex.of(parking);
+        Instant from = LocalDate.of(2013, 6, 1).atStartOfDay(ZoneOffset.UTC).toInstant().plusSeconds(1800);
+        Instant to = from.plusSeconds(90L * 86_400);
+
+        assertFalse(generated.zips().isEmpty());
+        for (String zip : generated.zips()) {
+            //when
+            TimeSeries series = generated.series(zip, TimeBucket.HOUR, from, to);
+
+            //then
+            long count = 0;
+            long sum = 0;
+            for (int row = 0; row < parking.size(); row++) {
+                long epochSecond = parking.epochSecond(row);
+                if (parking.postIndexCode(row) == parking.postIndexCodeOf(zip)
+                        && epochSecond != ParkingColumns.NO_TIMESTAMP
+                        && epochSecond >= from.getEpochSecond() && epochSecond < to.getEpochSecond()) {
+                    count++;
+                    sum += parking.fine(row);
+                }
+            }
+            assertEquals(count, series.count(), zip);
+            assertEquals(sum, series.sum(), zip);
+            assertEquals(count, series.points().stream().mapToLong(TimeSeries.Point::count).sum(), zip);
+            assertEquals(90 * 24 + 1, series.points().size());
+        }
+    }
+
+    @Test
+    void givenPeriod_whenPoints_thenMatchSeriesSize(){
+        //given
+        Instant from = Instant.parse("2013-03-31T12:00:00Z");
+        Instant to = Instant.parse("2013-04-03T15:15:00Z");
+
+        //then
+        assertEquals(index.series("19104", TimeBucket.DAY, from, to).points().size(),
+                index.points(TimeBucket.DAY, from, to));
+        assertEquals(index.series("19103", TimeBucket.HOUR, null, null).points().size(),
+                index.points(TimeBucket.HOUR, null, null));
+        assertEquals(0, TimeSeriesIndex.EMPTY.points(TimeBucket.DAY, null, null));
+        assertThrows(IllegalArgumentException.class, () -> index.points(TimeBucket.HOUR,
+                Instant.parse("2000-01-01T00:00:00Z"), Instant.parse("2020-01-01T00:00:00Z")));
+    }
+
+    @Test
+    void givenTooLongPeriod_whenSeries_thenThrowIllegalArgumentException(){
+        //then
+        assertThrows(IllegalArgumentException.class, () -> index.series("19104", TimeBucket.HOUR,
+                Instant.parse("2000-01-01T00:00:00Z"), Instant.parse("2020-01-01T00:00:00Z")));
+        assertThrows(IllegalArgumentException.class, () -> index.series("19104", TimeBucket.HOUR,
+                Instant.parse("2014-01-01T00:00:00Z"), Instant.parse("2013-01-01T00:00:00Z")));
+    }
+}
@@ -0,0 +1,100 @@
+package ru.ibs.diploma.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedCacheTest {
+
+    AtomicLong clock = new AtomicLong();
+
+    BoundedCache<String, String> cache = new BoundedCache<>(2, Duration.ofSeconds(10), clock::get);
+
+    @Test
+    void givenFullCache_whenPut_thenEvictLeastRecentlyUsed(){
+        //given
+        cache.put("19102", "a");
+        cache.put("19103", "b");
+        cache.get("19102");
+
+        //when
+        cache.put("19104", "c");
+
+        //then
+        assertEquals("a", cache.get("19102"));
+        assertNull(cache.get("19103"));
+        assertEquals("c", cache.get("19104"));
+        assertEquals(new CacheStatistics(3, 1, 1, 2, 2), cache.statistics());
+    }
+
+    @Test
+    void givenExpiredEntry_whenGet_thenReturnNullAndCountEviction(){
+        //given
+        cache.put("19102", "a");
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        //when
+        String result = cache.get("19102");
+
+        //then
+        assertNull(result);
+        assertEquals(new CacheStatistics(0, 1, 1, 0, 2), cache.statistics());
+    }
+
+    @Test
+    void givenExpiredEntries_whenPut_thenRemoveThem(){
+        //given
+        cache.put("19102", "a");
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        cache.put("19103", "b");
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        //when
+        cache.put("19104", "c");
+
+        //then
+        assertEquals(2, cache.size());
+        assertEquals("b", cache.get("19103"));
+        assertEquals(1, cache.statistics().evictions());
+    }
+
+    @Test
+    void givenReplacedEntry_whenOldValueExpires_thenKeepNewValue(){
+        //given
+        cache.put("19102", "a");
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        cache.put("19102", "b");
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        //when
+        cache.put("19103", "c");
+
+        //then
+        assertEquals("b", cache.get("19102"));
+        assertEquals("c", cache.get("19103"));
+        assertEquals(0, cache.statistics().evictions());
+    }
+
+    @Test
+    void givenScanningClient_whenPutManyKeys_thenSizeStaysBounded(){
+        //given
+        BoundedCache<String, String> bounded = new BoundedCache<>(100, Duration.ofHours(1));
+
+        //when
+        for(int i = 0; i < 100_000; i++){
+            bounded.put("junk-" + i, "0");
+        }
+
+        //then
+        assertEquals(100, bounded.size());
+        assertEquals(99_900, bounded.statistics().evictions());
+    }
+
+    @Test
+    void givenZeroSize_whenCreate_thenThrow(){
+        assertThrows(IllegalArgumentException.class, () -> new BoundedCache<>(0, Duration.ofHours(1)));
+    }
+}
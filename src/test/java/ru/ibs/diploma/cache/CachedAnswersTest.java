@@ -0,0 +1,143 @@
+package ru.ibs.diploma.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachedAnswersTest {
+
+    private static final int QUESTIONS = 6;
+
+    private static final int REQUESTS = 600;
+
+    CachedAnswers cachedAnswers = new CachedAnswers();
+
+    ExecutorService executor = Executors.newFixedThreadPool(32);
+
+    @AfterEach
+    void tearDown(){
+        executor.shutdownNow();
+    }
+
+    @Test
+    void givenAnswer_whenCacheAnswer_thenSearchCacheReturnsIt(){
+        //given
+        Answer answer = new FirstAnswer(BigDecimal.TEN);
+
+        //when
+        cachedAnswers.cacheAnswer(1, answer);
+
+        //then
+        assertSame(answer, cachedAnswers.searchCache(1));
+        assertNull(cachedAnswers.searchCache(2));
+    }
+
+    @Test
+    void givenCachedAnswer_whenComputeIfAbsent_thenDoNotCompute() throws IOException{
+        //given
+        Answer answer = new FirstAnswer(BigDecimal.TEN);
+        cachedAnswers.cacheAnswer(1, answer);
+
+        //when
+        Answer result = cachedAnswers.computeIfAbsent(1, () -> fail("Answer must not be computed"));
+
+        //then
+        assertSame(answer, result);
+    }
+
+    @Test
+    void givenFailedComputation_whenComputeIfAbsent_thenRethrowAndRetry() throws IOException{
+        //given
+        Answer answer = new FirstAnswer(BigDecimal.ONE);
+
+        //then
+        IOException e = assertThrows(IOException.class,
+                () -> cachedAnswers.computeIfAbsent(2, () -> { throw new IOException("Couldn't read file"); }));
+        assertEquals("Couldn't read file", e.getMessage());
+        assertNull(cachedAnswers.searchCache(2));
+        assertSame(answer, cachedAnswers.computeIfAbsent(2, () -> answer));
+    }
+
+    @Test
+    void givenHundredsOfParallelRequests_whenComputeIfAbsent_thenEachQuestionComputedOnce() throws Exception{
+        //given
+        AtomicInteger[] computations = new AtomicInteger[QUESTIONS + 1];
+        for(int question = 1; question <= QUESTIONS; question++){
+            computations[question] = new AtomicInteger();
+        }
+        CountDownLatch start = new CountDownLatch(1);
+
+        //when
+        List<Future<Answer>> results = new ArrayList<>();
+        for(int request = 0; request < REQUESTS; request++){
+            int question = request % QUESTIONS + 1;
+            results.add(executor.submit(() -> {
+                start.await();
+                return cachedAnswers.computeIfAbsent(question, () -> {
+                    computations[question].incrementAndGet();
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+                    return new FirstAnswer(BigDecimal.valueOf(question));
+                });
+            }));
+        }
+        start.countDown();
+
+        //then
+        for(int request = 0; request < REQUESTS; request++){
+            int question = request % QUESTIONS + 1;
+            Answer answer = results.get(request).get(10, TimeUnit.SECONDS);
+            assertEquals(new FirstAnswer(BigDecimal.valueOf(question)), answer);
+            assertSame(cachedAnswers.searchCache(question), answer);
+        }
+        for(int question = 1; question <= QUESTIONS; question++){
+            assertEquals(1, computations[question].get(), "question " + question);
+        }
+    }
+
+    @Test
+    void givenZipAnswers_whenSearchCache_thenKeyByQuestionAndZip(){
+        //given
+        CachedAnswers bounded = new CachedAnswers(2, Duration.ofHours(1));
+        Answer answer = new FirstAnswer(BigDecimal.TEN);
+
+        //when
+        bounded.cacheAnswer(3, "19102", answer);
+        bounded.cacheAnswer(4, "19102", new FirstAnswer(BigDecimal.ONE));
+        bounded.cacheAnswer(5, "19102", new FirstAnswer(BigDecimal.ONE));
+
+        //then
+        assertNull(bounded.searchCache(3, "19102"));
+        assertNull(bounded.searchCache(3, "19103"));
+        assertEquals(new FirstAnswer(BigDecimal.ONE), bounded.searchCache(5, "19102"));
+        assertNull(bounded.searchCache(3));
+        assertEquals(new CacheStatistics(1, 2, 1, 2, 2), bounded.zipCacheStatistics());
+    }
+
+    @Test
+    void givenInvalidateDuringComputation_whenComputeIfAbsent_thenReturnButNotCache() throws IOException{
+        //given
+        Answer old = new FirstAnswer(BigDecimal.ONE);
+        cachedAnswers.cacheAnswer(4, "19102", new FirstAnswer(BigDecimal.TEN));
+
+        //when
+        Answer result = cachedAnswers.computeIfAbsent(1, () -> {
+            cachedAnswers.invalidate(List.of(1, 4));
+            return old;
+        });
+
+        //then
+        assertSame(old, result);
+        assertNull(cachedAnswers.searchCache(1));
+        assertNull(cachedAnswers.searchCache(4, "19102"));
+    }
+}
@@ -0,0 +1,168 @@
+package ru.ibs.diploma.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistentAnswersTest {
+
+    @TempDir
+    Path directory;
+
+    PersistentAnswers persistentAnswers;
+
+    @BeforeEach
+    void setUp(){
+        persistentAnswers = new PersistentAnswers(directory.resolve("answers").toString());
+    }
+
+    @Test
+    void givenSavedAnswers_whenLoad_thenReturnEqualAnswers(){
+        //given
+        Map<String, BigDecimal> fines = new TreeMap<>(Map.of("19102", new BigDecimal("0.0125"), "19103", BigDecimal.ONE));
+        Map<String, Statistics> statistics = new HashMap<>();
+        statistics.put("19102", new Statistics(new BigDecimal("30000"), new BigDecimal("0.5")));
+        statistics.put("19103", new Statistics(null, BigDecimal.ZERO));
+        String fingerprint = "files-1";
+
+        //when
+        persistentAnswers.save(1, fingerprint, new FirstAnswer(new BigDecimal("4705")));
+        persistentAnswers.save(2, fingerprint, new SecondAnswer(fines));
+        persistentAnswers.save(6, fingerprint, new SurpriseAnswer(statistics));
+
+        //then
+        assertEquals(new FirstAnswer(new BigDecimal("4705")), persistentAnswers.load(1, fingerprint));
+        assertEquals(new SecondAnswer(fines), persistentAnswers.load(2, fingerprint));
+        assertEquals(new SurpriseAnswer(statistics), persistentAnswers.load(6, fingerprint));
+        assertNull(persistentAnswers.load(3, fingerprint));
+    }
+
+    @Test
+    void givenOtherFingerprint_whenLoad_thenReturnNullAndDeleteAnswer(){
+        //given
+        persistentAnswers.save(1, "files-1", new FirstAnswer(new BigDecimal("4705")));
+
+        //when
+        Answer answer = persistentAnswers.load(1, "files-2");
+
+        //then
+        assertNull(answer);
+        assertNull(persistentAnswers.load(1, "files-1"));
+        assertFalse(Files.exists(directory.resolve("answers").resolve("answer-1.bin")));
+    }
+
+    @Test
+    void givenNoDirectory_whenSave_thenNothingIsStored(){
+        //given
+        PersistentAnswers disabled = new PersistentAnswers("");
+
+        //when
+        disabled.save(1, "files-1", new FirstAnswer(BigDecimal.ONE));
+
+        //then
+        assertNull(disabled.load(1, "files-1"));
+        assertFalse(Files.exists(directory.resolve("answers")));
+    }
+
+    @Test
+    void givenAnswerSavedBeforeRestart_whenComputeIfAbsent_thenNotRecompute() throws IOException{
+        //given
+        AtomicInteger computations = new AtomicInteger();
+        new CachedAnswers(10, Duration.ofHours(1), persistentAnswers).computeIfAbsent(2, () -> "files-1", () -> {
+            computations.incrementAndGet();
+            return new CachedAnswerInterface.SourcedAnswer(
+                    new SecondAnswer(new TreeMap<>(Map.of("19102", BigDecimal.ONE))), "files-1");
+        });
+        CachedAnswers restarted = new CachedAnswers(10, Duration.ofHours(1), persistentAnswers);
+
+        //when
+        Answer answer = restarted.computeIfAbsent(2, () -> "files-1", () -> {
+            computations.incrementAndGet();
+            return new CachedAnswerInterface.SourcedAnswer(new SecondAnswer(new TreeMap<>()), "files-1");
+        });
+
+        //then
+        assertEquals(new SecondAnswer(new TreeMap<>(Map.of("19102", BigDecimal.ONE))), answer);
+        assertEquals(1, computations.get());
+    }
+
+    @Test
+    void givenAnswerComputedFromOtherFiles_whenComputeIfAbsent_thenNotServedForCurrentFiles() throws IOException{
+        //given
+        // расчёт начался по новым файлам, но получил данные, ещё прочитанные из старых
+        new CachedAnswers(10, Duration.ofHours(1), persistentAnswers).computeIfAbsent(2, () -> "new", () ->
+                new CachedAnswerInterface.SourcedAnswer(new SecondAnswer(new TreeMap<>(Map.of("19102", BigDecimal.ONE))), "old"));
+        CachedAnswers restarted = new CachedAnswers(10, Duration.ofHours(1), persistentAnswers);
+
+        //when
+        Answer answer = restarted.computeIfAbsent(2, () -> "new", () ->
+                new CachedAnswerInterface.SourcedAnswer(new SecondAnswer(new TreeMap<>()), "new"));
+
+        //then
+        assertEquals(new SecondAnswer(new TreeMap<>()), answer);
+        assertEquals(new SecondAnswer(new TreeMap<>()), persistentAnswers.load(2, "new"));
+    }
+
+    @Test
+    void givenSavedAnswers_whenInvalidate_thenDeleteThemFromDisk() throws IOException{
+        //given
+        CachedAnswers cachedAnswers = new CachedAnswers(10, Duration.ofHours(1), persistentAnswers);
+        String fingerprint = "files-1";
+        cachedAnswers.computeIfAbsent(1, () -> fingerprint, () ->
+                new CachedAnswerInterface.SourcedAnswer(new FirstAnswer(new BigDecimal("4705")), fingerprint));
+        cachedAnswers.computeIfAbsent(2, () -> fingerprint, () ->
+                new CachedAnswerInterface.SourcedAnswer(new SecondAnswer(new TreeMap<>()), fingerprint));
+
+        //when
+        cachedAnswers.invalidate(List.of(2, 3));
+
+        //then
+        assertEquals(new FirstAnswer(new BigDecimal("4705")), persistentAnswers.load(1, fingerprint));
+        assertNull(persistentAnswers.load(2, fingerprint));
+        assertFalse(Files.exists(directory.resolve("answers").resolve("answer-2.bin")));
+    }
+
+    @Test
+    void givenNoSource_whenComputeIfAbsent_thenKeepAnswerOnlyInMemory() throws IOException{
+        //given
+        CachedAnswers cachedAnswers = new CachedAnswers(10, Duration.ofHours(1), persistentAnswers);
+
+        //when
+        Answer answer = cachedAnswers.computeIfAbsent(1, () -> new FirstAnswer(BigDecimal.ONE));
+
+        //then
+        assertEquals(new FirstAnswer(BigDecimal.ONE), answer);
+        assertEquals(new FirstAnswer(BigDecimal.ONE), cachedAnswers.searchCache(1));
+        assertFalse(Files.exists(directory.resolve("answers")));
+    }
+
+    @Test
+    void givenAnswerInMemory_whenComputeIfAbsent_thenDoNotFingerprintFiles() throws IOException{
+        //given
+        CachedAnswers cachedAnswers = new CachedAnswers(10, Duration.ofHours(1), persistentAnswers);
+        AtomicInteger fingerprints = new AtomicInteger();
+        cachedAnswers.computeIfAbsent(1, () -> "files-" + fingerprints.incrementAndGet(), () ->
+                new CachedAnswerInterface.SourcedAnswer(new FirstAnswer(BigDecimal.ONE), "files-1"));
+
+        //when
+        Answer answer = cachedAnswers.computeIfAbsent(1, () -> "files-" + fingerprints.incrementAndGet(), () ->
+                fail("Answer must not be computed"));
+
+        //then
+        assertEquals(new FirstAnswer(BigDecimal.ONE), answer);
+        assertEquals(1, fingerprints.get());
+    }
+}
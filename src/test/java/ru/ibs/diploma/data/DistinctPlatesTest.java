@@ -0,0 +1,85 @@
+package ru.ibs.diploma.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.ibs.diploma.datamanagement.ReadParking;
+import ru.ibs.diploma.generator.DatasetGenerator;
+import ru.ibs.diploma.logging.WriteLogService;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DistinctPlatesTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void givenGeneratedFile_whenRead_thenEstimatesMatchExactCounts() throws IOException {
+        //given
+        DatasetGenerator generator = new DatasetGenerator(DatasetGenerator.Settings.of(200_000));
+        FileNames fileNames = generator.writeAll(tempDir);
+        WriteLogService writeLogService = new WriteLogService(new FileNames());
+        ReadParking readParking = new ReadParking(fileNames, writeLogService, new SafeCast());
+
+        //when
+        ParkingColumns sequential = (ParkingColumns) readParking.readCsvParking();
+        ParkingColumns parallel = (ParkingColumns) readParking.readCsvParkingParallel();
+        writeLogService.close();
+
+        //then
+        Map<Integer, Set<Long>> byPostIndex = new HashMap<>();
+        Map<Integer, Set<Long>> byReason = new HashMap<>();
+        for (int row = 0; row < sequential.size(); row++) {
+            long carId = sequential.carId(row);
+            if (carId == 0) continue;
+            if (sequential.postIndexCode(row) != ParkingColumns.NO_CODE) {
+                byPostIndex.computeIfAbsent(sequential.postIndexCode(row), code -> new HashSet<>()).add(carId);
+            }
+            if (sequential.reasonCode(row) != ParkingColumns.NO_CODE) {
+                byReason.computeIfAbsent(sequential.reasonCode(row), code -> new HashSet<>()).add(carId);
+            }
+        }
+
+        DistinctPlates plates = sequential.distinctPlates();
+        assertFalse(byPostIndex.isEmpty());
+        byPostIndex.forEach((code, exact) -> {
+            assertWithinErrorBound(exact.size(), plates.byPostIndex(code));
+            assertEquals(plates.byPostIndex(code), parallel.distinctPlates().byPostIndex(code));
+        });
+        byReason.forEach((code, exact) -> {
+            assertWithinErrorBound(exact.size(), plates.byReason(code));
+            assertEquals(plates.byReason(code), parallel.distinctPlates().byReason(code));
+        });
+    }
+
+    @Test
+    void givenColumnsWithoutEstimates_whenDistinctPlates_thenBuildFromExistingRows(){
+        //given
+        ParkingColumns columns = new ParkingColumns();
+        columns.add(0, 36, "METER EXPIRED CC", 1322731, "PA", 1, "19104");
+        columns.add(0, 51, "DOUBLE PARKED", 1322731, "NJ", 2, "19104");
+        columns.add(0, 41, "DOUBLE PARKED", 0, "PA", 3, "19104");
+
+        //when
+        DistinctPlates plates = columns.distinctPlates();
+        columns.add(0, 26, "METER EXPIRED", 1199878, "PA", 4, "19104");
+
+        //then
+        assertEquals(2, plates.byPostIndex(columns.postIndexCodeOf("19104")));
+        assertEquals(1, plates.byReason(columns.dictionary().lookup("DOUBLE PARKED")));
+        assertFalse(plates.hasPostIndex(columns.stateCodeOf("PA")));
+    }
+
+    /** Отклонение не больше трёх стандартных ошибок: для p = 12 – около 4,9%. */
+    private static void assertWithinErrorBound(long exact, long estimate) {
+        double allowed = Math.max(3 * DistinctPlates.RELATIVE_STANDARD_ERROR * exact, 2);
+        assertTrue(Math.abs(estimate - exact) <= allowed, "exact " + exact + ", estimated " + estimate);
+    }
+}
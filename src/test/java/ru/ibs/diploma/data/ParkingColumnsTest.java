@@ -0,0 +1,71 @@
+package ru.ibs.diploma.data;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParkingColumnsTest {
+
+    List<Parking> parking = new ArrayList<>();
+
+    @BeforeEach
+    void setUp(){
+        parking.add(new Parking(Instant.parse("2013-04-03T15:15:00Z"), 36, "METER EXPIRED CC", 1322731, "PA", 2905938, "19104"));
+        parking.add(new Parking(Instant.parse("2013-04-03T07:35:00Z"), 51, "DOUBLE PARKED", 1322731, "NJ", 2905939, "19104"));
+        parking.add(new Parking(null, 41, null, 0, "PA", 2905940, "19103"));
+        parking.add(new Parking(Instant.parse("2013-01-11T13:31:00Z"), 36, "METER EXPIRED CC", 1199878, null, 2905942, null));
+    }
+
+    @Test
+    void givenParkingList_whenFrom_thenReturnEqualList(){
+        //when
+        ParkingColumns columns = ParkingColumns.from(parking);
+
+        //then
+        assertEquals(parking, columns);
+        assertEquals(4, columns.size());
+        assertSame(columns, ParkingColumns.from(columns));
+    }
+
+    @Test
+    void givenTwoStores_whenAddAll_thenKeepOrderAndValues(){
+        //given
+        ParkingColumns first = ParkingColumns.from(parking.subList(2, 4));
+        ParkingColumns second = ParkingColumns.from(parking.subList(0, 2));
+
+        //when
+        first.addAll(second);
+
+        //then
+        assertEquals(List.of(parking.get(2), parking.get(3), parking.get(0), parking.get(1)), first);
+    }
+
+    @Test
+    void givenStore_whenWriteToAndReadFrom_thenReturnEqualStore() throws IOException{
+        //given
+        ParkingColumns columns = ParkingColumns.from(parking);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        columns.writeTo(new DataOutputStream(bytes));
+
+        StringDictionary dictionary = new StringDictionary();
+        dictionary.encode("NJ");
+
+        //when
+        ParkingColumns restored = ParkingColumns.readFrom(ByteBuffer.wrap(bytes.toByteArray()), dictionary);
+
+        //then
+        assertEquals(parking, restored);
+        assertSame(dictionary, restored.dictionary());
+        assertEquals(0, restored.stateCodeOf("NJ"));
+        assertEquals(0, restored.stateCode(1));
+    }
+}
@@ -0,0 +1,77 @@
+package ru.ibs.diploma.data;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PropertiesIndexTest {
+
+    List<Properties> properties = new ArrayList<>();
+
+    @BeforeEach
+    void setUp(){
+        properties.add(new Properties(new BigDecimal("25000"), new BigDecimal("80"), "19102"));
+        properties.add(new Properties(new BigDecimal("35000"), null, "19102"));
+        properties.add(new Properties(null, new BigDecimal("101"), "19102"));
+        properties.add(new Properties(new BigDecimal("10000"), new BigDecimal("50"), null));
+    }
+
+    @Test
+    void givenProperties_whenOf_thenCountsPerZipCode(){
+        //when
+        PropertiesIndex index = PropertiesIndex.of(properties);
+
+        //then
+        assertEquals(3, index.count("19102"));
+        assertEquals(2, index.nonNullCount("19102", Field.MARKET_VALUE));
+        assertEquals(2, index.nonNullCount("19102", Field.LIVABLE_AREA));
+        assertEquals(0, index.count("19103"));
+    }
+
+    @Test
+    void givenProperties_whenSum_thenIgnoreEmptyValues(){
+        //when
+        PropertiesIndex index = PropertiesIndex.of(properties);
+
+        //then
+        assertEquals(new BigDecimal("60000"), index.sum("19102", Field.MARKET_VALUE));
+        assertEquals(new BigDecimal("181"), index.sum("19102", Field.LIVABLE_AREA));
+        assertEquals(BigDecimal.ZERO, index.sum("19103", Field.MARKET_VALUE));
+    }
+
+    @Test
+    void givenProperties_whenAverage_thenReturnRoundedDown(){
+        //when
+        PropertiesIndex index = PropertiesIndex.of(properties);
+
+        //then
+        assertEquals(new BigDecimal("30000"), index.average("19102", Field.MARKET_VALUE));
+        assertEquals(new BigDecimal("90"), index.average("19102", Field.LIVABLE_AREA));
+        assertEquals(BigDecimal.ZERO, index.average("19103", Field.LIVABLE_AREA));
+    }
+
+    @Test
+    void givenProperties_whenQuantile_thenReturnValueOfRankRoundedDown(){
+        //given
+        for (int i = 1; i <= 1000; i++) {
+            properties.add(new Properties(new BigDecimal(i * 1000 + "." + 5), new BigDecimal(i), "19104"));
+        }
+
+        //when
+        PropertiesIndex index = PropertiesIndex.of(properties);
+
+        //then
+        assertEquals(new BigDecimal("25000"), index.quantile("19102", Field.MARKET_VALUE, 0));
+        assertEquals(new BigDecimal("35000"), index.quantile("19102", Field.MARKET_VALUE, 1));
+        assertEquals(BigDecimal.ZERO, index.quantile("19103", Field.LIVABLE_AREA, 0.5));
+        long median = index.quantile("19104", Field.LIVABLE_AREA, 0.5).longValue();
+        assertTrue(Math.abs(median - 500) <= 17, "median " + median);
+        assertEquals(new BigDecimal("1000000"), index.quantile("19104", Field.MARKET_VALUE, 1));
+    }
+}
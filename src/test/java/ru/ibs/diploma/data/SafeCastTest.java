@@ -10,6 +10,7 @@ import java.time.Instant;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @ExtendWith(MockitoExtension.class)
 public class SafeCastTest {
@@ -263,4 +264,111 @@ public class SafeCastTest {
         //then
         assertNull(result);
     }
+
+    @Test
+    void givenPaddedString_whenSafeGetLongAndInt_thenIgnoreWhitespace(){
+        //given
+        String[] line = {" -1234 ", "+42", "\t7\n"};
+
+        //then
+        assertEquals(-1234L, safeCast.safeGetLong(line, 0));
+        assertEquals(42, safeCast.safeGetInt(line, 1));
+        assertEquals(7, safeCast.safeGetInt(line, 2));
+    }
+
+    @Test
+    void givenOutOfRangeNumbers_whenSafeGetLongAndInt_thenReturnZero(){
+        //given
+        String[] line = {"9223372036854775808", "2147483648", "-", "12a"};
+
+        //then
+        assertEquals(0, safeCast.safeGetLong(line, 0));
+        assertEquals(0, safeCast.safeGetInt(line, 1));
+        assertEquals(0, safeCast.safeGetLong(line, 2));
+        assertEquals(0, safeCast.safeGetLong(line, 3));
+    }
+
+    @Test
+    void givenCharRange_whenParseLong_thenParseWithoutSubstring(){
+        //given
+        String value = "plate=1322731;";
+
+        //then
+        assertEquals(1322731L, SafeCast.parseLong(value, 6, 13));
+        assertEquals(Long.MAX_VALUE, SafeCast.parseLong("9223372036854775807", 0, 19));
+        assertEquals(-9223372036854775807L, SafeCast.parseLong("-9223372036854775807", 0, 20));
+        assertEquals(SafeCast.NO_NUMBER, SafeCast.parseLong(value, 0, 13));
+        assertEquals(SafeCast.NO_NUMBER, SafeCast.parseLong(value, 6, 6));
+    }
+
+    @Test
+    void givenTimestamps_whenParseEpochSecond_thenMatchInstantParse(){
+        //given
+        String[] values = {"2013-04-03T15:15:00Z", "1970-01-01T00:00:00Z", "1969-12-31T23:59:59Z",
+                "2000-02-29T12:00:00Z", "2012-12-31T23:59:59Z", "0001-01-01T00:00:00Z", "9999-12-31T23:59:59Z"};
+
+        for(String value : values){
+            //then
+            assertEquals(Instant.parse(value).getEpochSecond(), SafeCast.parseEpochSecond(value, 0, value.length()));
+        }
+    }
+
+    @Test
+    void givenInvalidTimestamps_whenParseEpochSecond_thenReturnSentinel(){
+        //given
+        String[] values = {"2013-02-29T15:15:00Z", "2013-13-01T00:00:00Z", "2013-04-03T24:00:00Z",
+                "2013-04-03 15:15:00Z", "2013-04-03T15:15:00", "2013-04-03T15:15:00.5Z", ""};
+
+        for(String value : values){
+            //then
+            assertEquals(SafeCast.NO_EPOCH_SECOND, SafeCast.parseEpochSecond(value, 0, value.length()));
+        }
+    }
+
+    @Test
+    void givenTimestamp_whenSafeGetEpochSecond_thenReturnSecondsOrSentinel(){
+        //given
+        String[] line = {" 2013-04-03T15:15:00Z ", null, "dog"};
+
+        //then
+        assertEquals(Instant.parse("2013-04-03T15:15:00Z").getEpochSecond(), safeCast.safeGetEpochSecond(line, 0));
+        assertEquals(SafeCast.NO_EPOCH_SECOND, safeCast.safeGetEpochSecond(line, 1));
+        assertEquals(SafeCast.NO_EPOCH_SECOND, safeCast.safeGetEpochSecond(line, 2));
+        assertEquals(SafeCast.NO_EPOCH_SECOND, safeCast.safeGetEpochSecond(line, 3));
+    }
+
+    @Test
+    void givenFractionalTimestamp_whenSafeGetInstance_thenFallBackToInstantParse(){
+        //given
+        String[] line = {"2013-04-03T15:15:00.250Z"};
+
+        //when
+        Instant result = safeCast.safeGetInstance(line, 0);
+
+        //then
+        assertEquals(Instant.parse("2013-04-03T15:15:00.250Z"), result);
+    }
+
+    @Test
+    void givenDecimals_whenSafeGetBigDecimal_thenEqualToBigDecimalConstructor(){
+        //given
+        String[] line = {"12.50", "-0.25", "+7", "5.", ".5", "1E+3", "123456789012345678901234.5"};
+
+        for(int i = 0; i < line.length; i++){
+            //then
+            assertEquals(new BigDecimal(line[i]), safeCast.safeGetBigDecimal(line, i));
+        }
+    }
+
+    @Test
+    void givenUnparsableString_whenSafeGetBigDecimal_thenThrowNumberFormatException(){
+        //given
+        String[] line = {"1,6", "-", "1.2.3"};
+
+        for(int i = 0; i < line.length; i++){
+            int index = i;
+            //then
+            assertThrows(NumberFormatException.class, () -> safeCast.safeGetBigDecimal(line, index));
+        }
+    }
 }
@@ -0,0 +1,84 @@
+package ru.ibs.diploma.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StringDictionaryTest {
+
+    @Test
+    void givenRepeatedStrings_whenEncode_thenReturnSameCode(){
+        //given
+        StringDictionary dictionary = new StringDictionary();
+
+        //when
+        int pa = dictionary.encode("PA");
+        int nj = dictionary.encode("NJ");
+
+        //then
+        assertEquals(pa, dictionary.encode(new String("PA")));
+        assertNotEquals(pa, nj);
+        assertEquals("NJ", dictionary.decode(nj));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    void givenNullOrUnknownString_whenLookup_thenReturnNoCode(){
+        //given
+        StringDictionary dictionary = new StringDictionary();
+        dictionary.encode("PA");
+
+        //then
+        assertEquals(StringDictionary.NO_CODE, dictionary.lookup("NY"));
+        assertEquals(StringDictionary.NO_CODE, dictionary.encode(null));
+        assertNull(dictionary.decode(StringDictionary.NO_CODE));
+        assertEquals(1, dictionary.size());
+    }
+
+    @Test
+    void givenEqualStrings_whenCanonical_thenReturnSameInstance(){
+        //given
+        StringDictionary dictionary = new StringDictionary();
+        String first = new String("METER EXPIRED CC");
+        String second = new String("METER EXPIRED CC");
+
+        //then
+        assertSame(dictionary.canonical(first), dictionary.canonical(second));
+    }
+
+    @Test
+    void givenManyThreads_whenEncode_thenCodesAreConsistent() throws Exception {
+        //given
+        StringDictionary dictionary = new StringDictionary();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        //when
+        List<Future<int[]>> results = new ArrayList<>();
+        for(int t = 0; t < 8; t++){
+            results.add(executor.submit(() -> {
+                int[] codes = new int[500];
+                for(int i = 0; i < codes.length; i++){
+                    codes[i] = dictionary.encode("value-" + i);
+                }
+                return codes;
+            }));
+        }
+        int[] expected = results.get(0).get();
+        for(Future<int[]> result : results){
+            assertArrayEquals(expected, result.get());
+        }
+        executor.shutdown();
+
+        //then
+        assertEquals(500, dictionary.size());
+        for(int i = 0; i < expected.length; i++){
+            assertEquals("value-" + i, dictionary.decode(expected[i]));
+        }
+    }
+}
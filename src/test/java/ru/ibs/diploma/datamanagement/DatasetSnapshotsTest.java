@@ -0,0 +1,145 @@
+package ru.ibs.diploma.datamanagement;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatasetSnapshotsTest {
+
+    @TempDir
+    Path directory;
+
+    Path source;
+
+    DatasetSnapshots snapshots;
+
+    List<BigDecimal> values = Arrays.asList(new BigDecimal("4705"), null,
+            new BigDecimal("123456789012345678901234567890.5"), new BigDecimal("-0.25"));
+
+    DatasetSnapshots.Codec<List<BigDecimal>> codec = new DatasetSnapshots.Codec<>() {
+        @Override
+        public void write(List<BigDecimal> value, DataOutput out) throws IOException {
+            out.writeInt(value.size());
+            for (BigDecimal number : value) {
+                DatasetSnapshots.writeBigDecimal(out, number);
+            }
+        }
+
+        @Override
+        public List<BigDecimal> read(ByteBuffer in) throws IOException {
+            List<BigDecimal> result = new ArrayList<>();
+            for (int size = in.getInt(); size > 0; size--) {
+                result.add(DatasetSnapshots.readBigDecimal(in));
+            }
+            return result;
+        }
+    };
+
+    @BeforeEach
+    void setUp() throws IOException{
+        source = Files.writeString(directory.resolve("population.txt"), "19102 4705\n");
+        snapshots = new DatasetSnapshots(directory.resolve("snapshots").toString());
+    }
+
+    @Test
+    void givenSavedSnapshot_whenLoad_thenReturnSameData(){
+        //given
+        snapshots.save("population", source.toString(), values, codec);
+
+        //when
+        List<BigDecimal> loaded = snapshots.load("population", source.toString(), codec);
+
+        //then
+        assertEquals(values, loaded);
+    }
+
+    @Test
+    void givenNoSnapshot_whenLoad_thenReturnNull(){
+        assertNull(snapshots.load("population", source.toString(), codec));
+    }
+
+    @Test
+    void givenChangedSourceFile_whenLoad_thenReturnNull() throws IOException{
+        //given
+        snapshots.save("population", source.toString(), values, codec);
+        Files.writeString(source, "19102 4705\n19103 21908\n");
+
+        //when
+        List<BigDecimal> loaded = snapshots.load("population", source.toString(), codec);
+
+        //then
+        assertNull(loaded);
+    }
+
+    @Test
+    void givenTouchedSourceFile_whenLoad_thenReturnNull() throws IOException{
+        //given
+        snapshots.save("population", source.toString(), values, codec);
+        Files.setLastModifiedTime(source, FileTime.fromMillis(Files.getLastModifiedTime(source).toMillis() + 60_000));
+
+        //then
+        assertNull(snapshots.load("population", source.toString(), codec));
+    }
+
+    @Test
+    void givenCorruptedSnapshot_whenLoad_thenReturnNull() throws IOException{
+        //given
+        snapshots.save("population", source.toString(), values, codec);
+        try (var files = Files.list(directory.resolve("snapshots"))) {
+            for (Path snapshot : files.toList()) {
+                Files.write(snapshot, new byte[]{1, 2, 3});
+            }
+        }
+
+        //then
+        assertNull(snapshots.load("population", source.toString(), codec));
+    }
+
+    @Test
+    void givenSnapshotOverMaxSize_whenSave_thenDeleteItAndPreviousSnapshot() throws IOException{
+        //given
+        DatasetSnapshots limited = new DatasetSnapshots(directory.resolve("snapshots").toString(), 4096);
+        limited.save("population", source.toString(), values, codec);
+        assertEquals(values, limited.load("population", source.toString(), codec));
+        Files.writeString(source, "19102 4705\n19103 21908\n");
+        List<BigDecimal> many = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            many.add(BigDecimal.valueOf(i));
+        }
+
+        //when
+        limited.save("population", source.toString(), many, codec);
+
+        //then
+        assertNull(limited.load("population", source.toString(), codec));
+        try (var files = Files.list(directory.resolve("snapshots"))) {
+            assertEquals(List.of(), files.toList());
+        }
+    }
+
+    @Test
+    void givenEmptyDirectory_whenSaveAndLoad_thenSnapshotsDisabled(){
+        //given
+        DatasetSnapshots disabled = new DatasetSnapshots("");
+
+        //when
+        disabled.save("population", source.toString(), values, codec);
+
+        //then
+        assertFalse(disabled.isEnabled());
+        assertNull(disabled.load("population", source.toString(), codec));
+    }
+}
@@ -0,0 +1,135 @@
+package ru.ibs.diploma.datamanagement;
+
+import com.opencsv.CSVReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.InputStreamReader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedCsvChunksTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void givenQuotedNewLines_whenSplit_thenChunksContainWholeRecords() throws Exception {
+        //given
+        Path file = tempDir.resolve("parking.csv");
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i < 200; i++){
+            sb.append("2013-04-03T15:15:00Z,").append(i)
+                .append(",\"METER,\nEXPIRED \"\"CC\"\"\",1322731,PA,").append(2905938 + i).append(",19104\n");
+        }
+        Files.writeString(file, sb.toString());
+
+        //when
+        List<String[]> expected = readAll(file);
+        List<String[]> result = new ArrayList<>();
+        int chunkCount = readChunks(file, result);
+
+        //then
+        assertTrue(chunkCount > 1);
+        assertEquals(expected.size(), result.size());
+        for(int i = 0; i < expected.size(); i++){
+            assertArrayEquals(expected.get(i), result.get(i));
+        }
+        assertEquals("METER,\nEXPIRED \"CC\"", result.get(0)[2]);
+    }
+
+    @Test
+    void givenRowsEndingInBackslash_whenSplit_thenKeepRecordBoundaries() throws Exception {
+        //given
+        Path file = tempDir.resolve("parking.csv");
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i < 200; i++){
+            sb.append("2013-04-03T15:15:00Z,").append(i)
+                .append(",METER EXPIRED,1322731,PA,").append(2905938 + i).append(",19104\\\n");
+        }
+        Files.writeString(file, sb.toString());
+
+        //when
+        List<String[]> expected = readAll(file);
+        List<String[]> result = new ArrayList<>();
+        int chunkCount = readChunks(file, result);
+
+        //then
+        assertTrue(chunkCount > 1);
+        assertEquals(expected.size(), result.size());
+        for(int i = 0; i < expected.size(); i++){
+            assertArrayEquals(expected.get(i), result.get(i));
+        }
+    }
+
+    @Test
+    void givenEscapedQuoteInUnquotedField_whenSplit_thenKeepRecordBoundaries() throws Exception {
+        //given
+        Path file = tempDir.resolve("parking.csv");
+        StringBuilder sb = new StringBuilder("2013-04-03T15:15:00Z,0,METER 5\\\" EXPIRED,1322731,PA,2905938,19104\n");
+        for(int i = 1; i < 200; i++){
+            sb.append("2013-04-03T15:15:00Z,").append(i)
+                .append(",METER EXPIRED,1322731,PA,").append(2905938 + i).append(",19104\n");
+        }
+        Files.writeString(file, sb.toString());
+
+        //when
+        List<String[]> expected = readAll(file);
+        List<String[]> result = new ArrayList<>();
+        int chunkCount = readChunks(file, result);
+
+        //then
+        assertTrue(chunkCount > 1);
+        assertEquals(expected.size(), result.size());
+        for(int i = 0; i < expected.size(); i++){
+            assertArrayEquals(expected.get(i), result.get(i));
+        }
+        assertEquals("METER 5\" EXPIRED", result.get(0)[2]);
+    }
+
+    @Test
+    void givenEmptyFile_whenSplit_thenReturnNoChunks() throws Exception {
+        //given
+        Path file = Files.createFile(tempDir.resolve("empty.csv"));
+
+        //when
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            List<MappedByteBuffer> chunks = MappedCsvChunks.split(channel, 100);
+
+            //then
+            assertTrue(chunks.isEmpty());
+        }
+    }
+
+    private int readChunks(Path file, List<String[]> result) throws Exception {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            List<MappedByteBuffer> chunks = MappedCsvChunks.split(channel, 100);
+            for(MappedByteBuffer chunk : chunks){
+                try(CSVReader cr = new CSVReader(new InputStreamReader(
+                        MappedCsvChunks.asInputStream(chunk), StandardCharsets.UTF_8))){
+                    String[] line;
+                    while((line = cr.readNext()) != null){
+                        result.add(line);
+                    }
+                }
+            }
+            return chunks.size();
+        }
+    }
+
+    private List<String[]> readAll(Path file) throws Exception {
+        try(CSVReader cr = new CSVReader(new BufferedReader(new FileReader(file.toFile())))){
+            return new ArrayList<>(cr.readAll());
+        }
+    }
+}
@@ -3,16 +3,21 @@ package ru.ibs.diploma.datamanagement;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.ibs.diploma.data.FileNames;
 import ru.ibs.diploma.data.Parking;
+import ru.ibs.diploma.data.ParkingColumns;
 import ru.ibs.diploma.data.SafeCast;
+import ru.ibs.diploma.data.StringDictionary;
 import ru.ibs.diploma.logging.WriteLogService;
 
 import javax.print.attribute.standard.PrinterMessageFromOperator;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
@@ -62,7 +67,7 @@ public class ReadParkingTest {
                                 p.reason(), String.valueOf(p.carId()), p.state(),
                                 String.valueOf(p.violationId()), p.postIndex()};
 
-                when(safeCast.safeGetInstance(eq(row), eq(0))).thenReturn(p.timestamp());
+                when(safeCast.safeGetEpochSecond(eq(row), eq(0))).thenReturn(p.timestamp().getEpochSecond());
                 when(safeCast.safeGetInt(eq(row), eq(1))).thenReturn(p.moneyAmount());
                 when(safeCast.safeGetString(eq(row), eq(2))).thenReturn(p.reason());
                 when(safeCast.safeGetLong(eq(row), eq(3))).thenReturn(p.carId());
@@ -85,6 +90,35 @@ public class ReadParkingTest {
         }
     }
 
+    @Test
+    void readParkingCsvParallel_ShouldReturnListOfParkingInFileOrder(){
+        try{
+            //when
+            doNothing().when(writeLogService).logFileEntry(anyString());
+            when(fileNames.getParkingFile()).thenReturn(parkingCsv);
+            for(Parking p : parking){
+                String[] row = {p.timestamp().toString(), String.valueOf(p.moneyAmount()),
+                                p.reason(), String.valueOf(p.carId()), p.state(),
+                                String.valueOf(p.violationId()), p.postIndex()};
+
+                when(safeCast.safeGetEpochSecond(eq(row), eq(0))).thenReturn(p.timestamp().getEpochSecond());
+                when(safeCast.safeGetInt(eq(row), eq(1))).thenReturn(p.moneyAmount());
+                when(safeCast.safeGetString(eq(row), eq(2))).thenReturn(p.reason());
+                when(safeCast.safeGetLong(eq(row), eq(3))).thenReturn(p.carId());
+                when(safeCast.safeGetString(eq(row), eq(4))).thenReturn(p.state());
+                when(safeCast.safeGetLong(eq(row), eq(5))).thenReturn(p.violationId());
+                when(safeCast.safeGetString(eq(row), eq(6))).thenReturn(p.postIndex());
+            }
+
+            List<Parking> testReading = readParking.readCsvParkingParallel();
+
+            //then
+            assertEquals(parking, testReading);
+        }catch(IOException e){
+            fail(e.getMessage());
+        }
+    }
+
     @Test
     void readParkingJson_ShouldReturnListOfParking(){
         try{
@@ -96,7 +130,7 @@ public class ReadParkingTest {
                         p.reason(), String.valueOf(p.carId()), p.state(),
                         String.valueOf(p.violationId()), p.postIndex()};
 
-                when(safeCast.safeGetInstance(eq(row), eq(0))).thenReturn(p.timestamp());
+                when(safeCast.safeGetEpochSecond(eq(row), eq(0))).thenReturn(p.timestamp().getEpochSecond());
                 when(safeCast.safeGetInt(eq(row), eq(1))).thenReturn(p.moneyAmount());
                 when(safeCast.safeGetString(eq(row), eq(2))).thenReturn(p.reason());
                 when(safeCast.safeGetLong(eq(row), eq(3))).thenReturn(p.carId());
@@ -166,4 +200,93 @@ public class ReadParkingTest {
             assertEquals(2905938L, parking.violationId());
             assertEquals("19104", parking.postIndex());
     }
+
+    @Test
+    void readParkingJson_ShouldTreatNullAndMissingFieldsAsEmpty(@TempDir Path directory) throws IOException{
+        //given
+        ReadParking reader = jsonReader(directory, """
+                [{"date": "2013-04-03T15:15:00Z", "fine": null, "violation": "METER EXPIRED CC",
+                  "plate_id": 1322731, "ticket_number": 2905938, "zip_code": null},
+                 {"fine": 51, "state": "PA"}]
+                """);
+
+        //when
+        List<Parking> result = reader.readJsonParking();
+
+        //then
+        assertEquals(List.of(
+                new Parking(Instant.parse("2013-04-03T15:15:00Z"), 0, "METER EXPIRED CC", 1322731, null, 2905938, null),
+                new Parking(null, 51, null, 0, "PA", 0, null)), List.copyOf(result));
+    }
+
+    @Test
+    void readParkingJson_ShouldSkipUnknownAndNestedFields(@TempDir Path directory) throws IOException{
+        //given
+        ReadParking reader = jsonReader(directory, """
+                [{"issuing_agency": "PPA", "meta": {"lat": 39.95, "tags": [1, {"a": [2, 3]}]},
+                  "date": "2013-04-03T15:15:00Z", "fine": 36, "violation": "METER EXPIRED CC",
+                  "plate_id": 1322731, "state": "PA", "ticket_number": 2905938,
+                  "zip_code": {"code": "19104"}, "history": [[1], [2]]}]
+                """);
+
+        //when
+        List<Parking> result = reader.readJsonParking();
+
+        //then
+        assertEquals(List.of(new Parking(Instant.parse("2013-04-03T15:15:00Z"), 36, "METER EXPIRED CC",
+                1322731, "PA", 2905938, null)), List.copyOf(result));
+    }
+
+    @Test
+    void readParkingJson_ShouldRejectNonArrayRoot(@TempDir Path directory) throws IOException{
+        //given
+        ReadParking reader = jsonReader(directory, """
+                {"date": "2013-04-03T15:15:00Z", "fine": 36}
+                """);
+
+        //then
+        IOException e = assertThrows(IOException.class, reader::readJsonParking);
+        assertEquals("Couldn't read file: JSON array of parking fines expected", e.getMessage());
+    }
+
+    @Test
+    void readParkingJson_ShouldRejectTruncatedFile(@TempDir Path directory) throws IOException{
+        //given
+        ReadParking reader = jsonReader(directory, """
+                [{"date": "2013-04-03T15:15:00Z", "fine": 36},
+                 {"date": "2013-04-03T07:35:00Z", "fi""");
+
+        //then
+        IOException e = assertThrows(IOException.class, reader::readJsonParking);
+        assertTrue(e.getMessage().startsWith("Couldn't read file: "), e.getMessage());
+    }
+
+    @Test
+    void givenChangedFile_whenReadFileAgain_thenDictionaryHoldsOnlyNewStrings(@TempDir Path directory) throws IOException{
+        //given
+        ReadParking reader = jsonReader(directory, """
+                [{"violation": "METER EXPIRED CC", "state": "PA", "zip_code": "19104"}]
+                """);
+        ParkingColumns first = (ParkingColumns) reader.readFile(Parking.class);
+        Files.writeString(directory.resolve("parking.json"), """
+                [{"violation": "DOUBLE PARKED", "state": "NJ", "zip_code": "19103"}]
+                """);
+
+        //when
+        ParkingColumns second = (ParkingColumns) reader.readFile(Parking.class);
+
+        //then
+        assertNotSame(first.dictionary(), second.dictionary());
+        assertEquals(3, second.dictionary().size());
+        assertEquals(StringDictionary.NO_CODE, second.dictionary().lookup("19104"));
+        assertEquals("19103", second.get(0).postIndex());
+    }
+
+    /** Читатель JSON-файла с указанным содержимым и настоящим {@link SafeCast}. */
+    private ReadParking jsonReader(Path directory, String json) throws IOException{
+        FileNames files = new FileNames();
+        files.setParkingType("json");
+        files.setParkingFile(Files.writeString(directory.resolve("parking.json"), json).toString());
+        return new ReadParking(files, writeLogService, new SafeCast());
+    }
 }
@@ -59,12 +59,12 @@ public class ReadPropertiesTest {
             doNothing().when(writeLogService).logFileEntry(anyString());
             when(fileNames.getPropertiesFile()).thenReturn(propertiesFile);
             for(Properties p: properties){
-                String[] row = {p.MarketValue().toString(), "empty", "empty", p.TotalLivableArea().toString(), "empty", p.ZipCode()};
+                String[] row = {p.MarketValue().toString(), p.TotalLivableArea().toString(), p.ZipCode()};
                 when(safeCast.safeGetBigDecimal(eq(row), eq(0))).thenReturn(p.MarketValue());
-                when(safeCast.safeGetBigDecimal(eq(row), eq(3))).thenReturn(p.TotalLivableArea());
-                when(safeCast.safeGetString(eq(row), eq(5))).thenReturn(p.ZipCode());
+                when(safeCast.safeGetBigDecimal(eq(row), eq(1))).thenReturn(p.TotalLivableArea());
+                when(safeCast.safeGetString(eq(row), eq(2))).thenReturn(p.ZipCode());
 
-                when(safeCast.safeSubstring(row[5], 5)).thenReturn(p.ZipCode());
+                when(safeCast.safeSubstring(row[2], 5)).thenReturn(p.ZipCode());
             }
 
             List<Properties> testReading = readProperties.readFile(Properties.class);
@@ -0,0 +1,115 @@
+package ru.ibs.diploma.generator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.ibs.diploma.aggregation.AggregationEngine;
+import ru.ibs.diploma.aggregation.AggregationQuery;
+import ru.ibs.diploma.aggregation.AggregationResult;
+import ru.ibs.diploma.aggregation.Dimension;
+import ru.ibs.diploma.data.FileNames;
+import ru.ibs.diploma.data.Parking;
+import ru.ibs.diploma.data.ParkingColumns;
+import ru.ibs.diploma.data.Properties;
+import ru.ibs.diploma.data.SafeCast;
+import ru.ibs.diploma.datamanagement.ReadParking;
+import ru.ibs.diploma.datamanagement.ReadPopulation;
+import ru.ibs.diploma.datamanagement.ReadProperties;
+import ru.ibs.diploma.logging.WriteLogService;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatasetGeneratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void writeAll_shouldProduceFilesThatReadersAccept() throws IOException {
+        //given
+        DatasetGenerator generator = new DatasetGenerator(new DatasetGenerator.Settings(5_000, 800, 48, 0.05, 7));
+        FileNames fileNames = generator.writeAll(tempDir);
+        WriteLogService writeLogService = new WriteLogService(new FileNames());
+        SafeCast safeCast = new SafeCast();
+
+        //when
+        List<Parking> csv = new ReadParking(fileNames, writeLogService, safeCast).readCsvParking();
+        fileNames.setParkingFile(tempDir.resolve(DatasetGenerator.PARKING_JSON).toString());
+        List<Parking> json = new ReadParking(fileNames, writeLogService, safeCast).readJsonParking();
+        List<Properties> properties = new ReadProperties(fileNames, writeLogService, safeCast).readFile(Properties.class);
+        Map<String, BigDecimal> population = new ReadPopulation(fileNames, writeLogService).readFile();
+        writeLogService.close();
+
+        //then
+        assertEquals(5_000, csv.size());
+        assertEquals(List.copyOf(csv), List.copyOf(json));
+        assertEquals(List.copyOf(csv), List.copyOf(generator.parking()));
+        assertEquals(generator.properties(), properties);
+        assertEquals(generator.population(), population);
+        assertEquals(48, population.size());
+        assertTrue(csv.stream().anyMatch(parking -> parking.timestamp() == null), "malformed timestamps");
+        assertTrue(csv.stream().anyMatch(parking -> parking.postIndex() == null), "tickets without ZIP code");
+        assertTrue(properties.stream().allMatch(property -> property.ZipCode() == null || property.ZipCode().length() <= 5));
+    }
+
+    @Test
+    void writePropertiesCsv_shouldWriteSamePropertiesInWideFile() throws IOException {
+        //given
+        DatasetGenerator generator = new DatasetGenerator(new DatasetGenerator.Settings(0, 500, 48, 0.05, 11));
+        Path file = tempDir.resolve("wide.csv");
+        FileNames fileNames = new FileNames();
+        fileNames.setPropertiesFile(file.toString());
+        WriteLogService writeLogService = new WriteLogService(new FileNames());
+
+        //when
+        generator.writePropertiesCsv(file, 80);
+        List<Properties> properties = new ReadProperties(fileNames, writeLogService, new SafeCast()).readFile(Properties.class);
+        writeLogService.close();
+
+        //then
+        try (var lines = Files.lines(file)) {
+            assertEquals(80, lines.findFirst().orElseThrow().split(",").length);
+        }
+        assertEquals(generator.properties(), properties);
+        assertThrows(IllegalArgumentException.class, () -> generator.writePropertiesCsv(file, 5));
+    }
+
+    @Test
+    void writeParkingCsv_shouldDependOnlyOnSettings() throws IOException {
+        //given
+        DatasetGenerator.Settings settings = DatasetGenerator.Settings.of(2_000);
+        Path first = tempDir.resolve("first.csv");
+        Path second = tempDir.resolve("second.csv");
+        Path otherSeed = tempDir.resolve("other.csv");
+
+        //when
+        new DatasetGenerator(settings).writeParkingCsv(first);
+        new DatasetGenerator(settings).writeParkingCsv(second);
+        new DatasetGenerator(new DatasetGenerator.Settings(2_000, 200, 48, 0.001, 2)).writeParkingCsv(otherSeed);
+
+        //then
+        assertEquals(-1, Files.mismatch(first, second));
+        assertNotEquals(-1, Files.mismatch(first, otherSeed));
+    }
+
+    @Test
+    void parking_shouldSkewTicketsTowardsCentralZipCodes() throws IOException {
+        //given
+        ParkingColumns parking = new DatasetGenerator(DatasetGenerator.Settings.of(20_000)).parking();
+
+        //when
+        Map<List<String>, AggregationResult.Group> byZip =
+                AggregationEngine.aggregate(parking, AggregationQuery.groupBy(Dimension.ZIP)).byKey();
+
+        //then
+        long central = byZip.get(List.of("19103")).count();
+        long suburban = byZip.get(List.of("19113")).count();
+        assertTrue(central > 5 * suburban, central + " vs " + suburban);
+    }
+}
@@ -0,0 +1,92 @@
+package ru.ibs.diploma.logging;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogRotationTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldRotate_whenSizeOrAgeExceeded() {
+        // Given
+        LogRotation rotation = new LogRotation(DataSize.ofBytes(100), Duration.ofMinutes(1), 0);
+
+        // Then
+        assertFalse(rotation.shouldRotate(0, 1000, 0, Duration.ofHours(1).toMillis()));
+        assertFalse(rotation.shouldRotate(50, 50, 0, 1000));
+        assertTrue(rotation.shouldRotate(50, 51, 0, 1000));
+        assertTrue(rotation.shouldRotate(1, 1, 0, Duration.ofMinutes(1).toMillis()));
+        assertFalse(LogRotation.disabled().isEnabled());
+    }
+
+    @Test
+    void rotate_shouldCompressSegmentAndKeepNewest() throws IOException {
+        // Given
+        LogRotation rotation = new LogRotation(DataSize.ofBytes(100), Duration.ZERO, 2);
+        Path log = tempDir.resolve("app.log");
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            Files.writeString(log, "1743829123456 " + i + "\n");
+            rotation.rotate(log);
+        }
+        rotation.close();
+
+        // Then
+        List<Path> segments = segments();
+        assertEquals(2, segments.size());
+        assertTrue(segments.stream().allMatch(path -> path.getFileName().toString().endsWith(".gz")));
+        assertEquals("1743829123456 3\n", gunzip(segments.get(1)));
+        assertFalse(Files.exists(log));
+    }
+
+    @Test
+    void rotate_shouldKeepForeignArchivesNextToLog() throws IOException {
+        // Given
+        LogRotation rotation = new LogRotation(DataSize.ofBytes(100), Duration.ZERO, 1);
+        Path log = tempDir.resolve("app.log");
+        Path backup = Files.writeString(tempDir.resolve("app.log.backup.gz"), "backup");
+        Path yearly = Files.writeString(tempDir.resolve("app.log.2023.gz"), "2023");
+        Path earlier = Files.writeString(tempDir.resolve("app.log.20000101-000000-000.gz"), "old");
+
+        // When
+        for (int i = 0; i < 2; i++) {
+            Files.writeString(log, "1743829123456 " + i + "\n");
+            rotation.rotate(log);
+        }
+        rotation.close();
+
+        // Then
+        assertTrue(Files.exists(backup));
+        assertTrue(Files.exists(yearly));
+        assertFalse(Files.exists(earlier));
+        assertEquals(3, segments().size());
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("app.log.")).sorted().toList();
+        }
+    }
+
+    private static String gunzip(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -1,18 +1,29 @@
 package ru.ibs.diploma.logging;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.io.TempDir;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
 import ru.ibs.diploma.data.FileNames;
 
 import java.io.IOException;
+import java.lang.reflect.Constructor;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
@@ -21,7 +32,6 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 class TestWriteLogService {
 
-    @InjectMocks
     private WriteLogService writeLogService;
 
     @TempDir
@@ -35,7 +45,12 @@ class TestWriteLogService {
     @BeforeEach
     void setUp() {
         logFilePath = tempDir.resolve("test-log");
+        writeLogService = new WriteLogService(fileNames);
+    }
 
+    @AfterEach
+    void tearDown() {
+        writeLogService.close();
     }
 
     @Test
@@ -44,6 +59,7 @@ class TestWriteLogService {
         when(fileNames.getLogFile()).thenReturn(logFilePath.toString());
 
         writeLogService.logChoice("3");
+        writeLogService.flush();
 
         // Then
         assertTrue(Files.exists(logFilePath));
@@ -60,6 +76,7 @@ class TestWriteLogService {
         // When
         when(fileNames.getLogFile()).thenReturn(logFilePath.toString());
         writeLogService.logEntry(args);
+        writeLogService.flush();
 
         // Then
         List<String> lines = Files.readAllLines(logFilePath);
@@ -72,6 +89,7 @@ class TestWriteLogService {
         // When
         when(fileNames.getLogFile()).thenReturn(logFilePath.toString());
         writeLogService.logFileEntry("properties.csv");
+        writeLogService.flush();
 
         // Then
         List<String> lines = Files.readAllLines(logFilePath);
@@ -86,6 +104,7 @@ class TestWriteLogService {
         writeLogService.logChoice("1");
         writeLogService.logChoice("2");
         writeLogService.logChoice("3");
+        writeLogService.flush();
 
         // Then
         List<String> lines = Files.readAllLines(logFilePath);
@@ -100,10 +119,174 @@ class TestWriteLogService {
         // When
         when(fileNames.getLogFile()).thenReturn(logFilePath.toString());
         writeLogService.logEntry(new String[]{});
+        writeLogService.flush();
 
         // Then
         List<String> lines = Files.readAllLines(logFilePath);
         String line = lines.get(0);
         assertTrue(line.matches("\\d+ "));
     }
+
+    @Test
+    void manyThreads_shouldWriteEveryLineWhole() throws Exception {
+        // Given
+        when(fileNames.getLogFile()).thenReturn(logFilePath.toString());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // When
+        for (int thread = 0; thread < 4; thread++) {
+            int number = thread;
+            executor.execute(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    writeLogService.logChoice(number + "-" + i);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        writeLogService.flush();
+
+        // Then
+        List<String> lines = Files.readAllLines(logFilePath);
+        assertEquals(20000, lines.size());
+        assertTrue(lines.stream().allMatch(line -> line.matches("\\d+ \\d-\\d+")));
+        assertEquals(0, writeLogService.droppedEvents());
+    }
+
+    @Test
+    void fullQueue_shouldDropAndCountEvents() throws IOException {
+        // Given
+        writeLogService.close();
+        writeLogService = new WriteLogService(fileNames, 1, Duration.ofSeconds(1), false, LogRotation.disabled());
+        when(fileNames.getLogFile()).thenReturn(logFilePath.toString());
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            writeLogService.logChoice(String.valueOf(i));
+        }
+        writeLogService.flush();
+
+        // Then
+        long written = Files.readAllLines(logFilePath).size();
+        assertTrue(writeLogService.droppedEvents() > 0);
+        assertEquals(1000, written + writeLogService.droppedEvents());
+    }
+
+    @Test
+    void noLogFile_shouldDropEvent() {
+        // When
+        when(fileNames.getLogFile()).thenReturn(null);
+        writeLogService.logChoice("1");
+
+        // Then
+        assertEquals(1, writeLogService.droppedEvents());
+    }
+
+    @Test
+    void close_shouldWriteQueuedLines() throws IOException {
+        // Given
+        writeLogService.close();
+        writeLogService = new WriteLogService(fileNames, 16, Duration.ofSeconds(5), true, LogRotation.disabled());
+        when(fileNames.getLogFile()).thenReturn(logFilePath.toString());
+        writeLogService.logChoice("1");
+        writeLogService.logChoice("2");
+
+        // When
+        writeLogService.close();
+
+        // Then
+        assertEquals(2, Files.readAllLines(logFilePath).size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void eventsQueuedAfterStop_shouldCompleteFlushAndCountDroppedLine() throws Exception {
+        // Given
+        writeLogService.close();
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // задерживает фоновый поток на первой строке, пока за ней выстраиваются метки
+        LogRotation blocking = new LogRotation(DataSize.ofBytes(0), Duration.ZERO, 0) {
+            @Override
+            public boolean isEnabled() {
+                return true;
+            }
+
+            @Override
+            public boolean shouldRotate(long size, long incoming, long openedAtMillis, long nowMillis) {
+                writing.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return false;
+            }
+        };
+        writeLogService = new WriteLogService(fileNames, 16, Duration.ZERO, false, blocking);
+        when(fileNames.getLogFile()).thenReturn(logFilePath.toString());
+        writeLogService.logChoice("1");
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        BlockingQueue<Object> queue = (BlockingQueue<Object>) ReflectionTestUtils.getField(writeLogService, "queue");
+        Thread closing = new Thread(writeLogService::close);
+        closing.start();
+        while (queue.isEmpty()) {
+            Thread.sleep(1);
+        }
+        // flush() и логирование, прошедшие проверку закрытия до close(), ставят события уже после метки остановки
+        Constructor<?> event = Class.forName(WriteLogService.class.getName() + "$LogEvent")
+                .getDeclaredConstructor(String.class, String.class, CompletableFuture.class);
+        event.setAccessible(true);
+        CompletableFuture<Void> flushed = new CompletableFuture<>();
+        queue.put(event.newInstance(null, null, flushed));
+        queue.put(event.newInstance(logFilePath.toString(), "0 2\n", null));
+
+        // When
+        release.countDown();
+
+        // Then
+        flushed.get(5, TimeUnit.SECONDS);
+        closing.join(TimeUnit.SECONDS.toMillis(5));
+        assertEquals(1, Files.readAllLines(logFilePath).size());
+        assertEquals(1, writeLogService.droppedEvents());
+    }
+
+    @Test
+    void logAfterClose_shouldDropAndCountEvent() throws IOException {
+        // Given
+        when(fileNames.getLogFile()).thenReturn(logFilePath.toString());
+        writeLogService.logChoice("1");
+        writeLogService.close();
+
+        // When
+        writeLogService.logChoice("2");
+
+        // Then
+        assertEquals(List.of("1"), Files.readAllLines(logFilePath).stream().map(line -> line.split(" ")[1]).toList());
+        assertEquals(1, writeLogService.droppedEvents());
+    }
+
+    @Test
+    void logFileOverMaxSize_shouldBeRotated() throws IOException {
+        // Given
+        writeLogService.close();
+        LogRotation rotation = new LogRotation(DataSize.ofBytes(200), Duration.ZERO, 0);
+        writeLogService = new WriteLogService(fileNames, 16, Duration.ZERO, false, rotation);
+        when(fileNames.getLogFile()).thenReturn(logFilePath.toString());
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            writeLogService.logChoice(String.valueOf(i));
+            writeLogService.flush();
+        }
+        writeLogService.close();
+        rotation.close();
+
+        // Then
+        assertTrue(Files.size(logFilePath) <= 200);
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertTrue(files.anyMatch(path -> path.getFileName().toString().endsWith(".gz")));
+        }
+    }
 }
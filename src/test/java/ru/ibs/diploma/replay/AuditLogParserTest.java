@@ -0,0 +1,79 @@
+package ru.ibs.diploma.replay;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogParserTest {
+
+    @Test
+    void parse_shouldPairQuestionsWithZipCodesAndSkipOtherLines() {
+        //given
+        List<String> lines = List.of(
+                "1000 csv parking.csv properties.csv population.txt app.log",
+                "1001 population.txt",
+                "1010 1",
+                "1020 3",
+                "1021 19103",
+                "1030 6",
+                "1040 0");
+
+        //when
+        List<ReplayRequest> requests = AuditLogParser.parse(lines);
+
+        //then
+        assertEquals(List.of(
+                new ReplayRequest(1010, 1, null),
+                new ReplayRequest(1020, 3, "19103"),
+                new ReplayRequest(1030, 6, null)), requests);
+    }
+
+    @Test
+    void parse_shouldAssignZipCodesInOrderWhenRequestsInterleave() {
+        //given
+        List<String> lines = List.of(
+                "2000 4",
+                "2000 5",
+                "2001 19104",
+                "2002 19147-1234",
+                "2003 3",
+                "garbage line");
+
+        //when
+        List<ReplayRequest> requests = AuditLogParser.parse(lines);
+
+        //then
+        assertEquals(List.of(
+                new ReplayRequest(2000, 4, "19104"),
+                new ReplayRequest(2000, 5, "19147-1234")), requests);
+    }
+
+    @Test
+    void parse_shouldKeepInvalidZipCodeWithItsQuestion() {
+        //given
+        List<String> lines = List.of(
+                "3000 3",
+                "3001 19103",
+                "3010 4",
+                "3011 abc",
+                "3020 5",
+                "3021 5",
+                "3030 3",
+                "3031 191041234",
+                "3040 5",
+                "3041 19147");
+
+        //when
+        List<ReplayRequest> requests = AuditLogParser.parse(lines);
+
+        //then
+        assertEquals(List.of(
+                new ReplayRequest(3000, 3, "19103"),
+                new ReplayRequest(3010, 4, "abc"),
+                new ReplayRequest(3020, 5, "5"),
+                new ReplayRequest(3030, 3, "191041234"),
+                new ReplayRequest(3040, 5, "19147")), requests);
+    }
+}
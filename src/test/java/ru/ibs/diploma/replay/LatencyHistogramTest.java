@@ -0,0 +1,40 @@
+package ru.ibs.diploma.replay;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void buckets_shouldCoverValuesWithBoundedError() {
+        //then
+        for (long value : new long[]{0, 15, 16, 31, 32, 1_000, 123_456_789, Long.MAX_VALUE / 3}) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(LatencyHistogram.lowerBound(bucket) <= value, "lower bound of " + value);
+            assertTrue(LatencyHistogram.upperBound(bucket) >= value, "upper bound of " + value);
+            assertTrue(LatencyHistogram.upperBound(bucket) - LatencyHistogram.lowerBound(bucket)
+                    <= value / LatencyHistogram.SUB_BUCKETS, "width of " + value);
+        }
+    }
+
+    @Test
+    void percentile_shouldBeAccurateWithinBucket() {
+        //given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        //when
+        for (long millis = 1; millis <= 1000; millis++) {
+            histogram.record(millis * 1_000_000);
+        }
+
+        //then
+        assertEquals(1000, histogram.count());
+        assertEquals(1_000_000_000, histogram.max());
+        assertEquals(500.5e6, histogram.mean(), 1);
+        assertEquals(500e6, histogram.percentile(50), 500e6 / 16);
+        assertEquals(990e6, histogram.percentile(99), 990e6 / 16);
+        assertEquals(1_000_000_000, histogram.percentile(100));
+        assertTrue(histogram.distribution().contains("536.871 ms"));
+    }
+}
@@ -0,0 +1,89 @@
+package ru.ibs.diploma.replay;
+
+import org.junit.jupiter.api.Test;
+import ru.ibs.diploma.data.Field;
+import ru.ibs.diploma.service.AnalyseService;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WorkloadReplayTest {
+
+    private static final List<ReplayRequest> REQUESTS = List.of(
+            new ReplayRequest(10_000, 1, null),
+            new ReplayRequest(10_100, 2, null),
+            new ReplayRequest(10_200, 3, "19103"));
+
+    @Test
+    void replay_shouldKeepOriginalPacing() throws InterruptedException {
+        //given
+        WorkloadReplay replay = new WorkloadReplay(request -> { }, 1, 2);
+
+        //when
+        ReplayReport report = replay.replay(REQUESTS);
+
+        //then
+        assertEquals(3, report.requests());
+        assertEquals(0, report.errors());
+        assertEquals(3, report.latencies().count());
+        assertTrue(report.elapsedNanos() >= TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    void replay_shouldSkipPausesAtMaxSpeedAndCountErrors() throws InterruptedException {
+        //given
+        AtomicInteger calls = new AtomicInteger();
+        WorkloadReplay replay = new WorkloadReplay(request -> {
+            calls.incrementAndGet();
+            if (request.question() == 2) throw new IOException("HTTP 500");
+        }, Double.POSITIVE_INFINITY, 1);
+
+        //when
+        ReplayReport report = replay.replay(REQUESTS);
+
+        //then
+        assertEquals(3, calls.get());
+        assertEquals(1, report.errors());
+        assertEquals(2, report.latencies().count());
+        assertTrue(report.elapsedNanos() < TimeUnit.MILLISECONDS.toNanos(200));
+        assertTrue(report.format().contains("Requests: 3, errors: 1"));
+    }
+
+    @Test
+    void serviceTarget_shouldAskMatchingQuestion() throws Exception {
+        //given
+        AnalyseService analyseService = mock(AnalyseService.class);
+        ServiceReplayTarget target = new ServiceReplayTarget(analyseService);
+
+        //when
+        for (int question = 1; question <= 6; question++) {
+            target.execute(new ReplayRequest(0, question, "19103"));
+        }
+
+        //then
+        verify(analyseService).totalPopulation();
+        verify(analyseService).totalParkingFinesPerCapita();
+        verify(analyseService).averageProperties("19103", Field.MARKET_VALUE);
+        verify(analyseService).averageProperties("19103", Field.LIVABLE_AREA);
+        verify(analyseService).totalMarketValuePerCapita("19103");
+        verify(analyseService).surpriseOption();
+        assertThrows(IllegalArgumentException.class, () -> target.execute(new ReplayRequest(0, 7, null)));
+    }
+
+    @Test
+    void httpTarget_shouldBuildQuestionUri() {
+        //given
+        HttpReplayTarget target = new HttpReplayTarget("http://localhost:8080/");
+
+        //then
+        assertEquals("http://localhost:8080/parking/questions/1",
+                target.uriOf(new ReplayRequest(0, 1, null)).toString());
+        assertEquals("http://localhost:8080/parking/questions/5?zip=19103-1234",
+                target.uriOf(new ReplayRequest(0, 5, "19103-1234")).toString());
+    }
+}
@@ -11,20 +11,38 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import ru.ibs.diploma.aggregation.AggregationQuery;
+import ru.ibs.diploma.aggregation.AggregationResult;
+import ru.ibs.diploma.aggregation.Dimension;
+import ru.ibs.diploma.aggregation.HeavyHitter;
+import ru.ibs.diploma.aggregation.Metric;
+import ru.ibs.diploma.aggregation.TimeBucket;
+import ru.ibs.diploma.aggregation.TimeSeries;
+import ru.ibs.diploma.aggregation.TopKey;
+import ru.ibs.diploma.cache.CacheStatistics;
 import ru.ibs.diploma.cache.FirstAnswer;
 import ru.ibs.diploma.data.Arguments;
+import ru.ibs.diploma.data.DistinctOffenders;
 import ru.ibs.diploma.data.Field;
 import ru.ibs.diploma.data.FileNames;
+import ru.ibs.diploma.data.PropertyQuantiles;
 import ru.ibs.diploma.logging.WriteLogService;
 import ru.ibs.diploma.service.AnalyseService;
+import ru.ibs.diploma.service.DatasetPreloader;
 import ru.ibs.diploma.validation.ArgsValidation;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -52,6 +70,9 @@ public class ParkingControllerTest {
     @MockitoBean
     private FileNames fileNames;
 
+    @MockitoBean
+    private DatasetPreloader datasetPreloader;
+
     @Test
     @DisplayName("Test getting arguments")
     public void whenGetArguments_thenSuccessResponse() throws Exception {
@@ -99,6 +120,8 @@ public class ParkingControllerTest {
         // then
         result.andExpect(MockMvcResultMatchers.status().isCreated())
             .andExpect(content().string("Arguments are correct. You can choose parameter"));
+        verify(analyseService).switchDatasets();
+        verify(datasetPreloader).preload();
     }
 
     @Test
@@ -118,6 +141,8 @@ public class ParkingControllerTest {
         // then
         result.andExpect(MockMvcResultMatchers.status().isBadRequest())
             .andExpect(content().string("No arguments provided. Expected: format data.csv output.csv config.csv log.txt"));
+        verify(analyseService, never()).switchDatasets();
+        verify(datasetPreloader, never()).preload();
     }
 
     @Test
@@ -177,4 +202,171 @@ public class ParkingControllerTest {
             .andExpect(MockMvcResultMatchers.status().isBadRequest())
             .andExpect(content().string("Unknown question, try choosing another one."));
     }
+
+    @Test
+    @DisplayName("Test aggregating fines")
+    public void givenQuery_whenAggregate_thenSuccessResponse() throws Exception {
+        // when
+        AggregationQuery query = AggregationQuery.groupBy(Dimension.ZIP, Dimension.HOUR)
+            .where(Dimension.STATE, "PA", "NJ")
+            .between(Instant.parse("2013-01-01T00:00:00Z"), Instant.parse("2013-04-03T12:00:00Z"))
+            .orderBy(Metric.SUM)
+            .limit(1);
+        AggregationResult answer = new AggregationResult(query.groupBy(),
+            List.of(new AggregationResult.Group(List.of("19104", "15"), 2, 87, 36, 51, new BigDecimal("43.5000"))), 2);
+        when(analyseService.aggregate(query)).thenReturn(answer);
+
+        // then
+        mvc.perform(get("/parking/aggregate?groupBy=zip,hour&state=PA&state=NJ&from=2013-01-01"
+                + "&to=2013-04-03T12:00:00Z&orderBy=sum&limit=1"))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andExpect(jsonPath("$.groups", hasSize(1)))
+            .andExpect(jsonPath("$.groups[0].key[0]").value("19104"))
+            .andExpect(jsonPath("$.groups[0].sum").value(87))
+            .andExpect(jsonPath("$.total").value(2));
+    }
+
+    @Test
+    @DisplayName("Test aggregating fines by unknown dimension")
+    public void givenUnknownDimension_whenAggregate_thenBadRequestResponse() throws Exception {
+        mvc.perform(get("/parking/aggregate?groupBy=color"))
+            .andExpect(MockMvcResultMatchers.status().isBadRequest())
+            .andExpect(content().string("Unknown dimension color"));
+
+        verify(analyseService, never()).aggregate(any());
+    }
+
+    @Test
+    @DisplayName("Test getting time series of fines")
+    public void givenZipAndBucket_whenTimeSeries_thenSuccessResponse() throws Exception {
+        // when
+        Instant from = Instant.parse("2013-04-01T00:00:00Z");
+        Instant to = Instant.parse("2013-04-03T00:00:00Z");
+        TimeSeries series = new TimeSeries("19104", TimeBucket.DAY, List.of(
+            new TimeSeries.Point(from, 2, 87),
+            new TimeSeries.Point(from.plusSeconds(86_400), 0, 0)), 2, 87);
+        when(analyseService.timeSeries(List.of("19104"), TimeBucket.DAY, from, to)).thenReturn(List.of(series));
+
+        // then
+        mvc.perform(get("/parking/timeseries?zip=19104&bucket=day&from=2013-04-01&to=2013-04-03"))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].points", hasSize(2)))
+            .andExpect(jsonPath("$[0].points[0].start").value("2013-04-01T00:00:00Z"))
+            .andExpect(jsonPath("$[0].points[0].sum").value(87))
+            .andExpect(jsonPath("$[0].count").value(2));
+    }
+
+    @Test
+    @DisplayName("Test getting time series with unknown bucket")
+    public void givenUnknownBucket_whenTimeSeries_thenBadRequestResponse() throws Exception {
+        mvc.perform(get("/parking/timeseries?bucket=year"))
+            .andExpect(MockMvcResultMatchers.status().isBadRequest())
+            .andExpect(content().string("Unknown time bucket year"));
+    }
+
+    @Test
+    @DisplayName("Test getting too many time series points")
+    public void givenTooManyPoints_whenTimeSeries_thenBadRequestResponse() throws Exception {
+        // when
+        when(analyseService.timeSeries(List.of(), TimeBucket.HOUR, null, null))
+            .thenThrow(new IllegalArgumentException("Too many points"));
+
+        // then
+        mvc.perform(get("/parking/timeseries?bucket=hour"))
+            .andExpect(MockMvcResultMatchers.status().isBadRequest())
+            .andExpect(content().string("Too many points"));
+    }
+
+    @Test
+    @DisplayName("Test getting top plates")
+    public void givenField_whenTop_thenSuccessResponse() throws Exception {
+        // when
+        when(analyseService.topK(TopKey.PLATE, Metric.SUM, 2, true)).thenReturn(List.of(
+            new HeavyHitter("1322731", 87, 0),
+            new HeavyHitter("1199878", 62, 5)));
+
+        // then
+        mvc.perform(get("/parking/top?by=plate&metric=sum&k=2&mode=approximate"))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$[0].key").value("1322731"))
+            .andExpect(jsonPath("$[1].error").value(5));
+    }
+
+    @Test
+    @DisplayName("Test getting top with unknown mode")
+    public void givenUnknownMode_whenTop_thenBadRequestResponse() throws Exception {
+        mvc.perform(get("/parking/top?by=zip&mode=fast"))
+            .andExpect(MockMvcResultMatchers.status().isBadRequest())
+            .andExpect(content().string("Unknown top-k mode fast"));
+    }
+
+    @Test
+    @DisplayName("Test getting distinct offenders by ZIP-code")
+    public void givenZip_whenDistinct_thenSuccessResponse() throws Exception {
+        // when
+        when(analyseService.distinctOffendersByZip()).thenReturn(List.of(
+            new DistinctOffenders("19104", 1250, new BigDecimal("24.0384"))));
+
+        // then
+        mvc.perform(get("/parking/distinct?by=zip"))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andExpect(jsonPath("$[0].key").value("19104"))
+            .andExpect(jsonPath("$[0].plates").value(1250))
+            .andExpect(jsonPath("$[0].perThousandResidents").value(24.0384));
+    }
+
+    @Test
+    @DisplayName("Test getting distinct offenders by unknown field")
+    public void givenState_whenDistinct_thenBadRequestResponse() throws Exception {
+        mvc.perform(get("/parking/distinct?by=state"))
+            .andExpect(MockMvcResultMatchers.status().isBadRequest())
+            .andExpect(content().string("Distinct offenders are counted only by zip or reason"));
+    }
+
+    @Test
+    @DisplayName("Test getting ZIP-code answer cache statistics")
+    public void whenCacheStatistics_thenSuccessResponse() throws Exception {
+        // when
+        when(analyseService.zipCacheStatistics()).thenReturn(new CacheStatistics(12, 3, 1, 2, 10000));
+
+        // then
+        mvc.perform(get("/parking/cache/stats"))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andExpect(jsonPath("$.hits").value(12))
+            .andExpect(jsonPath("$.misses").value(3))
+            .andExpect(jsonPath("$.evictions").value(1))
+            .andExpect(jsonPath("$.size").value(2))
+            .andExpect(jsonPath("$.maximumSize").value(10000));
+    }
+
+    @Test
+    @DisplayName("Test getting property quantiles for ZIP-code")
+    public void givenZipAndRanks_whenQuantiles_thenSuccessResponse() throws Exception {
+        // given
+        Map<String, BigDecimal> quantiles = new LinkedHashMap<>();
+        quantiles.put("0.5", new BigDecimal("120000"));
+        quantiles.put("0.99", new BigDecimal("950000"));
+
+        // when
+        when(analyseService.propertyQuantiles("19104", Field.MARKET_VALUE, List.of(0.5, 0.99)))
+            .thenReturn(new PropertyQuantiles("19104", Field.MARKET_VALUE, 5200, quantiles));
+
+        // then
+        mvc.perform(get("/parking/quantiles?zip=19104&field=market_value&q=0.5,0.99"))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andExpect(jsonPath("$.count").value(5200))
+            .andExpect(jsonPath("$.quantiles['0.5']").value(120000))
+            .andExpect(jsonPath("$.quantiles['0.99']").value(950000));
+    }
+
+    @Test
+    @DisplayName("Test getting property quantiles with wrong rank")
+    public void givenWrongRank_whenQuantiles_thenBadRequestResponse() throws Exception {
+        mvc.perform(get("/parking/quantiles?zip=19104&q=1.5"))
+            .andExpect(MockMvcResultMatchers.status().isBadRequest())
+            .andExpect(content().string("Quantile rank must be between 0 and 1, got 1.5"));
+        verify(analyseService, never()).propertyQuantiles(any(), any(), any());
+    }
 }
@@ -9,7 +9,6 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import ru.ibs.diploma.cache.Answer;
 import ru.ibs.diploma.cache.CachedAnswerInterface;
 import ru.ibs.diploma.cache.FirstAnswer;
-import ru.ibs.diploma.cache.PropertyAnswer;
 import ru.ibs.diploma.data.Field;
 import ru.ibs.diploma.data.Properties;
 import ru.ibs.diploma.datamanagement.ReadProperties;
@@ -66,9 +65,9 @@ public class AveragePropertiesTest {
     void givenEnumMarketValue_whenAverageProperties_thenShouldReturnAnswer() throws Exception{
         //given
         Field field = Field.MARKET_VALUE;
-        when((answers.searchCache(eq(field.getQuestionNumber())))).thenReturn(null);
+        when(answers.searchCache(eq(field.getQuestionNumber()), anyString())).thenReturn(null);
         when(readProperties.readFile(Properties.class)).thenReturn(properties);
-        doNothing().when(answers).cacheAnswer(eq(field.getQuestionNumber()), any());
+        doNothing().when(answers).cacheAnswer(eq(field.getQuestionNumber()), anyString(), any());
 
         Answer expected = new FirstAnswer(new BigDecimal(30000));
 
@@ -76,16 +75,16 @@ public class AveragePropertiesTest {
         Answer result = analyseService.averageProperties("19102", field);
 
         assertEquals(expected, result);
-        verify(answers).cacheAnswer(anyInt(), any());
+        verify(answers).cacheAnswer(anyInt(), anyString(), any());
     }
 
     @Test
     void givenEnumLivableArea_whenAverageProperties_thenShouldReturnAnswer() throws Exception{
         //given
         Field field = Field.LIVABLE_AREA;
-        when((answers.searchCache(eq(field.getQuestionNumber())))).thenReturn(null);
+        when(answers.searchCache(eq(field.getQuestionNumber()), anyString())).thenReturn(null);
         when(readProperties.readFile(Properties.class)).thenReturn(properties);
-        doNothing().when(answers).cacheAnswer(eq(field.getQuestionNumber()), any());
+        doNothing().when(answers).cacheAnswer(eq(field.getQuestionNumber()), anyString(), any());
 
         Answer expected = new FirstAnswer(new BigDecimal(90));
 
@@ -93,7 +92,7 @@ public class AveragePropertiesTest {
         Answer result = analyseService.averageProperties("19102", field);
 
         assertEquals(expected, result);
-        verify(answers).cacheAnswer(anyInt(), any());
+        verify(answers).cacheAnswer(anyInt(), anyString(), any());
     }
 
     @Test
@@ -101,11 +100,8 @@ public class AveragePropertiesTest {
         // given
         Field field = Field.MARKET_VALUE;
         FirstAnswer expected = new FirstAnswer(new BigDecimal(30000));
-        Map<String, FirstAnswer> cachedAnswers = new HashMap<>();
-        cachedAnswers.put("19102", expected);
-        PropertyAnswer propertyAnswer = new PropertyAnswer(cachedAnswers);
 
-        when(answers.searchCache(eq(field.getQuestionNumber()))).thenReturn(propertyAnswer);
+        when(answers.searchCache(eq(field.getQuestionNumber()), eq("19102"))).thenReturn(expected);
 
         // when
         Answer result = analyseService.averageProperties("19102", field);
@@ -114,21 +110,16 @@ public class AveragePropertiesTest {
         assertEquals(expected, result);
 
         verify(readProperties, never()).readFile(Properties.class);
-        verify(answers, never()).cacheAnswer(anyInt(), any());
+        verify(answers, never()).cacheAnswer(anyInt(), anyString(), any());
     }
 
     @Test
     void givenAnswerIsNotCached_whenAverageProperties_thenShouldReturnCachedAnswer() throws Exception {
         // given
         Field field = Field.MARKET_VALUE;
-        FirstAnswer cached = new FirstAnswer(new BigDecimal(30000));
-        Map<String, FirstAnswer> cachedAnswers = new HashMap<>();
-        cachedAnswers.put("19102", cached);
-        PropertyAnswer propertyAnswer = new PropertyAnswer(cachedAnswers);
-
-        when(answers.searchCache(eq(field.getQuestionNumber()))).thenReturn(propertyAnswer);
+        when(answers.searchCache(eq(field.getQuestionNumber()), eq("19103"))).thenReturn(null);
         when(readProperties.readFile(Properties.class)).thenReturn(properties);
-        doNothing().when(answers).cacheAnswer(eq(field.getQuestionNumber()), any());
+        doNothing().when(answers).cacheAnswer(eq(field.getQuestionNumber()), anyString(), any());
 
         Answer expected = new FirstAnswer(new BigDecimal(25000));
 
@@ -136,15 +127,16 @@ public class AveragePropertiesTest {
         Answer result = analyseService.averageProperties("19103", field);
 
         assertEquals(expected, result);
+        verify(answers).cacheAnswer(field.getQuestionNumber(), "19103", expected);
     }
 
     @Test
     void givenEmptyMarketValueField_whenAverageProperties_thenShouldReturnZero() throws Exception {
         //given
         Field field = Field.MARKET_VALUE;
-        when((answers.searchCache(eq(field.getQuestionNumber())))).thenReturn(null);
+        when(answers.searchCache(eq(field.getQuestionNumber()), anyString())).thenReturn(null);
         when(readProperties.readFile(Properties.class)).thenReturn(properties);
-        doNothing().when(answers).cacheAnswer(eq(field.getQuestionNumber()), any());
+        doNothing().when(answers).cacheAnswer(eq(field.getQuestionNumber()), anyString(), any());
 
         Answer expected = new FirstAnswer(new BigDecimal(0));
 
@@ -158,9 +150,9 @@ public class AveragePropertiesTest {
     void givenEmptyCode_whenAverageProperties_thenShouldReturnZero() throws Exception {
         //given
         Field field = Field.MARKET_VALUE;
-        when((answers.searchCache(eq(field.getQuestionNumber())))).thenReturn(null);
+        when(answers.searchCache(eq(field.getQuestionNumber()), anyString())).thenReturn(null);
         when(readProperties.readFile(Properties.class)).thenReturn(properties);
-        doNothing().when(answers).cacheAnswer(eq(field.getQuestionNumber()), any());
+        doNothing().when(answers).cacheAnswer(eq(field.getQuestionNumber()), anyString(), any());
 
         Answer expected = new FirstAnswer(new BigDecimal(0));
 
@@ -168,16 +160,16 @@ public class AveragePropertiesTest {
         Answer result = analyseService.averageProperties("19105", field);
 
         assertEquals(expected, result);
-        verify(answers).cacheAnswer(anyInt(), any());
+        verify(answers).cacheAnswer(anyInt(), anyString(), any());
     }
 
     @Test
     void whenAverageProperties_thenShouldReturnRoundedAnswer() throws Exception{
         //given
         Field field = Field.LIVABLE_AREA;
-        when((answers.searchCache(eq(field.getQuestionNumber())))).thenReturn(null);
+        when(answers.searchCache(eq(field.getQuestionNumber()), anyString())).thenReturn(null);
         when(readProperties.readFile(Properties.class)).thenReturn(properties);
-        doNothing().when(answers).cacheAnswer(eq(field.getQuestionNumber()), any());
+        doNothing().when(answers).cacheAnswer(eq(field.getQuestionNumber()), anyString(), any());
 
         Answer expected = new FirstAnswer(new BigDecimal(10));
 
@@ -185,16 +177,16 @@ public class AveragePropertiesTest {
         Answer result = analyseService.averageProperties("19106", field);
 
         assertEquals(expected, result);
-        verify(answers).cacheAnswer(anyInt(), any());
+        verify(answers).cacheAnswer(anyInt(), anyString(), any());
     }
 
     @Test
     void givenEmptyLivableAreaField_whenAverageProperties_thenShouldReturnZero() throws Exception {
         //given
         Field field = Field.LIVABLE_AREA;
-        when((answers.searchCache(eq(field.getQuestionNumber())))).thenReturn(null);
+        when(answers.searchCache(eq(field.getQuestionNumber()), anyString())).thenReturn(null);
         when(readProperties.readFile(Properties.class)).thenReturn(properties);
-        doNothing().when(answers).cacheAnswer(eq(field.getQuestionNumber()), any());
+        doNothing().when(answers).cacheAnswer(eq(field.getQuestionNumber()), anyString(), any());
 
         Answer expected = new FirstAnswer(new BigDecimal(0));
 
@@ -7,6 +7,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 import ru.ibs.diploma.data.Parking;
+import ru.ibs.diploma.data.ParkingColumns;
 import ru.ibs.diploma.data.Properties;
 import ru.ibs.diploma.datamanagement.ReadParking;
 import ru.ibs.diploma.datamanagement.ReadPopulation;
@@ -77,9 +78,9 @@ public class CheckTest {
     @Test
     void checkParking_whenParkingNotEmpty_shouldNotRead() throws IOException {
         // Given
-        List<Parking> nonEmptyParking = List.of(
+        ParkingColumns nonEmptyParking = ParkingColumns.from(List.of(
                 new Parking("19102", "PA", 50)
-        );
+        ));
 
         ReflectionTestUtils.setField(analyseService, "parking", nonEmptyParking);
         // When
@@ -0,0 +1,91 @@
+package ru.ibs.diploma.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.ibs.diploma.cache.Answer;
+import ru.ibs.diploma.cache.CachedAnswers;
+import ru.ibs.diploma.data.Parking;
+import ru.ibs.diploma.data.Properties;
+import ru.ibs.diploma.datamanagement.ReadParking;
+import ru.ibs.diploma.datamanagement.ReadPopulation;
+import ru.ibs.diploma.datamanagement.ReadProperties;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ConcurrentQuestionsTest {
+
+    private static final int REQUESTS = 300;
+
+    @Mock
+    private ReadPopulation readPopulation;
+
+    @Mock
+    private ReadProperties readProperties;
+
+    @Mock
+    private ReadParking readParking;
+
+    AnalyseService analyseService;
+
+    ExecutorService executor = Executors.newFixedThreadPool(32);
+
+    @BeforeEach
+    void setUp(){
+        analyseService = new AnalyseService(readPopulation, readParking, readProperties, new CachedAnswers());
+    }
+
+    @AfterEach
+    void tearDown(){
+        executor.shutdownNow();
+    }
+
+    @Test
+    void givenParallelRequests_whenAskQuestions_thenReadEachFileOnceAndReturnSameAnswers() throws Exception{
+        //given
+        when(readPopulation.readFile()).thenReturn(Map.of(
+                "19102", new BigDecimal("1000"), "19103", new BigDecimal("2000")));
+        when(readParking.readFile(Parking.class)).thenReturn(List.of(
+                new Parking("19102", "PA", 100), new Parking("19103", "PA", 200), new Parking("19103", "NJ", 50)));
+        when(readProperties.readFile(Properties.class)).thenReturn(List.of(
+                new Properties(new BigDecimal("25000"), null, "19102"),
+                new Properties(new BigDecimal("40000"), null, "19103")));
+        CountDownLatch start = new CountDownLatch(1);
+
+        //when
+        List<Future<Answer>> results = new ArrayList<>();
+        for(int request = 0; request < REQUESTS; request++){
+            int question = request % 3;
+            results.add(executor.submit(() -> {
+                start.await();
+                return switch (question) {
+                    case 0 -> analyseService.totalPopulation();
+                    case 1 -> analyseService.totalParkingFinesPerCapita();
+                    default -> analyseService.surpriseOption();
+                };
+            }));
+        }
+        start.countDown();
+
+        //then
+        for(int request = 0; request < REQUESTS; request++){
+            assertSame(results.get(request % 3).get(10, TimeUnit.SECONDS), results.get(request).get(10, TimeUnit.SECONDS));
+        }
+        assertEquals("3000", results.get(0).get().getAnswer());
+        verify(readPopulation, times(1)).readFile();
+        verify(readParking, times(1)).readFile(Parking.class);
+        verify(readProperties, times(1)).readFile(Properties.class);
+    }
+}
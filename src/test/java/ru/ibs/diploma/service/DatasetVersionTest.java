@@ -0,0 +1,210 @@
+package ru.ibs.diploma.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.ibs.diploma.cache.CachedAnswerInterface;
+import ru.ibs.diploma.cache.FirstAnswer;
+import ru.ibs.diploma.cache.Statistics;
+import ru.ibs.diploma.cache.SurpriseAnswer;
+import ru.ibs.diploma.data.FileNames;
+import ru.ibs.diploma.data.Parking;
+import ru.ibs.diploma.data.Properties;
+import ru.ibs.diploma.datamanagement.ReadParking;
+import ru.ibs.diploma.datamanagement.ReadPopulation;
+import ru.ibs.diploma.datamanagement.ReadProperties;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DatasetVersionTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private ReadPopulation readPopulation;
+
+    @Mock
+    private ReadProperties readProperties;
+
+    @Mock
+    private ReadParking readParking;
+
+    @Mock
+    private CachedAnswerInterface answers;
+
+    FileNames fileNames = new FileNames();
+
+    AnalyseService analyseService;
+
+    @BeforeEach
+    void setUp() throws IOException{
+        fileNames.setParkingType("csv");
+        fileNames.setPopulationFile(Files.writeString(directory.resolve("population.txt"), "19102 1000\n").toString());
+        fileNames.setParkingFile(Files.writeString(directory.resolve("parking.csv"), "").toString());
+        fileNames.setPropertiesFile(Files.writeString(directory.resolve("properties.csv"), "").toString());
+
+        analyseService = new AnalyseService(readPopulation, readParking, readProperties, answers);
+        ReflectionTestUtils.setField(analyseService, "fileNames", fileNames);
+        // первый вызов запоминает исходные файлы, как при первом POST /parking/arguments
+        analyseService.switchDatasets();
+    }
+
+    @Test
+    void givenLoadedDatasets_whenPopulationFileChanges_thenReloadOnlyPopulation() throws IOException{
+        //given
+        when(readPopulation.readFile()).thenReturn(Map.of("19102", new BigDecimal("1000")))
+                .thenReturn(Map.of("19103", new BigDecimal("2000")));
+        when(readParking.readFile(Parking.class)).thenReturn(List.of(new Parking("19102", "PA", 50)));
+        analyseService.checkPopulation();
+        analyseService.checkParking();
+        fileNames.setPopulationFile(Files.writeString(directory.resolve("population2.txt"), "19103 2000\n").toString());
+
+        //when
+        Set<String> changed = analyseService.switchDatasets();
+        analyseService.checkPopulation();
+        analyseService.checkParking();
+
+        //then
+        assertEquals(Set.of("population"), changed);
+        assertEquals(2, analyseService.datasetVersion());
+        verify(readPopulation, times(2)).readFile();
+        verify(readParking, times(1)).readFile(Parking.class);
+        verify(answers).invalidate(Set.of(1, 2, 5, 6));
+    }
+
+    @Test
+    void givenSameFiles_whenSwitchDatasets_thenKeepDataAndAnswers() throws IOException{
+        //given
+        when(readPopulation.readFile()).thenReturn(Map.of("19102", new BigDecimal("1000")));
+        analyseService.checkPopulation();
+
+        //when
+        Set<String> changed = analyseService.switchDatasets();
+        analyseService.checkPopulation();
+
+        //then
+        assertTrue(changed.isEmpty());
+        verify(readPopulation, times(1)).readFile();
+        verify(answers, times(1)).invalidate(any());
+    }
+
+    @Test
+    void givenNoRememberedFiles_whenSwitchDatasets_thenTreatAllAsChanged(){
+        //given
+        AnalyseService fresh = new AnalyseService(readPopulation, readParking, readProperties, answers);
+        ReflectionTestUtils.setField(fresh, "fileNames", fileNames);
+
+        //when
+        Set<String> changed = fresh.switchDatasets();
+
+        //then
+        assertEquals(Set.of("population", "parking", "properties"), changed);
+        assertEquals(1, fresh.datasetVersion());
+    }
+
+    @Test
+    void givenModifiedFile_whenSwitchDatasets_thenReloadIt() throws IOException{
+        //given
+        when(readPopulation.readFile()).thenReturn(Map.of("19102", new BigDecimal("1000")));
+        analyseService.checkPopulation();
+        Files.writeString(Path.of(fileNames.getPopulationFile()), "19102 1000\n19103 2000\n");
+
+        //when
+        Set<String> changed = analyseService.switchDatasets();
+
+        //then
+        assertEquals(Set.of("population"), changed);
+    }
+
+    @Test
+    void givenLoadOfOldFileInProgress_whenSwitchDatasets_thenDiscardOldData() throws Exception{
+        //given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(readPopulation.readFile()).thenAnswer(invocation -> {
+            started.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return Map.of("19102", new BigDecimal("1000"));
+        }).thenReturn(Map.of("19103", new BigDecimal("2000")));
+        when(answers.computeIfAbsent(eq(1), any(), any())).thenAnswer(invocation ->
+                invocation.<CachedAnswerInterface.SourcedComputation>getArgument(2).compute().answer());
+
+        CompletableFuture<FirstAnswer> oldRequest = CompletableFuture.supplyAsync(() -> {
+            try {
+                return (FirstAnswer) analyseService.totalPopulation();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        fileNames.setPopulationFile(Files.writeString(directory.resolve("population2.txt"), "19103 2000\n").toString());
+
+        //when
+        analyseService.switchDatasets();
+        release.countDown();
+
+        //then
+        assertEquals(new FirstAnswer(new BigDecimal("2000")), oldRequest.get(5, TimeUnit.SECONDS));
+        verify(readPopulation, times(2)).readFile();
+    }
+
+    @Test
+    void givenSwitchBetweenCheckAndCompute_whenSurpriseOption_thenFinishOnStartedData() throws Exception{
+        //given
+        String newProperties = Files.writeString(directory.resolve("properties2.csv"), "").toString();
+        Map<String, BigDecimal> population = new TreeMap<>(Map.of("19102", new BigDecimal("1000"))) {
+            private boolean switched;
+
+            @Override
+            public Set<String> keySet() {
+                // файлы меняются, когда наборы уже проверены и расчёт начался
+                if (!switched) {
+                    switched = true;
+                    fileNames.setPropertiesFile(newProperties);
+                    analyseService.switchDatasets();
+                }
+                return super.keySet();
+            }
+        };
+        when(readPopulation.readFile()).thenReturn(population);
+        when(readParking.readFile(Parking.class)).thenReturn(List.of(new Parking("19102", "PA", 50)));
+        when(readProperties.readFile(Properties.class))
+                .thenReturn(List.of(new Properties(new BigDecimal("30000"), null, "19102")))
+                .thenReturn(List.of(new Properties(new BigDecimal("90000"), null, "19102")));
+        when(answers.computeIfAbsent(eq(6), any(), any())).thenAnswer(invocation ->
+                invocation.<CachedAnswerInterface.SourcedComputation>getArgument(2).compute().answer());
+
+        //when
+        SurpriseAnswer result = (SurpriseAnswer) analyseService.surpriseOption();
+
+        //then
+        assertEquals(new SurpriseAnswer(Map.of("19102",
+                new Statistics(new BigDecimal("30000"), new BigDecimal("0.0010")))), result);
+        assertEquals(2, analyseService.datasetVersion());
+        verify(readProperties, times(1)).readFile(Properties.class);
+        verify(answers, never()).searchCache(anyInt(), anyString());
+        verify(answers, never()).cacheAnswer(anyInt(), anyString(), any());
+    }
+}
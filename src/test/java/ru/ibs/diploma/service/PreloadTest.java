@@ -0,0 +1,111 @@
+package ru.ibs.diploma.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.ibs.diploma.data.Parking;
+import ru.ibs.diploma.data.Properties;
+import ru.ibs.diploma.datamanagement.ReadParking;
+import ru.ibs.diploma.datamanagement.ReadPopulation;
+import ru.ibs.diploma.datamanagement.ReadProperties;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PreloadTest {
+
+    @InjectMocks
+    private AnalyseService analyseService;
+
+    @Mock
+    private ReadPopulation readPopulation;
+
+    @Mock
+    private ReadProperties readProperties;
+
+    @Mock
+    private ReadParking readParking;
+
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    @AfterEach
+    void tearDown(){
+        executor.shutdownNow();
+    }
+
+    @Test
+    void givenPreloadInProgress_whenCheck_thenWaitForSameLoad() throws Exception {
+        //given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(readParking.readFile(Parking.class)).thenAnswer(invocation -> {
+            started.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return List.of(new Parking("19102", "PA", 50));
+        });
+        when(readPopulation.readFile()).thenReturn(Map.of("19102", new BigDecimal("1000")));
+        when(readProperties.readFile(Properties.class)).thenReturn(List.of(
+                new Properties(BigDecimal.TEN, BigDecimal.ONE, "19102")));
+
+        //when
+        CompletableFuture<Void> preload = analyseService.preload(executor);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> check = CompletableFuture.runAsync(() -> {
+            try {
+                analyseService.checkParking();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        release.countDown();
+        preload.get(5, TimeUnit.SECONDS);
+        check.get(5, TimeUnit.SECONDS);
+        analyseService.checkPopulation();
+        analyseService.checkProperties();
+
+        //then
+        verify(readParking, times(1)).readFile(Parking.class);
+        verify(readPopulation, times(1)).readFile();
+        verify(readProperties, times(1)).readFile(Properties.class);
+    }
+
+    @Test
+    void givenFailedPreload_whenCheck_thenRethrowAndRetry() throws Exception {
+        //given
+        when(readPopulation.readFile())
+                .thenThrow(new IOException("Couldn't read file"))
+                .thenReturn(Map.of("19102", new BigDecimal("1000")));
+
+        //when
+        CompletableFuture<Void> preload = analyseService.preload(Runnable::run);
+        assertTrue(preload.isCompletedExceptionally());
+        analyseService.checkPopulation();
+
+        //then
+        verify(readPopulation, times(2)).readFile();
+    }
+
+    @Test
+    void givenLoadError_whenCheck_thenThrowIOException() throws Exception {
+        //given
+        when(readPopulation.readFile()).thenThrow(new IOException("Couldn't read file"));
+
+        //then
+        IOException e = assertThrows(IOException.class, () -> analyseService.checkPopulation());
+        assertEquals("Couldn't read file", e.getMessage());
+    }
+}
@@ -19,7 +19,6 @@ import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.never;
@@ -100,12 +99,11 @@ public class SurpriseOptionTest {
     @Test
     void whenSurpriseOption_thenShouldReturnAnswer() throws Exception {
         // given
-        when(answers.searchCache(eq(6))).thenReturn(null);
+        when(answers.computeIfAbsent(eq(6), any(), any())).thenAnswer(invocation ->
+                invocation.<CachedAnswerInterface.SourcedComputation>getArgument(2).compute().answer());
         when(readProperties.readFile(Properties.class)).thenReturn(properties);
         when(readPopulation.readFile()).thenReturn(population);
         when(readParking.readFile(Parking.class)).thenReturn(parking);
-        doNothing().when(answers).cacheAnswer(eq(6), any());
-        doNothing().when(answers).cacheAnswer(eq(3), any());
 
         FirstAnswer avg19102 = new FirstAnswer(new BigDecimal("30000"));
         FirstAnswer avg19103 = new FirstAnswer(new BigDecimal("40000"));
@@ -123,12 +121,32 @@ public class SurpriseOptionTest {
         assertEquals(expected, result);
     }
 
+    @Test
+    void givenZipInOtherCase_whenSurpriseOption_thenCountItsFines() throws Exception {
+        // given
+        when(answers.computeIfAbsent(eq(6), any(), any())).thenAnswer(invocation ->
+                invocation.<CachedAnswerInterface.SourcedComputation>getArgument(2).compute().answer());
+        when(readPopulation.readFile()).thenReturn(Map.of("1910a", new BigDecimal("1000")));
+        when(readParking.readFile(Parking.class)).thenReturn(List.of(
+                new Parking("1910A", "PA", 100),
+                new Parking("1910a", "NJ", 50)));
+        when(readProperties.readFile(Properties.class)).thenReturn(List.of(
+                new Properties(new BigDecimal("30000"), null, "1910a")));
+
+        // when
+        Answer result = analyseService.surpriseOption();
+
+        // then
+        assertEquals(new SurpriseAnswer(Map.of("1910a",
+                new Statistics(new BigDecimal("30000"), new BigDecimal("0.0020")))), result);
+    }
+
     @Test
     void whenSurpriseOption_thenShouldReturnCachedAnswer()throws Exception{
         // given
         Answer expected = getAnswer();
 
-        when(answers.searchCache(eq(6))).thenReturn(expected);
+        when(answers.computeIfAbsent(eq(6), any(), any())).thenReturn(expected);
 
         // when
         Answer result = analyseService.surpriseOption();
@@ -139,7 +157,6 @@ public class SurpriseOptionTest {
         verify(readParking, never()).readFile(Parking.class);
         verify(readProperties, never()).readFile(Properties.class);
         verify(readPopulation, never()).readFile();
-        verify(answers, never()).cacheAnswer(anyInt(), any());
     }
 
     private static Answer getAnswer() {
@@ -0,0 +1,80 @@
+package ru.ibs.diploma.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.ibs.diploma.aggregation.TimeBucket;
+import ru.ibs.diploma.aggregation.TimeSeries;
+import ru.ibs.diploma.aggregation.TimeSeriesIndex;
+import ru.ibs.diploma.cache.CachedAnswerInterface;
+import ru.ibs.diploma.data.Parking;
+import ru.ibs.diploma.datamanagement.ReadParking;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TimeSeriesTest {
+
+    @InjectMocks
+    private AnalyseService analyseService;
+
+    @Mock
+    private CachedAnswerInterface answers;
+
+    @Mock
+    private ReadParking readParking;
+
+    /** 11 лет по часам – 96 432 точки ряда, чуть меньше {@link TimeSeriesIndex#MAX_POINTS}. */
+    Instant from = Instant.parse("2003-01-01T00:00:00Z");
+    Instant to = Instant.parse("2014-01-01T00:00:00Z");
+
+    List<String> zips = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException{
+        List<Parking> parking = new ArrayList<>();
+        for (int zip = 19101; zip <= 19111; zip++) {
+            zips.add(String.valueOf(zip));
+            parking.add(new Parking(Instant.parse("2013-04-03T15:15:00Z"), 36, "METER EXPIRED CC", 1322731, "PA", zip, String.valueOf(zip)));
+        }
+        when(readParking.readFile(Parking.class)).thenReturn(parking);
+    }
+
+    @Test
+    void givenOneZip_whenTimeSeriesByHour_thenReturnSeries() throws IOException{
+        //when
+        List<TimeSeries> result = analyseService.timeSeries(List.of("19104"), TimeBucket.HOUR, from, to);
+
+        //then
+        assertEquals(1, result.size());
+        assertEquals(96_432, result.get(0).points().size());
+        assertEquals(1, result.get(0).count());
+    }
+
+    @Test
+    void givenAllZips_whenTooManyPointsInTotal_thenThrowIllegalArgumentException(){
+        //when
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> analyseService.timeSeries(List.of(), TimeBucket.HOUR, from, to));
+
+        //then
+        assertTrue(e.getMessage().startsWith("Too many points: 11 series of 96432 hour buckets"), e.getMessage());
+    }
+
+    @Test
+    void givenListedZips_whenTooManyPointsInTotal_thenThrowIllegalArgumentException() throws IOException{
+        //then
+        assertThrows(IllegalArgumentException.class,
+                () -> analyseService.timeSeries(zips, TimeBucket.HOUR, from, to));
+        assertEquals(11, analyseService.timeSeries(zips, TimeBucket.DAY, from, to).size());
+    }
+}
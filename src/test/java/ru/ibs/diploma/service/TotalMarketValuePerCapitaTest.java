@@ -9,7 +9,6 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import ru.ibs.diploma.cache.Answer;
 import ru.ibs.diploma.cache.CachedAnswerInterface;
 import ru.ibs.diploma.cache.FirstAnswer;
-import ru.ibs.diploma.cache.PropertyAnswer;
 import ru.ibs.diploma.data.Field;
 import ru.ibs.diploma.data.Properties;
 import ru.ibs.diploma.datamanagement.ReadPopulation;
@@ -72,10 +71,10 @@ public class TotalMarketValuePerCapitaTest {
     @Test
     void whenTotalMarketValuePerCapita_thenShouldReturnAnswer() throws Exception{
         // given
-        when(answers.searchCache(eq(5))).thenReturn(null);
+        when(answers.searchCache(eq(5), anyString())).thenReturn(null);
         when(readProperties.readFile(Properties.class)).thenReturn(properties);
         when(readPopulation.readFile()).thenReturn(population);
-        doNothing().when(answers).cacheAnswer(eq(5), any());
+        doNothing().when(answers).cacheAnswer(eq(5), anyString(), any());
 
         Answer expected = new FirstAnswer(new BigDecimal(90));
 
@@ -84,18 +83,15 @@ public class TotalMarketValuePerCapitaTest {
 
         // then
         assertEquals(expected, result);
-        verify(answers).cacheAnswer(anyInt(), any());
+        verify(answers).cacheAnswer(anyInt(), anyString(), any());
     }
 
     @Test
     void whenTotalMarketValuePerCapita_thenShouldReturnCachedAnswer()throws Exception {
         // given
         FirstAnswer expected = new FirstAnswer(new BigDecimal(90));
-        Map<String, FirstAnswer> cachedAnswers = new HashMap<>();
-        cachedAnswers.put("19102", expected);
-        PropertyAnswer propertyAnswer = new PropertyAnswer(cachedAnswers);
 
-        when(answers.searchCache(eq(5))).thenReturn(propertyAnswer);
+        when(answers.searchCache(eq(5), eq("19102"))).thenReturn(expected);
 
         // when
         Answer result = analyseService.totalMarketValuePerCapita("19102");
@@ -105,21 +101,16 @@ public class TotalMarketValuePerCapitaTest {
 
         verify(readProperties, never()).readFile(Properties.class);
         verify(readPopulation, never()).readFile();
-        verify(answers, never()).cacheAnswer(anyInt(), any());
+        verify(answers, never()).cacheAnswer(anyInt(), anyString(), any());
     }
 
     @Test
     void givenAnswerIsNotCached_whenTotalMarketValuePerCapita_thenShouldReturnCachedAnswer() throws Exception{
         // given
-        FirstAnswer cached = new FirstAnswer(new BigDecimal(30000));
-        Map<String, FirstAnswer> cachedAnswers = new HashMap<>();
-        cachedAnswers.put("19102", cached);
-        PropertyAnswer propertyAnswer = new PropertyAnswer(cachedAnswers);
-
-        when(answers.searchCache(eq(5))).thenReturn(propertyAnswer);
+        when(answers.searchCache(eq(5), eq("19103"))).thenReturn(null);
         when(readProperties.readFile(Properties.class)).thenReturn(properties);
         when(readPopulation.readFile()).thenReturn(population);
-        doNothing().when(answers).cacheAnswer(eq(5), any());
+        doNothing().when(answers).cacheAnswer(eq(5), anyString(), any());
 
         Answer expected = new FirstAnswer(new BigDecimal(20));
 
@@ -127,15 +118,16 @@ public class TotalMarketValuePerCapitaTest {
         Answer result = analyseService.totalMarketValuePerCapita("19103");
 
         assertEquals(expected, result);
+        verify(answers).cacheAnswer(5, "19103", expected);
     }
 
     @Test
     void givenEmptyMarketValueField_whenTotalMarketValuePerCapita_thenShouldReturnZero() throws Exception{
         //given
-        when((answers.searchCache(eq(5)))).thenReturn(null);
+        when(answers.searchCache(eq(5), anyString())).thenReturn(null);
         when(readProperties.readFile(Properties.class)).thenReturn(properties);
         when(readPopulation.readFile()).thenReturn(population);
-        doNothing().when(answers).cacheAnswer(eq(5), any());
+        doNothing().when(answers).cacheAnswer(eq(5), anyString(), any());
 
         Answer expected = new FirstAnswer(new BigDecimal(0));
 
@@ -148,10 +140,10 @@ public class TotalMarketValuePerCapitaTest {
     @Test
     void givenEmptyCode_whenTotalMarketValuePerCapita_thenShouldReturnZero() throws Exception {
         //given
-        when((answers.searchCache(eq(5)))).thenReturn(null);
+        when(answers.searchCache(eq(5), anyString())).thenReturn(null);
         when(readProperties.readFile(Properties.class)).thenReturn(properties);
         when(readPopulation.readFile()).thenReturn(population);
-        doNothing().when(answers).cacheAnswer(eq(5), any());
+        doNothing().when(answers).cacheAnswer(eq(5), anyString(), any());
 
         Answer expected = new FirstAnswer(new BigDecimal(0));
 
@@ -159,16 +151,16 @@ public class TotalMarketValuePerCapitaTest {
         Answer result = analyseService.totalMarketValuePerCapita("19105");
 
         assertEquals(expected, result);
-        verify(answers).cacheAnswer(anyInt(), any());
+        verify(answers).cacheAnswer(anyInt(), anyString(), any());
     }
 
     @Test
     void whenTotalMarketValuePerCapita_thenShouldReturnRoundedAnswer() throws Exception{
         //given
-        when((answers.searchCache(eq(5)))).thenReturn(null);
+        when(answers.searchCache(eq(5), anyString())).thenReturn(null);
         when(readProperties.readFile(Properties.class)).thenReturn(properties);
         when(readPopulation.readFile()).thenReturn(population);
-        doNothing().when(answers).cacheAnswer(eq(5), any());
+        doNothing().when(answers).cacheAnswer(eq(5), anyString(), any());
 
         Answer expected = new FirstAnswer(new BigDecimal(10));
 
@@ -176,6 +168,6 @@ public class TotalMarketValuePerCapitaTest {
         Answer result = analyseService.totalMarketValuePerCapita("19106");
 
         assertEquals(expected, result);
-        verify(answers).cacheAnswer(anyInt(), any());
+        verify(answers).cacheAnswer(anyInt(), anyString(), any());
     }
 }
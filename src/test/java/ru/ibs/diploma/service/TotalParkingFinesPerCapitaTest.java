@@ -75,17 +75,17 @@ public class TotalParkingFinesPerCapitaTest {
         expectedMap.put("19103", new BigDecimal("0.0400"));
         Answer expected = new SecondAnswer(expectedMap);
 
-        when(answers.searchCache(eq(2))).thenReturn(null);
+        when(answers.computeIfAbsent(eq(2), any(), any())).thenAnswer(invocation ->
+                invocation.<CachedAnswerInterface.SourcedComputation>getArgument(2).compute().answer());
         when(readPopulation.readFile()).thenReturn(population);
         when(readParking.readFile(Parking.class)).thenReturn(parking);
-        doNothing().when(answers).cacheAnswer(eq(2), any());
 
         //when
         Answer result = analyseService.totalParkingFinesPerCapita();
 
         //then
         assertEquals(expected, result);
-        verify(answers).cacheAnswer(eq(2), any());
+        verify(answers).computeIfAbsent(eq(2), any(), any());
     }
 
     @Test
@@ -96,7 +96,7 @@ public class TotalParkingFinesPerCapitaTest {
         expectedMap.put("19103", new BigDecimal("0.0400"));
         Answer expected = new SecondAnswer(expectedMap);
 
-        when(answers.searchCache(eq(2))).thenReturn(expected);
+        when(answers.computeIfAbsent(eq(2), any(), any())).thenReturn(expected);
 
         //when
         Answer result = analyseService.totalParkingFinesPerCapita();
@@ -106,7 +106,6 @@ public class TotalParkingFinesPerCapitaTest {
 
         verify(readPopulation, never()).readFile();
         verify(readParking, never()).readFile(any());
-        verify(answers, never()).cacheAnswer(anyInt(), any());
     }
 
     @Test
@@ -116,10 +115,10 @@ public class TotalParkingFinesPerCapitaTest {
         Answer expected = new SecondAnswer(expectedMap);
         Map<String, BigDecimal> emptyPopulation = new HashMap<>();
 
-        when(answers.searchCache(eq(2))).thenReturn(null);
+        when(answers.computeIfAbsent(eq(2), any(), any())).thenAnswer(invocation ->
+                invocation.<CachedAnswerInterface.SourcedComputation>getArgument(2).compute().answer());
         when(readPopulation.readFile()).thenReturn(emptyPopulation);
         when(readParking.readFile(Parking.class)).thenReturn(parking);
-        doNothing().when(answers).cacheAnswer(eq(2), any());
 
         //when
         Answer result = analyseService.totalParkingFinesPerCapita();
@@ -135,10 +134,10 @@ public class TotalParkingFinesPerCapitaTest {
         Answer expected = new SecondAnswer(expectedMap);
         List<Parking> emptyParking = new ArrayList<>();
 
-        when(answers.searchCache(eq(2))).thenReturn(null);
+        when(answers.computeIfAbsent(eq(2), any(), any())).thenAnswer(invocation ->
+                invocation.<CachedAnswerInterface.SourcedComputation>getArgument(2).compute().answer());
         when(readPopulation.readFile()).thenReturn(population);
         when(readParking.readFile(Parking.class)).thenReturn(emptyParking);
-        doNothing().when(answers).cacheAnswer(eq(2), any());
 
         //when
         Answer result = analyseService.totalParkingFinesPerCapita();
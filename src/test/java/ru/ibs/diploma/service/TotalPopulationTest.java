@@ -49,9 +49,9 @@ public class TotalPopulationTest {
     @Test
     void whenTotalPopulation_thenShouldReturnLong() throws Exception {
         //when
-        when(answers.searchCache(eq(1))).thenReturn(null);
+        when(answers.computeIfAbsent(eq(1), any(), any())).thenAnswer(invocation ->
+                invocation.<CachedAnswerInterface.SourcedComputation>getArgument(2).compute().answer());
         when(readPopulation.readFile()).thenReturn(population);
-        doNothing().when(answers).cacheAnswer(eq(1), any());
         Answer expected = new FirstAnswer(new BigDecimal(14));
 
         Answer result = analyseService.totalPopulation();
@@ -67,23 +67,22 @@ public class TotalPopulationTest {
         Answer expected = new FirstAnswer(new BigDecimal(14));
 
         // when
-        when(answers.searchCache(eq(1))).thenReturn(expected);
+        when(answers.computeIfAbsent(eq(1), any(), any())).thenReturn(expected);
 
         Answer result = analyseService.totalPopulation();
 
         //then
         assertEquals(expected, result);
         verify(readPopulation, never()).readFile();
-        verify(answers, never()).cacheAnswer(anyInt(), any());
     }
 
     @Test
     void givenEmptyPopulation_whenTotalPopulation_thenShouldReturnZero() throws Exception{
         //given
         Map<String, BigDecimal> emptyPopulation = new HashMap<>();
-        when(answers.searchCache(eq(1))).thenReturn(null);
+        when(answers.computeIfAbsent(eq(1), any(), any())).thenAnswer(invocation ->
+                invocation.<CachedAnswerInterface.SourcedComputation>getArgument(2).compute().answer());
         when(readPopulation.readFile()).thenReturn(emptyPopulation);
-        doNothing().when(answers).cacheAnswer(eq(1), any());
         Answer expected = new FirstAnswer(new BigDecimal(0));
 
 
@@ -0,0 +1,48 @@
+package ru.ibs.diploma.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HyperLogLogTest {
+
+    @Test
+    void givenDistinctValues_whenEstimate_thenStayWithinThreeStandardErrors(){
+        for (int distinct : new int[]{10, 1_000, 20_000, 500_000}) {
+            //given
+            HyperLogLog sketch = new HyperLogLog(12);
+
+            //when
+            for (int i = 0; i < distinct; i++) {
+                sketch.add(1_000_000L + i);
+                sketch.add(1_000_000L + i / 2);
+            }
+
+            //then
+            double error = Math.abs(sketch.estimate() - distinct) / (double) distinct;
+            assertTrue(error <= 3 * sketch.relativeStandardError(), distinct + " estimated as " + sketch.estimate());
+        }
+    }
+
+    @Test
+    void givenTwoSketches_whenMerge_thenEqualSketchOfUnion(){
+        //given
+        HyperLogLog first = new HyperLogLog(10);
+        HyperLogLog second = new HyperLogLog(10);
+        HyperLogLog union = new HyperLogLog(10);
+        for (long value = 0; value < 30_000; value++) {
+            (value % 3 == 0 ? first : second).add(value);
+            union.add(value);
+        }
+
+        //when
+        first.merge(second);
+
+        //then
+        assertEquals(union, first);
+        assertEquals(union.estimate(), first.estimate());
+        assertThrows(IllegalArgumentException.class, () -> first.merge(new HyperLogLog(12)));
+        assertTrue(new HyperLogLog(4).isEmpty());
+        assertEquals(0, new HyperLogLog(4).estimate());
+    }
+}
@@ -0,0 +1,112 @@
+package ru.ibs.diploma.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KllSketchTest {
+
+    private static final double[] RANKS = {0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99};
+
+    @Test
+    void givenFewValues_whenQuantile_thenExact(){
+        //given
+        KllSketch sketch = new KllSketch();
+        for (int value = 100; value >= 1; value--) {
+            sketch.update(value);
+        }
+
+        //when
+        KllSketch.SortedView view = sketch.sortedView();
+
+        //then
+        assertEquals(100, view.count());
+        assertEquals(1, view.quantile(0));
+        assertEquals(50, view.quantile(0.5));
+        assertEquals(90, view.quantile(0.9));
+        assertEquals(99, view.quantile(0.99));
+        assertEquals(100, view.quantile(1));
+        assertTrue(Double.isNaN(new KllSketch().quantile(0.5)));
+    }
+
+    @Test
+    void givenManyValues_whenQuantile_thenRankErrorIsBounded(){
+        //given
+        Random random = new Random(42);
+        double[] values = new double[200_000];
+        KllSketch sketch = new KllSketch();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp(random.nextGaussian() * 2);
+            sketch.update(values[i]);
+        }
+        Arrays.sort(values);
+
+        //when
+        KllSketch.SortedView view = sketch.sortedView();
+
+        //then
+        assertTrue(sketch.retained() < 1_000, "retained " + sketch.retained());
+        assertEquals(values[0], view.quantile(0));
+        assertEquals(values[values.length - 1], view.quantile(1));
+        for (double rank : RANKS) {
+            assertTrue(rankError(values, view.quantile(rank), rank) <= 0.0165, "rank " + rank);
+        }
+    }
+
+    @Test
+    void givenTwoSketches_whenMerge_thenRankErrorIsBounded(){
+        //given
+        KllSketch first = new KllSketch();
+        KllSketch second = new KllSketch();
+        double[] values = new double[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (i * 7919L) % values.length;
+            (i % 2 == 0 ? first : second).update(values[i]);
+        }
+        Arrays.sort(values);
+
+        //when
+        first.merge(second);
+
+        //then
+        assertEquals(values.length, first.count());
+        for (double rank : RANKS) {
+            assertTrue(rankError(values, first.quantile(rank), rank) <= 0.0165, "rank " + rank);
+        }
+    }
+
+    @Test
+    void givenWrongArguments_whenMergeOrQuantile_thenThrowException(){
+        //given
+        KllSketch sketch = new KllSketch();
+        sketch.update(1);
+
+        //then
+        assertThrows(IllegalArgumentException.class, () -> sketch.merge(new KllSketch(100)));
+        assertThrows(IllegalArgumentException.class, () -> sketch.quantile(1.5));
+        assertThrows(IllegalArgumentException.class, () -> sketch.quantile(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> new KllSketch(4));
+    }
+
+    /** Расстояние от запрошенного ранга до ближайшего ранга значения в отсортированных данных. */
+    private static double rankError(double[] sorted, double value, double rank) {
+        int low = lowerBound(sorted, value);
+        int high = lowerBound(sorted, Math.nextUp(value));
+        double target = rank * sorted.length;
+        if (target >= low && target <= high) return 0;
+        return Math.min(Math.abs(target - low), Math.abs(target - high)) / sorted.length;
+    }
+
+    private static int lowerBound(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] < value) low = middle + 1; else high = middle;
+        }
+        return low;
+    }
+}